@@ -11,6 +11,12 @@
 package org.eclipse.nebula.widgets.nattable.config;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
@@ -134,4 +140,108 @@ public void registerWithDisplayModeAndMultipleConfigLabels() throws Exception {
 		actual = configRegistry.getConfigAttribute(testAttribute, DisplayMode.NORMAL, "testLabel_1", "testLabel");
 		assertEquals("testValueNormalLabel_1", actual);
 	}
+	
+	@Test
+	public void registrationInvalidatesResolvedValues() throws Exception {
+		assertNull(configRegistry.getConfigAttribute(testAttribute, DisplayMode.NORMAL, "testLabel"));
+		
+		configRegistry.registerConfigAttribute(testAttribute, "testValueNormal", DisplayMode.NORMAL);
+		assertEquals("testValueNormal", configRegistry.getConfigAttribute(testAttribute, DisplayMode.NORMAL, "testLabel"));
+		
+		configRegistry.registerConfigAttribute(testAttribute, "testValueNormalLabel", DisplayMode.NORMAL, "testLabel");
+		assertEquals("testValueNormalLabel", configRegistry.getConfigAttribute(testAttribute, DisplayMode.NORMAL, "testLabel"));
+		
+		configRegistry.unregisterConfigAttribute(testAttribute, DisplayMode.NORMAL, "testLabel");
+		assertEquals("testValueNormal", configRegistry.getConfigAttribute(testAttribute, DisplayMode.NORMAL, "testLabel"));
+		
+		configRegistry.unregisterConfigAttribute(testAttribute, DisplayMode.NORMAL);
+		assertNull(configRegistry.getConfigAttribute(testAttribute, DisplayMode.NORMAL, "testLabel"));
+	}
+	
+	@Test
+	public void modifyingConfigLabelsAfterResolution() throws Exception {
+		configRegistry.registerConfigAttribute(testAttribute, "testValueNormal", DisplayMode.NORMAL);
+		configRegistry.registerConfigAttribute(testAttribute, "testValueNormalLabel", DisplayMode.NORMAL, "testLabel");
+		
+		List<String> configLabels = new ArrayList<String>();
+		configLabels.add("otherLabel");
+		assertEquals("testValueNormal", configRegistry.getConfigAttribute(testAttribute, DisplayMode.NORMAL, configLabels));
+		
+		// the cache must not be affected by modifications of the list that was used for resolving
+		configLabels.add(0, "testLabel");
+		assertEquals("testValueNormalLabel", configRegistry.getConfigAttribute(testAttribute, DisplayMode.NORMAL, configLabels));
+		assertEquals("testValueNormal", configRegistry.getConfigAttribute(testAttribute, DisplayMode.NORMAL, "otherLabel"));
+	}
+	
+	@Test
+	public void getConfigAttributeValuesInResolutionOrder() throws Exception {
+		configRegistry.registerConfigAttribute(testAttribute, "testValueNormal", DisplayMode.NORMAL);
+		configRegistry.registerConfigAttribute(testAttribute, "testValueSelect", DisplayMode.SELECT);
+		configRegistry.registerConfigAttribute(testAttribute, "testValueNormalLabel", DisplayMode.NORMAL, "testLabel");
+		configRegistry.registerConfigAttribute(testAttribute, "testValueSelectLabel_1", DisplayMode.SELECT, "testLabel_1");
+		
+		List<String> actual = configRegistry.getConfigAttributeValues(testAttribute, DisplayMode.SELECT, Arrays.asList("testLabel", "testLabel_1"));
+		assertEquals(Arrays.asList("testValueSelectLabel_1", "testValueSelect", "testValueNormalLabel", "testValueNormal"), actual);
+		
+		assertEquals(0, configRegistry.getConfigAttributeValues(testAttribute1, DisplayMode.SELECT, Arrays.asList("testLabel")).size());
+	}
+	
+	@Test
+	public void resolveConfigAttributeValuesIsUsedForCachedLookups() throws Exception {
+		final int[] resolutions = new int[1];
+		configRegistry = new ConfigRegistry() {
+			@Override
+			@SuppressWarnings("unchecked")
+			protected <T> List<T> resolveConfigAttributeValues(ConfigAttribute<T> configAttribute, String targetDisplayMode, List<String> configLabels) {
+				resolutions[0]++;
+				List<T> values = new ArrayList<T>();
+				for (T value : super.resolveConfigAttributeValues(configAttribute, targetDisplayMode, configLabels)) {
+					values.add((T) ("resolved_" + value));
+				}
+				return values;
+			}
+		};
+		configRegistry.registerConfigAttribute(testAttribute, "testValueNormal", DisplayMode.NORMAL);
+		configRegistry.registerConfigAttribute(testAttribute, "testValueNormalLabel", DisplayMode.NORMAL, "testLabel");
+		
+		assertEquals("resolved_testValueNormalLabel", configRegistry.getConfigAttribute(testAttribute, DisplayMode.NORMAL, "testLabel"));
+		assertEquals("resolved_testValueNormalLabel", configRegistry.getConfigAttribute(testAttribute, DisplayMode.NORMAL, "testLabel"));
+		assertEquals(Arrays.asList("resolved_testValueNormalLabel", "resolved_testValueNormal"), 
+				configRegistry.getConfigAttributeValues(testAttribute, DisplayMode.NORMAL, Arrays.asList("testLabel")));
+		assertEquals(1, resolutions[0]);
+	}
+	
+	@Test
+	public void cacheEvictsLabelCombinationsThatWereNotUsedRecently() throws Exception {
+		final List<List<String>> resolvedLabels = new ArrayList<List<String>>();
+		configRegistry = new ConfigRegistry() {
+			@Override
+			protected <T> List<T> resolveConfigAttributeValues(ConfigAttribute<T> configAttribute, String targetDisplayMode, List<String> configLabels) {
+				resolvedLabels.add(configLabels);
+				return super.resolveConfigAttributeValues(configAttribute, targetDisplayMode, configLabels);
+			}
+		};
+		configRegistry.registerConfigAttribute(testAttribute, "testValueNormal", DisplayMode.NORMAL);
+		configRegistry.registerConfigAttribute(testAttribute, "testValueNormalLabel", DisplayMode.NORMAL, "testLabel");
+		
+		List<String> frequentLabels = Arrays.asList("testLabel");
+		assertEquals("testValueNormalLabel", configRegistry.getConfigAttribute(testAttribute, DisplayMode.NORMAL, frequentLabels));
+		for (int i = 0; i < 2 * ConfigRegistry.MAX_CACHED_LABEL_COMBINATIONS; i++) {
+			// labels that are unique per row are requested only once
+			assertEquals("testValueNormal", configRegistry.getConfigAttribute(testAttribute, DisplayMode.NORMAL, "row_" + i));
+			assertEquals("testValueNormalLabel", configRegistry.getConfigAttribute(testAttribute, DisplayMode.NORMAL, frequentLabels));
+			assertTrue(configRegistry.getCachedLabelCombinationCount() <= ConfigRegistry.MAX_CACHED_LABEL_COMBINATIONS);
+		}
+		assertEquals(ConfigRegistry.MAX_CACHED_LABEL_COMBINATIONS, configRegistry.getCachedLabelCombinationCount());
+		
+		// the frequently used combination was resolved only once
+		int frequentResolutions = 0;
+		for (List<String> labels : resolvedLabels) {
+			if (labels.equals(frequentLabels)) {
+				frequentResolutions++;
+			}
+		}
+		assertEquals(1, frequentResolutions);
+		assertEquals(1 + 2 * ConfigRegistry.MAX_CACHED_LABEL_COMBINATIONS, resolvedLabels.size());
+	}
 }
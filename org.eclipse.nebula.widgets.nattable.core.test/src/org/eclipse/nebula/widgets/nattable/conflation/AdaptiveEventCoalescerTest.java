@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.conflation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.nebula.widgets.nattable.util.Scheduler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdaptiveEventCoalescerTest {
+
+	private Scheduler scheduler;
+	private AtomicInteger runs;
+	private AdaptiveEventCoalescer coalescer;
+
+	@Before
+	public void setup() {
+		scheduler = new Scheduler("AdaptiveEventCoalescerTest"); //$NON-NLS-1$
+		runs = new AtomicInteger();
+		coalescer = new AdaptiveEventCoalescer(scheduler, new Runnable() {
+			public void run() {
+				runs.incrementAndGet();
+			}
+		}, 0, 1000);
+	}
+
+	@After
+	public void tearDown() {
+		coalescer.stop();
+	}
+
+	@Test
+	public void windowIsZeroIfIdle() {
+		coalescer.start(0);
+
+		Assert.assertEquals(0, coalescer.getWindow());
+		Assert.assertEquals(0, coalescer.getDelay());
+	}
+
+	@Test
+	public void windowIsStretchedByUiTime() {
+		for (int i = 0; i < 20; i++) {
+			coalescer.recordUiTime(50 * 1000000L);
+		}
+
+		long window = coalescer.getWindow();
+		Assert.assertTrue("window: " + window, window > 150 && window <= 200); //$NON-NLS-1$
+	}
+
+	@Test
+	public void windowIsStretchedByQueuedUiTasks() {
+		coalescer.uiTaskScheduled();
+		coalescer.uiTaskScheduled();
+		long window = coalescer.getWindow();
+		Assert.assertTrue(window > 0);
+
+		coalescer.uiTaskCompleted(0);
+		coalescer.uiTaskCompleted(0);
+		Assert.assertEquals(0, coalescer.getWindow());
+	}
+
+	@Test
+	public void windowIsLimited() {
+		for (int i = 0; i < 100; i++) {
+			coalescer.uiTaskScheduled();
+		}
+		coalescer.recordUiTime(10 * 1000 * 1000000L);
+
+		Assert.assertEquals(1000, coalescer.getWindow());
+	}
+
+	@Test
+	public void fixedWindow() {
+		coalescer = new AdaptiveEventCoalescer(scheduler, null, 100, 100);
+		coalescer.recordUiTime(10 * 1000 * 1000000L);
+
+		Assert.assertEquals(100, coalescer.getWindow());
+	}
+
+	@Test
+	public void triggersAreCoalesced() throws Exception {
+		coalescer = new AdaptiveEventCoalescer(scheduler, new Runnable() {
+			public void run() {
+				runs.incrementAndGet();
+			}
+		}, 300, 300);
+		coalescer.start(0);
+
+		//runs immediately as it didn't run before
+		coalescer.trigger();
+		Thread.sleep(100);
+		Assert.assertEquals(1, runs.get());
+
+		//runs once at the end of the window
+		coalescer.trigger();
+		coalescer.trigger();
+		Thread.sleep(50);
+		Assert.assertEquals(1, runs.get());
+		Thread.sleep(400);
+		Assert.assertEquals(2, runs.get());
+
+		//nothing runs without triggers
+		Thread.sleep(400);
+		Assert.assertEquals(2, runs.get());
+	}
+
+	@Test
+	public void nothingRunsIfStopped() throws Exception {
+		coalescer.trigger();
+		Thread.sleep(50);
+		Assert.assertEquals(0, runs.get());
+
+		coalescer.start(100);
+		coalescer.trigger();
+		coalescer.stop();
+		Thread.sleep(200);
+		Assert.assertEquals(0, runs.get());
+	}
+
+}
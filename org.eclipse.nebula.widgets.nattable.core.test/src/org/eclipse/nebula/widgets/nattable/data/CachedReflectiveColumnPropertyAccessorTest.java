@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachedReflectiveColumnPropertyAccessorTest {
+
+	private Person person;
+	private CachedReflectiveColumnPropertyAccessor<Person> accessor;
+
+	@Before
+	public void setup() {
+		person = new Person("Homer", true, new Address("Evergreen Terrace")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		accessor = new CachedReflectiveColumnPropertyAccessor<Person>(new String[] {
+				"name", "married", "address.street", "address.owner.name", "employed" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+	}
+
+	@Test
+	public void getterInvocations() {
+		Assert.assertEquals(5, accessor.getColumnCount());
+		Assert.assertEquals("Homer", accessor.getDataValue(person, 0)); //$NON-NLS-1$
+		Assert.assertEquals(Boolean.TRUE, accessor.getDataValue(person, 1));
+		Assert.assertEquals("Evergreen Terrace", accessor.getDataValue(person, 2)); //$NON-NLS-1$
+		Assert.assertEquals(Boolean.FALSE, accessor.getDataValue(person, 4));
+	}
+
+	@Test
+	public void nullInPropertyPath() {
+		Assert.assertNull(accessor.getDataValue(person, 3));
+
+		person.setAddress(null);
+		Assert.assertNull(accessor.getDataValue(person, 2));
+	}
+
+	@Test
+	public void setterInvocations() {
+		accessor.setDataValue(person, 0, "Marge"); //$NON-NLS-1$
+		accessor.setDataValue(person, 2, "Main Street"); //$NON-NLS-1$
+
+		Assert.assertEquals("Marge", person.getName()); //$NON-NLS-1$
+		Assert.assertEquals("Main Street", person.getAddress().getStreet()); //$NON-NLS-1$
+
+		accessor.setDataValue(person, 2, null);
+		Assert.assertNull(person.getAddress().getStreet());
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void setReadOnlyProperty() {
+		accessor.setDataValue(person, 1, Boolean.FALSE);
+	}
+
+	@Test
+	public void accessSubclassInstances() {
+		Person employee = new Employee("Lenny", new Address("Plant")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		Assert.assertEquals("Homer", accessor.getDataValue(person, 0)); //$NON-NLS-1$
+		Assert.assertEquals("Lenny", accessor.getDataValue(employee, 0)); //$NON-NLS-1$
+		Assert.assertEquals(Boolean.TRUE, accessor.getDataValue(employee, 4));
+		Assert.assertEquals("Evergreen Terrace", accessor.getDataValue(person, 2)); //$NON-NLS-1$
+		Assert.assertEquals("Plant", accessor.getDataValue(employee, 2)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void columnProperties() {
+		Assert.assertEquals("address.street", accessor.getColumnProperty(2)); //$NON-NLS-1$
+		Assert.assertEquals(2, accessor.getColumnIndex("address.street")); //$NON-NLS-1$
+		Assert.assertEquals(-1, accessor.getColumnIndex("street")); //$NON-NLS-1$
+	}
+
+	class Person {
+		private String name;
+		private boolean married;
+		private Address address;
+
+		public Person(String name, boolean married, Address address) {
+			this.name = name;
+			this.married = married;
+			this.address = address;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public boolean isMarried() {
+			return married;
+		}
+
+		public Address getAddress() {
+			return address;
+		}
+
+		public void setAddress(Address address) {
+			this.address = address;
+		}
+
+		public Boolean isEmployed() {
+			return Boolean.FALSE;
+		}
+	}
+
+	class Employee extends Person {
+
+		public Employee(String name, Address address) {
+			super(name, false, address);
+		}
+
+		@Override
+		public Boolean isEmployed() {
+			return Boolean.TRUE;
+		}
+	}
+
+	class Address {
+		private String street;
+
+		public Address(String street) {
+			this.street = street;
+		}
+
+		public String getStreet() {
+			return street;
+		}
+
+		public void setStreet(String street) {
+			this.street = street;
+		}
+
+		public Person getOwner() {
+			return null;
+		}
+	}
+}
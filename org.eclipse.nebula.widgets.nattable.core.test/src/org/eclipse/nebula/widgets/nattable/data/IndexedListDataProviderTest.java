@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.StringListFixture;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IndexedListDataProviderTest {
+
+	private List<String> rows;
+	private IndexedListDataProvider<String> dataProvider;
+
+	@Before
+	public void setup() {
+		rows = StringListFixture.getList(10);
+		dataProvider = new IndexedListDataProvider<String>(rows, StringListFixture.getColumnAccessor(1));
+	}
+
+	@Test
+	public void indexOfRowObjectMatchesList() {
+		for (String rowObject : rows) {
+			assertEquals(rows.indexOf(rowObject), dataProvider.indexOfRowObject(rowObject));
+		}
+		assertEquals(-1, dataProvider.indexOfRowObject("unknown")); //$NON-NLS-1$
+		assertEquals(-1, dataProvider.indexOfRowObject(null));
+	}
+
+	@Test
+	public void duplicatesReturnFirstOccurrence() {
+		rows.add("row3"); //$NON-NLS-1$
+		assertEquals(3, dataProvider.indexOfRowObject("row3")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void indexIsUpdatedOnSizeChange() {
+		assertEquals(0, dataProvider.indexOfRowObject("row0")); //$NON-NLS-1$
+
+		rows.remove(0);
+		assertEquals(-1, dataProvider.indexOfRowObject("row0")); //$NON-NLS-1$
+		assertEquals(8, dataProvider.indexOfRowObject("row9")); //$NON-NLS-1$
+
+		rows.add(0, "row0"); //$NON-NLS-1$
+		assertEquals(0, dataProvider.indexOfRowObject("row0")); //$NON-NLS-1$
+		assertEquals(9, dataProvider.indexOfRowObject("row9")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void indexIsUpdatedOnReorder() {
+		assertEquals(0, dataProvider.indexOfRowObject("row0")); //$NON-NLS-1$
+
+		Collections.reverse(rows);
+		assertEquals(9, dataProvider.indexOfRowObject("row0")); //$NON-NLS-1$
+
+		Collections.swap(rows, 0, 1);
+		dataProvider.invalidateIndex();
+		for (String rowObject : rows) {
+			assertEquals(rows.indexOf(rowObject), dataProvider.indexOfRowObject(rowObject));
+		}
+	}
+
+	@Test
+	public void indexByRowId() {
+		dataProvider = new IndexedListDataProvider<String>(rows, StringListFixture.getColumnAccessor(1), new IRowIdAccessor<String>() {
+			@Override
+			public Serializable getRowId(String rowObject) {
+				return rowObject.toLowerCase();
+			}
+		});
+
+		assertEquals(4, dataProvider.indexOfRowObject("ROW4")); //$NON-NLS-1$
+		assertEquals(-1, dataProvider.indexOfRowObject("ROW10")); //$NON-NLS-1$
+	}
+
+}
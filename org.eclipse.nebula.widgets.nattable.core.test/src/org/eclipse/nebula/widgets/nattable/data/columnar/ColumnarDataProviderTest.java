@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data.columnar;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.sort.SortDirectionEnum;
+import org.eclipse.nebula.widgets.nattable.summaryrow.SummationSummaryProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnarDataProviderTest {
+
+	private static final int SYMBOL = 0;
+	private static final int PRICE = 1;
+	private static final int VOLUME = 2;
+	private static final int LOTS = 3;
+	private static final int ACTIVE = 4;
+
+	private ColumnarDataProvider dataProvider;
+
+	@Before
+	public void setup() {
+		dataProvider = new ColumnarDataProvider();
+		Assert.assertEquals(SYMBOL, dataProvider.addColumn("symbol", ColumnType.STRING)); //$NON-NLS-1$
+		Assert.assertEquals(PRICE, dataProvider.addColumn("price", ColumnType.DOUBLE)); //$NON-NLS-1$
+		Assert.assertEquals(VOLUME, dataProvider.addColumn("volume", ColumnType.LONG)); //$NON-NLS-1$
+		Assert.assertEquals(LOTS, dataProvider.addColumn("lots", ColumnType.INT)); //$NON-NLS-1$
+		Assert.assertEquals(ACTIVE, dataProvider.addColumn("active", ColumnType.BOOLEAN)); //$NON-NLS-1$
+
+		addRow("IBM", 185.5, 1000L, 10, true); //$NON-NLS-1$
+		addRow("AAPL", 420.0, 3000L, 30, false); //$NON-NLS-1$
+		addRow("MSFT", 35.25, 2000L, 20, true); //$NON-NLS-1$
+		addRow("IBM", 184.0, 500L, 5, false); //$NON-NLS-1$
+	}
+
+	private void addRow(String symbol, double price, long volume, int lots, boolean active) {
+		int row = dataProvider.addRow();
+		dataProvider.setString(SYMBOL, row, symbol);
+		dataProvider.setDouble(PRICE, row, price);
+		dataProvider.setLong(VOLUME, row, volume);
+		dataProvider.setInt(LOTS, row, lots);
+		dataProvider.setBoolean(ACTIVE, row, active);
+	}
+
+	@Test
+	public void readValues() {
+		Assert.assertEquals(5, dataProvider.getColumnCount());
+		Assert.assertEquals(4, dataProvider.getRowCount());
+		Assert.assertEquals("price", dataProvider.getColumnName(PRICE)); //$NON-NLS-1$
+
+		Assert.assertEquals("AAPL", dataProvider.getDataValue(SYMBOL, 1)); //$NON-NLS-1$
+		Assert.assertEquals(Double.valueOf(420.0), dataProvider.getDataValue(PRICE, 1));
+		Assert.assertEquals(Long.valueOf(3000L), dataProvider.getDataValue(VOLUME, 1));
+		Assert.assertEquals(Integer.valueOf(30), dataProvider.getDataValue(LOTS, 1));
+		Assert.assertEquals(Boolean.FALSE, dataProvider.getDataValue(ACTIVE, 1));
+
+		Assert.assertEquals(2000L, dataProvider.getLong(VOLUME, 2));
+		Assert.assertEquals(2000.0, dataProvider.getDouble(VOLUME, 2), 0);
+		Assert.assertEquals(20, dataProvider.getInt(LOTS, 2));
+		Assert.assertTrue(dataProvider.getBoolean(ACTIVE, 2));
+	}
+
+	@Test
+	public void setDataValues() {
+		dataProvider.setDataValue(SYMBOL, 0, "ORCL"); //$NON-NLS-1$
+		dataProvider.setDataValue(PRICE, 0, Integer.valueOf(42));
+		dataProvider.setDataValue(VOLUME, 0, null);
+		dataProvider.setDataValue(ACTIVE, 0, Boolean.FALSE);
+
+		Assert.assertEquals("ORCL", dataProvider.getString(SYMBOL, 0)); //$NON-NLS-1$
+		Assert.assertEquals(42.0, dataProvider.getDouble(PRICE, 0), 0);
+		Assert.assertEquals(0L, dataProvider.getLong(VOLUME, 0));
+		Assert.assertFalse(dataProvider.getBoolean(ACTIVE, 0));
+
+		dataProvider.setDataValue(SYMBOL, 0, null);
+		Assert.assertNull(dataProvider.getDataValue(SYMBOL, 0));
+	}
+
+	@Test
+	public void growBeyondInitialCapacity() {
+		int firstRow = dataProvider.addRows(100);
+		Assert.assertEquals(4, firstRow);
+		Assert.assertEquals(104, dataProvider.getRowCount());
+		Assert.assertTrue(Double.isNaN(dataProvider.getDouble(PRICE, 50)));
+		Assert.assertNull(dataProvider.getString(SYMBOL, 103));
+
+		dataProvider.setDouble(PRICE, 103, 1.5);
+		Assert.assertEquals(1.5, dataProvider.getDouble(PRICE, 103), 0);
+		Assert.assertEquals("IBM", dataProvider.getString(SYMBOL, 0)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void addColumnToExistingRows() {
+		int column = dataProvider.addColumn("change", ColumnType.DOUBLE); //$NON-NLS-1$
+		Assert.assertEquals(4, dataProvider.getRowCount());
+		Assert.assertTrue(Double.isNaN(dataProvider.getDouble(column, 3)));
+	}
+
+	@Test
+	public void sortByColumns() {
+		ColumnarSortModel sortModel = new ColumnarSortModel(dataProvider);
+
+		sortModel.sort(PRICE, SortDirectionEnum.DESC, false);
+		Assert.assertEquals(SortDirectionEnum.DESC, sortModel.getSortDirection(PRICE));
+		assertSymbols("AAPL", "IBM", "IBM", "MSFT"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		Assert.assertEquals(185.5, dataProvider.getDouble(PRICE, 1), 0);
+
+		sortModel.sort(SYMBOL, SortDirectionEnum.ASC, false);
+		Assert.assertFalse(sortModel.isColumnIndexSorted(PRICE));
+		sortModel.sort(VOLUME, SortDirectionEnum.ASC, true);
+		Assert.assertEquals(1, sortModel.getSortOrder(VOLUME));
+		assertSymbols("AAPL", "IBM", "IBM", "MSFT"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		Assert.assertEquals(500L, dataProvider.getLong(VOLUME, 1));
+		Assert.assertEquals(1000L, dataProvider.getLong(VOLUME, 2));
+
+		sortModel.clear();
+		assertSymbols("IBM", "AAPL", "MSFT", "IBM"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	@Test
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void comparatorsMatchTheSortOrder() {
+		ColumnarSortModel sortModel = new ColumnarSortModel(dataProvider);
+		sortModel.sort(PRICE, SortDirectionEnum.ASC, false);
+
+		List<Comparator> comparators = sortModel.getComparatorsForColumnIndex(PRICE);
+		Assert.assertEquals(1, comparators.size());
+		for (int row = 1; row < dataProvider.getRowCount(); row++) {
+			Assert.assertTrue(comparators.get(0).compare(dataProvider.getDataValue(PRICE, row - 1), dataProvider.getDataValue(PRICE, row)) <= 0);
+		}
+		Assert.assertTrue(comparators.get(0).compare(null, dataProvider.getDataValue(SYMBOL, 0)) < 0);
+	}
+
+	@Test
+	public void rowObjectsAreStableOnSorting() {
+		ColumnarSortModel sortModel = new ColumnarSortModel(dataProvider);
+		Integer msft = dataProvider.getRowObject(2);
+
+		sortModel.sort(VOLUME, SortDirectionEnum.DESC, false);
+
+		Assert.assertEquals(1, dataProvider.indexOfRowObject(msft));
+		Assert.assertEquals(msft, dataProvider.getRowObject(1));
+		Assert.assertEquals(-1, dataProvider.indexOfRowObject(Integer.valueOf(4)));
+	}
+
+	@Test
+	public void sumNumericColumn() {
+		SummationSummaryProvider summaryProvider = new SummationSummaryProvider(dataProvider);
+
+		Assert.assertEquals(Double.valueOf(6500.0), summaryProvider.summarize(VOLUME));
+		Assert.assertEquals(Double.valueOf(824.75), summaryProvider.summarize(PRICE));
+	}
+
+	private void assertSymbols(String... symbols) {
+		for (int i = 0; i < symbols.length; i++) {
+			Assert.assertEquals(symbols[i], dataProvider.getString(SYMBOL, i));
+		}
+	}
+
+}
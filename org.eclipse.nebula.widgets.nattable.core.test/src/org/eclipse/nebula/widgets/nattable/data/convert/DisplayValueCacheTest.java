@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data.convert;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.cell.LayerCell;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DisplayValueCacheTest {
+
+	private List<int[]> rows;
+	private DisplayValueCache cache;
+	private CountingConverter converter;
+
+	@Before
+	public void setup() {
+		rows = new ArrayList<int[]>();
+		for (int i = 0; i < 10; i++) {
+			rows.add(new int[] { i });
+		}
+		IColumnAccessor<int[]> columnAccessor = new IColumnAccessor<int[]>() {
+			@Override
+			public Object getDataValue(int[] rowObject, int columnIndex) {
+				return Integer.valueOf(rowObject[columnIndex]);
+			}
+
+			@Override
+			public void setDataValue(int[] rowObject, int columnIndex, Object newValue) {
+			}
+
+			@Override
+			public int getColumnCount() {
+				return 1;
+			}
+		};
+		cache = new DisplayValueCache(new ListDataProvider<int[]>(rows, columnAccessor));
+		converter = new CountingConverter();
+	}
+
+	@Test
+	public void testDisplayValueIsCached() {
+		int[] row = rows.get(1);
+		assertEquals("1", cache.getDisplayValue(row, 0, Integer.valueOf(1), converter));
+		assertEquals("1", cache.getDisplayValue(row, 0, Integer.valueOf(1), converter));
+		assertEquals(1, converter.conversions);
+
+		//row objects are distinguished by identity
+		assertEquals("1", cache.getDisplayValue(new int[] { 1 }, 0, Integer.valueOf(1), converter));
+		assertEquals(2, converter.conversions);
+	}
+
+	@Test
+	public void testChangedValueIsConvertedAgain() {
+		int[] row = rows.get(1);
+		cache.getDisplayValue(row, 0, Integer.valueOf(1), converter);
+		row[0] = 5;
+		assertEquals("5", cache.getDisplayValue(row, 0, Integer.valueOf(5), converter));
+		assertEquals(2, converter.conversions);
+	}
+
+	@Test
+	public void testValuesAreCachedPerConverter() {
+		int[] row = rows.get(1);
+		CountingConverter otherConverter = new CountingConverter();
+		cache.getDisplayValue(row, 0, Integer.valueOf(1), converter);
+		cache.getDisplayValue(row, 0, Integer.valueOf(1), otherConverter);
+		cache.getDisplayValue(row, 0, Integer.valueOf(1), converter);
+		assertEquals(1, converter.conversions);
+		assertEquals(1, otherConverter.conversions);
+	}
+
+	@Test
+	public void testValuesAreCachedPerConversionMode() {
+		int[] row = rows.get(1);
+		ILayerCell cell = new LayerCell(null, 0, 1);
+		DisplayValueCache.ColumnDisplayValues values = cache.getColumnDisplayValues(0, converter);
+		assertEquals("1", values.getDisplayValue(row, Integer.valueOf(1))); //$NON-NLS-1$
+		assertEquals("cell 1", values.getDisplayValue(row, Integer.valueOf(1), cell, null)); //$NON-NLS-1$
+		assertEquals("1", values.getDisplayValue(row, Integer.valueOf(1))); //$NON-NLS-1$
+		assertEquals("cell 1", values.getDisplayValue(row, Integer.valueOf(1), cell, null)); //$NON-NLS-1$
+		assertEquals(1, converter.conversions);
+		assertEquals(1, converter.cellConversions);
+
+		cache.rowObjectChanged(row);
+		values.getDisplayValue(row, Integer.valueOf(1), cell, null);
+		assertEquals(2, converter.cellConversions);
+	}
+
+	@Test
+	public void testRowObjectChanged() {
+		int[] row = rows.get(1);
+		cache.getDisplayValue(row, 0, Integer.valueOf(1), converter);
+		cache.rowObjectChanged(row);
+		cache.getDisplayValue(row, 0, Integer.valueOf(1), converter);
+		assertEquals(2, converter.conversions);
+
+		cache.clearCache();
+		cache.getDisplayValue(row, 0, Integer.valueOf(1), converter);
+		assertEquals(3, converter.conversions);
+	}
+
+	@Test
+	public void testGetRowObject() {
+		assertSame(rows.get(3), cache.getRowObject(3));
+		assertNull(cache.getRowObject(10));
+		assertNull(new DisplayValueCache(null).getRowObject(0));
+	}
+
+	private static class CountingConverter extends DefaultDisplayConverter {
+
+		int conversions;
+		int cellConversions;
+
+		@Override
+		public Object canonicalToDisplayValue(Object canonicalValue) {
+			conversions++;
+			return super.canonicalToDisplayValue(canonicalValue);
+		}
+
+		@Override
+		public Object canonicalToDisplayValue(ILayerCell cell, IConfigRegistry configRegistry, Object canonicalValue) {
+			cellConversions++;
+			return "cell " + canonicalValue; //$NON-NLS-1$
+		}
+	}
+
+}
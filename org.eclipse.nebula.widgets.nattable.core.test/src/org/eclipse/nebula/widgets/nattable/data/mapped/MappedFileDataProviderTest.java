@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data.mapped;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedFileDataProviderTest {
+
+	private static final String INPUT =
+			"Security\tPosition\tPrice\n" //$NON-NLS-1$
+			+ "IBM\t100\t185.5\r\n" //$NON-NLS-1$
+			+ "Société Générale\t\t42\n" //$NON-NLS-1$
+			+ "MSFT\t300\n"; //$NON-NLS-1$
+
+	private File file;
+	private MappedFileDataProvider dataProvider;
+
+	@Before
+	public void setup() throws IOException {
+		file = File.createTempFile("MappedFileDataProviderTest", ".dat"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		if (dataProvider != null) {
+			dataProvider.close();
+		}
+		file.delete();
+	}
+
+	@Test
+	public void readWrittenData() throws IOException {
+		int rowCount = new MappedFileDataWriter('\t', true).write(new StringReader(INPUT), file);
+		dataProvider = new MappedFileDataProvider(file);
+
+		Assert.assertEquals(3, rowCount);
+		assertData();
+	}
+
+	@Test
+	public void readCellsCrossingSegments() throws IOException {
+		new MappedFileDataWriter('\t', true).write(new StringReader(INPUT), file);
+		//segments that are smaller than a row and not aligned to the numbers
+		dataProvider = new MappedFileDataProvider(file, 7);
+
+		assertData();
+	}
+
+	@Test
+	public void writeWithoutHeader() throws IOException {
+		int rowCount = new MappedFileDataWriter(',', false).write(new StringReader("a,b\nc,d"), file); //$NON-NLS-1$
+		dataProvider = new MappedFileDataProvider(file);
+
+		Assert.assertEquals(2, rowCount);
+		Assert.assertEquals(2, dataProvider.getRowCount());
+		Assert.assertEquals("", dataProvider.getColumnName(0)); //$NON-NLS-1$
+		Assert.assertEquals("a", dataProvider.getDataValue(0, 0)); //$NON-NLS-1$
+		Assert.assertEquals("d", dataProvider.getDataValue(1, 1)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void writeEmptyInput() throws IOException {
+		int rowCount = new MappedFileDataWriter(',', true).write(new StringReader(""), file); //$NON-NLS-1$
+		dataProvider = new MappedFileDataProvider(file);
+
+		Assert.assertEquals(0, rowCount);
+		Assert.assertEquals(0, dataProvider.getRowCount());
+	}
+
+	@Test(expected = IOException.class)
+	public void openInvalidFile() throws IOException {
+		dataProvider = new MappedFileDataProvider(file);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void setDataValueIsNotSupported() throws IOException {
+		new MappedFileDataWriter('\t', true).write(new StringReader(INPUT), file);
+		dataProvider = new MappedFileDataProvider(file);
+
+		dataProvider.setDataValue(0, 0, "ORCL"); //$NON-NLS-1$
+	}
+
+	private void assertData() {
+		Assert.assertEquals(3, dataProvider.getColumnCount());
+		Assert.assertEquals(3, dataProvider.getRowCount());
+		Assert.assertEquals("Security", dataProvider.getColumnName(0)); //$NON-NLS-1$
+		Assert.assertEquals("Price", dataProvider.getColumnName(2)); //$NON-NLS-1$
+
+		Assert.assertEquals("IBM", dataProvider.getDataValue(0, 0)); //$NON-NLS-1$
+		Assert.assertEquals("100", dataProvider.getDataValue(1, 0)); //$NON-NLS-1$
+		Assert.assertEquals("185.5", dataProvider.getDataValue(2, 0)); //$NON-NLS-1$
+		Assert.assertEquals("Société Générale", dataProvider.getDataValue(0, 1)); //$NON-NLS-1$
+		Assert.assertEquals("", dataProvider.getDataValue(1, 1)); //$NON-NLS-1$
+		Assert.assertEquals("42", dataProvider.getDataValue(2, 1)); //$NON-NLS-1$
+		Assert.assertEquals("MSFT", dataProvider.getDataValue(0, 2)); //$NON-NLS-1$
+		Assert.assertEquals("", dataProvider.getDataValue(2, 2)); //$NON-NLS-1$
+	}
+
+}
@@ -15,14 +15,17 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
 import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
 import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
+import org.eclipse.nebula.widgets.nattable.reorder.RowReorderLayer;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -302,4 +305,92 @@ public void testHandleRowAddEvent() {
 		assertEquals("four", rowHideShowLayer.getDataValueByPosition(0, 3));
 		assertEquals("five", rowHideShowLayer.getDataValueByPosition(0, 4));
 	}
+
+	@Test
+	public void testIncrementalUpdateMatchesRebuild() {
+		rowHideShowLayer.hideRowIndexes(Arrays.asList(1, 3));
+		
+		//fill the start y cache
+		rowHideShowLayer.getStartYOfRowPosition(rowHideShowLayer.getRowCount() - 1);
+		
+		contents.add(0, "zero");
+		underlyingLayer.fireLayerEvent(new RowInsertEvent(underlyingLayer, 0));
+		assertMatchesRebuild(rowHideShowLayer, underlyingLayer);
+		assertEquals("zero", rowHideShowLayer.getDataValueByPosition(0, 0));
+		assertEquals("one", rowHideShowLayer.getDataValueByPosition(0, 1));
+		assertEquals("three", rowHideShowLayer.getDataValueByPosition(0, 2));
+		
+		contents.add("six");
+		contents.add("seven");
+		underlyingLayer.fireLayerEvent(new RowInsertEvent(underlyingLayer, new Range(6, 8)));
+		assertMatchesRebuild(rowHideShowLayer, underlyingLayer);
+		assertEquals(6, rowHideShowLayer.getRowCount());
+		assertEquals("seven", rowHideShowLayer.getDataValueByPosition(0, 5));
+		
+		contents.remove(0);
+		contents.remove(0);
+		underlyingLayer.fireLayerEvent(new RowDeleteEvent(underlyingLayer, new Range(0, 2)));
+		assertMatchesRebuild(rowHideShowLayer, underlyingLayer);
+		assertEquals("three", rowHideShowLayer.getDataValueByPosition(0, 0));
+	}
+	
+	@Test
+	public void testRandomIncrementalUpdatesMatchRebuild() {
+		contents.clear();
+		for (int i = 0; i < 100; i++) {
+			contents.add("row" + i); //$NON-NLS-1$
+		}
+		RowReorderLayer rowReorderLayer = new RowReorderLayer(underlyingLayer);
+		rowHideShowLayer = new RowHideShowLayer(rowReorderLayer);
+		rowReorderLayer.reorderRowPosition(99, 0);
+		rowReorderLayer.reorderRowPosition(50, 10);
+		rowHideShowLayer.hideRowIndexes(Arrays.asList(5, 20, 21, 60, 98));
+		
+		Random random = new Random(42);
+		int counter = 100;
+		for (int i = 0; i < 200; i++) {
+			rowHideShowLayer.getStartYOfRowPosition(random.nextInt(rowHideShowLayer.getRowCount()));
+			int count = 1 + random.nextInt(3);
+			if (random.nextBoolean()) {
+				int position = random.nextInt(contents.size() + 1);
+				for (int j = 0; j < count; j++) {
+					contents.add(position, "row" + counter++); //$NON-NLS-1$
+				}
+				underlyingLayer.fireLayerEvent(new RowInsertEvent(underlyingLayer, new Range(position, position + count)));
+			} else {
+				int position = random.nextInt(contents.size() - count);
+				for (int j = 0; j < count; j++) {
+					contents.remove(position);
+				}
+				underlyingLayer.fireLayerEvent(new RowDeleteEvent(underlyingLayer, new Range(position, position + count)));
+			}
+			assertMatchesRebuild(rowHideShowLayer, rowReorderLayer);
+		}
+	}
+	
+	private void assertMatchesRebuild(RowHideShowLayer layer, ILayer underlying) {
+		int rowCount = layer.getRowCount();
+		int[] indexes = new int[rowCount];
+		int[] startYs = new int[rowCount];
+		for (int position = 0; position < rowCount; position++) {
+			indexes[position] = layer.getRowIndexByPosition(position);
+			startYs[position] = layer.getStartYOfRowPosition(position);
+			assertEquals(position, layer.getRowPositionByIndex(indexes[position]));
+		}
+		int[] underlyingToLocal = new int[underlying.getRowCount()];
+		for (int underlyingPosition = 0; underlyingPosition < underlyingToLocal.length; underlyingPosition++) {
+			underlyingToLocal[underlyingPosition] = layer.underlyingToLocalRowPosition(underlying, underlyingPosition);
+		}
+		
+		layer.invalidateCache();
+		
+		assertEquals(rowCount, layer.getRowCount());
+		for (int position = 0; position < rowCount; position++) {
+			assertEquals(layer.getRowIndexByPosition(position), indexes[position]);
+			assertEquals(layer.getStartYOfRowPosition(position), startYs[position]);
+		}
+		for (int underlyingPosition = 0; underlyingPosition < underlyingToLocal.length; underlyingPosition++) {
+			assertEquals(layer.underlyingToLocalRowPosition(underlying, underlyingPosition), underlyingToLocal[underlyingPosition]);
+		}
+	}
 }
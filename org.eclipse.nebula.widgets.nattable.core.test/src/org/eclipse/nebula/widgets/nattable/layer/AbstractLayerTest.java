@@ -11,10 +11,12 @@
 package org.eclipse.nebula.widgets.nattable.layer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.List;
 
@@ -100,4 +102,21 @@ public void commandHandlerRegistration() throws Exception {
 		dataLayer.doCommand(command);
 		assertNull(commandHandler.getLastCommandHandled());
 	}
+
+	@Test
+	public void commandHandlerForSuperclassOfCommand() throws Exception {
+		LayerCommandFixture command = new LayerCommandFixture() {};
+		CommandHandlerFixture commandHandler = new CommandHandlerFixture();
+
+		assertFalse(dataLayer.doCommand(command));
+
+		dataLayer.registerCommandHandler(commandHandler);
+		assertTrue(dataLayer.doCommand(command));
+		assertSame(command, commandHandler.getLastCommandHandled());
+		commandHandler.clearLastCommandHandled();
+
+		dataLayer.unregisterCommandHandler(LayerCommandFixture.class);
+		assertFalse(dataLayer.doCommand(command));
+		assertNull(commandHandler.getLastCommandHandled());
+	}
 }
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AggregateSizeIndexTest {
+
+	private static final int DEFAULT_SIZE = 20;
+	private AggregateSizeIndex index;
+
+	@Before
+	public void setup() {
+		index = new AggregateSizeIndex(DEFAULT_SIZE);
+	}
+
+	@Test
+	public void defaultSizes() {
+		Assert.assertEquals(0, index.getAggregateSize(0));
+		Assert.assertEquals(2000, index.getAggregateSize(100));
+		Assert.assertEquals(DEFAULT_SIZE, index.getSize(5));
+		Assert.assertEquals(100, index.getPositionByAggregateSize(2000));
+		Assert.assertEquals(99, index.getPositionByAggregateSize(1999));
+	}
+
+	@Test
+	public void setSizeGrowsIndex() {
+		index.setSize(3, 10);
+		index.setSize(500, 50);
+
+		Assert.assertEquals(10, index.getSize(3));
+		Assert.assertEquals(50, index.getSize(500));
+		Assert.assertEquals(DEFAULT_SIZE, index.getSize(499));
+		Assert.assertEquals(500 * DEFAULT_SIZE - 10, index.getAggregateSize(500));
+		Assert.assertEquals(501 * DEFAULT_SIZE + 20, index.getAggregateSize(501));
+	}
+
+	@Test
+	public void clearRemovesSizes() {
+		index.setSize(3, 10);
+		index.clear(30);
+
+		Assert.assertEquals(30, index.getSize(3));
+		Assert.assertEquals(300, index.getAggregateSize(10));
+	}
+
+	@Test
+	public void negativeSizesDisablePositionLookup() {
+		index.setSize(3, -10);
+		Assert.assertEquals(-1, index.getPositionByAggregateSize(10));
+
+		index.setSize(3, 10);
+		Assert.assertEquals(0, index.getPositionByAggregateSize(10));
+	}
+
+	@Test
+	public void matchesLinearCalculation() {
+		Random random = new Random(42);
+		int count = 5000;
+		int[] sizes = new int[count];
+		for (int i = 0; i < count; i++) {
+			sizes[i] = DEFAULT_SIZE;
+		}
+
+		for (int i = 0; i < 2000; i++) {
+			int position = random.nextInt(count);
+			int size = random.nextInt(4) == 0 ? 0 : random.nextInt(100);
+			sizes[position] = size;
+			index.setSize(position, size);
+		}
+
+		int aggregate = 0;
+		for (int position = 0; position < count; position++) {
+			Assert.assertEquals(aggregate, index.getAggregateSize(position));
+			for (int pixel = aggregate; pixel < aggregate + sizes[position]; pixel++) {
+				Assert.assertEquals(position, index.getPositionByAggregateSize(pixel));
+			}
+			aggregate += sizes[position];
+		}
+	}
+
+}
@@ -23,6 +23,8 @@
 import org.eclipse.nebula.widgets.nattable.grid.GridRegion;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.test.fixture.command.CommandHandlerFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.command.LayerCommandFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.layer.CompositeLayerFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.layer.ViewportLayerFixture;
@@ -301,6 +303,28 @@ public void getBoundsByPosition() throws Exception {
 		assertEquals(new Rectangle(10, 50, 10, 5), rowHeaderCellBounds);
 	}
 
+	@Test
+	public void commandRouteRestrictsChildLayers() throws Exception {
+		CommandHandlerFixture bodyHandler = new CommandHandlerFixture();
+		layerFixture.bodyLayer.registerCommandHandler(bodyHandler);
+		CommandHandlerFixture colHeaderHandler = new CommandHandlerFixture();
+		layerFixture.colHeaderLayer.registerCommandHandler(colHeaderHandler);
+
+		layerFixture.registerCommandRoute(LayerCommandFixture.class, GridRegion.COLUMN_HEADER);
+		assertTrue(layerFixture.doCommand(new LayerCommandFixture()));
+		assertEquals(layerFixture.colHeaderLayer, colHeaderHandler.getLastCommandHandled().getTargetLayer());
+		assertNull(bodyHandler.getLastCommandHandled());
+		colHeaderHandler.clearLastCommandHandled();
+
+		layerFixture.registerCommandRoute(LayerCommandFixture.class, GridRegion.ROW_HEADER, GridRegion.CORNER);
+		assertFalse(layerFixture.doCommand(new LayerCommandFixture()));
+		assertNull(colHeaderHandler.getLastCommandHandled());
+		assertNull(bodyHandler.getLastCommandHandled());
+
+		layerFixture.unregisterCommandRoute(LayerCommandFixture.class);
+		assertTrue(layerFixture.doCommand(new LayerCommandFixture()));
+	}
+
 	/*
 	 * The following methods probe the underlying DataLayerFixture to ensure
 	 * that we got the right one.
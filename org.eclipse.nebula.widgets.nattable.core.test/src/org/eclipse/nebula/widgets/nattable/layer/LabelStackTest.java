@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LabelStackTest {
+
+	@Test
+	public void addLabels() {
+		LabelStack labelStack = new LabelStack("A", "B"); //$NON-NLS-1$ //$NON-NLS-2$
+		labelStack.addLabel("C"); //$NON-NLS-1$
+		labelStack.addLabelOnTop("D"); //$NON-NLS-1$
+		labelStack.addLabel("A"); //$NON-NLS-1$
+		labelStack.addLabelOnTop("C"); //$NON-NLS-1$
+
+		assertEquals(Arrays.asList("D", "A", "B", "C"), labelStack.getLabels()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	@Test
+	public void addManyLabels() {
+		LabelStack labelStack = new LabelStack();
+		List<String> expected = new LinkedList<String>();
+		for (int i = 0; i < 100; i++) {
+			labelStack.addLabelOnTop("LABEL_" + i); //$NON-NLS-1$
+			expected.add(0, "LABEL_" + i); //$NON-NLS-1$
+		}
+
+		assertEquals(expected, labelStack.getLabels());
+		for (int i = 0; i < 100; i++) {
+			assertTrue(labelStack.hasLabel("LABEL_" + i)); //$NON-NLS-1$
+		}
+		assertFalse(labelStack.hasLabel("LABEL_100")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void hasLabelWithEqualString() {
+		LabelStack labelStack = new LabelStack("COLUMN_" + 1); //$NON-NLS-1$
+
+		assertTrue(labelStack.hasLabel(new String("COLUMN_1"))); //$NON-NLS-1$
+		assertFalse(labelStack.hasLabel("COLUMN_2")); //$NON-NLS-1$
+		assertFalse(labelStack.hasLabel(null));
+	}
+
+	@Test
+	public void labelsAreInterned() {
+		LabelStack labelStack1 = new LabelStack("COLUMN_" + 1); //$NON-NLS-1$
+		LabelStack labelStack2 = new LabelStack("COLUMN_" + 1); //$NON-NLS-1$
+
+		assertSame(labelStack1.getLabels().get(0), labelStack2.getLabels().get(0));
+	}
+
+	@Test
+	public void removeLabel() {
+		LabelStack labelStack = new LabelStack("A", "B", "C"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		assertTrue(labelStack.removeLabel("B")); //$NON-NLS-1$
+		assertFalse(labelStack.removeLabel("B")); //$NON-NLS-1$
+
+		assertFalse(labelStack.hasLabel("B")); //$NON-NLS-1$
+		assertTrue(labelStack.hasLabel("C")); //$NON-NLS-1$
+		assertEquals(Arrays.asList("A", "C"), labelStack.getLabels()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void modifyLabelsViaList() {
+		LabelStack labelStack = new LabelStack("A"); //$NON-NLS-1$
+		List<String> labels = labelStack.getLabels();
+
+		labels.addAll(Arrays.asList("B", "C")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(labelStack.hasLabel("C")); //$NON-NLS-1$
+
+		labels.remove("A"); //$NON-NLS-1$
+		assertFalse(labelStack.hasLabel("A")); //$NON-NLS-1$
+
+		labels.set(0, "D"); //$NON-NLS-1$
+		assertFalse(labelStack.hasLabel("B")); //$NON-NLS-1$
+		assertTrue(labelStack.hasLabel("D")); //$NON-NLS-1$
+
+		assertEquals(Arrays.asList("D", "C"), labelStack.getLabels()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("[D, C]", labelStack.toString()); //$NON-NLS-1$
+
+		labels.clear();
+		assertTrue(labelStack.getLabels().isEmpty());
+		assertFalse(labelStack.hasLabel("D")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void equalsAndHashCode() {
+		LabelStack labelStack1 = new LabelStack("A", "B"); //$NON-NLS-1$ //$NON-NLS-2$
+		LabelStack labelStack2 = new LabelStack("B"); //$NON-NLS-1$
+		labelStack2.addLabelOnTop("A"); //$NON-NLS-1$
+
+		assertEquals(labelStack1, labelStack2);
+		assertEquals(labelStack1.hashCode(), labelStack2.hashCode());
+		assertEquals(Arrays.asList("A", "B").hashCode(), labelStack1.hashCode()); //$NON-NLS-1$ //$NON-NLS-2$
+
+		labelStack2.addLabel("C"); //$NON-NLS-1$
+		assertFalse(labelStack1.equals(labelStack2));
+	}
+
+	@Test
+	public void internedLabelsAreCachedUntilModification() {
+		LabelStack labelStack = new LabelStack("A", "B"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		InternedLabels interned = InternedLabels.intern(labelStack.getLabels());
+		assertSame(interned, InternedLabels.intern(labelStack.getLabels()));
+		assertSame(interned, InternedLabels.intern(new LabelStack("A", "B").getLabels())); //$NON-NLS-1$ //$NON-NLS-2$
+
+		labelStack.addLabel("C"); //$NON-NLS-1$
+		InternedLabels modified = InternedLabels.intern(labelStack.getLabels());
+		assertNotSame(interned, modified);
+		assertEquals(Arrays.asList("A", "B", "C"), modified); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+}
@@ -108,4 +108,50 @@ public void testAggregateSizeCache() {
 		Assert.assertEquals(350, sc.getAggregateSize(5));
 	}
 
+
+	@Test
+	public void getPositionByAggregateSize() {
+		Assert.assertEquals(0, sizeConfig.getPositionByAggregateSize(0));
+		Assert.assertEquals(0, sizeConfig.getPositionByAggregateSize(99));
+		Assert.assertEquals(1, sizeConfig.getPositionByAggregateSize(100));
+		Assert.assertEquals(-1, sizeConfig.getPositionByAggregateSize(-1));
+	}
+
+	@Test
+	public void getPositionByAggregateSizeWithSizeOverrides() {
+		sizeConfig.setSize(0, 10);
+		sizeConfig.setSize(5, 120);
+
+		Assert.assertEquals(0, sizeConfig.getPositionByAggregateSize(9));
+		Assert.assertEquals(1, sizeConfig.getPositionByAggregateSize(10));
+		Assert.assertEquals(4, sizeConfig.getPositionByAggregateSize(409));
+		Assert.assertEquals(5, sizeConfig.getPositionByAggregateSize(410));
+		Assert.assertEquals(5, sizeConfig.getPositionByAggregateSize(529));
+		Assert.assertEquals(6, sizeConfig.getPositionByAggregateSize(530));
+		Assert.assertEquals(1000, sizeConfig.getPositionByAggregateSize(100029));
+	}
+
+	@Test
+	public void getPositionByAggregateSizeSkipsZeroSizedPositions() {
+		sizeConfig.setSize(1, 0);
+		sizeConfig.setSize(2, 0);
+
+		Assert.assertEquals(0, sizeConfig.getPositionByAggregateSize(99));
+		Assert.assertEquals(3, sizeConfig.getPositionByAggregateSize(100));
+	}
+
+	@Test
+	public void testAggregateSizeIndexUpdatesOnLargePositions() {
+		final SizeConfig sc = new SizeConfig(20);
+		sc.setSize(1000000, 40);
+		Assert.assertEquals(20000000, sc.getAggregateSize(1000000));
+		Assert.assertEquals(20000040, sc.getAggregateSize(1000001));
+		sc.setSize(10, 10);
+		Assert.assertEquals(19999990, sc.getAggregateSize(1000000));
+		Assert.assertEquals(1000000, sc.getPositionByAggregateSize(20000000));
+		Assert.assertEquals(1000001, sc.getPositionByAggregateSize(20000030));
+		sc.setDefaultSize(11, 30);
+		Assert.assertEquals(20000000, sc.getAggregateSize(1000000));
+	}
+
 }
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.layer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.grid.data.DummySpanningBodyDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.SpanningDataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CellLayerPainterTest {
+
+	private SpanningDataLayer layer;
+	private ConfigRegistry configRegistry;
+	private Image image;
+	private GC gc;
+	
+	private List<String> paintedCells;
+	private List<Rectangle> paintedClippings;
+	
+	@Before
+	public void setup() {
+		//8x8 cells with 2x2 spanned cells at 0/0 and 4/4
+		layer = new SpanningDataLayer(new DummySpanningBodyDataProvider(8, 8), 100, 20);
+		
+		paintedCells = new ArrayList<String>();
+		paintedClippings = new ArrayList<Rectangle>();
+		configRegistry = new ConfigRegistry();
+		configRegistry.registerConfigAttribute(CellConfigAttributes.CELL_PAINTER, new ICellPainter() {
+			@Override
+			public void paintCell(ILayerCell cell, GC gc, Rectangle bounds, IConfigRegistry configRegistry) {
+				paintedCells.add(cell.getOriginColumnPosition() + "/" + cell.getOriginRowPosition()); //$NON-NLS-1$
+				paintedClippings.add(gc.getClipping());
+			}
+			
+			@Override
+			public int getPreferredWidth(ILayerCell cell, GC gc, IConfigRegistry configRegistry) {
+				return 0;
+			}
+			
+			@Override
+			public int getPreferredHeight(ILayerCell cell, GC gc, IConfigRegistry configRegistry) {
+				return 0;
+			}
+			
+			@Override
+			public ICellPainter getCellPainterAt(int x, int y, ILayerCell cell, GC gc, Rectangle adjustedCellBounds, IConfigRegistry configRegistry) {
+				return this;
+			}
+		});
+		
+		image = new Image(Display.getDefault(), 800, 160);
+		gc = new GC(image);
+	}
+	
+	@After
+	public void tearDown() {
+		if (gc != null) {
+			gc.dispose();
+		}
+		if (image != null) {
+			image.dispose();
+		}
+	}
+	
+	@Test
+	public void paintEveryCellOnce() {
+		new CellLayerPainter().paintLayer(layer, gc, 0, 0, new Rectangle(0, 0, 800, 160), configRegistry);
+		
+		Assert.assertEquals(64 - 2 * 3, paintedCells.size());
+		Assert.assertEquals(paintedCells.size(), new HashSet<String>(paintedCells).size());
+		
+		//spanned cells are painted last
+		Set<String> lastPainted = new HashSet<String>(paintedCells.subList(paintedCells.size() - 2, paintedCells.size()));
+		Assert.assertTrue(lastPainted.contains("0/0")); //$NON-NLS-1$
+		Assert.assertTrue(lastPainted.contains("4/4")); //$NON-NLS-1$
+		
+		Assert.assertEquals(new Rectangle(200, 0, 100, 20), paintedClippings.get(paintedCells.indexOf("2/0"))); //$NON-NLS-1$
+		Assert.assertEquals(new Rectangle(0, 0, 200, 40), paintedClippings.get(paintedCells.indexOf("0/0"))); //$NON-NLS-1$
+		Assert.assertEquals(new Rectangle(400, 80, 200, 40), paintedClippings.get(paintedCells.indexOf("4/4"))); //$NON-NLS-1$
+		
+		//the clipping is restored after painting
+		Assert.assertEquals(new Rectangle(0, 0, 800, 160), gc.getClipping());
+	}
+	
+	@Test
+	public void paintSpannedCellThatStartsOutsideOfTheRectangleOnce() {
+		gc.setClipping(150, 30, 650, 130);
+		new CellLayerPainter().paintLayer(layer, gc, 0, 0, new Rectangle(150, 30, 650, 130), configRegistry);
+		
+		Assert.assertEquals(paintedCells.size(), new HashSet<String>(paintedCells).size());
+		Assert.assertTrue(paintedCells.contains("0/0")); //$NON-NLS-1$
+		Assert.assertEquals(new Rectangle(150, 30, 50, 10), paintedClippings.get(paintedCells.indexOf("0/0"))); //$NON-NLS-1$
+		Assert.assertEquals(new Rectangle(150, 30, 650, 130), gc.getClipping());
+	}
+	
+	@Test
+	public void reusePaintContext() {
+		CellLayerPainter painter = new CellLayerPainter();
+		painter.paintLayer(layer, gc, 0, 0, new Rectangle(0, 0, 800, 160), configRegistry);
+		List<Rectangle> firstClippings = new ArrayList<Rectangle>(paintedClippings);
+		
+		paintedCells.clear();
+		paintedClippings.clear();
+		painter.paintLayer(layer, gc, 0, 0, new Rectangle(0, 0, 800, 160), configRegistry);
+		
+		Assert.assertEquals(firstClippings, paintedClippings);
+	}
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.layer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.stack.DummyGridLayerStack;
+import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
+import org.eclipse.nebula.widgets.nattable.test.fixture.NatTableFixture;
+import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TiledRenderCacheLayerPainterTest {
+
+	private static final int TILE_SIZE = 64;
+
+	private DummyGridLayerStack gridLayer;
+	private NatTableFixture natTable;
+	private ViewportLayer viewportLayer;
+	private SelectionLayer selectionLayer;
+	private TiledRenderCacheLayerPainter painter;
+	private Image image;
+	private GC gc;
+
+	private List<Rectangle> renderedRectangles;
+
+	@Before
+	public void setup() {
+		gridLayer = new DummyGridLayerStack(50, 200);
+		natTable = new NatTableFixture(gridLayer);
+		viewportLayer = gridLayer.getBodyLayer().getViewportLayer();
+		selectionLayer = gridLayer.getBodyLayer().getSelectionLayer();
+
+		renderedRectangles = new ArrayList<Rectangle>();
+		final ILayerPainter underlyingPainter = viewportLayer.getLayerPainter();
+		ILayerPainter recordingPainter = new ILayerPainter() {
+			@Override
+			public void paintLayer(ILayer natLayer, GC gc, int xOffset, int yOffset, Rectangle rectangle, IConfigRegistry configRegistry) {
+				renderedRectangles.add(rectangle);
+				underlyingPainter.paintLayer(natLayer, gc, xOffset, yOffset, rectangle, configRegistry);
+			}
+
+			@Override
+			public Rectangle adjustCellBounds(int columnPosition, int rowPosition, Rectangle cellBounds) {
+				return underlyingPainter.adjustCellBounds(columnPosition, rowPosition, cellBounds);
+			}
+		};
+		painter = new TiledRenderCacheLayerPainter(natTable, viewportLayer, recordingPainter, TILE_SIZE);
+		viewportLayer.setLayerPainter(painter);
+
+		image = new Image(Display.getDefault(), natTable.getWidth(), natTable.getHeight());
+		gc = new GC(image);
+	}
+
+	@After
+	public void tearDown() {
+		if (gc != null) {
+			gc.dispose();
+		}
+		if (image != null) {
+			image.dispose();
+		}
+		if (natTable != null) {
+			natTable.dispose();
+		}
+	}
+
+	@Test
+	public void useExplicitlySetLayerPainter() {
+		Assert.assertSame(painter, viewportLayer.getLayerPainter());
+	}
+
+	@Test
+	public void renderWholeRegionOnFirstPaint() {
+		paint();
+		Assert.assertEquals(getRegionArea(), getRenderedArea());
+	}
+
+	@Test
+	public void renderNothingIfUnchanged() {
+		paint();
+		renderedRectangles.clear();
+
+		paint();
+		Assert.assertEquals(0, renderedRectangles.size());
+	}
+
+	@Test
+	public void renderOnlyExposedStripOnScrolling() {
+		paint();
+		renderedRectangles.clear();
+
+		viewportLayer.setOriginY(viewportLayer.getOrigin().getY() + selectionLayer.getRowHeightByPosition(0));
+		paint();
+
+		Assert.assertTrue(renderedRectangles.size() > 0);
+		Assert.assertTrue(getRenderedArea() < getRegionArea() / 2);
+		int regionBottom = gridLayer.getColumnHeaderLayer().getHeight() + viewportLayer.getHeight();
+		for (Rectangle rectangle : renderedRectangles) {
+			Assert.assertTrue(rectangle.y >= regionBottom - 2 * TILE_SIZE);
+		}
+	}
+
+	@Test
+	public void renderOnlyChangedTilesOnVisualChange() {
+		paint();
+		renderedRectangles.clear();
+
+		selectionLayer.fireLayerEvent(new CellVisualChangeEvent(selectionLayer, 0, 0));
+		paint();
+
+		//the first body cell is located at column/row position 1 of the grid
+		Rectangle cellBounds = natTable.getCellByPosition(1, 1).getBounds();
+		Assert.assertEquals(1, renderedRectangles.size());
+		Assert.assertEquals(cellBounds, renderedRectangles.get(0).intersection(cellBounds));
+		Assert.assertTrue(getRenderedArea() <= 2 * TILE_SIZE * TILE_SIZE);
+	}
+
+	@Test
+	public void renderWholeRegionOnStructuralChange() {
+		paint();
+		renderedRectangles.clear();
+
+		selectionLayer.fireLayerEvent(new RowStructuralRefreshEvent(selectionLayer));
+		paint();
+
+		Assert.assertEquals(getRegionArea(), getRenderedArea());
+	}
+
+	@Test
+	public void renderWholeRegionAfterClearCache() {
+		paint();
+		renderedRectangles.clear();
+
+		painter.clearCache();
+		paint();
+
+		Assert.assertEquals(getRegionArea(), getRenderedArea());
+	}
+
+	private void paint() {
+		natTable.getLayerPainter().paintLayer(natTable, gc, 0, 0, new Rectangle(0, 0, natTable.getWidth(), natTable.getHeight()), natTable.getConfigRegistry());
+	}
+
+	private int getRegionArea() {
+		return viewportLayer.getWidth() * viewportLayer.getHeight();
+	}
+
+	private int getRenderedArea() {
+		int area = 0;
+		for (Rectangle rectangle : renderedRectangles) {
+			area += rectangle.width * rectangle.height;
+		}
+		return area;
+	}
+
+}
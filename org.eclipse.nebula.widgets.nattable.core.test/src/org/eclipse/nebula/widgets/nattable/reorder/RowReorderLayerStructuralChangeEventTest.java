@@ -228,4 +228,45 @@ public void testHandleRowAddEvent() {
 		assertEquals("two", rowReorderLayer.getDataValueByPosition(0, 3));
 		assertEquals("one", rowReorderLayer.getDataValueByPosition(0, 4));
 	}
+
+	@Test
+	public void testHandleMultipleRowAddEvent() {
+		//reorder to inverse order: 3 2 1 0
+		rowReorderLayer.reorderRowPosition(3, 0);
+		rowReorderLayer.reorderRowPosition(3, 1);
+		rowReorderLayer.reorderRowPosition(3, 2);
+
+		//add two rows at index 2
+		contents.add(2, "test2");
+		contents.add(2, "test1");
+		underlyingLayer.fireLayerEvent(new RowInsertEvent(underlyingLayer, new Range(2, 4)));
+		
+		assertEquals(6, rowReorderLayer.getRowCount());
+		assertEquals(5, rowReorderLayer.getRowIndexByPosition(0));
+		assertEquals(4, rowReorderLayer.getRowIndexByPosition(1));
+		assertEquals(2, rowReorderLayer.getRowIndexByPosition(2));
+		assertEquals(3, rowReorderLayer.getRowIndexByPosition(3));
+		assertEquals(1, rowReorderLayer.getRowIndexByPosition(4));
+		assertEquals(0, rowReorderLayer.getRowIndexByPosition(5));
+		assertEquals(3, rowReorderLayer.getRowPositionByIndex(3));
+		
+		assertEquals("four", rowReorderLayer.getDataValueByPosition(0, 0));
+		assertEquals("three", rowReorderLayer.getDataValueByPosition(0, 1));
+		assertEquals("test1", rowReorderLayer.getDataValueByPosition(0, 2));
+		assertEquals("test2", rowReorderLayer.getDataValueByPosition(0, 3));
+		assertEquals("two", rowReorderLayer.getDataValueByPosition(0, 4));
+		assertEquals("one", rowReorderLayer.getDataValueByPosition(0, 5));
+		
+		//delete the inserted rows again
+		contents.remove(2);
+		contents.remove(2);
+		underlyingLayer.fireLayerEvent(new RowDeleteEvent(underlyingLayer, new Range(2, 4)));
+		
+		assertEquals(4, rowReorderLayer.getRowCount());
+		assertEquals(3, rowReorderLayer.getRowIndexByPosition(0));
+		assertEquals(2, rowReorderLayer.getRowIndexByPosition(1));
+		assertEquals(1, rowReorderLayer.getRowIndexByPosition(2));
+		assertEquals(0, rowReorderLayer.getRowIndexByPosition(3));
+		assertEquals(1, rowReorderLayer.getRowPositionByIndex(2));
+	}
 }
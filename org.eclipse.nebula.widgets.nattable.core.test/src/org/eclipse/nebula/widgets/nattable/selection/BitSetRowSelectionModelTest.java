@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.selection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.data.IRowIdAccessor;
+import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.StringListFixture;
+import org.eclipse.swt.graphics.Rectangle;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BitSetRowSelectionModelTest {
+
+	private List<String> rows;
+	private DataLayer dataLayer;
+	private SelectionLayer selectionLayer;
+	private BitSetRowSelectionModel<String> model;
+
+	@Before
+	public void before() {
+		rows = StringListFixture.getList(10);
+		ListDataProvider<String> dataProvider = new ListDataProvider<String>(rows, StringListFixture.getColumnAccessor(3));
+		dataLayer = new DataLayer(dataProvider);
+		selectionLayer = new SelectionLayer(dataLayer);
+		model = new BitSetRowSelectionModel<String>(selectionLayer, dataProvider, new IRowIdAccessor<String>() {
+			@Override
+			public Serializable getRowId(String rowObject) {
+				return rowObject;
+			}
+		});
+		selectionLayer.setSelectionModel(model);
+	}
+
+	@Test
+	public void selectRows() {
+		assertTrue(model.isEmpty());
+
+		model.addSelection(1, 2);
+		model.addSelection(new Rectangle(0, 5, 3, 2));
+
+		assertFalse(model.isEmpty());
+		assertEquals(3, model.getSelectedRowCount());
+		assertTrue(model.isRowPositionSelected(2));
+		assertTrue(model.isCellPositionSelected(0, 6));
+		assertFalse(model.isRowPositionSelected(4));
+		assertTrue(model.getSelectedRowPositions().contains(new Range(5, 7)));
+		assertArrayEquals(new int[] { 2, 5, 6 }, model.getFullySelectedRowPositions(3));
+
+		model.clearSelection(0, 5);
+		assertFalse(model.isRowPositionSelected(5));
+		assertEquals(2, model.getSelectedRowCount());
+	}
+
+	@Test
+	public void selectAll() {
+		selectionLayer.selectAll();
+
+		assertEquals(10, model.getSelectedRowCount());
+		assertEquals(10, model.getSelectedRowObjects().size());
+		assertTrue(model.isColumnPositionFullySelected(0, 10));
+		assertEquals(1, model.getSelections().size());
+
+		model.clearSelection(0, 3);
+		model.clearSelection("row7"); //$NON-NLS-1$
+
+		assertEquals(8, model.getSelectedRowCount());
+		assertFalse(model.isRowPositionSelected(3));
+		assertFalse(model.isRowPositionSelected(7));
+		assertFalse(model.getSelectedRowObjects().contains("row7")); //$NON-NLS-1$
+		assertEquals(3, model.getSelectedRowPositions().size());
+
+		model.addSelection(0, 3);
+		assertTrue(model.isRowPositionSelected(3));
+		assertEquals(9, model.getSelectedRowCount());
+
+		model.clearSelection();
+		assertTrue(model.isEmpty());
+	}
+
+	@Test
+	public void selectionFollowsRowObjectsOnStructuralChange() {
+		model.addSelection(0, 1);
+		model.addSelection(0, 2);
+
+		Collections.reverse(rows);
+		dataLayer.fireLayerEvent(new RowStructuralRefreshEvent(dataLayer));
+
+		assertTrue(model.isRowPositionSelected(8));
+		assertTrue(model.isRowPositionSelected(7));
+		assertFalse(model.isRowPositionSelected(1));
+		assertTrue(model.getSelectedRowPositions().contains(new Range(7, 9)));
+	}
+
+	@Test
+	public void selectAllDoesNotSelectInsertedRows() {
+		selectionLayer.selectAll();
+
+		rows.add(5, "new"); //$NON-NLS-1$
+		dataLayer.fireLayerEvent(new RowInsertEvent(dataLayer, 5));
+
+		assertEquals(10, model.getSelectedRowCount());
+		assertFalse(model.isRowPositionSelected(5));
+		assertTrue(model.isRowPositionSelected(4));
+		assertTrue(model.isRowPositionSelected(6));
+		assertFalse(model.getSelectedRowObjects().contains("new")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void selectionFollowsInsertedAndDeletedRows() {
+		model.addSelection(0, 2);
+		model.addSelection(0, 8);
+
+		rows.add(0, "new0"); //$NON-NLS-1$
+		rows.add(1, "new1"); //$NON-NLS-1$
+		dataLayer.fireLayerEvent(new RowInsertEvent(dataLayer, new Range(0, 2)));
+
+		assertTrue(model.isRowPositionSelected(4));
+		assertTrue(model.isRowPositionSelected(10));
+		assertFalse(model.isRowPositionSelected(2));
+
+		rows.remove(0);
+		dataLayer.fireLayerEvent(new RowDeleteEvent(dataLayer, 0));
+
+		assertTrue(model.isRowPositionSelected(3));
+		assertTrue(model.isRowPositionSelected(9));
+		assertEquals(2, model.getSelectedRowCount());
+
+		model.clearSelection("row8"); //$NON-NLS-1$
+		assertFalse(model.isRowPositionSelected(9));
+		assertEquals(1, model.getSelectedRowCount());
+	}
+
+	@Test
+	public void singleSelection() {
+		model.setMultipleSelectionAllowed(false);
+		model.addSelection(new Rectangle(0, 0, 3, 10));
+
+		assertEquals(1, model.getSelectedRowCount());
+		assertTrue(model.isRowPositionSelected(0));
+	}
+
+}
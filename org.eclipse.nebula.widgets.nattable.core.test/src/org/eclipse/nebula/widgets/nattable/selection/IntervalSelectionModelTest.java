@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.selection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.eclipse.swt.graphics.Rectangle;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IntervalSelectionModelTest {
+
+	private IntervalSelectionModel model;
+
+	@Before
+	public void before() {
+		SelectionLayer selectionLayer = new SelectionLayer(new DataLayerFixture(100, 100, 100, 40));
+		model = new IntervalSelectionModel(selectionLayer);
+	}
+
+	@Test
+	public void isEmpty() {
+		assertTrue(model.isEmpty());
+		assertFalse(model.isCellPositionSelected(0, 0));
+
+		model.addSelection(3, 4);
+		assertFalse(model.isEmpty());
+
+		model.clearSelection(3, 4);
+		assertTrue(model.isEmpty());
+		assertTrue(model.getSelections().isEmpty());
+	}
+
+	@Test
+	public void addRangeSelection() {
+		model.addSelection(new Rectangle(3, 4, 2, 3));
+
+		for (int col = 0; col < 10; col++) {
+			for (int row = 0; row < 10; row++) {
+				boolean expected = col >= 3 && col < 5 && row >= 4 && row < 7;
+				assertEquals("cell " + col + "," + row, expected, model.isCellPositionSelected(col, row)); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+
+	@Test
+	public void removeMidMiddleFrom3x4Range() {
+		model.addSelection(new Rectangle(1, 1, 3, 4));
+		model.clearSelection(2, 2);
+
+		assertFalse(model.isCellPositionSelected(2, 2));
+		assertTrue(model.isCellPositionSelected(1, 2));
+		assertTrue(model.isCellPositionSelected(3, 2));
+		assertTrue(model.isCellPositionSelected(2, 1));
+		assertTrue(model.isCellPositionSelected(2, 3));
+		assertEquals(4, model.getSelectedRowCount());
+	}
+
+	@Test
+	public void adjacentSelectionsAreMerged() {
+		model.addSelection(new Rectangle(0, 0, 5, 2));
+		model.addSelection(new Rectangle(0, 2, 5, 3));
+
+		assertEquals(1, model.getSelections().size());
+		assertEquals(new Rectangle(0, 0, 5, 5), model.getSelections().get(0));
+	}
+
+	@Test
+	public void getSelectedRowPositions() {
+		model.addSelection(new Rectangle(1, 10, 1, 5));
+		model.addSelection(new Rectangle(7, 12, 3, 10));
+		model.addSelection(new Rectangle(2, 30, 1, 2));
+
+		Set<Range> selectedRows = model.getSelectedRowPositions();
+		assertEquals(2, selectedRows.size());
+		assertTrue(selectedRows.contains(new Range(10, 22)));
+		assertTrue(selectedRows.contains(new Range(30, 32)));
+		assertEquals(14, model.getSelectedRowCount());
+	}
+
+	@Test
+	public void getSelectedColumnPositions() {
+		model.addSelection(new Rectangle(1, 1, 2, 1));
+		model.addSelection(new Rectangle(5, 8, 1, 3));
+		model.addSelection(new Rectangle(98, 0, 10, 1));
+
+		assertArrayEquals(new int[] { 1, 2, 5, 98, 99 }, model.getSelectedColumnPositions());
+		assertTrue(model.isColumnPositionSelected(5));
+		assertFalse(model.isColumnPositionSelected(4));
+	}
+
+	@Test
+	public void selectWholeRows() {
+		model.addSelection(new Rectangle(0, 3, Integer.MAX_VALUE, 2));
+
+		assertTrue(model.isCellPositionSelected(99, 4));
+		assertTrue(model.isRowPositionFullySelected(3, 100));
+		assertArrayEquals(new int[] { 3, 4 }, model.getFullySelectedRowPositions(100));
+		assertEquals(100, model.getSelectedColumnPositions().length);
+
+		model.clearSelection(50, 3);
+		assertFalse(model.isRowPositionFullySelected(3, 100));
+		assertTrue(model.isRowPositionFullySelected(4, 100));
+		assertTrue(model.isCellPositionSelected(51, 3));
+	}
+
+	@Test
+	public void selectWholeColumns() {
+		model.addSelection(new Rectangle(2, 0, 1, Integer.MAX_VALUE));
+
+		assertTrue(model.isColumnPositionFullySelected(2, 100));
+		assertArrayEquals(new int[] { 2 }, model.getFullySelectedColumnPositions(100));
+
+		model.clearSelection(2, 50);
+		assertFalse(model.isColumnPositionFullySelected(2, 100));
+		assertEquals(99, model.getSelectedRowCount());
+	}
+
+	@Test
+	public void singleSelection() {
+		model.setMultipleSelectionAllowed(false);
+		model.addSelection(new Rectangle(1, 1, 5, 5));
+		model.addSelection(new Rectangle(3, 3, 5, 5));
+
+		assertFalse(model.isCellPositionSelected(1, 1));
+		assertTrue(model.isCellPositionSelected(3, 3));
+		assertFalse(model.isCellPositionSelected(4, 3));
+	}
+
+	@Test
+	public void positionsOutsideOfTheLayerAreNotSelected() {
+		model.setSpanningSupported(false);
+		model.addSelection(new Rectangle(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE));
+
+		assertTrue(model.isCellPositionSelected(99, 99));
+		assertFalse(model.isCellPositionSelected(100, 0));
+		assertFalse(model.isCellPositionSelected(0, 100));
+	}
+
+}
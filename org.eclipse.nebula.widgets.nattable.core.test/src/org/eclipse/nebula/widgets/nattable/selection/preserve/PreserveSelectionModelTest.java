@@ -29,6 +29,7 @@
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.layer.cell.LayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
 import org.eclipse.nebula.widgets.nattable.selection.preserve.PreserveSelectionModel;
 import org.eclipse.nebula.widgets.nattable.selection.preserve.Selections.CellPosition;
@@ -378,6 +379,21 @@ public void isColumnFullySelected_Copes_With_Combining_Adjacent_Individually_Sel
 		assertTrue(testee.isColumnPositionFullySelected(1, 2));
 	}
 
+	@Test
+	public void isColumnFullySelected_Copes_With_Changed_Sort_Order() throws Exception {
+		testee.addSelection(1, 0);
+		testee.addSelection(1, 1);
+		assertTrue(testee.isColumnPositionFullySelected(1, 2));
+
+		// let index row 5 and index row 6 change places:
+		rowDataProvider.indexOfRow5 = 6;
+		rowDataProvider.indexOfRow6 = 5;
+		selectionLayer.fireLayerEvent(new RowStructuralRefreshEvent(selectionLayer));
+
+		assertFalse(testee.isColumnPositionFullySelected(1, 2));
+		assertTrue(testee.isColumnPositionFullySelected(1, 1));
+	}
+
 	@Test
 	public void isColumnPositionFullySelected_For_Unselected_Column() {
 		assertFalse(testee.isColumnPositionFullySelected(1, 2));
@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.summaryrow.IncrementalSummaryProvider.Aggregate;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IncrementalSummaryProviderTest {
+
+	private List<Object> values;
+	private CountingDataProvider dataProvider;
+
+	@Before
+	public void setup() {
+		values = new ArrayList<Object>(Arrays.<Object>asList(
+				Double.valueOf(4), Integer.valueOf(2), Double.valueOf(9), Long.valueOf(5)));
+		dataProvider = new CountingDataProvider();
+	}
+
+	@Test
+	public void testAggregates() {
+		assertEquals(Double.valueOf(20), summarize(Aggregate.SUM));
+		assertEquals(Integer.valueOf(4), summarize(Aggregate.COUNT));
+		assertEquals(Double.valueOf(2), summarize(Aggregate.MIN));
+		assertEquals(Double.valueOf(9), summarize(Aggregate.MAX));
+		assertEquals(Double.valueOf(5), summarize(Aggregate.MEAN));
+		assertEquals(6.5d, ((Double) summarize(Aggregate.VARIANCE)).doubleValue(), 0.000001);
+	}
+
+	@Test
+	public void testValueChangeDoesNotReadOtherValues() {
+		IncrementalSummaryProvider provider = new IncrementalSummaryProvider(dataProvider, Aggregate.MAX);
+		assertEquals(Double.valueOf(9), provider.summarize(0));
+
+		dataProvider.reads = 0;
+		values.set(2, Double.valueOf(1));
+		assertTrue(provider.valuesChanged(0, Arrays.asList(new Range(2, 3))));
+
+		assertEquals(Double.valueOf(5), provider.summarize(0));
+		assertEquals(1, dataProvider.reads);
+	}
+
+	@Test
+	public void testRowsInsertedAndDeleted() {
+		IncrementalSummaryProvider sum = new IncrementalSummaryProvider(dataProvider, Aggregate.SUM);
+		IncrementalSummaryProvider variance = new IncrementalSummaryProvider(dataProvider, Aggregate.VARIANCE);
+		sum.summarize(0);
+		variance.summarize(0);
+
+		//delete 2 and 5
+		values.remove(3);
+		values.remove(1);
+		List<Range> deleted = Arrays.asList(new Range(1, 2), new Range(3, 4));
+		assertTrue(sum.rowsDeleted(0, deleted));
+		assertTrue(variance.rowsDeleted(0, deleted));
+		assertEquals(Double.valueOf(13), sum.summarize(0));
+		assertEquals(6.25d, ((Double) variance.summarize(0)).doubleValue(), 0.000001);
+
+		//insert at the beginning and the end
+		values.add(0, Double.valueOf(1));
+		values.add(Double.valueOf(6));
+		List<Range> inserted = Arrays.asList(new Range(3, 4), new Range(0, 1));
+		assertTrue(sum.rowsInserted(0, inserted));
+		assertTrue(variance.rowsInserted(0, inserted));
+		assertEquals(Double.valueOf(20), sum.summarize(0));
+		assertEquals(8.5d, ((Double) variance.summarize(0)).doubleValue(), 0.000001);
+
+		//the incremental results match a complete summarization
+		assertEquals(sum.summarize(0), summarize(Aggregate.SUM));
+		assertEquals(((Double) variance.summarize(0)).doubleValue(),
+				((Double) summarize(Aggregate.VARIANCE)).doubleValue(), 0.000001);
+	}
+
+	@Test
+	public void testMinAndMaxWithDuplicates() {
+		values.add(Double.valueOf(9));
+		IncrementalSummaryProvider provider = new IncrementalSummaryProvider(dataProvider, Aggregate.MAX);
+		assertEquals(Double.valueOf(9), provider.summarize(0));
+
+		values.remove(2);
+		provider.rowsDeleted(0, Arrays.asList(new Range(2, 3)));
+		assertEquals(Double.valueOf(9), provider.summarize(0));
+
+		values.remove(3);
+		provider.rowsDeleted(0, Arrays.asList(new Range(3, 4)));
+		assertEquals(Double.valueOf(5), provider.summarize(0));
+	}
+
+	@Test
+	public void testNonNumberValues() {
+		IncrementalSummaryProvider strict = new IncrementalSummaryProvider(dataProvider, Aggregate.SUM);
+		IncrementalSummaryProvider lenient = new IncrementalSummaryProvider(dataProvider, Aggregate.SUM, false);
+		strict.summarize(0);
+		lenient.summarize(0);
+
+		values.set(0, "four"); //$NON-NLS-1$
+		strict.valuesChanged(0, Arrays.asList(new Range(0, 1)));
+		lenient.valuesChanged(0, Arrays.asList(new Range(0, 1)));
+		assertEquals(ISummaryProvider.DEFAULT_SUMMARY_VALUE, strict.summarize(0));
+		assertEquals(Double.valueOf(16), lenient.summarize(0));
+
+		values.set(0, null);
+		strict.valuesChanged(0, Arrays.asList(new Range(0, 1)));
+		values.set(0, Double.valueOf(4));
+		strict.valuesChanged(0, Arrays.asList(new Range(0, 1)));
+		assertEquals(Double.valueOf(20), strict.summarize(0));
+	}
+
+	@Test
+	public void testEmptyColumn() {
+		values.clear();
+		assertEquals(Double.valueOf(0), summarize(Aggregate.SUM));
+		assertEquals(Integer.valueOf(0), summarize(Aggregate.COUNT));
+		assertNull(summarize(Aggregate.MIN));
+		assertNull(summarize(Aggregate.MEAN));
+		assertNull(summarize(Aggregate.VARIANCE));
+	}
+
+	@Test
+	public void testReset() {
+		IncrementalSummaryProvider provider = new IncrementalSummaryProvider(dataProvider, Aggregate.SUM);
+		provider.summarize(0);
+
+		values.add(Double.valueOf(10));
+		//inconsistent change is rejected
+		assertFalse(provider.valuesChanged(0, Arrays.asList(new Range(4, 5))));
+
+		provider.reset(0);
+		assertEquals(Double.valueOf(30), provider.summarize(0));
+	}
+
+	@Test
+	public void testSumIsRecalculatedFromKeptValues() {
+		IncrementalSummaryProvider provider = new IncrementalSummaryProvider(dataProvider, Aggregate.SUM);
+		provider.summarize(0);
+
+		//subtracting the large value again loses the precision of the smaller ones
+		values.set(0, Double.valueOf(1e20));
+		assertTrue(provider.valuesChanged(0, Arrays.asList(new Range(0, 1))));
+		values.set(0, Double.valueOf(0.5));
+		assertTrue(provider.valuesChanged(0, Arrays.asList(new Range(0, 1))));
+
+		//once more values were removed than the column contains, the sum is recalculated
+		dataProvider.reads = 0;
+		assertTrue(provider.valuesChanged(0, Arrays.asList(new Range(1, 4))));
+		assertEquals(Double.valueOf(16.5), provider.summarize(0));
+		assertEquals(3, dataProvider.reads);
+	}
+
+	@Test
+	public void testIndexOfRowObjectWithoutRowDataProvider() {
+		IncrementalSummaryProvider provider = new IncrementalSummaryProvider(dataProvider, Aggregate.SUM);
+		provider.summarize(0);
+		assertEquals(-1, provider.indexOfRowObject(new Object()));
+	}
+
+	private Object summarize(Aggregate aggregate) {
+		return new IncrementalSummaryProvider(dataProvider, aggregate).summarize(0);
+	}
+
+	/**
+	 * Single column data provider that counts the values read.
+	 */
+	private class CountingDataProvider implements IDataProvider {
+
+		int reads;
+
+		@Override
+		public Object getDataValue(int columnIndex, int rowIndex) {
+			reads++;
+			return values.get(rowIndex);
+		}
+
+		@Override
+		public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+			values.set(rowIndex, newValue);
+		}
+
+		@Override
+		public int getColumnCount() {
+			return 1;
+		}
+
+		@Override
+		public int getRowCount() {
+			return values.size();
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelSummaryCalculatorTest {
+
+	private static final int ROW_COUNT = 1050;
+
+	private ExecutorService executor;
+	private IDataProvider dataProvider;
+
+	@Before
+	public void setup() {
+		executor = Executors.newFixedThreadPool(2);
+		dataProvider = new IDataProvider() {
+			@Override
+			public Object getDataValue(int columnIndex, int rowIndex) {
+				if (columnIndex == 2 && rowIndex == 700) {
+					return "none"; //$NON-NLS-1$
+				}
+				return Integer.valueOf(rowIndex * (columnIndex + 1));
+			}
+
+			@Override
+			public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+			}
+
+			@Override
+			public int getColumnCount() {
+				return 3;
+			}
+
+			@Override
+			public int getRowCount() {
+				return ROW_COUNT;
+			}
+		};
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testSummarizeMatchesSequentialSummary() {
+		final SummationSummaryProvider summation = new SummationSummaryProvider(dataProvider);
+		ISummaryProvider notCombinable = new ISummaryProvider() {
+			@Override
+			public Object summarize(int columnIndex) {
+				return summation.summarize(columnIndex);
+			}
+		};
+		ISummaryProvider[] providers = new ISummaryProvider[] { summation, null, summation, notCombinable };
+
+		Object[] summaries = new ParallelSummaryCalculator(executor, 100).summarize(providers, ROW_COUNT);
+
+		assertEquals(4, summaries.length);
+		assertEquals(summation.summarize(0), summaries[0]);
+		assertNull(summaries[1]);
+		//strict summation with a non Number value
+		assertEquals(ISummaryProvider.DEFAULT_SUMMARY_VALUE, summaries[2]);
+		assertEquals(summation.summarize(3), summaries[3]);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testFailureIsPropagated() {
+		ISummaryProvider failing = new ISummaryProvider() {
+			@Override
+			public Object summarize(int columnIndex) {
+				throw new IllegalStateException();
+			}
+		};
+		new ParallelSummaryCalculator(executor, 100).summarize(
+				new ISummaryProvider[] { new SummationSummaryProvider(dataProvider), failing }, ROW_COUNT);
+	}
+
+	@Test
+	public void testNoDeadlockOnBusyExecutor() throws Exception {
+		final ExecutorService singleThread = Executors.newSingleThreadExecutor();
+		try {
+			final ParallelSummaryCalculator calculator = new ParallelSummaryCalculator(singleThread, 10);
+			//the calculation is started by the only pool thread
+			Future<Object[]> future = singleThread.submit(new Callable<Object[]>() {
+				@Override
+				public Object[] call() {
+					return calculator.summarize(new ISummaryProvider[] {
+							new SummationSummaryProvider(dataProvider) }, ROW_COUNT);
+				}
+			});
+			assertEquals(new SummationSummaryProvider(dataProvider).summarize(0), future.get(5, TimeUnit.SECONDS)[0]);
+		} finally {
+			singleThread.shutdownNow();
+		}
+	}
+
+}
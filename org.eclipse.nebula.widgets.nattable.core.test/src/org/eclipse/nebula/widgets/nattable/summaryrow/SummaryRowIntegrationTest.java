@@ -22,6 +22,7 @@
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
 import org.eclipse.nebula.widgets.nattable.data.ReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
 import org.eclipse.nebula.widgets.nattable.hideshow.ColumnHideShowLayer;
 import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
@@ -30,6 +31,7 @@
 import org.eclipse.nebula.widgets.nattable.layer.cell.AbstractOverrider;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ColumnOverrideLabelAccumulator;
 import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
 import org.eclipse.nebula.widgets.nattable.reorder.ColumnReorderLayer;
 import org.eclipse.nebula.widgets.nattable.resize.command.RowResizeCommand;
@@ -190,6 +192,41 @@ public void rowAddShouldClearCacheAndCalculateNewSummary() throws Exception {
 		assertEquals("112.1", askPriceSummary.toString());
 	}
 
+	@Test
+	public void incrementalSummaryProviderShouldApplyChanges() throws Exception {
+		natTable.getConfigRegistry().registerConfigAttribute(SummaryRowConfigAttributes.SUMMARY_PROVIDER,
+				new IncrementalSummaryProvider(dataProvider, IncrementalSummaryProvider.Aggregate.SUM),
+				DisplayMode.NORMAL,
+				SummaryRowLayer.DEFAULT_SUMMARY_COLUMN_CONFIG_LABEL_PREFIX + bidPriceColumnIndex);
+		SummationSummaryProvider summationProvider = new SummationSummaryProvider(dataProvider);
+
+		natTable.doCommand(new CalculateSummaryRowValuesCommand());
+		assertEquals(summationProvider.summarize(bidPriceColumnIndex), natTable.getDataValueByPosition(bidPriceColumnIndex, 4));
+
+		// Add data and fire event
+		dataList.add(new RowDataFixture("SID", "SDesc", "A", new Date(), new PricingTypeBean("MN"), 2.0, 2.1, 100, true, 3.0, 1.0, 1.0, 1000, 100000, 50000));
+		dataLayer.fireLayerEvent(new RowInsertEvent(dataLayer, 4));
+
+		natTable.doCommand(new CalculateSummaryRowValuesCommand());
+		assertEquals(summationProvider.summarize(bidPriceColumnIndex), natTable.getDataValueByPosition(bidPriceColumnIndex, 5));
+
+		// Update data via command
+		natTable.doCommand(new UpdateDataCommand(natTable, bidPriceColumnIndex, 1, Double.valueOf(1000)));
+
+		natTable.doCommand(new CalculateSummaryRowValuesCommand());
+		assertEquals(summationProvider.summarize(bidPriceColumnIndex), natTable.getDataValueByPosition(bidPriceColumnIndex, 5));
+
+		// Update a bean property and fire the property event
+		RowDataFixture bean = dataList.get(2);
+		Double oldBidPrice = Double.valueOf(bean.getBid_price());
+		bean.setBid_price(500);
+		dataLayer.fireLayerEvent(new PropertyUpdateEvent<RowDataFixture>(dataLayer, bean, 
+				RowDataListFixture.BID_PRICE_PROP_NAME, oldBidPrice, Double.valueOf(500)));
+
+		natTable.doCommand(new CalculateSummaryRowValuesCommand());
+		assertEquals(summationProvider.summarize(bidPriceColumnIndex), natTable.getDataValueByPosition(bidPriceColumnIndex, 5));
+	}
+
 	@Test
 	public void getRowIndexByPositionForSummaryRow() throws Exception {
 		assertEquals(4, natTable.getRowIndexByPosition(4));
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.fixture.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+
+/**
+ * Rows that are plain Strings, for tests that only need distinct row objects.
+ */
+public class StringListFixture {
+
+	/**
+	 * @param rowCount The number of rows to create.
+	 * @return A modifiable list containing the rows "row0" to "row&lt;rowCount - 1&gt;".
+	 */
+	public static List<String> getList(int rowCount) {
+		List<String> rows = new ArrayList<String>(rowCount);
+		for (int i = 0; i < rowCount; i++) {
+			rows.add("row" + i); //$NON-NLS-1$
+		}
+		return rows;
+	}
+
+	/**
+	 * @param columnCount The number of columns of the accessor.
+	 * @return An {@link IColumnAccessor} that returns the row object itself for every
+	 * 			column and ignores edits.
+	 */
+	public static IColumnAccessor<String> getColumnAccessor(final int columnCount) {
+		return new IColumnAccessor<String>() {
+			@Override
+			public Object getDataValue(String rowObject, int columnIndex) {
+				return rowObject;
+			}
+
+			@Override
+			public void setDataValue(String rowObject, int columnIndex, Object newValue) {
+			}
+
+			@Override
+			public int getColumnCount() {
+				return columnCount;
+			}
+		};
+	}
+
+}
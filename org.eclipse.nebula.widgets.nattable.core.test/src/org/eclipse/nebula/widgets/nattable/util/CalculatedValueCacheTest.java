@@ -12,9 +12,16 @@
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.nebula.widgets.nattable.grid.data.DummyBodyDataProvider;
 import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.LayerListenerFixture;
 import org.junit.After;
 import org.junit.Test;
 
@@ -165,6 +172,130 @@ public void testIllegalState() {
 		this.valueCache.getCalculatedValue(0, 0, false, calculator);
 	}
 	
+	@Test
+	public void testOnlyOneCalculationPerKey() throws Exception {
+		this.valueCache = new CalculatedValueCache(new DataLayer(new DummyBodyDataProvider(10, 10)), true, true);
+		final AtomicInteger calculations = new AtomicInteger();
+		ICalculator countingCalculator = new ICalculator() {
+			@Override
+			public Object executeCalculation() {
+				calculations.incrementAndGet();
+				return calculator.executeCalculation();
+			}
+		};
+		
+		//simulate repaints while the calculation is running
+		for (int i = 0; i < 20; i++) {
+			this.valueCache.getCalculatedValue(0, 0, true, countingCalculator);
+		}
+		Thread.sleep(250);
+		
+		assertEquals(Integer.valueOf(42), this.valueCache.getCalculatedValue(0, 0, true, countingCalculator));
+		assertEquals(1, calculations.get());
+	}
+	
+	@Test
+	public void testCalculatedNullValueIsCached() throws Exception {
+		this.valueCache = new CalculatedValueCache(new DataLayer(new DummyBodyDataProvider(10, 10)), true, true);
+		final AtomicInteger calculations = new AtomicInteger();
+		ICalculator nullCalculator = new ICalculator() {
+			@Override
+			public Object executeCalculation() {
+				calculations.incrementAndGet();
+				return null;
+			}
+		};
+		
+		this.valueCache.getCalculatedValue(0, 0, true, nullCalculator);
+		Thread.sleep(100);
+		assertNull(this.valueCache.getCalculatedValue(0, 0, true, nullCalculator));
+		Thread.sleep(100);
+		
+		assertEquals(1, calculations.get());
+	}
+	
+	@Test
+	public void testClearCacheCancelsQueuedCalculations() throws Exception {
+		NatTableExecutors executors = new NatTableExecutors("Test", 1, 1); //$NON-NLS-1$
+		try {
+			this.valueCache = new CalculatedValueCache(new DataLayer(new DummyBodyDataProvider(10, 10)), true, true, true, executors);
+			final CountDownLatch started = new CountDownLatch(1);
+			final CountDownLatch release = new CountDownLatch(1);
+			final AtomicInteger calculations = new AtomicInteger();
+			
+			//the blocking calculation occupies the only thread
+			this.valueCache.getCalculatedValue(0, 0, true, new ICalculator() {
+				@Override
+				public Object executeCalculation() {
+					started.countDown();
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+					}
+					return Integer.valueOf(1);
+				}
+			});
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			this.valueCache.getCalculatedValue(1, 0, true, new ICalculator() {
+				@Override
+				public Object executeCalculation() {
+					calculations.incrementAndGet();
+					return Integer.valueOf(2);
+				}
+			});
+			
+			this.valueCache.clearCache();
+			release.countDown();
+			Thread.sleep(100);
+			
+			assertEquals(0, calculations.get());
+			//the superseded calculation is shown, but triggers a new calculation
+			assertEquals(Integer.valueOf(1), this.valueCache.getCalculatedValue(0, 0, true, calculator));
+			Thread.sleep(250);
+			assertEquals(Integer.valueOf(42), this.valueCache.getCalculatedValue(0, 0, true, calculator));
+		} finally {
+			executors.shutdown();
+		}
+	}
+	
+	@Test
+	public void testUpdateEventsAreBatched() throws Exception {
+		DataLayer dataLayer = new DataLayer(new DummyBodyDataProvider(10, 10));
+		LayerListenerFixture listener = new LayerListenerFixture();
+		dataLayer.addLayerListener(listener);
+		NatTableExecutors executors = new NatTableExecutors("Test", 5, 1); //$NON-NLS-1$
+		try {
+			this.valueCache = new CalculatedValueCache(dataLayer, true, true, true, executors);
+			
+			for (int i = 0; i < 5; i++) {
+				this.valueCache.getCalculatedValue(i, 0, true, calculator);
+			}
+			Thread.sleep(350);
+			
+			//one event per updated cell, so only those cells need to be repainted
+			assertEquals(5, listener.getEventsCount());
+			for (int i = 0; i < 5; i++) {
+				CellVisualChangeEvent event = (CellVisualChangeEvent) listener.getReceivedEvents().get(i);
+				assertEquals(0, event.getRowPosition());
+				assertTrue(event.getColumnPosition() >= 0 && event.getColumnPosition() < 5);
+			}
+			
+			listener.clearReceivedEvents();
+			this.valueCache.getCalculatedValue(0, 1, true, new ICalculator() {
+				@Override
+				public Object executeCalculation() {
+					return Integer.valueOf(1);
+				}
+			});
+			Thread.sleep(100);
+			
+			assertEquals(1, listener.getEventsCount());
+			assertTrue(listener.containsInstanceOf(CellVisualChangeEvent.class));
+		} finally {
+			executors.shutdown();
+		}
+	}
+	
 	@After
 	public void tearDown() {
 		this.valueCache.dispose();
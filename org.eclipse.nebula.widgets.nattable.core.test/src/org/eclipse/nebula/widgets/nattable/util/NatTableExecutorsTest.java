@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.grid.data.DummyBodyDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NatTableExecutorsTest {
+
+	private NatTableExecutors executors;
+
+	@Before
+	public void setup() {
+		executors = new NatTableExecutors("Test", 2, 1); //$NON-NLS-1$
+	}
+
+	@After
+	public void tearDown() {
+		executors.shutdown();
+	}
+
+	@Test
+	public void computePoolIsBounded() throws Exception {
+		final Set<String> threadNames = Collections.synchronizedSet(new HashSet<String>());
+		final CountDownLatch latch = new CountDownLatch(10);
+		for (int i = 0; i < 10; i++) {
+			executors.getComputeExecutor().execute(new Runnable() {
+				public void run() {
+					Thread thread = Thread.currentThread();
+					Assert.assertTrue(thread.isDaemon());
+					threadNames.add(thread.getName());
+					latch.countDown();
+				}
+			});
+		}
+
+		Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+		Assert.assertTrue(threadNames.size() <= 2);
+		for (String threadName : threadNames) {
+			Assert.assertTrue(threadName, threadName.startsWith("Test-compute-")); //$NON-NLS-1$
+		}
+	}
+
+	@Test
+	public void executorsAreResolvedFromConfigRegistry() {
+		ConfigRegistry configRegistry = new ConfigRegistry();
+		Assert.assertSame(NatTableExecutors.getDefault(), NatTableExecutors.getExecutors(configRegistry));
+		Assert.assertSame(NatTableExecutors.getDefault(), NatTableExecutors.getExecutors(null));
+
+		configRegistry.registerConfigAttribute(NatTableExecutors.EXECUTORS, executors, DisplayMode.NORMAL);
+		Assert.assertSame(executors, NatTableExecutors.getExecutors(configRegistry));
+	}
+
+	@Test
+	public void disposeOfCalculatedValueCacheDoesNotShutDownExecutor() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		CalculatedValueCache valueCache = new CalculatedValueCache(new DataLayer(new DummyBodyDataProvider(10, 10)), 
+				true, true, true, executors);
+		valueCache.getCalculatedValue(0, 0, true, new ICalculator() {
+			public Object executeCalculation() {
+				started.countDown();
+				try {
+					Thread.sleep(5000);
+				} catch (InterruptedException e) {
+					// cancelled
+				}
+				return null;
+			}
+		});
+		Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		valueCache.dispose();
+
+		Assert.assertFalse(executors.isShutdown());
+		Future<?> future = executors.getComputeExecutor().submit(new Runnable() {
+			public void run() {
+				// nothing to do
+			}
+		});
+		//the cancelled calculation doesn't block the pool
+		future.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void schedulerUsesSharedPool() throws Exception {
+		Scheduler scheduler = new Scheduler("Test", executors); //$NON-NLS-1$
+		final CountDownLatch latch = new CountDownLatch(1);
+		scheduler.schedule(new Runnable() {
+			public void run() {
+				Assert.assertTrue(Thread.currentThread().getName().startsWith("Test-scheduler-")); //$NON-NLS-1$
+				latch.countDown();
+			}
+		}, 10);
+		Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+		scheduler.retain();
+		scheduler.release();
+		Assert.assertFalse(executors.isShutdown());
+	}
+
+	@Test
+	public void updateQueueRunsOnComputePool() throws Exception {
+		NatTableExecutors.setDefault(executors);
+		UpdateQueue queue = new UpdateQueue();
+		try {
+			final CountDownLatch latch = new CountDownLatch(2);
+			Runnable runnable = new Runnable() {
+				public void run() {
+					Assert.assertTrue(Thread.currentThread().getName().startsWith("Test-compute-")); //$NON-NLS-1$
+					latch.countDown();
+				}
+			};
+			queue.addRunnable("first", runnable); //$NON-NLS-1$
+			Thread.sleep(20);
+			//processed after the sleep time of the queue
+			queue.addRunnable("second", runnable); //$NON-NLS-1$
+			Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+		} finally {
+			queue.stopThread();
+			NatTableExecutors.setDefault(null);
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelTaskRunnerTest {
+
+	private ExecutorService executor;
+
+	@Before
+	public void setup() {
+		executor = Executors.newFixedThreadPool(2);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testSplit() {
+		ParallelTaskRunner runner = new ParallelTaskRunner(executor, 100);
+
+		List<Range> chunks = runner.split(1050);
+		assertEquals(11, chunks.size());
+		assertEquals(new Range(0, 100), chunks.get(0));
+		assertEquals(new Range(1000, 1050), chunks.get(10));
+
+		chunks = runner.split(0);
+		assertEquals(1, chunks.size());
+		assertEquals(new Range(0, 0), chunks.get(0));
+	}
+
+	@Test
+	public void testInvokeAllReturnsResultsInOrder() {
+		List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+		for (int i = 0; i < 20; i++) {
+			final int value = i;
+			tasks.add(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					return Integer.valueOf(value);
+				}
+			});
+		}
+
+		List<Integer> results = new ParallelTaskRunner(executor, 100).invokeAll(tasks);
+		assertEquals(20, results.size());
+		for (int i = 0; i < 20; i++) {
+			assertEquals(Integer.valueOf(i), results.get(i));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testChunkSizeMustBePositive() {
+		new ParallelTaskRunner(executor, 0);
+	}
+
+}
@@ -52,6 +52,7 @@
 import org.eclipse.nebula.widgets.nattable.persistence.IPersistable;
 import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer.MoveDirectionEnum;
 import org.eclipse.nebula.widgets.nattable.selection.event.CellSelectionEvent;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
 import org.eclipse.nebula.widgets.nattable.style.theme.ThemeConfiguration;
 import org.eclipse.nebula.widgets.nattable.style.theme.ThemeManager;
 import org.eclipse.nebula.widgets.nattable.ui.binding.UiBindingRegistry;
@@ -60,6 +61,7 @@
 import org.eclipse.nebula.widgets.nattable.ui.mode.ModeSupport;
 import org.eclipse.nebula.widgets.nattable.util.GUIHelper;
 import org.eclipse.nebula.widgets.nattable.util.IClientAreaProvider;
+import org.eclipse.nebula.widgets.nattable.util.NatTableExecutors;
 import org.eclipse.nebula.widgets.nattable.viewport.command.RecalculateScrollBarsCommand;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.BusyIndicator;
@@ -221,6 +223,11 @@ public NatTable(final Composite parent, final int style, final ILayer layer, boo
 			public void widgetDisposed(DisposeEvent e) {
 				doCommand(new DisposeResourcesCommand());
 				conflaterChain.stop();
+				//executors that were configured for this NatTable are owned by it
+				NatTableExecutors executors = getConfigRegistry().getConfigAttribute(NatTableExecutors.EXECUTORS, DisplayMode.NORMAL);
+				if (executors != null && executors != NatTableExecutors.getDefault()) {
+					executors.shutdown();
+				}
 				ActiveCellEditorRegistry.unregisterActiveCellEditor();
 				layer.dispose();
 				
@@ -231,7 +238,7 @@ public void widgetDisposed(DisposeEvent e) {
 	}
 	
 	protected IEventConflater getVisualChangeEventConflater() {
-		return new VisualChangeEventConflater(this);
+		return new VisualChangeEventConflater(this, conflaterChain.getCoalescer());
 	}
 
 	private void disableScrollBar(ScrollBar scrollBar) {
@@ -400,8 +407,11 @@ public void removeOverlayPainter(IOverlayPainter overlayPainter) {
 
 	@Override
 	public void paintControl(final PaintEvent event) {
+		long start = System.nanoTime();
 		paintNatTable(event);
 		initialPaintComplete = true;
+		//the paint time stretches the window in which visual changes are conflated
+		conflaterChain.getCoalescer().recordUiTime(System.nanoTime() - start);
 	}
 
 	private void paintNatTable(final PaintEvent event) {
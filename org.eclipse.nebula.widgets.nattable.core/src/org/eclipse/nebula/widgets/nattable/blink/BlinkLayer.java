@@ -12,13 +12,14 @@
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.nebula.widgets.nattable.blink.command.BlinkTimerEnableCommandHandler;
 import org.eclipse.nebula.widgets.nattable.blink.event.BlinkEvent;
+import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
+import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
 import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyResolver;
@@ -33,6 +34,7 @@
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.util.NatTableExecutors;
 import org.eclipse.swt.widgets.Display;
 
 /**
@@ -55,6 +57,8 @@
 	private final IRowIdAccessor<T> rowIdAccessor;
 	private final IColumnPropertyResolver columnPropertyResolver;
 	private final ScheduledExecutorService scheduler;
+	/** Whether the scheduler was passed in and needs to be shut down on dispose */
+	private final boolean shutdownScheduler;
 
 	protected boolean blinkingEnabled = true;
 
@@ -84,9 +88,14 @@ public BlinkLayer(IUniqueIndexLayer dataLayer,
 			IColumnPropertyResolver columnPropertyResolver,
 			IConfigRegistry configRegistry,
 			boolean triggerBlinkOnRowUpdate) {
-	    this(dataLayer, listDataProvider, rowIdAccessor, columnPropertyResolver, configRegistry, triggerBlinkOnRowUpdate, Executors.newSingleThreadScheduledExecutor());
+	    this(dataLayer, listDataProvider, rowIdAccessor, columnPropertyResolver, configRegistry, triggerBlinkOnRowUpdate, 
+	    		NatTableExecutors.getExecutors(configRegistry).getScheduledExecutor(), false);
 	}
 	
+	/**
+	 * Creates a BlinkLayer that uses the given scheduler, which is shut down when this layer 
+	 * is disposed. 
+	 */
     public BlinkLayer(IUniqueIndexLayer dataLayer,
             IRowDataProvider<T> listDataProvider,
             IRowIdAccessor<T> rowIdAccessor,
@@ -94,6 +103,18 @@ public BlinkLayer(IUniqueIndexLayer dataLayer,
             IConfigRegistry configRegistry,
             boolean triggerBlinkOnRowUpdate,
             ScheduledExecutorService scheduler) {
+    	this(dataLayer, listDataProvider, rowIdAccessor, columnPropertyResolver, configRegistry, triggerBlinkOnRowUpdate, 
+    			scheduler, true);
+    }
+    
+    private BlinkLayer(IUniqueIndexLayer dataLayer,
+            IRowDataProvider<T> listDataProvider,
+            IRowIdAccessor<T> rowIdAccessor,
+            IColumnPropertyResolver columnPropertyResolver,
+            IConfigRegistry configRegistry,
+            boolean triggerBlinkOnRowUpdate,
+            ScheduledExecutorService scheduler,
+            boolean shutdownScheduler) {
 		super(dataLayer);
 		this.dataLayer = dataLayer;
 		this.rowDataProvider = listDataProvider;
@@ -101,6 +122,7 @@ public BlinkLayer(IUniqueIndexLayer dataLayer,
 		this.columnPropertyResolver = columnPropertyResolver;
 		this.configRegistry = configRegistry;
 		this.scheduler = scheduler;
+		this.shutdownScheduler = shutdownScheduler;
 		this.updateEventsCache = new UpdateEventsCache<T>(rowIdAccessor,
 				triggerBlinkOnRowUpdate ? new RowKeyStrategyImpl() : new CellKeyStrategyImpl(),
 		        scheduler);
@@ -108,11 +130,34 @@ public BlinkLayer(IUniqueIndexLayer dataLayer,
 		registerCommandHandler(new BlinkTimerEnableCommandHandler(this));
 	}
     
+    @Override
+    public boolean doCommand(ILayerCommand command) {
+    	if (command instanceof DisposeResourcesCommand) {
+    		cancelBlinking();
+    	}
+    	return super.doCommand(command);
+    }
+    
     @Override
     public void dispose() {
     	super.dispose();
     	
-    	scheduler.shutdown();
+    	cancelBlinking();
+    	if (shutdownScheduler) {
+    		scheduler.shutdown();
+    	}
+    }
+    
+    /**
+     * Cancels the scheduled tasks of this layer. The shared scheduler is not shut down.
+     */
+    private void cancelBlinking() {
+    	for (ScheduledFuture<?> future : blinkingTasks.values()) {
+    		future.cancel(false);
+    	}
+    	blinkingTasks.clear();
+    	blinkingUpdates.clear();
+    	updateEventsCache.clear();
     }
 	
 	@Override
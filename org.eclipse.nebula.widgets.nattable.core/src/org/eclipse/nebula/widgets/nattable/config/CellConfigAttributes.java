@@ -10,6 +10,7 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.config;
 
+import org.eclipse.nebula.widgets.nattable.data.convert.DisplayValueCache;
 import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
 import org.eclipse.nebula.widgets.nattable.painter.cell.ICellPainter;
 import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
@@ -34,6 +35,12 @@ public interface CellConfigAttributes {
 	 */
 	ConfigAttribute<IDisplayConverter> DISPLAY_CONVERTER = new ConfigAttribute<IDisplayConverter>();
 	
+	/**
+	 * Attribute for configuring the DisplayValueCache that should be used to cache
+	 * the display values of whole columns, e.g. for filtering and searching.
+	 */
+	ConfigAttribute<DisplayValueCache> DISPLAY_VALUE_CACHE = new ConfigAttribute<DisplayValueCache>();
+	
 	/**
 	 * Attribute for configuring the Color that should be used to render the grid lines.
 	 * Will be interpreted by the GridLineCellLayerPainter.
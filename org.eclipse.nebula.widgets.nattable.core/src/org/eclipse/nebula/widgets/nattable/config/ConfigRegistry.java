@@ -10,11 +10,18 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.config;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
+import org.eclipse.nebula.widgets.nattable.layer.InternedLabels;
 import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
 import org.eclipse.nebula.widgets.nattable.style.DefaultDisplayModeOrdering;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
@@ -31,10 +38,62 @@ public <T> T getConfigAttribute(ConfigAttribute<T> configAttribute, String targe
 		return getConfigAttribute(configAttribute, targetDisplayMode, Arrays.asList(configLabels));
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The resolved value is cached for the combination of config attribute, target display
+	 * mode and config labels, so subsequent calls with the same arguments don't need to walk
+	 * the display mode ordering and the config labels again. The cache is cleared on
+	 * registering or unregistering config attributes.
+	 * <p>
+	 * The value is the first of the values resolved via
+	 * {@link #resolveConfigAttributeValues(ConfigAttribute, String, List)}.
+	 */
 	@Override
 	@SuppressWarnings("unchecked")
 	public <T> T getConfigAttribute(ConfigAttribute<T> configAttribute, String targetDisplayMode, List<String> configLabels) {
-		T attributeValue = null;
+		Resolution resolution = getResolution(configAttribute, targetDisplayMode, configLabels);
+		if (resolution != null) {
+			return (T) resolution.value;
+		}
+		List<T> attributeValues = resolveConfigAttributeValues(configAttribute, targetDisplayMode, configLabels);
+		return attributeValues.isEmpty() ? null : attributeValues.get(0);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The returned list is cached in the same way as the values returned by
+	 * {@link #getConfigAttribute(ConfigAttribute, String, List)}.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> List<T> getConfigAttributeValues(ConfigAttribute<T> configAttribute, String targetDisplayMode, List<String> configLabels) {
+		Resolution resolution = getResolution(configAttribute, targetDisplayMode, configLabels);
+		if (resolution != null) {
+			return (List<T>) resolution.values;
+		}
+		return Collections.unmodifiableList(resolveConfigAttributeValues(configAttribute, targetDisplayMode, configLabels));
+	}
+	
+	/**
+	 * Resolves all values for the given config attribute without using the cache.
+	 * <p>
+	 * This method is called by {@link #getConfigAttribute(ConfigAttribute, String, List)}
+	 * and {@link #getConfigAttributeValues(ConfigAttribute, String, List)} for every
+	 * combination of arguments that is not cached yet, and the returned values are cached.
+	 * Subclasses that override it to return values that change without registering or
+	 * unregistering config attributes need to call {@link #clearCache()} on such changes.
+	 * 
+	 * @param configAttribute The config attribute whose values are requested.
+	 * @param targetDisplayMode The display mode whose ordering should be used.
+	 * @param configLabels The config labels in the order they should be inspected.
+	 * @return All values that are registered for the given config attribute and match
+	 * 			the target display mode and the config labels, in resolution order.
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T> List<T> resolveConfigAttributeValues(ConfigAttribute<T> configAttribute, String targetDisplayMode, List<String> configLabels) {
+		List<T> attributeValues = new ArrayList<T>();
 		
 		Map<String, Map<String, ?>> displayModeConfigAttributeMap = configRegistry.get(configAttribute);
 		if (displayModeConfigAttributeMap != null) {
@@ -42,22 +101,22 @@ public <T> T getConfigAttribute(ConfigAttribute<T> configAttribute, String targe
 				Map<String, T> configAttributeMap = (Map<String, T>) displayModeConfigAttributeMap.get(displayMode);
 				if (configAttributeMap != null) {
 					for (String configLabel : configLabels) {
-						attributeValue = configAttributeMap.get(configLabel);
+						T attributeValue = configAttributeMap.get(configLabel);
 						if (attributeValue != null) {
-							return attributeValue;
+							attributeValues.add(attributeValue);
 						}
 					}
 					
 					// default config type
-					attributeValue = configAttributeMap.get(null);
+					T attributeValue = configAttributeMap.get(null);
 					if (attributeValue != null) {
-						return attributeValue;
+						attributeValues.add(attributeValue);
 					}
 				}
 			}
 		}
 		
-		return attributeValue;
+		return attributeValues;
 	}
 	
 	@Override
@@ -105,6 +164,8 @@ public <T> void registerConfigAttribute(ConfigAttribute<T> configAttribute, T at
 		}
 		
 		configAttributeMap.put(configLabel, attributeValue);
+		
+		clearCache();
 	};
 
 	@Override
@@ -127,6 +188,8 @@ public <T> void unregisterConfigAttribute(ConfigAttribute<T> configAttributeType
 				configAttributeMap.remove(configLabel);
 			}
 		}
+		
+		clearCache();
 	}
 	
 	// Display mode ordering //////////////////////////////////////////////////
@@ -140,6 +203,206 @@ public IDisplayModeOrdering getDisplayModeOrdering() {
 
 	public void setDisplayModeOrdering(IDisplayModeOrdering displayModeOrdering) {
 		this.displayModeOrdering = displayModeOrdering;
+		clearCache();
+	}
+	
+	// Resolution cache ///////////////////////////////////////////////////////
+	
+	/**
+	 * The maximum number of different config label combinations that are cached.
+	 * If more combinations are requested, e.g. because of labels that are unique
+	 * per row, combinations that were not requested recently are evicted one by one
+	 * to avoid growing without limits.
+	 */
+	static final int MAX_CACHED_LABEL_COMBINATIONS = 4096;
+	
+	/**
+	 * Cache for resolved config attributes. It is replaced on invalidation instead
+	 * of being cleared, so a resolution that is running concurrently to a modification
+	 * of the registry can't add an outdated value to the new cache.
+	 */
+	private volatile ResolutionCache resolutionCache = new ResolutionCache();
+	
+	/**
+	 * The resolutions by config labels, bounded by {@link #MAX_CACHED_LABEL_COMBINATIONS}.
+	 * Map&lt;configLabels, resolutions by configAttributeType and targetDisplayMode&gt;
+	 * <p>
+	 * The keys are the {@link InternedLabels} of the config labels that were used for
+	 * resolving, so lookups with interned config labels are identity lookups. Lookups
+	 * only mark the found entry as referenced, so they don't need any locking. On
+	 * eviction, the entries are inspected in insertion order, and entries that were
+	 * referenced since they were last inspected get a second chance, which approximates
+	 * a least recently used order.
+	 */
+	private static final class ResolutionCache {
+		
+		final ConcurrentMap<InternedLabels, ResolutionTable> tables = 
+				new ConcurrentHashMap<InternedLabels, ResolutionTable>();
+		final Queue<InternedLabels> order = new ConcurrentLinkedQueue<InternedLabels>();
+		
+		ResolutionTable get(InternedLabels labels) {
+			ResolutionTable resolutions = tables.get(labels);
+			if (resolutions == null) {
+				resolutions = new ResolutionTable();
+				ResolutionTable existing = tables.putIfAbsent(labels, resolutions);
+				if (existing != null) {
+					return existing;
+				}
+				order.add(labels);
+				if (tables.size() > MAX_CACHED_LABEL_COMBINATIONS) {
+					evict();
+				}
+			} else if (!resolutions.referenced) {
+				resolutions.referenced = true;
+			}
+			return resolutions;
+		}
+		
+		/**
+		 * Removes the first entry in insertion order that was not referenced since it was
+		 * last inspected. At most all entries are inspected twice.
+		 */
+		private void evict() {
+			InternedLabels labels;
+			while ((labels = order.poll()) != null) {
+				ResolutionTable resolutions = tables.get(labels);
+				if (resolutions != null && resolutions.referenced) {
+					resolutions.referenced = false;
+					order.add(labels);
+				} else {
+					tables.remove(labels);
+					return;
+				}
+			}
+		}
+		
+		int size() {
+			return tables.size();
+		}
+	}
+	
+	/**
+	 * The resolved values for a combination of config attribute, target display mode
+	 * and config labels.
+	 */
+	private static final class Resolution {
+		final ConfigAttribute<?> configAttribute;
+		final String targetDisplayMode;
+		/**
+		 * The first matching value or <code>null</code>.
+		 */
+		final Object value;
+		/**
+		 * All matching values in resolution order.
+		 */
+		final List<?> values;
+		
+		Resolution(ConfigAttribute<?> configAttribute, String targetDisplayMode, List<?> values) {
+			this.configAttribute = configAttribute;
+			this.targetDisplayMode = targetDisplayMode;
+			this.value = values.isEmpty() ? null : values.get(0);
+			this.values = Collections.unmodifiableList(values);
+		}
+	}
+	
+	/**
+	 * The resolutions for one combination of config labels, stored in an open addressing
+	 * hash table that is keyed by config attribute and target display mode. As there are
+	 * only a few of those combinations per config labels, the table is copied on write,
+	 * so lookups don't need any locking.
+	 */
+	private static final class ResolutionTable {
+		
+		private volatile Resolution[] table = new Resolution[16];
+		private int size;
+		/**
+		 * Set on lookups and reset on eviction, not synchronized as it is only a hint.
+		 */
+		boolean referenced;
+		
+		private static int indexFor(ConfigAttribute<?> configAttribute, String targetDisplayMode, int length) {
+			int hash = configAttribute.hashCode() * 31 + targetDisplayMode.hashCode();
+			hash ^= (hash >>> 16);
+			return hash & (length - 1);
+		}
+		
+		Resolution get(ConfigAttribute<?> configAttribute, String targetDisplayMode) {
+			Resolution[] resolutions = table;
+			int mask = resolutions.length - 1;
+			int index = indexFor(configAttribute, targetDisplayMode, resolutions.length);
+			Resolution resolution;
+			while ((resolution = resolutions[index]) != null) {
+				if (resolution.configAttribute == configAttribute 
+						&& (resolution.targetDisplayMode == targetDisplayMode || resolution.targetDisplayMode.equals(targetDisplayMode))) {
+					return resolution;
+				}
+				index = (index + 1) & mask;
+			}
+			return null;
+		}
+		
+		synchronized void put(Resolution resolution) {
+			if (get(resolution.configAttribute, resolution.targetDisplayMode) != null) {
+				return;
+			}
+			Resolution[] resolutions = table;
+			int length = (size + 1) * 2 > resolutions.length ? resolutions.length * 2 : resolutions.length;
+			Resolution[] copy = new Resolution[length];
+			for (Resolution existing : resolutions) {
+				if (existing != null) {
+					insert(copy, existing);
+				}
+			}
+			insert(copy, resolution);
+			size++;
+			table = copy;
+		}
+		
+		private static void insert(Resolution[] resolutions, Resolution resolution) {
+			int mask = resolutions.length - 1;
+			int index = indexFor(resolution.configAttribute, resolution.targetDisplayMode, resolutions.length);
+			while (resolutions[index] != null) {
+				index = (index + 1) & mask;
+			}
+			resolutions[index] = resolution;
+		}
+	}
+	
+	/**
+	 * Returns the cached resolution for the given arguments and resolves it in case it
+	 * is not cached yet.
+	 * @return The resolution or <code>null</code> if the arguments can not be cached.
+	 */
+	private Resolution getResolution(ConfigAttribute<?> configAttribute, String targetDisplayMode, List<String> configLabels) {
+		if (configAttribute == null || targetDisplayMode == null || configLabels == null) {
+			return null;
+		}
+		
+		ResolutionTable resolutions = resolutionCache.get(InternedLabels.intern(configLabels));
+		Resolution resolution = resolutions.get(configAttribute, targetDisplayMode);
+		if (resolution == null) {
+			//the labels are walked once, the first value is taken from the resolved values
+			resolution = new Resolution(configAttribute, targetDisplayMode, 
+					resolveConfigAttributeValues(configAttribute, targetDisplayMode, configLabels));
+			resolutions.put(resolution);
+		}
+		return resolution;
+	}
+	
+	/**
+	 * Clears the cache of resolved config attributes. Needs to be called if the 
+	 * resolution result changes without registering or unregistering config 
+	 * attributes, e.g. if a custom {@link IDisplayModeOrdering} is modified.
+	 */
+	public void clearCache() {
+		resolutionCache = new ResolutionCache();
+	}
+	
+	/**
+	 * @return The number of config label combinations that are currently cached.
+	 */
+	int getCachedLabelCombinationCount() {
+		return resolutionCache.size();
 	}
 
 }
@@ -53,6 +53,19 @@ public interface IConfigRegistry {
 	 */
 	public <T> T getConfigAttribute(ConfigAttribute<T> configAttribute, String targetDisplayMode, List<String> configLabels);
 
+	/**
+	 * Returns all values that are registered for the given config attribute and match the
+	 * target display mode and the config labels, in the order they are inspected by
+	 * {@link #getConfigAttribute(ConfigAttribute, String, List)}. This allows to resolve
+	 * attributes of values that are merged, like styles, without inspecting all display
+	 * mode and config label combinations for every attribute.
+	 * @param configAttribute The config attribute whose values are requested.
+	 * @param targetDisplayMode The display mode whose ordering should be used.
+	 * @param configLabels The config labels in the order they should be inspected.
+	 * @return The matching values, which must not be modified. Never <code>null</code>.
+	 */
+	public <T> List<T> getConfigAttributeValues(ConfigAttribute<T> configAttribute, String targetDisplayMode, List<String> configLabels);
+
 	/**
 	 * @see #getConfigAttribute(ConfigAttribute, String, String...)
 	 */
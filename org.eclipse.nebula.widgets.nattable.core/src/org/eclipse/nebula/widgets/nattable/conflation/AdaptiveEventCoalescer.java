@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.conflation;
+
+import java.util.concurrent.ScheduledFuture;
+
+import org.eclipse.nebula.widgets.nattable.util.Scheduler;
+
+/**
+ * Runs a task to handle coalesced events, with a window that adapts to the load of
+ * the UI thread instead of polling at a fixed interval.
+ * <p>
+ * The task is only scheduled if {@link #trigger()} is called, so nothing runs while no
+ * events occur. If the task didn't run for longer than the current window, it runs
+ * immediately. Otherwise it runs when the window since the last run has passed, so all
+ * events that occur in the meantime are handled by a single run.
+ * <p>
+ * The window is calculated from the average time the UI thread needs to process the
+ * results of a run, e.g. to paint, and from the number of UI tasks that are queued but
+ * not yet processed. This way events are propagated with no delay while the UI thread
+ * keeps up, and the UI thread is not flooded with work during bursts. The UI work
+ * needs to be reported via {@link #uiTaskScheduled()}, {@link #uiTaskCompleted(long)}
+ * and {@link #recordUiTime(long)}.
+ */
+public class AdaptiveEventCoalescer {
+
+	/**
+	 * The default maximum window in milliseconds.
+	 */
+	public static final long DEFAULT_MAX_WINDOW = 500;
+
+	/**
+	 * The factor applied to the average UI time, so the UI thread is not kept busy with
+	 * the results of the runs more than a fraction of the time.
+	 */
+	private static final int UI_TIME_FACTOR = 4;
+
+	/**
+	 * The window in milliseconds added per queued UI task, roughly one frame.
+	 */
+	private static final long QUEUED_UI_TASK_WINDOW = 16;
+
+	private final Scheduler scheduler;
+	private final Runnable task;
+	private final long minWindow;
+	private final long maxWindow;
+
+	private boolean started;
+	private ScheduledFuture<?> future;
+	private long notBefore;
+	private long lastRun = Long.MIN_VALUE / 2;
+
+	private long averageUiNanos;
+	private int queuedUiTasks;
+
+	/**
+	 * Creates a coalescer with an adaptive window between 0 and {@link #DEFAULT_MAX_WINDOW}.
+	 * @param scheduler The scheduler to run the task with.
+	 * @param task The task that handles the coalesced events.
+	 */
+	public AdaptiveEventCoalescer(Scheduler scheduler, Runnable task) {
+		this(scheduler, task, 0, DEFAULT_MAX_WINDOW);
+	}
+
+	/**
+	 * @param scheduler The scheduler to run the task with.
+	 * @param task The task that handles the coalesced events.
+	 * @param minWindow The minimum window in milliseconds.
+	 * @param maxWindow The maximum window in milliseconds. If it is equal to the minimum
+	 * 			window, the window is fixed.
+	 */
+	public AdaptiveEventCoalescer(Scheduler scheduler, Runnable task, long minWindow, long maxWindow) {
+		this.scheduler = scheduler;
+		this.task = task;
+		this.minWindow = minWindow;
+		this.maxWindow = Math.max(minWindow, maxWindow);
+	}
+
+	/**
+	 * Starts to run the task on triggers.
+	 * @param initialDelay The time in milliseconds before the task runs the first time.
+	 */
+	public synchronized void start(long initialDelay) {
+		if (!started) {
+			started = true;
+			scheduler.retain();
+			notBefore = now() + initialDelay;
+		}
+	}
+
+	/**
+	 * Stops to run the task and cancels a scheduled run.
+	 */
+	public synchronized void stop() {
+		if (started) {
+			started = false;
+			if (future != null) {
+				future.cancel(false);
+				future = null;
+			}
+			scheduler.release();
+		}
+	}
+
+	public synchronized boolean isStarted() {
+		return started;
+	}
+
+	/**
+	 * Schedules the task for the end of the current window, if it is not scheduled yet.
+	 * Has no effect if the coalescer is not started.
+	 */
+	public synchronized void trigger() {
+		if (started && future == null) {
+			future = scheduler.schedule(new Runnable() {
+				public void run() {
+					synchronized (AdaptiveEventCoalescer.this) {
+						if (!started) {
+							return;
+						}
+						future = null;
+						lastRun = now();
+					}
+					task.run();
+				}
+			}, getDelay());
+		}
+	}
+
+	/**
+	 * @return The time in milliseconds until the task can run again.
+	 */
+	synchronized long getDelay() {
+		long now = now();
+		return Math.max(0, Math.max(notBefore - now, lastRun + getWindow() - now));
+	}
+
+	/**
+	 * @return The current window in milliseconds, based on the UI load.
+	 */
+	public synchronized long getWindow() {
+		long window = (averageUiNanos * UI_TIME_FACTOR) / 1000000L + queuedUiTasks * QUEUED_UI_TASK_WINDOW;
+		return Math.min(maxWindow, Math.max(minWindow, window));
+	}
+
+	/**
+	 * Reports that a task was queued for the UI thread, e.g. via <code>Display.asyncExec()</code>.
+	 * Needs to be followed by a call to {@link #uiTaskCompleted(long)} once it is processed.
+	 */
+	public synchronized void uiTaskScheduled() {
+		queuedUiTasks++;
+	}
+
+	/**
+	 * Reports that a task that was reported via {@link #uiTaskScheduled()} was processed.
+	 * @param durationNanos The time the UI thread needed to process the task.
+	 */
+	public synchronized void uiTaskCompleted(long durationNanos) {
+		if (queuedUiTasks > 0) {
+			queuedUiTasks--;
+		}
+		recordUiTime(durationNanos);
+	}
+
+	/**
+	 * Reports UI work that is caused by the events, e.g. painting.
+	 * @param durationNanos The time the UI thread needed for the work.
+	 */
+	public synchronized void recordUiTime(long durationNanos) {
+		//exponential moving average
+		averageUiNanos += (durationNanos - averageUiNanos) / 4;
+	}
+
+	long now() {
+		return System.nanoTime() / 1000000L;
+	}
+
+}
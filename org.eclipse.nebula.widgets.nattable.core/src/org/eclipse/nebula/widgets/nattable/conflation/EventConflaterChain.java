@@ -12,7 +12,6 @@
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ScheduledFuture;
 
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.util.Scheduler;
@@ -22,62 +21,98 @@
  * A Chain of Conflaters. Every conflater in the chain is given the chance to
  * queue an event. When the chain runs every conflater in the chain can run its
  * own task to handle the events as it sees fit.
+ * <p>
+ * The chain doesn't poll. It is run by an {@link AdaptiveEventCoalescer} when events
+ * are added, immediately if the UI thread is idle, and with a window that is stretched
+ * with the load of the UI thread otherwise.
  */
 public class EventConflaterChain implements IEventConflater {
 
+	/**
+	 * The initial delay used by {@link #EventConflaterChain(int, int)} in the past. The 
+	 * default chain is run without initial delay.
+	 */
 	public static final int DEFAULT_INITIAL_DELAY = 100;
+	/**
+	 * The refresh interval used by {@link #EventConflaterChain(int, int)} in the past. The
+	 * default chain adapts the interval to the load of the UI thread.
+	 */
 	public static final int DEFAULT_REFRESH_INTERVAL = 100;
 	private static final Scheduler scheduler = new Scheduler("EventConflaterChain"); //$NON-NLS-1$
 
 	private final List<IEventConflater> chain = new LinkedList<IEventConflater>();
-	private ScheduledFuture<?> future;
-	private boolean started;
-	private final long refreshInterval;
+	private final AdaptiveEventCoalescer coalescer;
 	private final long initialDelay;
 
+	/**
+	 * Creates a chain that is run with an adaptive window.
+	 */
 	public EventConflaterChain() {
-		this(DEFAULT_REFRESH_INTERVAL, DEFAULT_INITIAL_DELAY);
+		this.coalescer = new AdaptiveEventCoalescer(scheduler, getConflaterTask());
+		this.initialDelay = 0;
 	}
 
+	/**
+	 * Creates a chain that is run with a fixed window.
+	 * @param refreshInterval The minimum time in milliseconds between two runs.
+	 * @param initialDelay The time in milliseconds after {@link #start()} before the
+	 * 			chain is run the first time.
+	 */
 	public EventConflaterChain(int refreshInterval, int initialDelay) {
-		this.refreshInterval = refreshInterval;
+		this.coalescer = new AdaptiveEventCoalescer(scheduler, getConflaterTask(), refreshInterval, refreshInterval);
 		this.initialDelay = initialDelay;
 	}
 
 	public void add(IEventConflater conflater) {
-		chain.add(conflater);
+		synchronized (chain) {
+			chain.add(conflater);
+		}
 	}
 
 	public void start() {
-		if (!started) {
-			future = scheduler.scheduleWithFixedDelay(getConflaterTask(), initialDelay, refreshInterval);
-			started = true;
+		if (!coalescer.isStarted()) {
+			coalescer.start(initialDelay);
+			if (getCount() > 0) {
+				coalescer.trigger();
+			}
 		}
 	}
 
 	public void stop() {
-		if (started) {
-			scheduler.unschedule(future);
-			started = false;
-		}
+		coalescer.stop();
+	}
+
+	/**
+	 * @return The coalescer that runs this chain, which needs to be informed about the
+	 * 			UI work caused by the conflaters.
+	 */
+	public AdaptiveEventCoalescer getCoalescer() {
+		return coalescer;
 	}
 
 	public void addEvent(ILayerEvent event) {
-		for (IEventConflater eventConflater : chain) {
-			eventConflater.addEvent(event);
+		synchronized (chain) {
+			for (IEventConflater eventConflater : chain) {
+				eventConflater.addEvent(event);
+			}
 		}
+		coalescer.trigger();
 	}
 
 	public void clearQueue() {
-		for (IEventConflater eventConflater : chain) {
-			eventConflater.clearQueue();
+		synchronized (chain) {
+			for (IEventConflater eventConflater : chain) {
+				eventConflater.clearQueue();
+			}
 		}
 	}
 
 	public int getCount() {
 		int count = 0;
-		for (IEventConflater eventConflater : chain) {
-			count = count + eventConflater.getCount();
+		synchronized (chain) {
+			for (IEventConflater eventConflater : chain) {
+				count = count + eventConflater.getCount();
+			}
 		}
 		return count;
 	}
@@ -85,8 +120,10 @@ public int getCount() {
 	public Runnable getConflaterTask() {
 		return new Runnable() {
 			public void run() {
-				for (IEventConflater conflater : chain) {
-					conflater.getConflaterTask().run();
+				synchronized (chain) {
+					for (IEventConflater conflater : chain) {
+						conflater.getConflaterTask().run();
+					}
 				}
 			}
 		};
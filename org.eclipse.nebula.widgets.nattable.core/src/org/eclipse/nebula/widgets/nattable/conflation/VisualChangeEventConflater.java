@@ -16,14 +16,25 @@
 
 /**
  * Gathers all the VisualChangeEvents. When its run, it refreshes/repaints the table. 
- *
+ * If an {@link AdaptiveEventCoalescer} is set, the time needed for the refresh is
+ * reported to it.
  */
 public class VisualChangeEventConflater extends AbstractEventConflater { 
 
 	private final NatTable natTable;
+	private final AdaptiveEventCoalescer coalescer;
 
 	public VisualChangeEventConflater(NatTable ownerLayer) {
+		this(ownerLayer, null);
+	}
+
+	/**
+	 * @param ownerLayer The NatTable to refresh.
+	 * @param coalescer The coalescer the refresh times are reported to, can be <code>null</code>.
+	 */
+	public VisualChangeEventConflater(NatTable ownerLayer, AdaptiveEventCoalescer coalescer) {
 		natTable = ownerLayer;
+		this.coalescer = coalescer;
 	}
 
 	@Override
@@ -39,9 +50,16 @@ public Runnable getConflaterTask() {
 
 			public void run() {
 				if (queue.size() > 0) {
+					if (coalescer != null) {
+						coalescer.uiTaskScheduled();
+					}
 					natTable.getDisplay().asyncExec(new Runnable() {
 						public void run() {
+							long start = System.nanoTime();
 							natTable.updateResize();
+							if (coalescer != null) {
+								coalescer.uiTaskCompleted(System.nanoTime() - start);
+							}
 						}
 					});
 
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * {@link IColumnPropertyAccessor} that uses java reflection to get/set property values
+ * of the row bean, like {@link ReflectiveColumnPropertyAccessor}, but resolves the getter
+ * and setter methods only once per column and bean class instead of on every access.
+ * <p>
+ * The resolved methods are made accessible, so invoking them doesn't need the access
+ * checks, and are cached together with the class they were resolved for. A cached
+ * method is reused as long as the accessed objects are of the same class, which is
+ * the case for nearly all rows of a table.
+ * <p>
+ * Like {@link ExtendedReflectiveColumnPropertyAccessor} dot separated property names are
+ * supported to access properties anywhere within the object graph, e.g. "address.street".
+ * If an object in the path is <code>null</code>, <code>null</code> is returned as value.
+ *
+ * @param <R> type of the row object/bean
+ */
+public class CachedReflectiveColumnPropertyAccessor<R> implements IColumnPropertyAccessor<R> {
+
+	private static final Log log = LogFactory.getLog(CachedReflectiveColumnPropertyAccessor.class);
+
+	private final List<String> propertyNames;
+
+	/**
+	 * The property paths of the columns, split into the single properties.
+	 */
+	private final PropertyAccessor[][] propertyPaths;
+
+	/**
+	 * @param propertyNames of the members of the row bean, may be dot separated
+	 * 			to access nested properties
+	 */
+	public CachedReflectiveColumnPropertyAccessor(String[] propertyNames) {
+		this.propertyNames = Arrays.asList(propertyNames);
+		this.propertyPaths = new PropertyAccessor[propertyNames.length][];
+		for (int i = 0; i < propertyNames.length; i++) {
+			String[] propertyChain = propertyNames[i].split("\\."); //$NON-NLS-1$
+			propertyPaths[i] = new PropertyAccessor[propertyChain.length];
+			for (int j = 0; j < propertyChain.length; j++) {
+				propertyPaths[i][j] = new PropertyAccessor(propertyChain[j]);
+			}
+		}
+	}
+
+	public int getColumnCount() {
+		return propertyNames.size();
+	}
+
+	public Object getDataValue(R rowObj, int columnIndex) {
+		try {
+			Object value = rowObj;
+			for (PropertyAccessor propertyAccessor : propertyPaths[columnIndex]) {
+				if (value == null) {
+					//null is returned by a property in the path, therefore we can not go
+					//further and null is the correct return value
+					break;
+				}
+				value = propertyAccessor.getValue(value);
+			}
+			return value;
+		} catch (Exception e) {
+			log.warn(e);
+			throw new RuntimeException(e);
+		}
+	}
+
+	public void setDataValue(R rowObj, int columnIndex, Object newValue) {
+		try {
+			PropertyAccessor[] propertyPath = propertyPaths[columnIndex];
+			Object target = rowObj;
+			for (int i = 0; i < propertyPath.length - 1; i++) {
+				target = propertyPath[i].getValue(target);
+				if (target == null) {
+					throw new RuntimeException("Property path to set the value at column index " + columnIndex + " contains null"); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
+			propertyPath[propertyPath.length - 1].setValue(target, newValue, columnIndex);
+		} catch (IllegalArgumentException ex) {
+			log.error("Data type being set does not match the data type of the setter method in the backing bean", ex); //$NON-NLS-1$
+		} catch (Exception e) {
+			log.error(e);
+			throw new RuntimeException("Error while setting data value"); //$NON-NLS-1$
+		}
+	}
+
+	public String getColumnProperty(int columnIndex) {
+		return propertyNames.get(columnIndex);
+	}
+
+	public int getColumnIndex(String propertyName) {
+		return propertyNames.indexOf(propertyName);
+	}
+
+	/**
+	 * Accessor for a single property of a property path, which caches the getter and
+	 * setter methods of the class that was accessed last.
+	 */
+	private static class PropertyAccessor {
+
+		private final String propertyName;
+
+		/**
+		 * The resolved methods, replaced as a whole to be thread safe.
+		 */
+		private volatile ResolvedProperty resolved;
+
+		PropertyAccessor(String propertyName) {
+			this.propertyName = propertyName;
+		}
+
+		Object getValue(Object object) throws Exception {
+			Method readMethod = resolve(object.getClass()).readMethod;
+			if (readMethod == null) {
+				throw new RuntimeException("Getter method not found in backing bean for property: " + propertyName); //$NON-NLS-1$
+			}
+			return readMethod.invoke(object);
+		}
+
+		void setValue(Object object, Object value, int columnIndex) throws Exception {
+			Method writeMethod = resolve(object.getClass()).writeMethod;
+			if (writeMethod == null) {
+				throw new RuntimeException("Setter method not found in backing bean for value at column index: " + columnIndex); //$NON-NLS-1$
+			}
+			writeMethod.invoke(object, value);
+		}
+
+		private ResolvedProperty resolve(Class<?> beanClass) throws IntrospectionException {
+			ResolvedProperty resolvedProperty = resolved;
+			if (resolvedProperty == null || resolvedProperty.beanClass != beanClass) {
+				resolvedProperty = new ResolvedProperty(beanClass, propertyName);
+				resolved = resolvedProperty;
+			}
+			return resolvedProperty;
+		}
+	}
+
+	/**
+	 * The getter and setter methods of a property of a bean class.
+	 */
+	private static class ResolvedProperty {
+
+		final Class<?> beanClass;
+		final Method readMethod;
+		final Method writeMethod;
+
+		ResolvedProperty(Class<?> beanClass, String propertyName) throws IntrospectionException {
+			this.beanClass = beanClass;
+			Method read = null;
+			Method write = null;
+			for (PropertyDescriptor propertyDescriptor : Introspector.getBeanInfo(beanClass).getPropertyDescriptors()) {
+				if (propertyDescriptor.getName().equals(propertyName)) {
+					read = makeAccessible(propertyDescriptor.getReadMethod());
+					write = makeAccessible(propertyDescriptor.getWriteMethod());
+					break;
+				}
+			}
+			if (read == null && propertyName.length() > 0) {
+				//the Introspector only supports is-getters for primitive boolean properties
+				try {
+					read = makeAccessible(beanClass.getMethod("is" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1))); //$NON-NLS-1$
+				} catch (NoSuchMethodException e) {
+					//no getter available
+				}
+			}
+			this.readMethod = read;
+			this.writeMethod = write;
+		}
+
+		private static Method makeAccessible(Method method) {
+			if (method != null) {
+				try {
+					method.setAccessible(true);
+				} catch (SecurityException e) {
+					//invoke with access checks
+				}
+			}
+			return method;
+		}
+	}
+
+}
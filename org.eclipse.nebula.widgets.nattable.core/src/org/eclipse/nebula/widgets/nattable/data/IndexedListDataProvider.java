@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import java.util.List;
+
+/**
+ * {@link ListDataProvider} that looks up the index of a row object in a {@link RowObjectIndex}
+ * instead of scanning the list, which is faster for big lists if the indexes of row objects
+ * are requested frequently, e.g. to preserve the selection.
+ * <p>
+ * Changes of the list that don't change its size, like sorting it, need to be announced
+ * by calling {@link #invalidateIndex()}.
+ *
+ * @param <T> type of the Objects in the backing list.
+ */
+public class IndexedListDataProvider<T> extends ListDataProvider<T> {
+
+	private final RowObjectIndex<T> rowObjectIndex;
+
+	/**
+	 * Creates a data provider that indexes the row objects themselves.
+	 * @param list The backing list.
+	 * @param columnAccessor The accessor for the column values.
+	 */
+	public IndexedListDataProvider(List<T> list, IColumnAccessor<T> columnAccessor) {
+		this(list, columnAccessor, null);
+	}
+
+	/**
+	 * @param list The backing list.
+	 * @param columnAccessor The accessor for the column values.
+	 * @param rowIdAccessor The accessor for the row ids to index the row objects by,
+	 * 			or <code>null</code> to index the row objects themselves.
+	 */
+	public IndexedListDataProvider(List<T> list, IColumnAccessor<T> columnAccessor, IRowIdAccessor<T> rowIdAccessor) {
+		super(list, columnAccessor);
+		this.rowObjectIndex = new RowObjectIndex<T>(rowIdAccessor);
+	}
+
+	@Override
+	public int indexOfRowObject(T rowObject) {
+		return rowObjectIndex.indexOf(list, rowObject);
+	}
+
+	/**
+	 * Discards the index of the row objects, e.g. after the list was sorted.
+	 */
+	public void invalidateIndex() {
+		rowObjectIndex.invalidate();
+	}
+
+}
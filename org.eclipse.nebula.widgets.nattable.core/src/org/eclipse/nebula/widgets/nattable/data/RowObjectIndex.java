@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash index of the row objects of a list, to look up the index of a row object without
+ * scanning the list like {@link List#indexOf(Object)}.
+ * <p>
+ * The row objects are indexed by their row id if an {@link IRowIdAccessor} is given, or by
+ * the row objects themselves otherwise, which uses their equals() and hashCode() like
+ * {@link List#indexOf(Object)}. If a row object is contained several times, the index of
+ * the first occurrence is returned.
+ * <p>
+ * The index is created lazily on the first lookup. It is created again if the size of the
+ * list has changed, or if the row object at the indexed position doesn't match anymore.
+ * Changes of the list that don't change its size, like sorting it, need to be announced by
+ * calling {@link #invalidate()}. Row objects that are replaced or changed at their position
+ * can be announced by calling {@link #rowObjectUpdated(int, Object)} instead, which only
+ * updates the key of that position.
+ *
+ * @param <T> type of the row objects.
+ */
+public class RowObjectIndex<T> {
+
+	private final IRowIdAccessor<T> rowIdAccessor;
+
+	/**
+	 * The list indexes by row id or row object, <code>null</code> if it needs to be created again.
+	 */
+	private Map<Object, Integer> indexes;
+	/**
+	 * The keys by list index, to remove the key of a row object that was replaced.
+	 */
+	private Object[] keys;
+	/**
+	 * The hash codes of the keys by list index, as a row object that is used as key might
+	 * have been changed in a way that changes its hash code.
+	 */
+	private int[] keyHashCodes;
+	/**
+	 * Whether a key is contained several times in the list.
+	 */
+	private boolean duplicateKeys;
+	private int indexedSize;
+
+	/**
+	 * Creates an index that uses the row objects themselves as keys.
+	 */
+	public RowObjectIndex() {
+		this(null);
+	}
+
+	/**
+	 * @param rowIdAccessor The accessor for the row ids to use as keys, or <code>null</code>
+	 * 			to use the row objects themselves.
+	 */
+	public RowObjectIndex(IRowIdAccessor<T> rowIdAccessor) {
+		this.rowIdAccessor = rowIdAccessor;
+	}
+
+	/**
+	 * @param list The list that contains the row objects.
+	 * @param rowObject The row object to look up.
+	 * @return The index of the row object in the list, or -1 if it is not contained.
+	 */
+	public synchronized int indexOf(List<T> list, T rowObject) {
+		if (rowObject == null) {
+			return list.indexOf(rowObject);
+		}
+
+		if (this.indexes == null || this.indexedSize != list.size()) {
+			createIndex(list);
+		}
+
+		Object key = getKey(rowObject);
+		Integer index = this.indexes.get(key);
+		if (index != null && !key.equals(getKey(list.get(index)))) {
+			//the list has changed without notice
+			createIndex(list);
+			index = this.indexes.get(key);
+		}
+		return index != null ? index.intValue() : -1;
+	}
+
+	/**
+	 * Discards the index, so it is created again on the next lookup.
+	 */
+	public synchronized void invalidate() {
+		this.indexes = null;
+		this.keys = null;
+		this.keyHashCodes = null;
+	}
+
+	/**
+	 * Updates the key of the given position, e.g. because the row object at that position
+	 * was replaced or its row id has changed, without creating the whole index again.
+	 * @param index The position of the row object in the list.
+	 * @param rowObject The row object that is now at the given position.
+	 */
+	public synchronized void rowObjectUpdated(int index, T rowObject) {
+		if (this.indexes == null) {
+			return;
+		}
+		if (index < 0 || index >= this.keys.length || this.duplicateKeys) {
+			//the first occurrence of the previous key can't be determined
+			invalidate();
+			return;
+		}
+
+		Object oldKey = this.keys[index];
+		Object newKey = (rowObject != null) ? getKey(rowObject) : null;
+		int newHashCode = (newKey != null) ? newKey.hashCode() : 0;
+		if (oldKey == newKey && newHashCode != this.keyHashCodes[index]) {
+			//the row object itself is the key and it can't be found anymore by its hash code
+			invalidate();
+			return;
+		}
+		if (oldKey != null ? oldKey.equals(newKey) : newKey == null) {
+			return;
+		}
+
+		if (oldKey != null) {
+			this.indexes.remove(oldKey);
+		}
+		if (newKey != null && this.indexes.put(newKey, Integer.valueOf(index)) != null) {
+			//the key is also contained at another position
+			invalidate();
+			return;
+		}
+		this.keys[index] = newKey;
+		this.keyHashCodes[index] = newHashCode;
+	}
+
+	private void createIndex(List<T> list) {
+		int size = list.size();
+		Map<Object, Integer> newIndexes = new HashMap<Object, Integer>(size * 4 / 3 + 1);
+		Object[] newKeys = new Object[size];
+		int[] newKeyHashCodes = new int[size];
+		boolean duplicates = false;
+		for (int i = size - 1; i >= 0; i--) {
+			//iterate backwards so the first occurrence remains
+			T rowObject = list.get(i);
+			if (rowObject != null) {
+				newKeys[i] = getKey(rowObject);
+				newKeyHashCodes[i] = newKeys[i].hashCode();
+				duplicates |= newIndexes.put(newKeys[i], Integer.valueOf(i)) != null;
+			}
+		}
+		this.indexes = newIndexes;
+		this.keys = newKeys;
+		this.keyHashCodes = newKeyHashCodes;
+		this.duplicateKeys = duplicates;
+		this.indexedSize = size;
+	}
+
+	private Object getKey(T rowObject) {
+		return this.rowIdAccessor != null ? this.rowIdAccessor.getRowId(rowObject) : rowObject;
+	}
+
+}
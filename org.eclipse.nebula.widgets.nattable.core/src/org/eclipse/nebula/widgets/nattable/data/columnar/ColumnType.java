@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data.columnar;
+
+/**
+ * The types of columns that are supported by the {@link ColumnarDataProvider}.
+ */
+public enum ColumnType {
+
+	/**
+	 * Column of <code>double</code> values, stored in a <code>double[]</code>.
+	 */
+	DOUBLE(true),
+	/**
+	 * Column of <code>long</code> values, stored in a <code>long[]</code>.
+	 */
+	LONG(true),
+	/**
+	 * Column of <code>int</code> values, stored in an <code>int[]</code>.
+	 */
+	INT(true),
+	/**
+	 * Column of <code>boolean</code> values, stored in a bit set.
+	 */
+	BOOLEAN(false),
+	/**
+	 * Column of String values, stored dictionary encoded as <code>int[]</code> of
+	 * codes into the distinct values of the column.
+	 */
+	STRING(false);
+
+	private final boolean numeric;
+
+	private ColumnType(boolean numeric) {
+		this.numeric = numeric;
+	}
+
+	/**
+	 * @return <code>true</code> if the values of columns of this type can be read via
+	 * 			{@link ColumnarDataProvider#getDouble(int, int)}
+	 */
+	public boolean isNumeric() {
+		return numeric;
+	}
+
+}
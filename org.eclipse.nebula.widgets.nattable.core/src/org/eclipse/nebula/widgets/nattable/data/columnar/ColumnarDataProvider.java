@@ -0,0 +1,623 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data.columnar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
+
+/**
+ * {@link IDataProvider} that stores the data column wise in growable primitive arrays
+ * instead of holding one object per row. This reduces the memory that is needed per
+ * row, e.g. 8 bytes for a <code>double</code> value instead of a bean field pointing
+ * to a boxed value, and allows to read the values without boxing via the typed getters
+ * like {@link #getDouble(int, int)}, which is used for sorting via the
+ * {@link ColumnarSortModel} and for summaries.
+ * <p>
+ * String columns are dictionary encoded, so every distinct value is only stored once.
+ * <p>
+ * The row objects of this data provider are the indexes of the rows in the storage,
+ * which don't change on sorting. The row indexes that are used for accessing the data
+ * are the indexes in the current row order.
+ * <p>
+ * Values of primitive columns can't be <code>null</code>. Setting a <code>null</code>
+ * value sets the default value of the primitive type, which is <code>Double.NaN</code>
+ * for double columns.
+ */
+public class ColumnarDataProvider implements IRowDataProvider<Integer> {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final List<Column> columns = new ArrayList<Column>();
+
+	private int rowCount;
+	private int capacity = INITIAL_CAPACITY;
+
+	/**
+	 * The storage rows in the current row order, or <code>null</code> if the rows
+	 * are in storage order.
+	 */
+	private int[] rowOrder;
+
+	/**
+	 * The inverse of {@link #rowOrder}, which is created lazily.
+	 */
+	private int[] rowIndexes;
+
+	/**
+	 * Adds a column of the given type.
+	 * @param name The name of the column.
+	 * @param type The type of the column.
+	 * @return The index of the added column.
+	 */
+	public int addColumn(String name, ColumnType type) {
+		Column column;
+		switch (type) {
+			case DOUBLE:
+				column = new DoubleColumn(name, capacity);
+				break;
+			case LONG:
+				column = new LongColumn(name, capacity);
+				break;
+			case INT:
+				column = new IntColumn(name, capacity);
+				break;
+			case BOOLEAN:
+				column = new BooleanColumn(name);
+				break;
+			default:
+				column = new StringColumn(name, capacity);
+				break;
+		}
+		for (int row = 0; row < rowCount; row++) {
+			column.setValue(row, null);
+		}
+		columns.add(column);
+		return columns.size() - 1;
+	}
+
+	/**
+	 * Appends rows with default values. New rows are added at the end of the current
+	 * row order, also if the rows are sorted.
+	 * @param count The number of rows to add.
+	 * @return The row index of the first added row.
+	 */
+	public int addRows(int count) {
+		int firstRow = rowCount;
+		int newRowCount = rowCount + count;
+		if (newRowCount > capacity) {
+			int newCapacity = Math.max(newRowCount, capacity * 2);
+			for (Column column : columns) {
+				column.setCapacity(newCapacity);
+			}
+			capacity = newCapacity;
+		}
+		for (Column column : columns) {
+			for (int row = firstRow; row < newRowCount; row++) {
+				column.setValue(row, null);
+			}
+		}
+		if (rowOrder != null) {
+			rowOrder = Arrays.copyOf(rowOrder, newRowCount);
+			for (int row = firstRow; row < newRowCount; row++) {
+				rowOrder[row] = row;
+			}
+			rowIndexes = null;
+		}
+		rowCount = newRowCount;
+		return firstRow;
+	}
+
+	/**
+	 * Appends a row with default values.
+	 * @return The row index of the added row.
+	 */
+	public int addRow() {
+		return addRows(1);
+	}
+
+	public int getColumnCount() {
+		return columns.size();
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @param columnIndex The index of the column.
+	 * @return The name of the column.
+	 */
+	public String getColumnName(int columnIndex) {
+		return columns.get(columnIndex).name;
+	}
+
+	/**
+	 * @param columnIndex The index of the column.
+	 * @return The type of the column.
+	 */
+	public ColumnType getColumnType(int columnIndex) {
+		return columns.get(columnIndex).type;
+	}
+
+	/**
+	 * Returns the value at the given position, boxed for columns of primitive types.
+	 * Use the typed getters to avoid boxing.
+	 */
+	public Object getDataValue(int columnIndex, int rowIndex) {
+		return columns.get(columnIndex).getValue(getStorageRow(rowIndex));
+	}
+
+	/**
+	 * Sets the value at the given position. Values for numeric columns need to be
+	 * {@link Number}s, values for boolean columns {@link Boolean}s. For String columns
+	 * the String representation of the value is stored.
+	 */
+	public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+		columns.get(columnIndex).setValue(getStorageRow(rowIndex), newValue);
+	}
+
+	/**
+	 * Returns the value of a numeric column as <code>double</code>.
+	 * @throws ClassCastException if the column is not numeric
+	 */
+	public double getDouble(int columnIndex, int rowIndex) {
+		return ((NumericColumn) columns.get(columnIndex)).getDouble(getStorageRow(rowIndex));
+	}
+
+	/**
+	 * Returns the value of a numeric column as <code>long</code>.
+	 * @throws ClassCastException if the column is not numeric
+	 */
+	public long getLong(int columnIndex, int rowIndex) {
+		return ((NumericColumn) columns.get(columnIndex)).getLong(getStorageRow(rowIndex));
+	}
+
+	/**
+	 * Returns the value of a numeric column as <code>int</code>.
+	 * @throws ClassCastException if the column is not numeric
+	 */
+	public int getInt(int columnIndex, int rowIndex) {
+		return (int) ((NumericColumn) columns.get(columnIndex)).getLong(getStorageRow(rowIndex));
+	}
+
+	/**
+	 * @throws ClassCastException if the column is not a boolean column
+	 */
+	public boolean getBoolean(int columnIndex, int rowIndex) {
+		return ((BooleanColumn) columns.get(columnIndex)).values.get(getStorageRow(rowIndex));
+	}
+
+	/**
+	 * @throws ClassCastException if the column is not a String column
+	 */
+	public String getString(int columnIndex, int rowIndex) {
+		return ((StringColumn) columns.get(columnIndex)).getValue(getStorageRow(rowIndex));
+	}
+
+	/**
+	 * @throws ClassCastException if the column is not a double column
+	 */
+	public void setDouble(int columnIndex, int rowIndex, double value) {
+		((DoubleColumn) columns.get(columnIndex)).values[getStorageRow(rowIndex)] = value;
+	}
+
+	/**
+	 * @throws ClassCastException if the column is not a long column
+	 */
+	public void setLong(int columnIndex, int rowIndex, long value) {
+		((LongColumn) columns.get(columnIndex)).values[getStorageRow(rowIndex)] = value;
+	}
+
+	/**
+	 * @throws ClassCastException if the column is not an int column
+	 */
+	public void setInt(int columnIndex, int rowIndex, int value) {
+		((IntColumn) columns.get(columnIndex)).values[getStorageRow(rowIndex)] = value;
+	}
+
+	/**
+	 * @throws ClassCastException if the column is not a boolean column
+	 */
+	public void setBoolean(int columnIndex, int rowIndex, boolean value) {
+		((BooleanColumn) columns.get(columnIndex)).values.set(getStorageRow(rowIndex), value);
+	}
+
+	/**
+	 * @throws ClassCastException if the column is not a String column
+	 */
+	public void setString(int columnIndex, int rowIndex, String value) {
+		((StringColumn) columns.get(columnIndex)).setValue(getStorageRow(rowIndex), value);
+	}
+
+	/**
+	 * Returns the sum of the values of a numeric column.
+	 * @throws ClassCastException if the column is not numeric
+	 */
+	public double sum(int columnIndex) {
+		NumericColumn column = (NumericColumn) columns.get(columnIndex);
+		double sum = 0;
+		//the row order doesn't matter for the sum
+		for (int row = 0; row < rowCount; row++) {
+			sum += column.getDouble(row);
+		}
+		return sum;
+	}
+
+	/**
+	 * @return The storage row, which doesn't change on sorting.
+	 */
+	public Integer getRowObject(int rowIndex) {
+		return Integer.valueOf(getStorageRow(rowIndex));
+	}
+
+	public int indexOfRowObject(Integer rowObject) {
+		if (rowObject == null || rowObject.intValue() < 0 || rowObject.intValue() >= rowCount) {
+			return -1;
+		}
+		if (rowOrder == null) {
+			return rowObject.intValue();
+		}
+		if (rowIndexes == null) {
+			rowIndexes = new int[rowCount];
+			for (int i = 0; i < rowCount; i++) {
+				rowIndexes[rowOrder[i]] = i;
+			}
+		}
+		return rowIndexes[rowObject.intValue()];
+	}
+
+	private int getStorageRow(int rowIndex) {
+		if (rowIndex < 0 || rowIndex >= rowCount) {
+			throw new IndexOutOfBoundsException("Row index: " + rowIndex + ", row count: " + rowCount); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return (rowOrder != null) ? rowOrder[rowIndex] : rowIndex;
+	}
+
+	// Sorting ////////////////////////////////////////////////////////////////
+
+	/**
+	 * Sorts the rows by the values of the given columns. The sort is stable and only
+	 * changes the row order, the data itself is not moved.
+	 * @param columnIndexes The indexes of the columns to sort by, in the order of
+	 * 			their priority.
+	 * @param ascending Whether the column with the same index in columnIndexes
+	 * 			should be sorted ascending.
+	 */
+	public void sort(int[] columnIndexes, boolean[] ascending) {
+		if (columnIndexes.length == 0) {
+			resetRowOrder();
+			return;
+		}
+
+		Column[] sortColumns = new Column[columnIndexes.length];
+		for (int i = 0; i < columnIndexes.length; i++) {
+			sortColumns[i] = columns.get(columnIndexes[i]);
+		}
+
+		int[] order = new int[rowCount];
+		for (int i = 0; i < rowCount; i++) {
+			order[i] = i;
+		}
+		mergeSort(order, new int[rowCount], 0, rowCount, sortColumns, ascending);
+
+		rowOrder = order;
+		rowIndexes = null;
+	}
+
+	/**
+	 * Restores the storage order of the rows.
+	 */
+	public void resetRowOrder() {
+		rowOrder = null;
+		rowIndexes = null;
+	}
+
+	private static int compare(int row1, int row2, Column[] sortColumns, boolean[] ascending) {
+		for (int i = 0; i < sortColumns.length; i++) {
+			int result = sortColumns[i].compare(row1, row2);
+			if (result != 0) {
+				return ascending[i] ? result : -result;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Stable merge sort of the rows in the given range, which uses insertion sort for
+	 * small ranges.
+	 */
+	private static void mergeSort(int[] rows, int[] buffer, int from, int to, Column[] sortColumns, boolean[] ascending) {
+		if (to - from <= 16) {
+			for (int i = from + 1; i < to; i++) {
+				int row = rows[i];
+				int j = i - 1;
+				while (j >= from && compare(rows[j], row, sortColumns, ascending) > 0) {
+					rows[j + 1] = rows[j];
+					j--;
+				}
+				rows[j + 1] = row;
+			}
+			return;
+		}
+
+		int middle = (from + to) >>> 1;
+		mergeSort(rows, buffer, from, middle, sortColumns, ascending);
+		mergeSort(rows, buffer, middle, to, sortColumns, ascending);
+		if (compare(rows[middle - 1], rows[middle], sortColumns, ascending) <= 0) {
+			return;
+		}
+
+		System.arraycopy(rows, from, buffer, from, to - from);
+		int left = from;
+		int right = middle;
+		for (int i = from; i < to; i++) {
+			if (right >= to || (left < middle && compare(buffer[left], buffer[right], sortColumns, ascending) <= 0)) {
+				rows[i] = buffer[left++];
+			} else {
+				rows[i] = buffer[right++];
+			}
+		}
+	}
+
+	// Columns ////////////////////////////////////////////////////////////////
+
+	private abstract static class Column {
+
+		final String name;
+		final ColumnType type;
+
+		Column(String name, ColumnType type) {
+			this.name = name;
+			this.type = type;
+		}
+
+		abstract void setCapacity(int capacity);
+
+		abstract Object getValue(int row);
+
+		abstract void setValue(int row, Object value);
+
+		abstract int compare(int row1, int row2);
+	}
+
+	private abstract static class NumericColumn extends Column {
+
+		NumericColumn(String name, ColumnType type) {
+			super(name, type);
+		}
+
+		abstract double getDouble(int row);
+
+		abstract long getLong(int row);
+	}
+
+	private static class DoubleColumn extends NumericColumn {
+
+		double[] values;
+
+		DoubleColumn(String name, int capacity) {
+			super(name, ColumnType.DOUBLE);
+			values = new double[capacity];
+		}
+
+		@Override
+		void setCapacity(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		@Override
+		Object getValue(int row) {
+			return Double.valueOf(values[row]);
+		}
+
+		@Override
+		void setValue(int row, Object value) {
+			values[row] = (value != null) ? ((Number) value).doubleValue() : Double.NaN;
+		}
+
+		@Override
+		int compare(int row1, int row2) {
+			return Double.compare(values[row1], values[row2]);
+		}
+
+		@Override
+		double getDouble(int row) {
+			return values[row];
+		}
+
+		@Override
+		long getLong(int row) {
+			return (long) values[row];
+		}
+	}
+
+	private static class LongColumn extends NumericColumn {
+
+		long[] values;
+
+		LongColumn(String name, int capacity) {
+			super(name, ColumnType.LONG);
+			values = new long[capacity];
+		}
+
+		@Override
+		void setCapacity(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		@Override
+		Object getValue(int row) {
+			return Long.valueOf(values[row]);
+		}
+
+		@Override
+		void setValue(int row, Object value) {
+			values[row] = (value != null) ? ((Number) value).longValue() : 0;
+		}
+
+		@Override
+		int compare(int row1, int row2) {
+			long value1 = values[row1];
+			long value2 = values[row2];
+			return (value1 < value2) ? -1 : ((value1 == value2) ? 0 : 1);
+		}
+
+		@Override
+		double getDouble(int row) {
+			return values[row];
+		}
+
+		@Override
+		long getLong(int row) {
+			return values[row];
+		}
+	}
+
+	private static class IntColumn extends NumericColumn {
+
+		int[] values;
+
+		IntColumn(String name, int capacity) {
+			super(name, ColumnType.INT);
+			values = new int[capacity];
+		}
+
+		@Override
+		void setCapacity(int capacity) {
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		@Override
+		Object getValue(int row) {
+			return Integer.valueOf(values[row]);
+		}
+
+		@Override
+		void setValue(int row, Object value) {
+			values[row] = (value != null) ? ((Number) value).intValue() : 0;
+		}
+
+		@Override
+		int compare(int row1, int row2) {
+			int value1 = values[row1];
+			int value2 = values[row2];
+			return (value1 < value2) ? -1 : ((value1 == value2) ? 0 : 1);
+		}
+
+		@Override
+		double getDouble(int row) {
+			return values[row];
+		}
+
+		@Override
+		long getLong(int row) {
+			return values[row];
+		}
+	}
+
+	private static class BooleanColumn extends Column {
+
+		final BitSet values = new BitSet();
+
+		BooleanColumn(String name) {
+			super(name, ColumnType.BOOLEAN);
+		}
+
+		@Override
+		void setCapacity(int capacity) {
+			//the bit set grows on demand
+		}
+
+		@Override
+		Object getValue(int row) {
+			return Boolean.valueOf(values.get(row));
+		}
+
+		@Override
+		void setValue(int row, Object value) {
+			values.set(row, (value != null) && ((Boolean) value).booleanValue());
+		}
+
+		@Override
+		int compare(int row1, int row2) {
+			boolean value1 = values.get(row1);
+			return (value1 == values.get(row2)) ? 0 : (value1 ? 1 : -1);
+		}
+	}
+
+	/**
+	 * Dictionary encoded String column. The codes are the indexes in the dictionary,
+	 * -1 represents <code>null</code>.
+	 */
+	private static class StringColumn extends Column {
+
+		int[] codes;
+		final List<String> dictionary = new ArrayList<String>();
+		final Map<String, Integer> dictionaryCodes = new HashMap<String, Integer>();
+
+		StringColumn(String name, int capacity) {
+			super(name, ColumnType.STRING);
+			codes = new int[capacity];
+		}
+
+		@Override
+		void setCapacity(int capacity) {
+			codes = Arrays.copyOf(codes, capacity);
+		}
+
+		@Override
+		String getValue(int row) {
+			int code = codes[row];
+			return (code >= 0) ? dictionary.get(code) : null;
+		}
+
+		@Override
+		void setValue(int row, Object value) {
+			if (value == null) {
+				codes[row] = -1;
+				return;
+			}
+			String string = value.toString();
+			Integer code = dictionaryCodes.get(string);
+			if (code == null) {
+				code = Integer.valueOf(dictionary.size());
+				dictionary.add(string);
+				dictionaryCodes.put(string, code);
+			}
+			codes[row] = code.intValue();
+		}
+
+		@Override
+		int compare(int row1, int row2) {
+			int code1 = codes[row1];
+			int code2 = codes[row2];
+			if (code1 == code2) {
+				return 0;
+			}
+			//null first
+			if (code1 < 0) {
+				return -1;
+			}
+			if (code2 < 0) {
+				return 1;
+			}
+			return dictionary.get(code1).compareTo(dictionary.get(code2));
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data.columnar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.config.DefaultComparator;
+import org.eclipse.nebula.widgets.nattable.sort.ISortModel;
+import org.eclipse.nebula.widgets.nattable.sort.SortDirectionEnum;
+
+/**
+ * {@link ISortModel} for a {@link ColumnarDataProvider}, which sorts the rows by
+ * comparing the primitive values of the columns directly.
+ */
+public class ColumnarSortModel implements ISortModel {
+
+	private final ColumnarDataProvider dataProvider;
+
+	private final List<Integer> sortedColumnIndexes = new ArrayList<Integer>();
+	private final List<SortDirectionEnum> sortDirections = new ArrayList<SortDirectionEnum>();
+
+	public ColumnarSortModel(ColumnarDataProvider dataProvider) {
+		this.dataProvider = dataProvider;
+	}
+
+	public List<Integer> getSortedColumnIndexes() {
+		return new ArrayList<Integer>(sortedColumnIndexes);
+	}
+
+	public boolean isColumnIndexSorted(int columnIndex) {
+		return sortedColumnIndexes.contains(Integer.valueOf(columnIndex));
+	}
+
+	public SortDirectionEnum getSortDirection(int columnIndex) {
+		int sortOrder = getSortOrder(columnIndex);
+		return (sortOrder >= 0) ? sortDirections.get(sortOrder) : SortDirectionEnum.NONE;
+	}
+
+	public int getSortOrder(int columnIndex) {
+		return sortedColumnIndexes.indexOf(Integer.valueOf(columnIndex));
+	}
+
+	/**
+	 * The columns are compared by their primitive values, which is the natural order
+	 * of the values returned by {@link ColumnarDataProvider#getDataValue(int, int)}
+	 * with <code>null</code> first, so the comparator used for all columns is the
+	 * {@link DefaultComparator}.
+	 */
+	@SuppressWarnings("rawtypes")
+	public List<Comparator> getComparatorsForColumnIndex(int columnIndex) {
+		return Collections.<Comparator>singletonList(DefaultComparator.getInstance());
+	}
+
+	public void sort(int columnIndex, SortDirectionEnum sortDirection, boolean accumulate) {
+		if (!accumulate) {
+			sortedColumnIndexes.clear();
+			sortDirections.clear();
+		}
+
+		int sortOrder = getSortOrder(columnIndex);
+		if (sortOrder >= 0) {
+			sortedColumnIndexes.remove(sortOrder);
+			sortDirections.remove(sortOrder);
+		}
+		if (sortDirection != SortDirectionEnum.NONE) {
+			sortedColumnIndexes.add(Integer.valueOf(columnIndex));
+			sortDirections.add(sortDirection);
+		}
+
+		applySort();
+	}
+
+	public void clear() {
+		sortedColumnIndexes.clear();
+		sortDirections.clear();
+		dataProvider.resetRowOrder();
+	}
+
+	/**
+	 * Sorts the rows of the data provider again, e.g. after values were changed or
+	 * rows were added.
+	 */
+	public void applySort() {
+		int[] columnIndexes = new int[sortedColumnIndexes.size()];
+		boolean[] ascending = new boolean[columnIndexes.length];
+		for (int i = 0; i < columnIndexes.length; i++) {
+			columnIndexes[i] = sortedColumnIndexes.get(i).intValue();
+			ascending[i] = sortDirections.get(i) != SortDirectionEnum.DESC;
+		}
+		dataProvider.sort(columnIndexes, ascending);
+	}
+
+}
@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data.convert;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+
+/**
+ * Cache for the display values of the cells per row object and column, so the conversion
+ * of the values, e.g. formatting dates or numbers, is not performed again every time the
+ * display values of a whole column are needed, like for filtering or searching.
+ * <p>
+ * The display values are cached per column and {@link IDisplayConverter}, so a different
+ * converter that is registered for a column doesn't use outdated display values. Every
+ * display value is cached together with the canonical value it was converted from, and
+ * converted again if the canonical value of the row object has changed. The values that
+ * are converted with and without the cell context are cached separately, as a converter
+ * might return different display values for them.
+ * <p>
+ * To share the cache between the components of a NatTable, register it for
+ * {@link CellConfigAttributes#DISPLAY_VALUE_CACHE}. The cached values of row objects that
+ * are removed should be released by calling {@link #rowObjectChanged(Object)}, which is
+ * done automatically by list specific implementations.
+ */
+public class DisplayValueCache {
+
+	/**
+	 * The number of converters per column for which display values are cached. If more
+	 * converters are used for a column, the values of the least recently used converter
+	 * are released.
+	 */
+	private static final int CONVERTERS_PER_COLUMN = 2;
+
+	private final IRowDataProvider<?> rowDataProvider;
+
+	/**
+	 * The cached display values per column index and converter.
+	 */
+	private final Map<Integer, Map<IDisplayConverter, ColumnDisplayValues>> columns =
+			new HashMap<Integer, Map<IDisplayConverter, ColumnDisplayValues>>();
+
+	/**
+	 * @param rowDataProvider The IRowDataProvider to retrieve the row objects by row index,
+	 * 			e.g. for searching the cells of a layer. Can be <code>null</code> if the cache
+	 * 			is only accessed by row object.
+	 */
+	public DisplayValueCache(IRowDataProvider<?> rowDataProvider) {
+		this.rowDataProvider = rowDataProvider;
+	}
+
+	/**
+	 * @param rowIndex The row index of the IRowDataProvider of this cache.
+	 * @return The row object for the given row index, or <code>null</code> if the row object
+	 * 			can not be determined.
+	 */
+	public Object getRowObject(int rowIndex) {
+		if (this.rowDataProvider != null && rowIndex >= 0 && rowIndex < this.rowDataProvider.getRowCount()) {
+			return this.rowDataProvider.getRowObject(rowIndex);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the cached display values for a column. The returned object can be used to
+	 * access the display values of many row objects without looking up the column again.
+	 * @param columnIndex The column index.
+	 * @param converter The converter that is used to convert the values of the column.
+	 * @return The cached display values of the column.
+	 */
+	public synchronized ColumnDisplayValues getColumnDisplayValues(int columnIndex, IDisplayConverter converter) {
+		Map<IDisplayConverter, ColumnDisplayValues> converters = this.columns.get(columnIndex);
+		if (converters == null) {
+			converters = new LinkedHashMap<IDisplayConverter, ColumnDisplayValues>(4, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<IDisplayConverter, ColumnDisplayValues> eldest) {
+					return size() > CONVERTERS_PER_COLUMN;
+				}
+			};
+			this.columns.put(columnIndex, converters);
+		}
+		ColumnDisplayValues values = converters.get(converter);
+		if (values == null) {
+			values = new ColumnDisplayValues(converter);
+			converters.put(converter, values);
+		}
+		return values;
+	}
+
+	/**
+	 * @param rowObject The row object.
+	 * @param columnIndex The column index.
+	 * @param canonicalValue The current canonical value of the cell.
+	 * @param converter The converter to convert the canonical value.
+	 * @return The display value of the cell.
+	 */
+	public Object getDisplayValue(Object rowObject, int columnIndex, Object canonicalValue, IDisplayConverter converter) {
+		return getColumnDisplayValues(columnIndex, converter).getDisplayValue(rowObject, canonicalValue);
+	}
+
+	/**
+	 * Releases the cached display values of the given row object, e.g. because it was
+	 * removed or updated.
+	 * @param rowObject The row object whose display values should be released.
+	 */
+	public void rowObjectChanged(Object rowObject) {
+		for (ColumnDisplayValues values : getAllColumnDisplayValues()) {
+			values.remove(rowObject);
+		}
+	}
+
+	/**
+	 * Releases all cached display values.
+	 */
+	public synchronized void clearCache() {
+		this.columns.clear();
+	}
+
+	private synchronized List<ColumnDisplayValues> getAllColumnDisplayValues() {
+		List<ColumnDisplayValues> result = new ArrayList<ColumnDisplayValues>();
+		for (Map<IDisplayConverter, ColumnDisplayValues> converters : this.columns.values()) {
+			result.addAll(converters.values());
+		}
+		return result;
+	}
+
+	/**
+	 * The cached display values of a column for one converter. The values can be accessed
+	 * concurrently.
+	 */
+	public static class ColumnDisplayValues {
+
+		private final IDisplayConverter converter;
+		/** The values converted by {@link IDisplayConverter#canonicalToDisplayValue(Object)} */
+		private final Map<RowObjectKey, CachedValue> values = new ConcurrentHashMap<RowObjectKey, CachedValue>();
+		/** The values converted with the context of the cell */
+		private final Map<RowObjectKey, CachedValue> cellValues = new ConcurrentHashMap<RowObjectKey, CachedValue>();
+
+		ColumnDisplayValues(IDisplayConverter converter) {
+			this.converter = converter;
+		}
+
+		/**
+		 * @param rowObject The row object.
+		 * @param canonicalValue The current canonical value of the cell.
+		 * @return The display value of the cell, converted by
+		 * 			{@link IDisplayConverter#canonicalToDisplayValue(Object)} if not cached.
+		 */
+		public Object getDisplayValue(Object rowObject, Object canonicalValue) {
+			return getDisplayValue(rowObject, canonicalValue, null, null);
+		}
+
+		/**
+		 * @param rowObject The row object.
+		 * @param canonicalValue The current canonical value of the cell.
+		 * @param cell The cell for which the display value is requested.
+		 * @param configRegistry The config registry to use for the conversion.
+		 * @return The display value of the cell, converted by
+		 * 			{@link IDisplayConverter#canonicalToDisplayValue(ILayerCell, IConfigRegistry, Object)}
+		 * 			if not cached.
+		 */
+		public Object getDisplayValue(Object rowObject, Object canonicalValue, ILayerCell cell, IConfigRegistry configRegistry) {
+			Map<RowObjectKey, CachedValue> cache = (cell != null) ? this.cellValues : this.values;
+			RowObjectKey key = new RowObjectKey(rowObject);
+			CachedValue cached = cache.get(key);
+			if (cached != null && cached.isConvertedFrom(canonicalValue)) {
+				return cached.displayValue;
+			}
+
+			Object displayValue = (cell != null)
+					? this.converter.canonicalToDisplayValue(cell, configRegistry, canonicalValue)
+					: this.converter.canonicalToDisplayValue(canonicalValue);
+			cache.put(key, new CachedValue(canonicalValue, displayValue));
+			return displayValue;
+		}
+
+		void remove(Object rowObject) {
+			RowObjectKey key = new RowObjectKey(rowObject);
+			this.values.remove(key);
+			this.cellValues.remove(key);
+		}
+	}
+
+	/**
+	 * Key that compares the row objects by identity, as row objects might implement
+	 * equals() based on a subset of their values.
+	 */
+	private static class RowObjectKey {
+
+		private final Object rowObject;
+
+		RowObjectKey(Object rowObject) {
+			this.rowObject = rowObject;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this.rowObject);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof RowObjectKey && ((RowObjectKey) obj).rowObject == this.rowObject;
+		}
+	}
+
+	/**
+	 * A display value together with the canonical value it was converted from.
+	 */
+	private static class CachedValue {
+
+		final Object canonicalValue;
+		final Object displayValue;
+
+		CachedValue(Object canonicalValue, Object displayValue) {
+			this.canonicalValue = canonicalValue;
+			this.displayValue = displayValue;
+		}
+
+		boolean isConvertedFrom(Object value) {
+			return this.canonicalValue == value || (value != null && value.equals(this.canonicalValue));
+		}
+	}
+
+}
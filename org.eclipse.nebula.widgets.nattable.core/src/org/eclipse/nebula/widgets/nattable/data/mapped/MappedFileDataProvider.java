@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data.mapped;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+
+/**
+ * Read-only {@link IDataProvider} for files that were written by {@link MappedFileDataWriter}.
+ * <p>
+ * The file is memory mapped and the cells are decoded lazily on access, so only the
+ * cells that are requested, e.g. the visible cells of a ViewportLayer or the cells that
+ * are exported, are read and held as objects. This allows to show tables with far more
+ * rows than would fit into the heap as objects.
+ * <p>
+ * As a single mapping is limited to 2GB, the file is mapped in segments. The data
+ * provider is thread safe, and it should be closed if it is not needed anymore.
+ */
+public class MappedFileDataProvider implements IDataProvider, Closeable {
+
+	/**
+	 * The size of the segments the file is mapped in.
+	 */
+	private static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+	private final RandomAccessFile file;
+	private final int segmentSize;
+	private final MappedByteBuffer[] segments;
+
+	private final int columnCount;
+	private final int rowCount;
+	private final long rowIndexPosition;
+	private final String[] columnNames;
+
+	/**
+	 * Opens the given file that was written by {@link MappedFileDataWriter}.
+	 * @param file The file to open.
+	 * @throws IOException if the file can not be read or is not in the expected format
+	 */
+	public MappedFileDataProvider(File file) throws IOException {
+		this(file, DEFAULT_SEGMENT_SIZE);
+	}
+
+	MappedFileDataProvider(File file, int segmentSize) throws IOException {
+		this.file = new RandomAccessFile(file, "r"); //$NON-NLS-1$
+		this.segmentSize = segmentSize;
+		try {
+			FileChannel channel = this.file.getChannel();
+			long size = channel.size();
+			if (size < MappedFileFormat.HEADER_SIZE) {
+				throw new IOException("File is too short: " + file); //$NON-NLS-1$
+			}
+
+			int segmentCount = (int) ((size + segmentSize - 1) / segmentSize);
+			segments = new MappedByteBuffer[segmentCount];
+			for (int i = 0; i < segmentCount; i++) {
+				long start = (long) i * segmentSize;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, size - start));
+			}
+
+			if (readInt(0) != MappedFileFormat.MAGIC || readInt(4) != MappedFileFormat.VERSION) {
+				throw new IOException("Unsupported file format: " + file); //$NON-NLS-1$
+			}
+			columnCount = readInt(8);
+			rowCount = readInt(MappedFileFormat.ROW_COUNT_POSITION);
+			rowIndexPosition = readLong(MappedFileFormat.ROW_INDEX_POSITION_POSITION);
+
+			columnNames = new String[columnCount];
+			long position = MappedFileFormat.HEADER_SIZE;
+			for (int column = 0; column < columnCount; column++) {
+				int length = readShort(position) & 0xFFFF;
+				columnNames[column] = readString(position + 2, length);
+				position += 2 + length;
+			}
+		} catch (IOException e) {
+			this.file.close();
+			throw e;
+		}
+	}
+
+	public int getColumnCount() {
+		return columnCount;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @param columnIndex The index of the column.
+	 * @return The name of the column as written by the {@link MappedFileDataWriter}.
+	 */
+	public String getColumnName(int columnIndex) {
+		return columnNames[columnIndex];
+	}
+
+	/**
+	 * Decodes the value of the cell from the mapped file.
+	 */
+	public Object getDataValue(int columnIndex, int rowIndex) {
+		if (columnIndex < 0 || columnIndex >= columnCount || rowIndex < 0 || rowIndex >= rowCount) {
+			throw new IndexOutOfBoundsException("Column index: " + columnIndex + ", row index: " + rowIndex); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		long rowPosition = readLong(rowIndexPosition + 8L * rowIndex);
+		long dataPosition = rowPosition + 4L * columnCount;
+		int start = (columnIndex == 0) ? 0 : readInt(rowPosition + 4L * (columnIndex - 1));
+		int end = readInt(rowPosition + 4L * columnIndex);
+		return readString(dataPosition + start, end - start);
+	}
+
+	/**
+	 * The data of a mapped file can not be modified.
+	 * @throws UnsupportedOperationException always
+	 */
+	public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+		throw new UnsupportedOperationException("Mapped file data is read-only"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Closes the file. The mapped memory is released by the garbage collector.
+	 */
+	public void close() throws IOException {
+		file.close();
+	}
+
+	// Reading ////////////////////////////////////////////////////////////////
+
+	private int readInt(long position) {
+		ByteBuffer segment = segments[(int) (position / segmentSize)];
+		int offset = (int) (position % segmentSize);
+		if (offset + 4 <= segment.limit()) {
+			return segment.getInt(offset);
+		}
+		return (int) readNumber(position, 4);
+	}
+
+	private long readLong(long position) {
+		ByteBuffer segment = segments[(int) (position / segmentSize)];
+		int offset = (int) (position % segmentSize);
+		if (offset + 8 <= segment.limit()) {
+			return segment.getLong(offset);
+		}
+		return readNumber(position, 8);
+	}
+
+	private short readShort(long position) {
+		ByteBuffer segment = segments[(int) (position / segmentSize)];
+		int offset = (int) (position % segmentSize);
+		if (offset + 2 <= segment.limit()) {
+			return segment.getShort(offset);
+		}
+		return (short) readNumber(position, 2);
+	}
+
+	/**
+	 * Reads a big endian number byte by byte, used for numbers that cross segments.
+	 */
+	private long readNumber(long position, int size) {
+		long value = 0;
+		for (int i = 0; i < size; i++) {
+			value = (value << 8) | (readByte(position + i) & 0xFF);
+		}
+		return value;
+	}
+
+	private byte readByte(long position) {
+		return segments[(int) (position / segmentSize)].get((int) (position % segmentSize));
+	}
+
+	private String readString(long position, int length) {
+		if (length == 0) {
+			return ""; //$NON-NLS-1$
+		}
+		byte[] bytes = new byte[length];
+		int read = 0;
+		while (read < length) {
+			long current = position + read;
+			//use a duplicate, as the position of the shared buffer must not be modified
+			ByteBuffer segment = segments[(int) (current / segmentSize)].duplicate();
+			segment.position((int) (current % segmentSize));
+			int count = Math.min(length - read, segment.remaining());
+			segment.get(bytes, read, count);
+			read += count;
+		}
+		return new String(bytes, MappedFileFormat.CHARSET);
+	}
+
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data.mapped;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts delimited text input, one row per line with the cells separated by a
+ * delimiter character, into the binary file format that can be accessed via
+ * {@link MappedFileDataProvider}.
+ * <p>
+ * The input is processed line by line and the positions of the rows are buffered in
+ * a temporary file, so the memory consumption doesn't depend on the size of the input.
+ * Empty cells and cells that are missing at the end of a line are stored as empty
+ * Strings, additional cells are ignored. Quoting of delimiters is not supported.
+ */
+public class MappedFileDataWriter {
+
+	private final char delimiter;
+	private final boolean firstLineIsHeader;
+
+	/**
+	 * @param delimiter The character that separates the cells of a line.
+	 * @param firstLineIsHeader <code>true</code> if the first line contains the
+	 * 			column names, <code>false</code> if it already contains data.
+	 */
+	public MappedFileDataWriter(char delimiter, boolean firstLineIsHeader) {
+		this.delimiter = delimiter;
+		this.firstLineIsHeader = firstLineIsHeader;
+	}
+
+	/**
+	 * Writes the delimited input into the given file. The number of columns is
+	 * determined by the first line.
+	 * @param input The delimited input, which is not closed by this method.
+	 * @param file The file to write, which is replaced if it exists.
+	 * @return The number of rows that were written.
+	 * @throws IOException if reading the input or writing the file fails
+	 */
+	public int write(Reader input, File file) throws IOException {
+		BufferedReader reader = (input instanceof BufferedReader) ? (BufferedReader) input : new BufferedReader(input);
+
+		File rowIndexFile = File.createTempFile("nattable", ".rowindex"); //$NON-NLS-1$ //$NON-NLS-2$
+		int rowCount = 0;
+		long rowIndexPosition;
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+			try {
+				DataOutputStream rowIndex = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(rowIndexFile), 64 * 1024));
+				try {
+					String line = reader.readLine();
+					List<String> firstLine = (line != null) ? split(line) : new ArrayList<String>();
+					int columnCount = firstLine.size();
+
+					out.writeInt(MappedFileFormat.MAGIC);
+					out.writeInt(MappedFileFormat.VERSION);
+					out.writeInt(columnCount);
+					//row count and row index position are updated at the end
+					out.writeInt(0);
+					out.writeLong(0);
+					long position = MappedFileFormat.HEADER_SIZE;
+
+					for (int column = 0; column < columnCount; column++) {
+						byte[] name = firstLineIsHeader ? firstLine.get(column).getBytes(MappedFileFormat.CHARSET) : new byte[0];
+						out.writeShort(name.length);
+						out.write(name);
+						position += 2 + name.length;
+					}
+
+					if (line != null && !firstLineIsHeader) {
+						rowIndex.writeLong(position);
+						position += writeRow(out, firstLine, columnCount);
+						rowCount++;
+					}
+					while ((line = reader.readLine()) != null) {
+						rowIndex.writeLong(position);
+						position += writeRow(out, split(line), columnCount);
+						rowCount++;
+					}
+					rowIndexPosition = position;
+				} finally {
+					rowIndex.close();
+				}
+
+				//append the row index
+				DataInputStream rowIndexInput = new DataInputStream(new BufferedInputStream(new FileInputStream(rowIndexFile), 64 * 1024));
+				try {
+					for (int row = 0; row < rowCount; row++) {
+						out.writeLong(rowIndexInput.readLong());
+					}
+				} finally {
+					rowIndexInput.close();
+				}
+			} finally {
+				out.close();
+			}
+		} finally {
+			rowIndexFile.delete();
+		}
+
+		RandomAccessFile header = new RandomAccessFile(file, "rw"); //$NON-NLS-1$
+		try {
+			header.seek(MappedFileFormat.ROW_COUNT_POSITION);
+			header.writeInt(rowCount);
+			header.seek(MappedFileFormat.ROW_INDEX_POSITION_POSITION);
+			header.writeLong(rowIndexPosition);
+		} finally {
+			header.close();
+		}
+
+		return rowCount;
+	}
+
+	/**
+	 * Writes a row and returns the number of bytes that were written.
+	 */
+	private int writeRow(DataOutputStream out, List<String> cells, int columnCount) throws IOException {
+		byte[][] cellBytes = new byte[columnCount][];
+		int end = 0;
+		for (int column = 0; column < columnCount; column++) {
+			cellBytes[column] = (column < cells.size()) ? cells.get(column).getBytes(MappedFileFormat.CHARSET) : new byte[0];
+			end += cellBytes[column].length;
+			out.writeInt(end);
+		}
+		for (byte[] bytes : cellBytes) {
+			out.write(bytes);
+		}
+		return 4 * columnCount + end;
+	}
+
+	/**
+	 * Splits a line at the delimiter, keeping empty cells.
+	 */
+	private List<String> split(String line) {
+		List<String> cells = new ArrayList<String>();
+		int length = line.length();
+		if (length > 0 && line.charAt(length - 1) == '\r') {
+			length--;
+		}
+		int start = 0;
+		for (int i = 0; i < length; i++) {
+			if (line.charAt(i) == delimiter) {
+				cells.add(line.substring(start, i));
+				start = i + 1;
+			}
+		}
+		cells.add(line.substring(start, length));
+		return cells;
+	}
+
+}
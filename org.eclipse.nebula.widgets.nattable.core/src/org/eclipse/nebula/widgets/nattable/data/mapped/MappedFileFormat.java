@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.data.mapped;
+
+import java.nio.charset.Charset;
+
+/**
+ * Constants of the binary table file format that is written by {@link MappedFileDataWriter}
+ * and read by {@link MappedFileDataProvider}. All numbers are stored big endian.
+ * <pre>
+ * header:    int magic, int version, int columnCount, int rowCount, long rowIndexPosition
+ * columns:   per column a short length followed by the UTF-8 bytes of the column name
+ * rows:      per row columnCount int end offsets of the cells relative to the end of
+ *            the offsets, followed by the UTF-8 bytes of the cells
+ * row index: per row the long position of the row in the file
+ * </pre>
+ * So a cell can be read with two lookups, the position of the row in the row index and
+ * the offsets of the cell in the row, without reading anything else of the file.
+ */
+final class MappedFileFormat {
+
+	static final int MAGIC = 0x4E544D46; // NTMF
+	static final int VERSION = 1;
+
+	static final int HEADER_SIZE = 24;
+	static final int ROW_COUNT_POSITION = 12;
+	static final int ROW_INDEX_POSITION_POSITION = 16;
+
+	static final Charset CHARSET = Charset.forName("UTF-8"); //$NON-NLS-1$
+
+	private MappedFileFormat() {
+		// constants only
+	}
+
+}
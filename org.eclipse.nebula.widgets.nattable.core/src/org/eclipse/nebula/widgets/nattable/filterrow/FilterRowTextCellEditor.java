@@ -10,12 +10,13 @@
  *******************************************************************************/ 
 package org.eclipse.nebula.widgets.nattable.filterrow;
 
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.nebula.widgets.nattable.edit.editor.TextCellEditor;
 import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer.MoveDirectionEnum;
+import org.eclipse.nebula.widgets.nattable.util.NatTableExecutors;
 import org.eclipse.swt.events.DisposeEvent;
 import org.eclipse.swt.events.DisposeListener;
 import org.eclipse.swt.events.KeyAdapter;
@@ -37,22 +38,29 @@ public class FilterRowTextCellEditor extends TextCellEditor {
 	
 	@Override
 	protected Text createEditorControl(Composite parent, int style) {
-		Text text = super.createEditorControl(parent, style);
+		final Text text = super.createEditorControl(parent, style);
 		
-		final ScheduledExecutorService service = Executors.newScheduledThreadPool(1);
+		final ScheduledExecutorService service = NatTableExecutors.getExecutors(configRegistry).getScheduledExecutor();
+		//the last scheduled commit, which is replaced on the next key stroke and cancelled if the editor is disposed
+		final ScheduledFuture<?>[] scheduledCommit = new ScheduledFuture<?>[1];
 		
 		text.addKeyListener(new KeyAdapter() {
 			
 			@Override
 			public void keyReleased(KeyEvent e) {
-				service.schedule(new KeyPressCommitRunnable(getEditorValue()), 150L, TimeUnit.MILLISECONDS);
+				if (scheduledCommit[0] != null) {
+					scheduledCommit[0].cancel(false);
+				}
+				scheduledCommit[0] = service.schedule(new KeyPressCommitRunnable(text, getEditorValue()), 150L, TimeUnit.MILLISECONDS);
 			}
 		});
 		
 		text.addDisposeListener(new DisposeListener() {
 			@Override
 			public void widgetDisposed(DisposeEvent e) {
-				service.shutdownNow();
+				if (scheduledCommit[0] != null) {
+					scheduledCommit[0].cancel(false);
+				}
 			}
 		});
 		
@@ -64,25 +72,36 @@ public void widgetDisposed(DisposeEvent e) {
 	 * set to the editor control. If the value which was used to create the runnable is not 
 	 * the same as currently set to the editor control, nothing will happen. This is to reduce
 	 * the number of commit executions if a user types several characters.
+	 * <p>
+	 * The commit is handed over to the display thread asynchronously, so the thread of
+	 * the shared scheduled pool is not blocked, and skipped if the editor control was
+	 * disposed in the meantime.
 	 * 
 	 * @author Dirk Fauth
 	 *
 	 */
 	private class KeyPressCommitRunnable implements Runnable {
 
+		final Text text;
+		final Display display;
 		final String toCommit;
 
-		KeyPressCommitRunnable(String toCommit) {
+		KeyPressCommitRunnable(Text text, String toCommit) {
+			this.text = text;
+			this.display = text.getDisplay();
 			this.toCommit = toCommit;
 		}
 
 		@Override
 		public void run() {
+			if (display.isDisposed()) {
+				return;
+			}
 			//the access to the editor needs to be executed in the display thread
-			Display.getDefault().syncExec(new Runnable() {
+			display.asyncExec(new Runnable() {
 				@Override
 				public void run() {
-					if (toCommit != null && toCommit.equals(getEditorValue())) {
+					if (!text.isDisposed() && toCommit != null && toCommit.equals(getEditorValue())) {
 						commit(MoveDirectionEnum.NONE, false);
 					}
 				}
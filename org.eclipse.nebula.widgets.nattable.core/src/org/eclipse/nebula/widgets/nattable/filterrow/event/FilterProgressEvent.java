@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.filterrow.event;
+
+import org.eclipse.nebula.widgets.nattable.layer.event.AbstractContextFreeEvent;
+
+/**
+ * Event that informs about the progress of a filter that is evaluated in the background.
+ * It is fired several times while the rows are matched, and a last time when the result
+ * was applied. Note that the event might be fired by a background thread.
+ */
+public class FilterProgressEvent extends AbstractContextFreeEvent {
+
+	private final int processedRowCount;
+	private final int rowCount;
+	private final boolean applied;
+
+	/**
+	 * @param processedRowCount The number of rows that were matched against the filter so far.
+	 * @param rowCount The number of rows that need to be matched.
+	 * @param applied <code>true</code> if the filter result was applied.
+	 */
+	public FilterProgressEvent(int processedRowCount, int rowCount, boolean applied) {
+		this.processedRowCount = processedRowCount;
+		this.rowCount = rowCount;
+		this.applied = applied;
+	}
+
+	public int getProcessedRowCount() {
+		return processedRowCount;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return <code>true</code> if the filter result was applied, which means the
+	 * 			filtering is finished.
+	 */
+	public boolean isApplied() {
+		return applied;
+	}
+
+	public FilterProgressEvent cloneEvent() {
+		return new FilterProgressEvent(processedRowCount, rowCount, applied);
+	}
+
+}
@@ -10,6 +10,9 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.grid.layer;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
 import org.eclipse.nebula.widgets.nattable.export.command.ExportCommandHandler;
 import org.eclipse.nebula.widgets.nattable.grid.GridRegion;
@@ -33,6 +36,11 @@
  */
 public class GridLayer extends CompositeLayer {
 
+	/**
+	 * The child layers in command order, rebuilt whenever a child layer is set.
+	 */
+	private Collection<ILayer> childLayersInCommandOrder;
+
 	public GridLayer(ILayer bodyLayer, ILayer columnHeaderLayer, ILayer rowHeaderLayer, ILayer cornerLayer) {
 		this(bodyLayer, columnHeaderLayer, rowHeaderLayer, cornerLayer, true);
 	}
@@ -92,21 +100,21 @@ protected void registerCommandHandlers() {
 	 * in the body.
 	 **/
 	@Override
-	protected boolean doCommandOnChildLayers(ILayerCommand command) {
-		if (doCommandOnChildLayer(command, getBodyLayer())) {
-			return true;
-		} else if (doCommandOnChildLayer(command, getColumnHeaderLayer())) {
-			return true;
-		} else if (doCommandOnChildLayer(command, getRowHeaderLayer())) {
-			return true;
-		} else {
-			return doCommandOnChildLayer(command, getCornerLayer());
+	protected Collection<ILayer> getChildLayersInCommandOrder() {
+		if (childLayersInCommandOrder == null) {
+			updateChildLayersInCommandOrder();
 		}
+		return childLayersInCommandOrder;
 	}
-	
-	private boolean doCommandOnChildLayer(ILayerCommand command, ILayer childLayer) {
-		ILayerCommand childCommand = command.cloneCommand();
-		return childLayer.doCommand(childCommand);
+
+	@Override
+	public void setChildLayer(String regionName, ILayer childLayer, int layoutX, int layoutY) {
+		super.setChildLayer(regionName, childLayer, layoutX, layoutY);
+		updateChildLayersInCommandOrder();
+	}
+
+	private void updateChildLayersInCommandOrder() {
+		childLayersInCommandOrder = Arrays.asList(getBodyLayer(), getColumnHeaderLayer(), getRowHeaderLayer(), getCornerLayer());
 	}
 	
 	// Sub-layer accessors
@@ -11,11 +11,10 @@
 package org.eclipse.nebula.widgets.nattable.hideshow;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
 
 import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.group.ColumnGroupModel.ColumnGroup;
@@ -29,11 +28,28 @@
 
 public abstract class AbstractColumnHideShowLayer extends AbstractLayerTransform implements IUniqueIndexLayer {
 
-	private List<Integer> cachedVisibleColumnIndexOrder;
+	/**
+	 * The indexes of the visible columns. Position X in the array contains the index of
+	 * the column at position X.
+	 */
+	private int[] cachedVisibleColumnIndexOrder;
 
-	private Map<Integer, Integer> cachedHiddenColumnIndexToPositionMap;
+	/**
+	 * The inverse of {@link #cachedVisibleColumnIndexOrder}. Index X in the array contains
+	 * the position of the column with index X. For hidden columns it contains the position
+	 * the column would have if it was visible, for unknown indexes -1.
+	 */
+	private int[] cachedColumnIndexToPosition;
 
-	private final Map<Integer, Integer> startXCache = new HashMap<Integer, Integer>();
+	/**
+	 * The indexes of the columns that were hidden on building the cache.
+	 */
+	private BitSet cachedHiddenColumnIndexes;
+
+	/**
+	 * The cached start x coordinates per column position, -1 if not calculated yet.
+	 */
+	private int[] startXCache;
 
 	public AbstractColumnHideShowLayer(IUniqueIndexLayer underlyingLayer) {
 		super(underlyingLayer);
@@ -56,7 +72,7 @@ public void handleLayerEvent(ILayerEvent event) {
 
 	@Override
 	public int getColumnCount() {
-		return getCachedVisibleColumnIndexes().size();
+		return getCachedVisibleColumnIndexes().length;
 	}
 
 	@Override
@@ -65,16 +81,15 @@ public int getColumnIndexByPosition(int columnPosition) {
 			return -1;
 		}
 
-		Integer columnIndex = getCachedVisibleColumnIndexes().get(columnPosition);
-		if (columnIndex != null) {
-			return columnIndex.intValue();
-		} else {
-			return -1;
-		}
+		return getCachedVisibleColumnIndexes()[columnPosition];
 	}
 
 	public int getColumnPositionByIndex(int columnIndex) {
-		return getCachedVisibleColumnIndexes().indexOf(Integer.valueOf(columnIndex));
+		getCachedVisibleColumnIndexes();
+		if (columnIndex < 0 || columnIndex >= cachedColumnIndexToPosition.length || cachedHiddenColumnIndexes.get(columnIndex)) {
+			return -1;
+		}
+		return cachedColumnIndexToPosition[columnIndex];
 	}
 	
 	public Collection<Integer> getColumnPositionsByIndexes(Collection<Integer> columnIndexes) {
@@ -97,13 +112,10 @@ public int underlyingToLocalColumnPosition(ILayer sourceUnderlyingLayer, int und
 		int columnPosition = getColumnPositionByIndex(columnIndex);
 		if (columnPosition >= 0) {
 			return columnPosition;
+		} else if (columnIndex >= 0 && cachedHiddenColumnIndexes.get(columnIndex)) {
+			return cachedColumnIndexToPosition[columnIndex];
 		} else {
-			Integer hiddenColumnPosition = cachedHiddenColumnIndexToPositionMap.get(Integer.valueOf(columnIndex));
-			if (hiddenColumnPosition != null) {
-				return hiddenColumnPosition.intValue();
-			} else {
-				return -1;
-			}
+			return -1;
 		}
 	}
 
@@ -162,9 +174,10 @@ public int getColumnPositionByX(int x) {
 
 	@Override
 	public int getStartXOfColumnPosition(int localColumnPosition) {
-		Integer cachedStartX = startXCache.get(Integer.valueOf(localColumnPosition));
-		if (cachedStartX != null) {
-			return cachedStartX.intValue();
+		int[] startXs = getCachedStartXs();
+		boolean cacheable = localColumnPosition >= 0 && localColumnPosition < startXs.length;
+		if (cacheable && startXs[localColumnPosition] >= 0) {
+			return startXs[localColumnPosition];
 		}
 
 		IUniqueIndexLayer underlyingLayer = (IUniqueIndexLayer) getUnderlyingLayer();
@@ -184,7 +197,9 @@ public int getStartXOfColumnPosition(int localColumnPosition) {
 			}
 		}
 
-		startXCache.put(Integer.valueOf(localColumnPosition), Integer.valueOf(underlyingStartX));
+		if (cacheable) {
+			startXs[localColumnPosition] = underlyingStartX;
+		}
 		return underlyingStartX;
 	}
 	
@@ -226,33 +241,60 @@ public int getRowPositionByIndex(int rowIndex) {
 	 */
 	protected void invalidateCache() {
 		cachedVisibleColumnIndexOrder = null;
-		startXCache.clear();
+		startXCache = null;
 	}
 
-	private List<Integer> getCachedVisibleColumnIndexes() {
+	private int[] getCachedVisibleColumnIndexes() {
 		if (cachedVisibleColumnIndexOrder == null) {
 			cacheVisibleColumnIndexes();
 		}
 		return cachedVisibleColumnIndexOrder;
 	}
 
-	private void cacheVisibleColumnIndexes() {
-		cachedVisibleColumnIndexOrder = new ArrayList<Integer>();
-		cachedHiddenColumnIndexToPositionMap = new HashMap<Integer, Integer>();
-		startXCache.clear();
+	private int[] getCachedStartXs() {
+		if (startXCache == null) {
+			startXCache = new int[getColumnCount()];
+			Arrays.fill(startXCache, -1);
+		}
+		return startXCache;
+	}
 
+	private void cacheVisibleColumnIndexes() {
 		ILayer underlyingLayer = getUnderlyingLayer();
+		int underlyingColumnCount = underlyingLayer.getColumnCount();
+
+		int[] underlyingIndexes = new int[underlyingColumnCount];
+		int maxColumnIndex = -1;
+		for (int parentColumnPosition = 0; parentColumnPosition < underlyingColumnCount; parentColumnPosition++) {
+			underlyingIndexes[parentColumnPosition] = underlyingLayer.getColumnIndexByPosition(parentColumnPosition);
+			maxColumnIndex = Math.max(maxColumnIndex, underlyingIndexes[parentColumnPosition]);
+		}
+
+		int[] visibleColumnIndexes = new int[underlyingColumnCount];
+		int[] columnIndexToPosition = new int[maxColumnIndex + 1];
+		Arrays.fill(columnIndexToPosition, -1);
+		BitSet hiddenColumnIndexes = new BitSet(maxColumnIndex + 1);
+
 		int columnPosition = 0;
-		for (int parentColumnPosition = 0; parentColumnPosition < underlyingLayer.getColumnCount(); parentColumnPosition++) {
-			int columnIndex = underlyingLayer.getColumnIndexByPosition(parentColumnPosition);
+		for (int parentColumnPosition = 0; parentColumnPosition < underlyingColumnCount; parentColumnPosition++) {
+			int columnIndex = underlyingIndexes[parentColumnPosition];
 
 			if (!isColumnIndexHidden(columnIndex)) {
-				cachedVisibleColumnIndexOrder.add(Integer.valueOf(columnIndex));
+				visibleColumnIndexes[columnPosition] = columnIndex;
+				if (columnIndex >= 0) {
+					columnIndexToPosition[columnIndex] = columnPosition;
+				}
 				columnPosition++;
-			} else {
-				cachedHiddenColumnIndexToPositionMap.put(Integer.valueOf(columnIndex), Integer.valueOf(columnPosition));
+			} else if (columnIndex >= 0) {
+				hiddenColumnIndexes.set(columnIndex);
+				columnIndexToPosition[columnIndex] = columnPosition;
 			}
 		}
+
+		cachedColumnIndexToPosition = columnIndexToPosition;
+		cachedHiddenColumnIndexes = hiddenColumnIndexes;
+		cachedVisibleColumnIndexOrder = Arrays.copyOf(visibleColumnIndexes, columnPosition);
+		startXCache = null;
 	}
 
 }
@@ -11,10 +11,10 @@
 package org.eclipse.nebula.widgets.nattable.hideshow;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 
 import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.layer.AbstractLayerTransform;
@@ -23,16 +23,49 @@
 import org.eclipse.nebula.widgets.nattable.layer.LayerUtil;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff.DiffTypeEnum;
 
 
 public abstract class AbstractRowHideShowLayer extends AbstractLayerTransform implements IUniqueIndexLayer {
 
-	private Map<Integer, Integer> cachedVisibleRowIndexOrder;
-	private Map<Integer, Integer> cachedVisibleRowPositionOrder;
-	
-	private Map<Integer, Integer> cachedHiddenRowIndexToPositionMap;
+	/**
+	 * The indexes of all rows of the underlying layer the cache was built for. Position Y
+	 * in the array contains the index of the row at position Y in the underlying layer.
+	 * Needed to apply row inserts and deletes to the cache without requesting all indexes
+	 * from the underlying layer again.
+	 */
+	private int[] cachedUnderlyingRowIndexes;
+
+	/**
+	 * The positions in the underlying layer of the rows that were hidden on building the cache.
+	 */
+	private BitSet cachedHiddenRowPositions;
+
+	/**
+	 * The indexes of the visible rows. Position Y in the array contains the index of
+	 * the row at position Y.
+	 */
+	private int[] cachedVisibleRowIndexOrder;
 
-	private final Map<Integer, Integer> startYCache = new HashMap<Integer, Integer>();	
+	/**
+	 * The inverse of {@link #cachedVisibleRowIndexOrder}. Index Y in the array contains
+	 * the position of the row with index Y. For hidden rows it contains the position
+	 * the row would have if it was visible, for unknown indexes -1.
+	 */
+	private int[] cachedRowIndexToPosition;
+
+	/**
+	 * The indexes of the rows that were hidden on building the cache.
+	 */
+	private BitSet cachedHiddenRowIndexes;
+
+	/**
+	 * The cached start y coordinates per row position, -1 if not calculated yet.
+	 */
+	private int[] startYCache;
 	
 	
 	public AbstractRowHideShowLayer(IUniqueIndexLayer underlyingLayer) {
@@ -43,7 +76,7 @@ public AbstractRowHideShowLayer(IUniqueIndexLayer underlyingLayer) {
 	public void handleLayerEvent(ILayerEvent event) {
 		if (event instanceof IStructuralChangeEvent) {
 			IStructuralChangeEvent structuralChangeEvent = (IStructuralChangeEvent) event;
-			if (structuralChangeEvent.isVerticalStructureChanged()) {
+			if (structuralChangeEvent.isVerticalStructureChanged() && !updateCache(structuralChangeEvent)) {
 				invalidateCache();
 			}
 		}
@@ -65,7 +98,7 @@ public int getColumnPositionByIndex(int columnIndex) {
 	
 	@Override
 	public int getRowCount() {
-		return getCachedVisibleRowIndexes().size();
+		return getCachedVisibleRowIndexes().length;
 	}
 	
 	@Override
@@ -74,18 +107,16 @@ public int getRowIndexByPosition(int rowPosition) {
 			return -1;
 		}
 
-		Integer rowIndex = getCachedVisibleRowPositons().get(rowPosition);
-		if (rowIndex != null) {
-			return rowIndex.intValue();
-		} else {
-			return -1;
-		}
+		return getCachedVisibleRowIndexes()[rowPosition];
 	}
 	
 	@Override
 	public int getRowPositionByIndex(int rowIndex) {
-		final Integer position = getCachedVisibleRowIndexes().get(Integer.valueOf(rowIndex));
-		return position != null ? position : -1;
+		getCachedVisibleRowIndexes();
+		if (rowIndex < 0 || rowIndex >= cachedRowIndexToPosition.length || cachedHiddenRowIndexes.get(rowIndex)) {
+			return -1;
+		}
+		return cachedRowIndexToPosition[rowIndex];
 	}
 	
 	public Collection<Integer> getRowPositionsByIndexes(Collection<Integer> rowIndexes) {
@@ -108,13 +139,10 @@ public int underlyingToLocalRowPosition(ILayer sourceUnderlyingLayer, int underl
 		int rowPosition = getRowPositionByIndex(rowIndex);
 		if (rowPosition >= 0) {
 			return rowPosition;
+		} else if (rowIndex >= 0 && cachedHiddenRowIndexes.get(rowIndex)) {
+			return cachedRowIndexToPosition[rowIndex];
 		} else {
-			Integer hiddenRowPosition = cachedHiddenRowIndexToPositionMap.get(Integer.valueOf(rowIndex));
-			if (hiddenRowPosition != null) {
-				return hiddenRowPosition.intValue();
-			} else {
-				return -1;
-			}
+			return -1;
 		}
 	}
 
@@ -173,9 +201,10 @@ public int getRowPositionByY(int y) {
 	
 	@Override
 	public int getStartYOfRowPosition(int localRowPosition) {
-		Integer cachedStartY = startYCache.get(Integer.valueOf(localRowPosition));
-		if (cachedStartY != null) {
-			return cachedStartY.intValue();
+		int[] startYs = getCachedStartYs();
+		boolean cacheable = localRowPosition >= 0 && localRowPosition < startYs.length;
+		if (cacheable && startYs[localRowPosition] >= 0) {
+			return startYs[localRowPosition];
 		}
 		
 		IUniqueIndexLayer underlyingLayer = (IUniqueIndexLayer) getUnderlyingLayer();
@@ -197,7 +226,9 @@ public int getStartYOfRowPosition(int localRowPosition) {
 			}
 		}
 
-		startYCache.put(Integer.valueOf(localRowPosition), Integer.valueOf(underlyingStartY));
+		if (cacheable) {
+			startYs[localRowPosition] = underlyingStartY;
+		}
 		return underlyingStartY;
 	}
 	
@@ -229,44 +260,419 @@ public int getStartYOfRowPosition(int localRowPosition) {
 	 */
 	protected void invalidateCache() {
 		cachedVisibleRowIndexOrder = null;
-		cachedVisibleRowPositionOrder = null;
-		cachedHiddenRowIndexToPositionMap = null;
-		startYCache.clear();
+		cachedUnderlyingRowIndexes = null;
+		startYCache = null;
 	}
 
-	private Map<Integer, Integer> getCachedVisibleRowIndexes() {
+	private int[] getCachedVisibleRowIndexes() {
 		if (cachedVisibleRowIndexOrder == null) {
 			cacheVisibleRowIndexes();
 		}
 		return cachedVisibleRowIndexOrder;
 	}
-	
-	private Map<Integer, Integer> getCachedVisibleRowPositons() {
-		if (cachedVisibleRowPositionOrder == null) {
-			cacheVisibleRowIndexes();
+
+	private int[] getCachedStartYs() {
+		if (startYCache == null) {
+			startYCache = new int[getRowCount()];
+			Arrays.fill(startYCache, -1);
 		}
-		return cachedVisibleRowPositionOrder;
+		return startYCache;
 	}
 
 	protected void cacheVisibleRowIndexes() {
-		cachedVisibleRowIndexOrder = new HashMap<Integer, Integer>();
-		cachedVisibleRowPositionOrder = new HashMap<Integer, Integer>();
-		cachedHiddenRowIndexToPositionMap = new HashMap<Integer, Integer>();
-		startYCache.clear();
-
 		ILayer underlyingLayer = getUnderlyingLayer();
-		int rowPosition = 0;
-		for (int parentRowPosition = 0; parentRowPosition < underlyingLayer.getRowCount(); parentRowPosition++) {
+		int underlyingRowCount = underlyingLayer.getRowCount();
+
+		int[] underlyingIndexes = new int[underlyingRowCount];
+		BitSet hiddenPositions = new BitSet(underlyingRowCount);
+		for (int parentRowPosition = 0; parentRowPosition < underlyingRowCount; parentRowPosition++) {
 			int rowIndex = underlyingLayer.getRowIndexByPosition(parentRowPosition);
+			underlyingIndexes[parentRowPosition] = rowIndex;
+			if (isRowIndexHidden(rowIndex)) {
+				hiddenPositions.set(parentRowPosition);
+			}
+		}
 
-			if (!isRowIndexHidden(rowIndex)) {
-				cachedVisibleRowIndexOrder.put(Integer.valueOf(rowIndex), rowPosition);
-				cachedVisibleRowPositionOrder.put(rowPosition, Integer.valueOf(rowIndex));
+		buildCache(underlyingIndexes, hiddenPositions);
+		startYCache = null;
+	}
+
+	/**
+	 * Builds the visible row index order and its inverse out of the indexes of the
+	 * underlying layer and their hidden state.
+	 * @param underlyingIndexes The row indexes of the underlying layer ordered by
+	 * 			underlying position.
+	 * @param hiddenPositions The underlying positions of the rows that are hidden
+	 * 			in this layer.
+	 */
+	private void buildCache(int[] underlyingIndexes, BitSet hiddenPositions) {
+		int underlyingRowCount = underlyingIndexes.length;
+		int maxRowIndex = -1;
+		for (int parentRowPosition = 0; parentRowPosition < underlyingRowCount; parentRowPosition++) {
+			maxRowIndex = Math.max(maxRowIndex, underlyingIndexes[parentRowPosition]);
+		}
+
+		int[] visibleRowIndexes = new int[underlyingRowCount - hiddenPositions.cardinality()];
+		int[] rowIndexToPosition = new int[maxRowIndex + 1];
+		Arrays.fill(rowIndexToPosition, -1);
+		BitSet hiddenRowIndexes = new BitSet(maxRowIndex + 1);
+
+		//process the visible rows between two hidden rows at once
+		int rowPosition = 0;
+		int parentRowPosition = 0;
+		while (parentRowPosition < underlyingRowCount) {
+			int hiddenPosition = hiddenPositions.nextSetBit(parentRowPosition);
+			if (hiddenPosition < 0) {
+				hiddenPosition = underlyingRowCount;
+			}
+
+			System.arraycopy(underlyingIndexes, parentRowPosition, visibleRowIndexes, rowPosition, hiddenPosition - parentRowPosition);
+			for (; parentRowPosition < hiddenPosition; parentRowPosition++) {
+				int rowIndex = underlyingIndexes[parentRowPosition];
+				if (rowIndex >= 0) {
+					rowIndexToPosition[rowIndex] = rowPosition;
+				}
 				rowPosition++;
+			}
+
+			if (hiddenPosition < underlyingRowCount) {
+				int rowIndex = underlyingIndexes[hiddenPosition];
+				if (rowIndex >= 0) {
+					hiddenRowIndexes.set(rowIndex);
+					rowIndexToPosition[rowIndex] = rowPosition;
+				}
+				parentRowPosition = hiddenPosition + 1;
+			}
+		}
+
+		cachedUnderlyingRowIndexes = underlyingIndexes;
+		cachedHiddenRowPositions = hiddenPositions;
+		cachedRowIndexToPosition = rowIndexToPosition;
+		cachedHiddenRowIndexes = hiddenRowIndexes;
+		cachedVisibleRowIndexOrder = visibleRowIndexes;
+	}
+
+	/**
+	 * Specifies whether the cache of this layer can be updated incrementally on
+	 * {@link RowInsertEvent}s and {@link RowDeleteEvent}s. In that case only the
+	 * inserted rows are requested from the underlying layer, while the indexes of the
+	 * existing rows are shifted the same way a list shifts them on inserting or removing
+	 * elements. The hidden state of the rows is taken from {@link #getHiddenRowIndexes()},
+	 * so implementations that return <code>true</code> need to ensure that this collection
+	 * contains all rows that are hidden in this layer, and that it is already updated
+	 * for the inserted and deleted rows when the event reaches this class.
+	 * <p>
+	 * Note that the update is still linear in the number of rows of the underlying layer,
+	 * as the index of every row behind an inserted or deleted row changes and the cached
+	 * arrays are copied into new arrays of the new size. What is saved is the
+	 * {@link ILayer#getRowIndexByPosition(int)} call on the underlying layer for every row,
+	 * which is the expensive part for deep layer stacks.
+	 * @return <code>true</code> if the cache can be updated incrementally,
+	 * 			<code>false</code> if it needs to be rebuilt on every structural change.
+	 */
+	protected boolean isIncrementalCacheUpdateSupported() {
+		return false;
+	}
+
+	/**
+	 * Tries to apply the row diffs of the given event to the cache instead of rebuilding it
+	 * out of the underlying layer. The cached arrays are recreated by shifting the cached
+	 * indexes, so this is still linear in the number of underlying rows.
+	 * @param event The structural change event that was fired by the underlying layer.
+	 * @return <code>true</code> if the cache was updated, <code>false</code> if the cache
+	 * 			needs to be invalidated.
+	 */
+	private boolean updateCache(IStructuralChangeEvent event) {
+		if (!isIncrementalCacheUpdateSupported() || cachedVisibleRowIndexOrder == null || cachedUnderlyingRowIndexes == null
+				|| !(event instanceof RowInsertEvent || event instanceof RowDeleteEvent)) {
+			return false;
+		}
+
+		Collection<StructuralDiff> rowDiffs = event.getRowDiffs();
+		if (rowDiffs == null || rowDiffs.isEmpty()) {
+			return false;
+		}
+
+		int underlyingRowCount = getUnderlyingLayer().getRowCount();
+		//the positions in the new state of the underlying layer that were changed
+		BitSet changedPositions = new BitSet(underlyingRowCount);
+		//the new positions of the rows that were hidden before
+		BitSet hiddenPositions = new BitSet(underlyingRowCount);
+		int[] underlyingIndexes = (event instanceof RowInsertEvent)
+				? insertRows(rowDiffs, underlyingRowCount, changedPositions, hiddenPositions)
+				: deleteRows(rowDiffs, underlyingRowCount, changedPositions, hiddenPositions);
+		if (underlyingIndexes == null || !isConsistentWithUnderlyingLayer(underlyingIndexes, changedPositions)) {
+			return false;
+		}
+
+		BitSet hiddenIndexes = new BitSet();
+		for (Integer hiddenIndex : getHiddenRowIndexes()) {
+			if (hiddenIndex.intValue() >= 0) {
+				hiddenIndexes.set(hiddenIndex.intValue());
+			}
+		}
+		if (event instanceof RowInsertEvent) {
+			for (int position = changedPositions.nextSetBit(0); position >= 0; position = changedPositions.nextSetBit(position + 1)) {
+				if (hiddenIndexes.get(underlyingIndexes[position])) {
+					hiddenPositions.set(position);
+				}
+			}
+		}
+		if (!isHiddenStateConsistent(underlyingIndexes, hiddenPositions, hiddenIndexes)) {
+			//the hidden rows did not move together with the row indexes, so check all rows
+			hiddenPositions.clear();
+			for (int parentRowPosition = 0; parentRowPosition < underlyingIndexes.length; parentRowPosition++) {
+				int rowIndex = underlyingIndexes[parentRowPosition];
+				if (rowIndex >= 0 && hiddenIndexes.get(rowIndex)) {
+					hiddenPositions.set(parentRowPosition);
+				}
+			}
+		}
+
+		//the start y coordinates of the rows in front of the first change stay valid,
+		//as long as the hidden state of those rows did not change
+		int firstChange = changedPositions.nextSetBit(0);
+		BitSet oldHiddenPositions = cachedHiddenRowPositions.get(0, firstChange);
+		BitSet changedHiddenPositions = hiddenPositions.get(0, firstChange);
+		changedHiddenPositions.xor(oldHiddenPositions);
+		if (changedHiddenPositions.nextSetBit(0) >= 0) {
+			firstChange = changedHiddenPositions.nextSetBit(0);
+		}
+		int unchangedRows = firstChange - oldHiddenPositions.get(0, firstChange).cardinality();
+		int[] oldStartYs = startYCache;
+
+		buildCache(underlyingIndexes, hiddenPositions);
+
+		startYCache = null;
+		if (oldStartYs != null && unchangedRows > 0) {
+			int[] startYs = getCachedStartYs();
+			System.arraycopy(oldStartYs, 0, startYs, 0, Math.min(unchangedRows, Math.min(oldStartYs.length, startYs.length)));
+		}
+		return true;
+	}
+
+	/**
+	 * Applies the ADD diffs of a {@link RowInsertEvent} to the cached underlying row indexes.
+	 * The indexes of the inserted rows are requested from the underlying layer, the indexes
+	 * of the existing rows are increased by the number of inserted indexes that are lower.
+	 * @param rowDiffs The diffs of the insert event.
+	 * @param underlyingRowCount The number of rows in the underlying layer after the insert.
+	 * @param changedPositions Collects the positions of the inserted rows.
+	 * @param hiddenPositions Collects the new positions of the rows that were hidden.
+	 * @return The row indexes of the underlying layer after the insert, or <code>null</code>
+	 * 			if the diffs can not be applied.
+	 */
+	private int[] insertRows(Collection<StructuralDiff> rowDiffs, int underlyingRowCount, BitSet changedPositions, BitSet hiddenPositions) {
+		for (StructuralDiff rowDiff : rowDiffs) {
+			Range range = rowDiff.getAfterPositionRange();
+			if (rowDiff.getDiffType() != DiffTypeEnum.ADD || range == null
+					|| range.start < 0 || range.end > underlyingRowCount || range.start >= range.end) {
+				return null;
+			}
+			changedPositions.set(range.start, range.end);
+		}
+
+		int[] oldIndexes = cachedUnderlyingRowIndexes;
+		int insertedCount = changedPositions.cardinality();
+		if (oldIndexes.length + insertedCount != underlyingRowCount) {
+			return null;
+		}
+
+		ILayer underlyingLayer = getUnderlyingLayer();
+		int[] insertedIndexes = new int[insertedCount];
+		int[] positionBounds = new int[insertedCount];
+		int inserted = 0;
+		for (int position = changedPositions.nextSetBit(0); position >= 0; position = changedPositions.nextSetBit(position + 1)) {
+			int rowIndex = underlyingLayer.getRowIndexByPosition(position);
+			if (rowIndex < 0) {
+				return null;
+			}
+			positionBounds[inserted] = position - inserted;
+			insertedIndexes[inserted++] = rowIndex;
+		}
+
+		//an existing index is increased by the number of inserted indexes that are lower
+		//than or equal to its new value, which is the number of inserted indexes whose
+		//value minus the number of lower inserted indexes is lower than or equal to it
+		int[] indexBounds = insertedIndexes.clone();
+		Arrays.sort(indexBounds);
+		for (int i = insertedCount - 1; i > 0; i--) {
+			if (indexBounds[i] == indexBounds[i - 1]) {
+				return null;
+			}
+			indexBounds[i] -= i;
+		}
+
+		int[] underlyingIndexes = new int[underlyingRowCount];
+		int oldPosition = 0;
+		int parentRowPosition = 0;
+		inserted = 0;
+		for (int position = changedPositions.nextSetBit(0); position >= 0; position = changedPositions.nextSetBit(position + 1)) {
+			int length = position - parentRowPosition;
+			copyShifted(oldIndexes, oldPosition, underlyingIndexes, parentRowPosition, length, indexBounds, 1);
+			oldPosition += length;
+			underlyingIndexes[position] = insertedIndexes[inserted++];
+			parentRowPosition = position + 1;
+		}
+		copyShifted(oldIndexes, oldPosition, underlyingIndexes, parentRowPosition, underlyingRowCount - parentRowPosition, indexBounds, 1);
+
+		//the positions are shifted the same way as the indexes
+		BitSet oldHiddenPositions = cachedHiddenRowPositions;
+		for (int position = oldHiddenPositions.nextSetBit(0); position >= 0; position = oldHiddenPositions.nextSetBit(position + 1)) {
+			hiddenPositions.set(position + countLower(positionBounds, position + 1));
+		}
+		return underlyingIndexes;
+	}
+
+	/**
+	 * Applies the DELETE diffs of a {@link RowDeleteEvent} to the cached underlying row indexes.
+	 * The indexes of the remaining rows are decreased by the number of deleted indexes that
+	 * are lower.
+	 * @param rowDiffs The diffs of the delete event.
+	 * @param underlyingRowCount The number of rows in the underlying layer after the delete.
+	 * @param changedPositions Collects the positions of the rows that follow a deleted row.
+	 * @param hiddenPositions Collects the new positions of the remaining rows that were hidden.
+	 * @return The row indexes of the underlying layer after the delete, or <code>null</code>
+	 * 			if the diffs can not be applied.
+	 */
+	private int[] deleteRows(Collection<StructuralDiff> rowDiffs, int underlyingRowCount, BitSet changedPositions, BitSet hiddenPositions) {
+		int[] oldIndexes = cachedUnderlyingRowIndexes;
+		BitSet deletedPositions = new BitSet(oldIndexes.length);
+		for (StructuralDiff rowDiff : rowDiffs) {
+			Range range = rowDiff.getBeforePositionRange();
+			if (rowDiff.getDiffType() != DiffTypeEnum.DELETE || range == null
+					|| range.start < 0 || range.end > oldIndexes.length || range.start >= range.end) {
+				return null;
+			}
+			deletedPositions.set(range.start, range.end);
+		}
+
+		int deletedCount = deletedPositions.cardinality();
+		if (oldIndexes.length - deletedCount != underlyingRowCount) {
+			return null;
+		}
+
+		//an existing index is decreased by the number of deleted indexes that are lower
+		int[] indexBounds = new int[deletedCount];
+		int[] positionBounds = new int[deletedCount];
+		int deleted = 0;
+		for (int oldPosition = deletedPositions.nextSetBit(0); oldPosition >= 0; oldPosition = deletedPositions.nextSetBit(oldPosition + 1)) {
+			positionBounds[deleted] = oldPosition + 1;
+			indexBounds[deleted++] = oldIndexes[oldPosition] + 1;
+		}
+		Arrays.sort(indexBounds);
+
+		int[] underlyingIndexes = new int[underlyingRowCount];
+		int oldPosition = 0;
+		int parentRowPosition = 0;
+		while (oldPosition < oldIndexes.length) {
+			int deletedStart = deletedPositions.nextSetBit(oldPosition);
+			if (deletedStart < 0) {
+				deletedStart = oldIndexes.length;
+			}
+			int length = deletedStart - oldPosition;
+			copyShifted(oldIndexes, oldPosition, underlyingIndexes, parentRowPosition, length, indexBounds, -1);
+			parentRowPosition += length;
+			if (deletedStart < oldIndexes.length) {
+				changedPositions.set(parentRowPosition);
+				oldPosition = deletedPositions.nextClearBit(deletedStart);
+			} else {
+				oldPosition = deletedStart;
+			}
+		}
+
+		//the positions are shifted the same way as the indexes
+		BitSet oldHiddenPositions = cachedHiddenRowPositions;
+		for (int position = oldHiddenPositions.nextSetBit(0); position >= 0; position = oldHiddenPositions.nextSetBit(position + 1)) {
+			if (!deletedPositions.get(position)) {
+				hiddenPositions.set(position - countLower(positionBounds, position + 1));
+			}
+		}
+		return underlyingIndexes;
+	}
+
+	/**
+	 * Copies a range of row indexes and shifts every index by the number of the given
+	 * bounds that are lower than or equal to it.
+	 * @param source The row indexes to copy.
+	 * @param sourcePosition The start position in the source array.
+	 * @param target The array to copy the row indexes to.
+	 * @param targetPosition The start position in the target array.
+	 * @param length The number of row indexes to copy.
+	 * @param bounds The sorted bounds that specify the shift of the row indexes.
+	 * @param direction 1 to increase the row indexes, -1 to decrease them.
+	 */
+	private static void copyShifted(int[] source, int sourcePosition, int[] target, int targetPosition, int length, int[] bounds, int direction) {
+		int firstBound = bounds.length > 0 ? bounds[0] : Integer.MAX_VALUE;
+		for (int i = 0; i < length; i++) {
+			int rowIndex = source[sourcePosition + i];
+			if (rowIndex >= firstBound) {
+				rowIndex += direction * (bounds.length == 1 ? 1 : countLower(bounds, rowIndex + 1));
+			}
+			target[targetPosition + i] = rowIndex;
+		}
+	}
+
+	/**
+	 * Checks the incrementally updated row indexes against the underlying layer at the
+	 * borders of the table and around the changed positions. If the underlying layer does
+	 * not shift its indexes like a list, the cache needs to be rebuilt.
+	 * @param underlyingIndexes The updated row indexes of the underlying layer.
+	 * @param changedPositions The positions that were changed.
+	 * @return <code>true</code> if the checked indexes match the underlying layer.
+	 */
+	private boolean isConsistentWithUnderlyingLayer(int[] underlyingIndexes, BitSet changedPositions) {
+		ILayer underlyingLayer = getUnderlyingLayer();
+		int last = underlyingIndexes.length - 1;
+		if (last >= 0 && (underlyingLayer.getRowIndexByPosition(0) != underlyingIndexes[0]
+				|| underlyingLayer.getRowIndexByPosition(last) != underlyingIndexes[last])) {
+			return false;
+		}
+		for (int position = changedPositions.nextSetBit(0); position >= 0; position = changedPositions.nextSetBit(position + 1)) {
+			for (int check = Math.max(position - 1, 0); check <= Math.min(position + 1, last); check++) {
+				if (underlyingLayer.getRowIndexByPosition(check) != underlyingIndexes[check]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the given hidden positions contain exactly the rows whose indexes
+	 * are hidden in this layer.
+	 * @param underlyingIndexes The row indexes of the underlying layer.
+	 * @param hiddenPositions The underlying positions of the hidden rows.
+	 * @param hiddenIndexes The indexes of the rows that are hidden in this layer.
+	 * @return <code>true</code> if the hidden positions match the hidden indexes.
+	 */
+	private static boolean isHiddenStateConsistent(int[] underlyingIndexes, BitSet hiddenPositions, BitSet hiddenIndexes) {
+		if (hiddenPositions.cardinality() != hiddenIndexes.cardinality()) {
+			return false;
+		}
+		for (int position = hiddenPositions.nextSetBit(0); position >= 0; position = hiddenPositions.nextSetBit(position + 1)) {
+			if (position >= underlyingIndexes.length || underlyingIndexes[position] < 0 || !hiddenIndexes.get(underlyingIndexes[position])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return The number of values in the given sorted array that are lower than the given value.
+	 */
+	private static int countLower(int[] sortedValues, int value) {
+		int low = 0;
+		int high = sortedValues.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sortedValues[mid] < value) {
+				low = mid + 1;
 			} else {
-				cachedHiddenRowIndexToPositionMap.put(Integer.valueOf(rowIndex), Integer.valueOf(rowPosition));
+				high = mid;
 			}
 		}
+		return low;
 	}
 
 }
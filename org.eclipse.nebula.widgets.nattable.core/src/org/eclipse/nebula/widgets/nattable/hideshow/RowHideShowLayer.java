@@ -64,6 +64,15 @@ public void handleLayerEvent(ILayerEvent event) {
 		super.handleLayerEvent(event);
 	}
 	
+	/**
+	 * The hidden row indexes of this layer are updated for inserted and deleted rows
+	 * before the cache is processed, therefore the cache can be updated incrementally.
+	 */
+	@Override
+	protected boolean isIncrementalCacheUpdateSupported() {
+		return true;
+	}
+	
 	// Persistence
 	
 	@Override
@@ -10,7 +10,9 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.layer;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -20,6 +22,7 @@
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommandHandler;
@@ -53,6 +56,11 @@ public abstract class AbstractLayer implements ILayer {
 	private IConfigLabelAccumulator configLabelAccumulator;
 
 	private final Map<Class<? extends ILayerCommand>, ILayerCommandHandler<? extends ILayerCommand>> commandHandlers = new LinkedHashMap<Class<? extends ILayerCommand>, ILayerCommandHandler<? extends ILayerCommand>>();
+	/**
+	 * The command handlers that are able to handle a concrete command class, in registration order.
+	 * Cleared whenever a command handler is registered or unregistered.
+	 */
+	private final Map<Class<? extends ILayerCommand>, List<ILayerCommandHandler<? extends ILayerCommand>>> commandHandlerCache = new ConcurrentHashMap<Class<? extends ILayerCommand>, List<ILayerCommandHandler<? extends ILayerCommand>>>();
 	private final Map<Class<? extends ILayerEvent>, ILayerEventHandler<? extends ILayerEvent>> eventHandlers = new HashMap<Class<? extends ILayerEvent>, ILayerEventHandler<? extends ILayerEvent>>();
 	
 	private final List<IPersistable> persistables = new LinkedList<IPersistable>();
@@ -156,18 +164,39 @@ public void configure(ConfigRegistry configRegistry, UiBindingRegistry uiBinding
 	@Override
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public boolean doCommand(ILayerCommand command) {
-		for (Class<? extends ILayerCommand> commandClass : commandHandlers.keySet()) {
-			if (commandClass.isInstance(command)) {
-				ILayerCommandHandler commandHandler = commandHandlers.get(commandClass);
-				if (commandHandler.doCommand(this, command)) {
-					return true;
-				}
+		for (ILayerCommandHandler commandHandler : getCommandHandlers(command.getClass())) {
+			if (commandHandler.doCommand(this, command)) {
+				return true;
 			}
 		}
 		
 		return false;
 	}
 	
+	/**
+	 * Resolves the registered command handlers that are able to handle commands of the given class.
+	 * The result is cached per concrete command class, so the registered command classes only need
+	 * to be checked once instead of for every command that passes this layer.
+	 * @param commandClass The concrete class of a command.
+	 * @return The command handlers for the given command class in the order they were registered.
+	 */
+	private List<ILayerCommandHandler<? extends ILayerCommand>> getCommandHandlers(Class<? extends ILayerCommand> commandClass) {
+		List<ILayerCommandHandler<? extends ILayerCommand>> handlers = commandHandlerCache.get(commandClass);
+		if (handlers == null) {
+			handlers = new ArrayList<ILayerCommandHandler<? extends ILayerCommand>>();
+			for (Map.Entry<Class<? extends ILayerCommand>, ILayerCommandHandler<? extends ILayerCommand>> entry : commandHandlers.entrySet()) {
+				if (entry.getKey().isAssignableFrom(commandClass)) {
+					handlers.add(entry.getValue());
+				}
+			}
+			handlers = handlers.isEmpty()
+					? Collections.<ILayerCommandHandler<? extends ILayerCommand>>emptyList()
+					: Collections.unmodifiableList(handlers);
+			commandHandlerCache.put(commandClass, handlers);
+		}
+		return handlers;
+	}
+	
 	// Command handlers
 	
 	/**
@@ -182,11 +211,13 @@ protected void registerCommandHandlers() {
 	@Override
 	public void registerCommandHandler(ILayerCommandHandler<?> commandHandler) {
 		commandHandlers.put(commandHandler.getCommandClass(), commandHandler);
+		commandHandlerCache.clear();
 	}
 
 	@Override
 	public void unregisterCommandHandler(Class<? extends ILayerCommand> commandClass) {
 		commandHandlers.remove(commandClass);
+		commandHandlerCache.clear();
 	}
 	
 	// Events
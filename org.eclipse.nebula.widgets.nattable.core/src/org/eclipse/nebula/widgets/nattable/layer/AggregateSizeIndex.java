@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer;
+
+import java.util.Arrays;
+
+/**
+ * Binary indexed tree (Fenwick tree) that stores the sizes of positions as
+ * deltas to a default size. It is used by {@link SizeConfig} to calculate
+ * aggregated sizes and to find the position at a given pixel in O(log n),
+ * and to apply the size change of a single position without invalidating
+ * the sizes of all other positions.
+ * <p>
+ * Positions that were never set have the default size. The index grows on
+ * demand, so there is no need to know the number of positions upfront.
+ */
+class AggregateSizeIndex {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The size of positions that are not stored in the tree.
+	 */
+	private int defaultSize;
+	/**
+	 * The number of positions covered by the tree. Always a power of two,
+	 * which allows growing the tree without recalculating existing nodes.
+	 */
+	private int capacity;
+	/**
+	 * The 1-based Fenwick tree of size deltas. tree[i] contains the sum of the
+	 * deltas of the positions (i - lowbit(i), i].
+	 */
+	private int[] tree;
+	/**
+	 * The number of positions that currently have a negative size. The
+	 * position lookup by pixel is only reliable if all sizes are positive.
+	 */
+	private int negativeSizes = 0;
+
+	AggregateSizeIndex(int defaultSize) {
+		clear(defaultSize);
+	}
+
+	/**
+	 * Removes all position specific sizes and sets the default size.
+	 * @param defaultSize The size that should be used for all positions.
+	 */
+	void clear(int defaultSize) {
+		this.defaultSize = defaultSize;
+		this.capacity = INITIAL_CAPACITY;
+		this.tree = new int[this.capacity + 1];
+		this.negativeSizes = 0;
+	}
+
+	/**
+	 * Sets the size of a single position in O(log n).
+	 * @param position The position whose size should be set.
+	 * @param size The size of the given position.
+	 */
+	void setSize(int position, int size) {
+		ensureCapacity(position + 1);
+
+		int oldSize = getSize(position);
+		if (oldSize < 0) {
+			negativeSizes--;
+		}
+		if (size < 0) {
+			negativeSizes++;
+		}
+
+		int diff = size - oldSize;
+		if (diff != 0) {
+			for (int i = position + 1; i <= capacity; i += i & -i) {
+				tree[i] += diff;
+			}
+		}
+	}
+
+	/**
+	 * @param position The position whose size is requested.
+	 * @return The size of the given position.
+	 */
+	int getSize(int position) {
+		if (position >= capacity) {
+			return defaultSize;
+		}
+		return defaultSize + sumDeltas(position + 1) - sumDeltas(position);
+	}
+
+	/**
+	 * @param position The position up to which the sizes should be summed.
+	 * @return The sum of the sizes of all positions lower than the given position.
+	 */
+	int getAggregateSize(int position) {
+		if (position <= 0) {
+			return 0;
+		}
+		return position * defaultSize + sumDeltas(Math.min(position, capacity));
+	}
+
+	/**
+	 * Searches the position that contains the given aggregated size, that is the
+	 * position p for which <code>getAggregateSize(p) &lt;= size &lt; getAggregateSize(p + 1)</code>.
+	 * @param size The aggregated size, e.g. a pixel coordinate.
+	 * @return The position that contains the given aggregated size, or -1 if the
+	 * 			given size is negative or the position can not be determined because
+	 * 			there are positions configured with negative sizes.
+	 */
+	int getPositionByAggregateSize(int size) {
+		if (size < 0 || negativeSizes > 0) {
+			return -1;
+		}
+
+		int position = 0;
+		long remaining = size;
+		for (int step = capacity; step > 0; step >>= 1) {
+			int next = position + step;
+			if (next <= capacity) {
+				long blockSize = (long) step * defaultSize + tree[next];
+				if (blockSize <= remaining) {
+					position = next;
+					remaining -= blockSize;
+				}
+			}
+		}
+
+		if (position < capacity) {
+			return position;
+		}
+
+		//after the indexed positions there are only positions with the default size
+		if (defaultSize <= 0) {
+			return -1;
+		}
+		return capacity + (int) (remaining / defaultSize);
+	}
+
+	private int sumDeltas(int count) {
+		int sum = 0;
+		for (int i = count; i > 0; i -= i & -i) {
+			sum += tree[i];
+		}
+		return sum;
+	}
+
+	private void ensureCapacity(int minCapacity) {
+		if (minCapacity <= capacity) {
+			return;
+		}
+
+		int newCapacity = capacity;
+		while (newCapacity < minCapacity) {
+			newCapacity <<= 1;
+		}
+
+		//all new positions have a delta of 0, so the only new nodes with a value
+		//are the power of two nodes, which cover the whole existing range
+		int total = tree[capacity];
+		tree = Arrays.copyOf(tree, newCapacity + 1);
+		for (int i = capacity << 1; i <= newCapacity; i <<= 1) {
+			tree[i] = total;
+		}
+		capacity = newCapacity;
+	}
+
+}
@@ -14,8 +14,11 @@
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
 import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
@@ -53,6 +56,11 @@ public class CompositeLayer extends AbstractLayer {
 
 	private final Map<ILayer, LayoutCoordinate> childLayerToLayoutCoordinateMap = new HashMap<ILayer, LayoutCoordinate>();
 
+	/** The regions commands of a command class are routed to, see {@link #registerCommandRoute(Class, String...)} */
+	private final Map<Class<? extends ILayerCommand>, String[]> commandRoutes = new LinkedHashMap<Class<? extends ILayerCommand>, String[]>();
+	/** The child layers a concrete command class is routed to, cleared if the child layers or the routes change */
+	private final Map<Class<? extends ILayerCommand>, Collection<ILayer>> commandRouteCache = new ConcurrentHashMap<Class<? extends ILayerCommand>, Collection<ILayer>>();
+
 	/** Data struct. for child Layers */
 	private final ILayer[][] childLayerLayout;
 
@@ -136,7 +144,7 @@ public boolean doCommand(ILayerCommand command) {
 	}
 
 	protected boolean doCommandOnChildLayers(ILayerCommand command) {
-		for (ILayer childLayer : childLayerToLayoutCoordinateMap.keySet()) {
+		for (ILayer childLayer : getChildLayersForCommand(command)) {
 			ILayerCommand childCommand = command.cloneCommand();
 			if (childLayer.doCommand(childCommand)) {
 				return true;
@@ -610,6 +618,72 @@ public Rectangle getClientArea() {
 				return getChildClientArea(layoutX, layoutY);
 			}
 		});
+
+		commandRouteCache.clear();
+	}
+
+	/**
+	 * Restricts the child layers commands of the given class are passed to, so commands that
+	 * target one region don't need to travel down the layer stacks of unrelated regions.
+	 * The child layers are asked to handle the command in the order of the given region names.
+	 * Commands of a class without a route are passed to all child layers.
+	 * <p>
+	 * Routes also apply to subclasses of the given command class. If several routes apply
+	 * to a command, the one that was registered first is used.
+	 *
+	 * @param commandClass The class of the commands to route.
+	 * @param regionNames The regions of the child layers the commands are passed to.
+	 */
+	public void registerCommandRoute(Class<? extends ILayerCommand> commandClass, String... regionNames) {
+		commandRoutes.put(commandClass, regionNames);
+		commandRouteCache.clear();
+	}
+
+	/**
+	 * Removes the route for commands of the given class, so they are passed to all child layers again.
+	 * @param commandClass The class of the commands the route was registered for.
+	 */
+	public void unregisterCommandRoute(Class<? extends ILayerCommand> commandClass) {
+		commandRoutes.remove(commandClass);
+		commandRouteCache.clear();
+	}
+
+	/**
+	 * @return The child layers in the order they are asked to handle commands that are not routed.
+	 */
+	protected Collection<ILayer> getChildLayersInCommandOrder() {
+		return childLayerToLayoutCoordinateMap.keySet();
+	}
+
+	/**
+	 * @param command The command to pass to the child layers.
+	 * @return The child layers the command is passed to, in the order they are asked to handle it.
+	 */
+	protected Collection<ILayer> getChildLayersForCommand(ILayerCommand command) {
+		if (commandRoutes.isEmpty()) {
+			return getChildLayersInCommandOrder();
+		}
+
+		Class<? extends ILayerCommand> commandClass = command.getClass();
+		Collection<ILayer> childLayers = commandRouteCache.get(commandClass);
+		if (childLayers == null) {
+			childLayers = new ArrayList<ILayer>(getChildLayersInCommandOrder());
+			for (Map.Entry<Class<? extends ILayerCommand>, String[]> route : commandRoutes.entrySet()) {
+				if (route.getKey().isAssignableFrom(commandClass)) {
+					List<ILayer> routedLayers = new ArrayList<ILayer>();
+					for (String regionName : route.getValue()) {
+						ILayer childLayer = regionNameToChildLayerMap.get(regionName);
+						if (childLayer != null && !routedLayers.contains(childLayer)) {
+							routedLayers.add(childLayer);
+						}
+					}
+					childLayers = routedLayers;
+					break;
+				}
+			}
+			commandRouteCache.put(commandClass, childLayers);
+		}
+		return childLayers;
 	}
 
 	public IConfigLabelAccumulator getConfigLabelAccumulatorByRegionName(String regionName) {
@@ -389,12 +389,20 @@ public void setDataValueByPosition(int columnPosition, int rowPosition, Object n
 
 	@Override
 	public int getColumnPositionByX(int x) {
-		return LayerUtil.getColumnPositionByX(this, x);
+		if (x < 0 || x >= getWidth()) {
+			return -1;
+		}
+		int columnPosition = columnWidthConfig.getPositionByAggregateSize(x);
+		return columnPosition >= 0 ? columnPosition : LayerUtil.getColumnPositionByX(this, x);
 	}
 
 	@Override
 	public int getRowPositionByY(int y) {
-		return LayerUtil.getRowPositionByY(this, y);
+		if (y < 0 || y >= getHeight()) {
+			return -1;
+		}
+		int rowPosition = rowHeightConfig.getPositionByAggregateSize(y);
+		return rowPosition >= 0 ? rowPosition : LayerUtil.getRowPositionByY(this, y);
 	}
 
 	@Override
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.layer;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable list of config labels that is canonicalized via {@link #intern(List)}.
+ * There is only one interned instance for every combination of labels, so interned
+ * label lists can be compared by identity and used as cheap keys, e.g. for caching
+ * the resolution of config attributes in the ConfigRegistry.
+ * <p>
+ * The interned instances are held in a global table that is cleared if it contains
+ * more than {@link #MAX_INTERNED_LABELS} combinations, e.g. because of labels that are
+ * unique per row. So the identity of interned instances is only guaranteed as long
+ * as the table is not cleared, which means that identity comparisons should only
+ * be used as fast path in front of content comparisons.
+ */
+public final class InternedLabels extends AbstractList<String> implements RandomAccess {
+
+	/**
+	 * The maximum number of label combinations that are interned before the
+	 * table of interned instances is cleared.
+	 */
+	public static final int MAX_INTERNED_LABELS = 8192;
+
+	private static volatile ConcurrentMap<InternedLabels, InternedLabels> interned =
+			new ConcurrentHashMap<InternedLabels, InternedLabels>();
+
+	private final String[] labels;
+	private final int hashCode;
+
+	private InternedLabels(String[] labels) {
+		this.labels = labels;
+		int hash = 1;
+		for (String label : labels) {
+			hash = 31 * hash + (label == null ? 0 : label.hashCode());
+		}
+		this.hashCode = hash;
+	}
+
+	/**
+	 * Returns the canonical immutable instance for the given labels.
+	 * @param labels The labels to intern.
+	 * @return The interned instance that contains the given labels in the same order.
+	 */
+	public static InternedLabels intern(List<String> labels) {
+		if (labels instanceof InternedLabels) {
+			return (InternedLabels) labels;
+		}
+		if (labels instanceof LabelStack.LabelList) {
+			//the label stack caches its interned labels until it is modified
+			return ((LabelStack.LabelList) labels).intern();
+		}
+
+		return intern(new InternedLabels(labels.toArray(new String[labels.size()])));
+	}
+
+	/**
+	 * Returns the canonical immutable instance for the first labels of the given array.
+	 * @param labels The array containing the labels to intern.
+	 * @param size The number of labels to intern.
+	 * @return The interned instance that contains the labels in the same order.
+	 */
+	static InternedLabels intern(String[] labels, int size) {
+		return intern(new InternedLabels(Arrays.copyOf(labels, size)));
+	}
+
+	private static InternedLabels intern(InternedLabels candidate) {
+		ConcurrentMap<InternedLabels, InternedLabels> table = interned;
+		InternedLabels result = table.get(candidate);
+		if (result == null) {
+			if (table.size() >= MAX_INTERNED_LABELS) {
+				table = new ConcurrentHashMap<InternedLabels, InternedLabels>();
+				interned = table;
+			}
+			result = table.putIfAbsent(candidate, candidate);
+			if (result == null) {
+				result = candidate;
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public String get(int index) {
+		return labels[index];
+	}
+
+	@Override
+	public int size() {
+		return labels.length;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		for (String label : labels) {
+			if (label == o || (label != null && label.equals(o))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (obj instanceof InternedLabels) {
+			InternedLabels that = (InternedLabels) obj;
+			if (this.hashCode != that.hashCode || this.labels.length != that.labels.length) {
+				return false;
+			}
+			for (int i = 0; i < labels.length; i++) {
+				String label = labels[i];
+				String other = that.labels[i];
+				if (label != other && (label == null || !label.equals(other))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return super.equals(obj);
+	}
+
+}
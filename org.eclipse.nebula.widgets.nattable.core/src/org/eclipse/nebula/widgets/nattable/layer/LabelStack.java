@@ -4,86 +4,341 @@
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
  * http://www.eclipse.org/legal/epl-v10.html
- * 
+ *
  * Contributors:
  *     Original authors and others - initial API and implementation
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.layer;
 
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * The config labels of a cell or region, ordered from top to bottom.
+ * <p>
+ * The labels are stored in an array and are interned on adding, so the same label
+ * is mostly represented by the same String instance and can be compared by identity.
+ * A small bit set of the label hashes is maintained to answer {@link #hasLabel(String)}
+ * for labels that are not contained without scanning the labels.
+ * <p>
+ * The list that is returned by {@link #getLabels()} is a live view on the label stack.
+ * It can be modified like before, and it can be interned cheaply via
+ * {@link InternedLabels#intern(List)}, as the interned labels are cached until the
+ * label stack is modified.
+ */
 public class LabelStack {
 
-	/** 
-	 * List implementation saves the overhead of popping labels off
+	private static final int INITIAL_CAPACITY = 4;
+
+	/**
+	 * The maximum number of different labels that are interned before the table
+	 * of interned labels is cleared, e.g. because of labels that are unique per row.
+	 */
+	private static final int MAX_INTERNED_LABELS = 8192;
+
+	private static volatile ConcurrentMap<String, String> internedLabelNames =
+			new ConcurrentHashMap<String, String>();
+
+	private String[] labels;
+	private int size;
+
+	/**
+	 * Bit set of the hashes of the contained labels, used to skip the scan for labels
+	 * that are not contained.
+	 */
+	private long labelBits;
+
+	/**
+	 * Modification counter that is used to invalidate the cached interned labels.
+	 */
+	private int modCount;
+	private InternedLabels internedLabels;
+	private int internedModCount;
+
+	/**
+	 * Live list view on the labels, which saves the overhead of copying the labels
 	 * in the {@link #getLabels()} method
 	 */
-	private final List<String> labels = new LinkedList<String>();
-	
+	private final LabelList labelList = new LabelList();
+
 	public LabelStack(String...labelNames) {
+		labels = new String[Math.max(INITIAL_CAPACITY, labelNames.length)];
 		for (String label : labelNames) {
 			if (label != null) {
-				labels.add(label);
+				insert(size, label);
 			}
 		}
 	}
-	
+
 	/**
 	 * Adds a label to the bottom of the label stack.
 	 * @param label
 	 */
 	public void addLabel(String label) {
 		if(! hasLabel(label)){
-			labels.add(label);
+			insert(size, label);
 		}
 	}
-	
+
 	/**
 	 * Adds a label to the top of the label stack.
 	 * @param label
 	 */
 	public void addLabelOnTop(String label) {
 		if(! hasLabel(label)){
-			labels.add(0, label);
+			insert(0, label);
 		}
 	}
-	
+
 	public List<String> getLabels() {
-		return labels;
+		return labelList;
 	}
-	
+
 	public boolean hasLabel(String label) {
-		return labels.contains(label);
+		return indexOf(label) >= 0;
 	}
-	
+
 	public boolean removeLabel(String label) {
-		return labels.remove(label);
+		int index = indexOf(label);
+		if (index >= 0) {
+			remove(index);
+			return true;
+		}
+		return false;
 	}
-	
+
+	/**
+	 * Removes all labels, so the label stack can be reused for collecting labels
+	 * without allocating a new instance.
+	 */
+	public void clear() {
+		Arrays.fill(labels, 0, size, null);
+		size = 0;
+		labelBits = 0;
+		modCount++;
+	}
+
 	@Override
 	public String toString() {
-		return labels.toString();
+		return labelList.toString();
 	}
-	
+
 	@Override
 	public boolean equals(Object obj) {
 		if (obj == this) {
 			return true;
 		}
-		
+
 		if (!(obj instanceof LabelStack)) {
 			return false;
 		}
-		
+
 		LabelStack that = (LabelStack) obj;
-		
-		return this.labels.equals(that.labels);
+
+		if (this.size != that.size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			String label = this.labels[i];
+			String other = that.labels[i];
+			if (label != other && (label == null || !label.equals(other))) {
+				return false;
+			}
+		}
+		return true;
 	}
-	
+
 	@Override
 	public int hashCode() {
-		return labels.hashCode();
+		return labelList.hashCode();
+	}
+
+	// Array operations ///////////////////////////////////////////////////////
+
+	private int indexOf(Object label) {
+		if (label == null) {
+			for (int i = 0; i < size; i++) {
+				if (labels[i] == null) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		if ((labelBits & bitOf(label)) == 0) {
+			return -1;
+		}
+		//identity check first, as contained labels are interned
+		for (int i = 0; i < size; i++) {
+			if (labels[i] == label) {
+				return i;
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			if (label.equals(labels[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void insert(int index, String label) {
+		if (size == labels.length) {
+			labels = Arrays.copyOf(labels, size * 2);
+		}
+		if (index < size) {
+			System.arraycopy(labels, index, labels, index + 1, size - index);
+		}
+		labels[index] = internLabel(label);
+		size++;
+		if (label != null) {
+			labelBits |= bitOf(label);
+		}
+		modCount++;
+	}
+
+	private String set(int index, String label) {
+		String previous = labels[index];
+		labels[index] = internLabel(label);
+		updateLabelBits();
+		modCount++;
+		return previous;
 	}
-	
+
+	private String remove(int index) {
+		String removed = labels[index];
+		int moved = size - index - 1;
+		if (moved > 0) {
+			System.arraycopy(labels, index + 1, labels, index, moved);
+		}
+		labels[--size] = null;
+		updateLabelBits();
+		modCount++;
+		return removed;
+	}
+
+	private void updateLabelBits() {
+		labelBits = 0;
+		for (int i = 0; i < size; i++) {
+			if (labels[i] != null) {
+				labelBits |= bitOf(labels[i]);
+			}
+		}
+	}
+
+	private static long bitOf(Object label) {
+		return 1L << (label.hashCode() & 63);
+	}
+
+	/**
+	 * Returns the canonical instance of the given label.
+	 */
+	private static String internLabel(String label) {
+		if (label == null) {
+			return null;
+		}
+		ConcurrentMap<String, String> table = internedLabelNames;
+		String interned = table.get(label);
+		if (interned == null) {
+			if (table.size() >= MAX_INTERNED_LABELS) {
+				table = new ConcurrentHashMap<String, String>();
+				internedLabelNames = table;
+			}
+			interned = table.putIfAbsent(label, label);
+			if (interned == null) {
+				interned = label;
+			}
+		}
+		return interned;
+	}
+
+	/**
+	 * @return The interned labels of this label stack, which are cached until
+	 * 			this label stack is modified.
+	 */
+	InternedLabels intern() {
+		if (internedLabels == null || internedModCount != modCount) {
+			internedLabels = InternedLabels.intern(labels, size);
+			internedModCount = modCount;
+		}
+		return internedLabels;
+	}
+
+	/**
+	 * List view on the labels of the label stack that is returned by {@link LabelStack#getLabels()}.
+	 */
+	final class LabelList extends AbstractList<String> implements RandomAccess {
+
+		@Override
+		public String get(int index) {
+			rangeCheck(index, size);
+			return labels[index];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public String set(int index, String label) {
+			rangeCheck(index, size);
+			return LabelStack.this.set(index, label);
+		}
+
+		@Override
+		public void add(int index, String label) {
+			rangeCheck(index, size + 1);
+			LabelStack.this.insert(index, label);
+		}
+
+		@Override
+		public String remove(int index) {
+			rangeCheck(index, size);
+			return LabelStack.this.remove(index);
+		}
+
+		@Override
+		public void clear() {
+			LabelStack.this.clear();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return indexOf(o) >= 0;
+		}
+
+		@Override
+		public int indexOf(Object o) {
+			return LabelStack.this.indexOf(o);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			int index = LabelStack.this.indexOf(o);
+			if (index >= 0) {
+				LabelStack.this.remove(index);
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * @return The interned labels of the label stack this list belongs to.
+		 */
+		InternedLabels intern() {
+			return LabelStack.this.intern();
+		}
+
+		private void rangeCheck(int index, int limit) {
+			if (index < 0 || index >= limit) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+
 }
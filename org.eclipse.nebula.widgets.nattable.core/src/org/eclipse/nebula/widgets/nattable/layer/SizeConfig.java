@@ -11,7 +11,6 @@
 package org.eclipse.nebula.widgets.nattable.layer;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -77,11 +76,13 @@ public class SizeConfig implements IPersistable {
 	 */
 	private final Map<Integer, Integer> realSizeMap = new TreeMap<Integer, Integer>();
 	/**
-	 * Map that contains the cached aggregated sizes.
+	 * Index that is used to calculate the aggregated sizes and to find positions by
+	 * aggregated size. Size changes of single positions are applied directly, while
+	 * changes that affect all positions cause a rebuild on next access.
 	 */
-	private final Map<Integer, Integer> aggregatedSizeCacheMap = new HashMap<Integer, Integer>();
+	private final AggregateSizeIndex aggregatedSizeIndex;
 	/**
-	 * Flag that indicates if the aggregated size cache is valid or if it needs to get recalculated.
+	 * Flag that indicates if the aggregated size index is valid or if it needs to get rebuilt.
 	 */
 	private boolean isAggregatedSizeCacheValid = true;
 
@@ -91,6 +92,7 @@ public class SizeConfig implements IPersistable {
 	 */
 	public SizeConfig(int defaultSize) {
 		this.defaultSize = defaultSize;
+		this.aggregatedSizeIndex = new AggregateSizeIndex(defaultSize);
 	}
 
 	// Persistence
@@ -125,7 +127,7 @@ public void loadState(String prefix, Properties properties) {
 		defaultSizeMap.clear();
 		sizeMap.clear();
 		resizablesMap.clear();
-		aggregatedSizeCacheMap.clear();
+		isAggregatedSizeCacheValid = false;
 
 		String persistedDefaultSize = properties.getProperty(prefix + PERSISTENCE_KEY_DEFAULT_SIZE);
 		if (!StringUtils.isEmpty(persistedDefaultSize)) {
@@ -189,7 +191,11 @@ public void setDefaultSize(int position, int size) {
 			throw new IllegalArgumentException("size < 0"); //$NON-NLS-1$
 		}
 		defaultSizeMap.put(position, size);
-		this.isAggregatedSizeCacheValid = false;
+		if (isPercentageSizing()) {
+			this.isAggregatedSizeCacheValid = false;
+		} else if (this.isAggregatedSizeCacheValid && !sizeMap.containsKey(position)) {
+			this.aggregatedSizeIndex.setSize(position, size);
+		}
 	}
 
 	private int getDefaultSize(int position) {
@@ -213,17 +219,25 @@ public int getAggregateSize(int position) {
 			//and not as pixel values, therefore another value needs to be considered
 			return position * defaultSize;
 		} else {
-			// See if the cache is valid, if not clear it.
-			if (!isAggregatedSizeCacheValid) {
-				aggregatedSizeCacheMap.clear();
-				isAggregatedSizeCacheValid = true;
-			}
+			return getAggregatedSizeIndex().getAggregateSize(position);
+		}
+	}
 
-			if (!aggregatedSizeCacheMap.containsKey(position)) {
-				int aggregatedSize = calculateAggregatedSize(position);
-				aggregatedSizeCacheMap.put(position, aggregatedSize);
-			}
-			return aggregatedSizeCacheMap.get(position);
+	/**
+	 * Searches the position that contains the given aggregated size, e.g. the row
+	 * position at a given y coordinate.
+	 * @param aggregateSize The aggregated size for which the position is requested.
+	 * @return The position p for which <code>getAggregateSize(p) &lt;= aggregateSize &lt; getAggregateSize(p + 1)</code>,
+	 * 			or -1 if the given aggregated size is negative or the position can not be
+	 * 			determined because negative sizes are configured.
+	 */
+	public int getPositionByAggregateSize(int aggregateSize) {
+		if (aggregateSize < 0) {
+			return -1;
+		} else if (isAllPositionsSameSize() && !isPercentageSizing()) {
+			return defaultSize > 0 ? aggregateSize / defaultSize : -1;
+		} else {
+			return getAggregatedSizeIndex().getPositionByAggregateSize(aggregateSize);
 		}
 	}
 
@@ -308,8 +322,13 @@ public void setSize(int position, int size) {
 				}
 			}
 
-			calculatePercentages(availableSpace, realSizeMap.size());
-			isAggregatedSizeCacheValid = false;
+			if (isPercentageSizing()) {
+				calculatePercentages(availableSpace, realSizeMap.size());
+				isAggregatedSizeCacheValid = false;
+			} else if (isAggregatedSizeCacheValid) {
+				//without percentage sizing only the size of the given position changed
+				aggregatedSizeIndex.setSize(position, size);
+			}
 		}
 	}
 
@@ -616,34 +635,26 @@ private int[] correctPercentageValues(int sum, int positionCount) {
 		return null;
 	}
 
-	private int calculateAggregatedSize(int position) {
-		int resizeAggregate = 0;
-		int resizedColumns = 0;
-
-		Map<Integer, Integer> mapToUse = isPercentageSizing() ? realSizeMap : sizeMap;
+	/**
+	 * @return The aggregated size index, rebuilt from the configured sizes if it was invalidated.
+	 */
+	private AggregateSizeIndex getAggregatedSizeIndex() {
+		if (!isAggregatedSizeCacheValid) {
+			aggregatedSizeIndex.clear(defaultSize);
 
-		for (Integer resizedPosition : mapToUse.keySet()) {
-			if (resizedPosition.intValue() < position) {
-				resizedColumns++;
-				resizeAggregate += mapToUse.get(resizedPosition);
-			} else {
-				break;
+			for (Map.Entry<Integer, Integer> entry : defaultSizeMap.entrySet()) {
+				aggregatedSizeIndex.setSize(entry.getKey(), entry.getValue());
 			}
-		}
 
-		//also take into account the default size configuration per position
-		for (Integer defaultPosition : defaultSizeMap.keySet()) {
-			if (defaultPosition.intValue() < position) {
-				if (!mapToUse.containsKey(defaultPosition)) {
-					resizedColumns++;
-					resizeAggregate += defaultSizeMap.get(defaultPosition).intValue();
-				}
-			} else {
-				break;
+			//sizes per position override the default sizes per position
+			Map<Integer, Integer> mapToUse = isPercentageSizing() ? realSizeMap : sizeMap;
+			for (Map.Entry<Integer, Integer> entry : mapToUse.entrySet()) {
+				aggregatedSizeIndex.setSize(entry.getKey(), entry.getValue());
 			}
-		}
 
-		return (position * defaultSize) + (resizeAggregate - (resizedColumns * defaultSize));
+			isAggregatedSizeCacheValid = true;
+		}
+		return aggregatedSizeIndex;
 	}
 
 }
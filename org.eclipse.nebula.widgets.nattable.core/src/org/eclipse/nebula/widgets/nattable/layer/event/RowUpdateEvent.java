@@ -10,6 +10,8 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.layer.event;
 
+import java.util.Collection;
+
 import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 
@@ -23,6 +25,10 @@ public RowUpdateEvent(ILayer layer, Range rowPositionRange) {
 		super(layer, rowPositionRange);
 	}
 	
+	public RowUpdateEvent(ILayer layer, Collection<Range> rowPositionRanges) {
+		super(layer, rowPositionRanges);
+	}
+	
 	public RowUpdateEvent(RowUpdateEvent event) {
 		super(event);
 	}
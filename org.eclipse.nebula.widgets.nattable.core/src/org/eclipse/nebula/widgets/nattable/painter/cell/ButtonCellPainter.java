@@ -12,8 +12,8 @@
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.nebula.widgets.nattable.NatTable;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
@@ -23,6 +23,7 @@
 import org.eclipse.nebula.widgets.nattable.painter.cell.decorator.BeveledBorderDecorator;
 import org.eclipse.nebula.widgets.nattable.ui.NatEventData;
 import org.eclipse.nebula.widgets.nattable.ui.action.IMouseAction;
+import org.eclipse.nebula.widgets.nattable.util.NatTableExecutors;
 import org.eclipse.swt.events.MouseEvent;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Rectangle;
@@ -99,7 +100,8 @@ public void run(final NatTable natTable, MouseEvent event) {
 		rowPosClicked = eventData.getRowPosition();
 		recentlyClicked = true;
 
-		new Timer().schedule(getButtonFlashTimerTask(natTable), buttonFlashTime);
+		NatTableExecutors.getExecutors(natTable.getConfigRegistry()).getScheduledExecutor()
+				.schedule(getButtonFlashTimerTask(natTable), buttonFlashTime, TimeUnit.MILLISECONDS);
 		natTable.fireLayerEvent(new CellVisualChangeEvent(natTable, columnPosClicked, rowPosClicked));
 
 		for (IMouseAction listener : clickLiseners) {
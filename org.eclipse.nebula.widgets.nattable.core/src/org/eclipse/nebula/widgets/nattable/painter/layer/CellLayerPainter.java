@@ -10,10 +10,8 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.painter.layer;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
@@ -26,8 +24,56 @@
 public class CellLayerPainter implements ILayerPainter {
 	
 	private ILayer natLayer;
-	private Map<Integer, Integer> horizontalPositionToPixelMap;
-	private Map<Integer, Integer> verticalPositionToPixelMap;
+	
+	/**
+	 * The start x coordinates of the columns that are painted, adjusted regarding the
+	 * clipping behaviour. Index 0 contains the start x of the column at
+	 * {@link #horizontalStartPosition}. Reused for every paint operation.
+	 */
+	private int[] horizontalPositionToPixel = new int[0];
+	/**
+	 * The column position whose start x coordinate is stored at index 0 of
+	 * {@link #horizontalPositionToPixel}.
+	 */
+	private int horizontalStartPosition;
+	/**
+	 * The number of valid entries in {@link #horizontalPositionToPixel}.
+	 */
+	private int horizontalPositionCount;
+	
+	/**
+	 * The start y coordinates of the rows that are painted, adjusted regarding the
+	 * clipping behaviour. Index 0 contains the start y of the row at
+	 * {@link #verticalStartPosition}. Reused for every paint operation.
+	 */
+	private int[] verticalPositionToPixel = new int[0];
+	/**
+	 * The row position whose start y coordinate is stored at index 0 of
+	 * {@link #verticalPositionToPixel}.
+	 */
+	private int verticalStartPosition;
+	/**
+	 * The number of valid entries in {@link #verticalPositionToPixel}.
+	 */
+	private int verticalPositionCount;
+	
+	/**
+	 * The spanned cells that are painted after all other cells. Reused for every paint operation.
+	 */
+	private final List<ILayerCell> spannedCells = new ArrayList<ILayerCell>();
+	
+	/**
+	 * The clipping of the GC at the time the painting of the layer started. As the clipping
+	 * is reset after every cell, it doesn't need to be requested from the GC per cell.
+	 * Only set while {@link #paintLayer(ILayer, GC, int, int, Rectangle, IConfigRegistry)}
+	 * is executed.
+	 */
+	private Rectangle paintClipping;
+	
+	/**
+	 * The clipping bounds of the cell that is currently painted.
+	 */
+	private final Rectangle cellClipping = new Rectangle(0, 0, 0, 0);
 	
 	private final boolean clipLeft;
 	private final boolean clipTop;
@@ -66,26 +112,35 @@ public void paintLayer(ILayer natLayer, GC gc, int xOffset, int yOffset, Rectang
 		
 		calculateDimensionInfo(positionRectangle);
 		
-		Collection<ILayerCell> spannedCells = new HashSet<ILayerCell>();
-		
-		for (int columnPosition = positionRectangle.x; columnPosition < positionRectangle.x + positionRectangle.width; columnPosition++) {
-			for (int rowPosition = positionRectangle.y; rowPosition < positionRectangle.y + positionRectangle.height; rowPosition++) {
-				if (columnPosition == -1 || rowPosition == -1) {
-					continue;
-				}
-				ILayerCell cell = natLayer.getCellByPosition(columnPosition, rowPosition);
-				if (cell != null) {
-					if (cell.isSpannedCell()) {
-						spannedCells.add(cell);
-					} else {
-						paintCell(cell, gc, configRegistry);
+		paintClipping = gc.getClipping();
+		try {
+			for (int columnPosition = positionRectangle.x; columnPosition < positionRectangle.x + positionRectangle.width; columnPosition++) {
+				for (int rowPosition = positionRectangle.y; rowPosition < positionRectangle.y + positionRectangle.height; rowPosition++) {
+					if (columnPosition == -1 || rowPosition == -1) {
+						continue;
+					}
+					ILayerCell cell = natLayer.getCellByPosition(columnPosition, rowPosition);
+					if (cell != null) {
+						if (cell.isSpannedCell()) {
+							//a spanned cell is returned for every position it covers,
+							//so only remember it for the first covered position that is painted
+							if (columnPosition == Math.max(cell.getOriginColumnPosition(), Math.max(positionRectangle.x, 0))
+									&& rowPosition == Math.max(cell.getOriginRowPosition(), Math.max(positionRectangle.y, 0))) {
+								spannedCells.add(cell);
+							}
+						} else {
+							paintCell(cell, gc, configRegistry);
+						}
 					}
 				}
 			}
-		}
-		
-		for (ILayerCell cell : spannedCells) {
-			paintCell(cell, gc, configRegistry);
+			
+			for (int i = 0; i < spannedCells.size(); i++) {
+				paintCell(spannedCells.get(i), gc, configRegistry);
+			}
+		} finally {
+			spannedCells.clear();
+			paintClipping = null;
 		}
 	}
 	
@@ -114,38 +169,46 @@ protected boolean isClipTop(int position) {
 	}
 	
 	private void calculateDimensionInfo(Rectangle positionRectangle) {
-		{	horizontalPositionToPixelMap = new HashMap<Integer, Integer>();
-			final int startPosition = positionRectangle.x;
+		{	final int startPosition = positionRectangle.x;
 			final int endPosition = startPosition + positionRectangle.width;
+			horizontalStartPosition = startPosition;
+			horizontalPositionCount = 0;
+			if (horizontalPositionToPixel.length <= Math.max(positionRectangle.width, 0)) {
+				horizontalPositionToPixel = new int[Math.max(positionRectangle.width, 0) + 1];
+			}
 			int previousEndX = (startPosition > 0) ?
 					natLayer.getStartXOfColumnPosition(startPosition - 1)
 							+ natLayer.getColumnWidthByPosition(startPosition - 1) :
 					Integer.MIN_VALUE;
 			for (int position = startPosition; position < endPosition; position++) {
 				int startX = natLayer.getStartXOfColumnPosition(position);
-				horizontalPositionToPixelMap.put(position, isClipLeft(position) ? startX : Math.max(startX, previousEndX));
+				horizontalPositionToPixel[horizontalPositionCount++] = isClipLeft(position) ? startX : Math.max(startX, previousEndX);
 				previousEndX = startX + natLayer.getColumnWidthByPosition(position);
 			}
 			if (endPosition < natLayer.getColumnCount()) {
 				int startX = natLayer.getStartXOfColumnPosition(endPosition);
-				horizontalPositionToPixelMap.put(endPosition, Math.max(startX, previousEndX));
+				horizontalPositionToPixel[horizontalPositionCount++] = Math.max(startX, previousEndX);
 			}
 		}
-		{	verticalPositionToPixelMap = new HashMap<Integer, Integer>();
-			final int startPosition = positionRectangle.y;
+		{	final int startPosition = positionRectangle.y;
 			final int endPosition = startPosition + positionRectangle.height;
+			verticalStartPosition = startPosition;
+			verticalPositionCount = 0;
+			if (verticalPositionToPixel.length <= Math.max(positionRectangle.height, 0)) {
+				verticalPositionToPixel = new int[Math.max(positionRectangle.height, 0) + 1];
+			}
 			int previousEndY = (startPosition > 0) ?
 					natLayer.getStartYOfRowPosition(startPosition - 1)
 							+ natLayer.getRowHeightByPosition(startPosition - 1) :
 					Integer.MIN_VALUE;
 			for (int position = startPosition; position < endPosition; position++) {
 				int startY = natLayer.getStartYOfRowPosition(position);
-				verticalPositionToPixelMap.put(position, isClipTop(position) ? startY : Math.max(startY, previousEndY));
+				verticalPositionToPixel[verticalPositionCount++] = isClipTop(position) ? startY : Math.max(startY, previousEndY);
 				previousEndY = startY + natLayer.getRowHeightByPosition(position);
 			}
 			if (endPosition < natLayer.getRowCount()) {
 				int startY = natLayer.getStartYOfRowPosition(endPosition);
-				verticalPositionToPixelMap.put(endPosition, Math.max(startY, previousEndY));
+				verticalPositionToPixel[verticalPositionCount++] = Math.max(startY, previousEndY);
 			}
 		}
 	}
@@ -171,7 +234,7 @@ protected void paintCell(ILayerCell cell, GC gc, IConfigRegistry configRegistry)
 		ICellPainter cellPainter = layer.getCellPainter(columnPosition, rowPosition, cell, configRegistry);
 		Rectangle adjustedCellBounds = layer.getLayerPainter().adjustCellBounds(columnPosition, rowPosition, cell.getBounds());
 		if (cellPainter != null) {
-			Rectangle originalClipping = gc.getClipping();
+			Rectangle originalClipping = paintClipping != null ? paintClipping : gc.getClipping();
 			
 			int startX = getStartXOfColumnPosition(columnPosition);
 			int startY = getStartYOfRowPosition(rowPosition);
@@ -179,8 +242,9 @@ protected void paintCell(ILayerCell cell, GC gc, IConfigRegistry configRegistry)
 			int endX = getStartXOfColumnPosition(cell.getOriginColumnPosition() + cell.getColumnSpan());
 			int endY = getStartYOfRowPosition(cell.getOriginRowPosition() + cell.getRowSpan());
 			
-			Rectangle cellClipBounds = originalClipping.intersection(new Rectangle(startX, startY, endX - startX, endY - startY));
-			gc.setClipping(cellClipBounds.intersection(adjustedCellBounds));
+			intersect(originalClipping, startX, startY, endX - startX, endY - startY, cellClipping);
+			intersect(cellClipping, adjustedCellBounds.x, adjustedCellBounds.y, adjustedCellBounds.width, adjustedCellBounds.height, cellClipping);
+			gc.setClipping(cellClipping.x, cellClipping.y, cellClipping.width, cellClipping.height);
 			
 			cellPainter.paintCell(cell, gc, adjustedCellBounds, configRegistry);
 			
@@ -188,21 +252,48 @@ protected void paintCell(ILayerCell cell, GC gc, IConfigRegistry configRegistry)
 		}
 	}
 	
+	/**
+	 * Calculates the intersection of a rectangle with the given bounds the same way as
+	 * {@link Rectangle#intersection(Rectangle)}, but stores the result in the given
+	 * rectangle instead of creating a new one.
+	 * @param rectangle The rectangle to intersect.
+	 * @param x The x coordinate of the bounds to intersect with.
+	 * @param y The y coordinate of the bounds to intersect with.
+	 * @param width The width of the bounds to intersect with.
+	 * @param height The height of the bounds to intersect with.
+	 * @param result The rectangle to store the intersection in. May be the same
+	 * 			instance as the rectangle to intersect.
+	 */
+	private static void intersect(Rectangle rectangle, int x, int y, int width, int height, Rectangle result) {
+		int left = rectangle.x > x ? rectangle.x : x;
+		int top = rectangle.y > y ? rectangle.y : y;
+		int lhs = rectangle.x + rectangle.width;
+		int rhs = x + width;
+		int right = lhs < rhs ? lhs : rhs;
+		int ths = rectangle.y + rectangle.height;
+		int bhs = y + height;
+		int bottom = ths < bhs ? ths : bhs;
+		result.x = right < left ? 0 : left;
+		result.y = bottom < top ? 0 : top;
+		result.width = right < left ? 0 : right - left;
+		result.height = bottom < top ? 0 : bottom - top;
+	}
+	
 	protected int getStartXOfColumnPosition(final int columnPosition) {
 		if (columnPosition < natLayer.getColumnCount()) {
-			Integer start = horizontalPositionToPixelMap.get(columnPosition);
-			if (start == null) {
-				start = Integer.valueOf(natLayer.getStartXOfColumnPosition(columnPosition));
-				if (columnPosition > 0) {
-					int start2 = natLayer.getStartXOfColumnPosition(columnPosition - 1)
-							+ natLayer.getColumnWidthByPosition(columnPosition - 1);
-					if (start2 > start.intValue()) {
-						start = Integer.valueOf(start2);
-					}
+			int offset = columnPosition - horizontalStartPosition;
+			if (offset >= 0 && offset < horizontalPositionCount) {
+				return horizontalPositionToPixel[offset];
+			}
+			int start = natLayer.getStartXOfColumnPosition(columnPosition);
+			if (columnPosition > 0) {
+				int start2 = natLayer.getStartXOfColumnPosition(columnPosition - 1)
+						+ natLayer.getColumnWidthByPosition(columnPosition - 1);
+				if (start2 > start) {
+					start = start2;
 				}
-				horizontalPositionToPixelMap.put(columnPosition, start);
 			}
-			return start.intValue();
+			return start;
 		} else {
 			return natLayer.getWidth();
 		}
@@ -210,19 +301,19 @@ protected int getStartXOfColumnPosition(final int columnPosition) {
 	
 	protected int getStartYOfRowPosition(final int rowPosition) {
 		if (rowPosition < natLayer.getRowCount()) {
-			Integer start = verticalPositionToPixelMap.get(rowPosition);
-			if (start == null) {
-				start = Integer.valueOf(natLayer.getStartYOfRowPosition(rowPosition));
-				if (rowPosition > 0) {
-					int start2 = natLayer.getStartYOfRowPosition(rowPosition - 1)
-							+ natLayer.getRowHeightByPosition(rowPosition - 1);
-					if (start2 > start.intValue()) {
-						start = Integer.valueOf(start2);
-					}
+			int offset = rowPosition - verticalStartPosition;
+			if (offset >= 0 && offset < verticalPositionCount) {
+				return verticalPositionToPixel[offset];
+			}
+			int start = natLayer.getStartYOfRowPosition(rowPosition);
+			if (rowPosition > 0) {
+				int start2 = natLayer.getStartYOfRowPosition(rowPosition - 1)
+						+ natLayer.getRowHeightByPosition(rowPosition - 1);
+				if (start2 > start) {
+					start = start2;
 				}
-				verticalPositionToPixelMap.put(rowPosition, start);
 			}
-			return start.intValue();
+			return start;
 		} else {
 			return natLayer.getHeight();
 		}
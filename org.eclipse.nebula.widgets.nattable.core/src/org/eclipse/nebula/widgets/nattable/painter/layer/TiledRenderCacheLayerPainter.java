@@ -0,0 +1,493 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.painter.layer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.NatTable;
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.coordinate.PixelCoordinate;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.viewport.ViewportLayer;
+import org.eclipse.nebula.widgets.nattable.viewport.event.ScrollEvent;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.DisposeEvent;
+import org.eclipse.swt.events.DisposeListener;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * ILayerPainter that caches the rendered region of a {@link ViewportLayer} in an
+ * off-screen image. The image is divided into tiles that are only rendered again
+ * by the wrapped ILayerPainter if they were invalidated. Tiles are invalidated by
+ * the {@link IVisualChangeEvent}s that are fired by the NatTable for the changed
+ * position ranges, while {@link IStructuralChangeEvent}s invalidate all tiles.
+ * <p>
+ * On scrolling the still visible part of the cached image is moved, so only the
+ * newly exposed strip needs to be rendered instead of every visible cell.
+ * <p>
+ * To enable the cache, set it as layer painter of the ViewportLayer:
+ * <pre>
+ * viewportLayer.setLayerPainter(new TiledRenderCacheLayerPainter(natTable, viewportLayer));
+ * </pre>
+ * Changes to the rendering that are not reported via layer events, e.g. modifying
+ * the ConfigRegistry at runtime, require to call {@link #clearCache()} before the
+ * NatTable is redrawn.
+ * <p>
+ * The cache is only used for painting the NatTable on the screen. Painting to other
+ * devices, e.g. on printing, is directly delegated to the wrapped ILayerPainter.
+ */
+public class TiledRenderCacheLayerPainter implements ILayerPainter, ILayerListener {
+
+	/**
+	 * The default width and height of a tile in pixels.
+	 */
+	public static final int DEFAULT_TILE_SIZE = 64;
+
+	/**
+	 * The number of changed areas that are collected between two paint operations
+	 * before the whole cache is invalidated instead.
+	 */
+	private static final int MAX_PENDING_CHANGES = 256;
+
+	private final NatTable natTable;
+	private final ViewportLayer viewportLayer;
+	private final ILayerPainter layerPainter;
+	private final int tileSize;
+
+	/**
+	 * The off-screen image that contains the cached rendering. It uses the coordinates
+	 * of the NatTable, so the wrapped ILayerPainter can render to it without translation.
+	 */
+	private Image cache;
+	/**
+	 * The GC that is used to render to the {@link #cache} image.
+	 */
+	private GC cacheGC;
+	/**
+	 * Lock that guards the state that is shared with {@link #handleLayerEvent(ILayerEvent)},
+	 * i.e. {@link #cachedRegion}, {@link #pendingChanges} and {@link #cacheCleared}, as
+	 * layer events might be fired by background threads, e.g. on finished calculations.
+	 */
+	private final Object stateLock = new Object();
+	/**
+	 * The bounds of the ViewportLayer region in NatTable coordinates that are
+	 * contained in the {@link #cache}, or <code>null</code> if nothing is cached.
+	 */
+	private Rectangle cachedRegion;
+	/**
+	 * The origin of the ViewportLayer at the time the {@link #cache} was updated.
+	 */
+	private int cachedOriginX;
+	private int cachedOriginY;
+	/**
+	 * The number of tile columns of the {@link #cachedRegion}.
+	 */
+	private int tileColumnCount;
+	/**
+	 * The number of tile rows of the {@link #cachedRegion}.
+	 */
+	private int tileRowCount;
+	/**
+	 * The tiles that need to be rendered again, indexed row by row.
+	 */
+	private final BitSet dirtyTiles = new BitSet();
+	/**
+	 * The areas that were reported as changed since the last paint operation, in
+	 * pixel coordinates of the scrollable layer. They are converted to tiles on the
+	 * next paint operation, as the viewport might have been scrolled in between.
+	 */
+	private final List<Rectangle> pendingChanges = new ArrayList<Rectangle>();
+	/**
+	 * Flag to indicate that the whole cache needs to be rendered again.
+	 */
+	private boolean cacheCleared = true;
+
+	/**
+	 * Create a TiledRenderCacheLayerPainter that wraps the ILayerPainter that is
+	 * currently used for the given ViewportLayer and uses the {@link #DEFAULT_TILE_SIZE}.
+	 * @param natTable The NatTable whose ViewportLayer region should be cached.
+	 * @param viewportLayer The ViewportLayer whose region should be cached.
+	 */
+	public TiledRenderCacheLayerPainter(NatTable natTable, ViewportLayer viewportLayer) {
+		this(natTable, viewportLayer, viewportLayer.getLayerPainter(), DEFAULT_TILE_SIZE);
+	}
+
+	/**
+	 * Create a TiledRenderCacheLayerPainter.
+	 * @param natTable The NatTable whose ViewportLayer region should be cached.
+	 * @param viewportLayer The ViewportLayer whose region should be cached.
+	 * @param layerPainter The ILayerPainter that is used to render the tiles.
+	 * @param tileSize The width and height of a tile in pixels.
+	 */
+	public TiledRenderCacheLayerPainter(NatTable natTable, ViewportLayer viewportLayer, ILayerPainter layerPainter, int tileSize) {
+		if (tileSize <= 0) {
+			throw new IllegalArgumentException("tileSize must be greater than 0"); //$NON-NLS-1$
+		}
+		this.natTable = natTable;
+		this.viewportLayer = viewportLayer;
+		this.layerPainter = layerPainter;
+		this.tileSize = tileSize;
+
+		natTable.addLayerListener(this);
+		natTable.addDisposeListener(new DisposeListener() {
+
+			@Override
+			public void widgetDisposed(DisposeEvent e) {
+				disposeCache();
+			}
+		});
+	}
+
+	/**
+	 * @return The ILayerPainter that is used to render the tiles.
+	 */
+	public ILayerPainter getLayerPainter() {
+		return layerPainter;
+	}
+
+	/**
+	 * Invalidates all cached tiles, so the whole region is rendered again on the
+	 * next paint operation.
+	 */
+	public void clearCache() {
+		synchronized (stateLock) {
+			cacheCleared = true;
+			pendingChanges.clear();
+		}
+	}
+
+	@Override
+	public void paintLayer(ILayer natLayer, GC gc, int xOffset, int yOffset, Rectangle rectangle, IConfigRegistry configRegistry) {
+		Rectangle region = new Rectangle(xOffset, yOffset, viewportLayer.getWidth(), viewportLayer.getHeight());
+		Rectangle paintArea = rectangle.intersection(region);
+
+		if (natLayer != natTable || natTable.isDisposed() || !(gc.getDevice() instanceof Display)
+				|| paintArea.width <= 0 || paintArea.height <= 0) {
+			layerPainter.paintLayer(natLayer, gc, xOffset, yOffset, rectangle, configRegistry);
+			return;
+		}
+
+		PixelCoordinate origin = viewportLayer.getOrigin();
+		updateCache(gc, region, origin.getX(), origin.getY());
+		renderDirtyTiles(natLayer, gc, xOffset, yOffset, paintArea, configRegistry);
+
+		gc.drawImage(cache,
+				paintArea.x, paintArea.y, paintArea.width, paintArea.height,
+				paintArea.x, paintArea.y, paintArea.width, paintArea.height);
+	}
+
+	@Override
+	public Rectangle adjustCellBounds(int columnPosition, int rowPosition, Rectangle cellBounds) {
+		return layerPainter.adjustCellBounds(columnPosition, rowPosition, cellBounds);
+	}
+
+	@Override
+	public void handleLayerEvent(ILayerEvent event) {
+		if (event instanceof ScrollEvent) {
+			//scrolling is handled on painting by comparing the origin of the viewport
+			return;
+		}
+
+		if (event instanceof IStructuralChangeEvent) {
+			clearCache();
+		}
+		else if (event instanceof IVisualChangeEvent) {
+			Rectangle region;
+			synchronized (stateLock) {
+				if (cacheCleared || cachedRegion == null) {
+					return;
+				}
+				region = cachedRegion;
+			}
+
+			Collection<Rectangle> rectangles = ((IVisualChangeEvent) event).getChangedPositionRectangles();
+			if (rectangles == null || rectangles.isEmpty() || rectangles.size() > MAX_PENDING_CHANGES) {
+				clearCache();
+				return;
+			}
+
+			List<Rectangle> changes = new ArrayList<Rectangle>(rectangles.size());
+			PixelCoordinate origin = viewportLayer.getOrigin();
+			for (Rectangle positionRectangle : rectangles) {
+				Rectangle pixelRectangle = getPixelRectangle(positionRectangle);
+				if (pixelRectangle != null) {
+					pixelRectangle.x += origin.getX() - region.x;
+					pixelRectangle.y += origin.getY() - region.y;
+					changes.add(pixelRectangle);
+				}
+			}
+
+			synchronized (stateLock) {
+				if (cacheCleared) {
+					return;
+				}
+				if (pendingChanges.size() + changes.size() > MAX_PENDING_CHANGES) {
+					cacheCleared = true;
+					pendingChanges.clear();
+				} else {
+					pendingChanges.addAll(changes);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Converts a rectangle of NatTable positions to the pixel bounds of the covered cells.
+	 * @param positionRectangle The rectangle of column and row positions in the NatTable.
+	 * @return The pixel bounds in NatTable coordinates, or <code>null</code> if the
+	 * 			rectangle doesn't cover any position of the NatTable.
+	 */
+	private Rectangle getPixelRectangle(Rectangle positionRectangle) {
+		int startColumn = Math.max(positionRectangle.x, 0);
+		int endColumn = (int) Math.min((long) positionRectangle.x + positionRectangle.width, natTable.getColumnCount());
+		int startRow = Math.max(positionRectangle.y, 0);
+		int endRow = (int) Math.min((long) positionRectangle.y + positionRectangle.height, natTable.getRowCount());
+		if (startColumn >= endColumn || startRow >= endRow) {
+			return null;
+		}
+
+		int startX = natTable.getStartXOfColumnPosition(startColumn);
+		int endX = natTable.getStartXOfColumnPosition(endColumn - 1) + natTable.getColumnWidthByPosition(endColumn - 1);
+		int startY = natTable.getStartYOfRowPosition(startRow);
+		int endY = natTable.getStartYOfRowPosition(endRow - 1) + natTable.getRowHeightByPosition(endRow - 1);
+		return new Rectangle(startX, startY, endX - startX, endY - startY);
+	}
+
+	/**
+	 * Prepares the off-screen image for rendering the given region and marks the
+	 * tiles dirty that need to be rendered again because of changes or scrolling.
+	 * @param gc The GC that is used to paint the NatTable.
+	 * @param region The bounds of the ViewportLayer region in NatTable coordinates.
+	 * @param originX The current x origin of the ViewportLayer.
+	 * @param originY The current y origin of the ViewportLayer.
+	 */
+	private void updateCache(GC gc, Rectangle region, int originX, int originY) {
+		int requiredWidth = region.x + region.width;
+		int requiredHeight = region.y + region.height;
+		if (cache == null || cache.getBounds().width < requiredWidth || cache.getBounds().height < requiredHeight) {
+			disposeCache();
+			cache = new Image(gc.getDevice(), requiredWidth, requiredHeight);
+			cacheGC = new GC(cache);
+		}
+
+		boolean renderAll;
+		List<Rectangle> changes;
+		synchronized (stateLock) {
+			renderAll = cacheCleared || cachedRegion == null || !cachedRegion.equals(region);
+			changes = renderAll ? null : new ArrayList<Rectangle>(pendingChanges);
+			pendingChanges.clear();
+			cacheCleared = false;
+			cachedRegion = region;
+		}
+
+		if (renderAll) {
+			tileColumnCount = (region.width + tileSize - 1) / tileSize;
+			tileRowCount = (region.height + tileSize - 1) / tileSize;
+			dirtyTiles.clear();
+			dirtyTiles.set(0, tileColumnCount * tileRowCount);
+		}
+		else {
+			int dx = originX - cachedOriginX;
+			int dy = originY - cachedOriginY;
+			if (dx != 0 || dy != 0) {
+				scrollCache(region, dx, dy);
+			}
+			for (Rectangle change : changes) {
+				markDirty(change.x - originX, change.y - originY, change.width, change.height);
+			}
+		}
+
+		cachedOriginX = originX;
+		cachedOriginY = originY;
+	}
+
+	/**
+	 * Moves the cached rendering according to the scrolled distance and marks the
+	 * newly exposed strips as dirty.
+	 * @param region The bounds of the ViewportLayer region in NatTable coordinates.
+	 * @param dx The distance the origin moved horizontally.
+	 * @param dy The distance the origin moved vertically.
+	 */
+	private void scrollCache(Rectangle region, int dx, int dy) {
+		if (Math.abs(dx) >= region.width || Math.abs(dy) >= region.height) {
+			dirtyTiles.set(0, tileColumnCount * tileRowCount);
+			return;
+		}
+
+		cacheGC.setClipping((Rectangle) null);
+		cacheGC.copyArea(
+				region.x + Math.max(dx, 0), region.y + Math.max(dy, 0),
+				region.width - Math.abs(dx), region.height - Math.abs(dy),
+				region.x + Math.max(-dx, 0), region.y + Math.max(-dy, 0));
+
+		//dirty tiles move together with their content
+		BitSet previousDirtyTiles = (BitSet) dirtyTiles.clone();
+		dirtyTiles.clear();
+		for (int tile = previousDirtyTiles.nextSetBit(0); tile >= 0; tile = previousDirtyTiles.nextSetBit(tile + 1)) {
+			markDirty((tile % tileColumnCount) * tileSize - dx, (tile / tileColumnCount) * tileSize - dy, tileSize, tileSize);
+		}
+
+		if (dx > 0) {
+			markDirty(region.width - dx, 0, dx, region.height);
+		} else if (dx < 0) {
+			markDirty(0, 0, -dx, region.height);
+		}
+		if (dy > 0) {
+			markDirty(0, region.height - dy, region.width, dy);
+		} else if (dy < 0) {
+			markDirty(0, 0, region.width, -dy);
+		}
+	}
+
+	/**
+	 * Marks the tiles dirty that intersect the given bounds.
+	 * @param x The x coordinate relative to the region.
+	 * @param y The y coordinate relative to the region.
+	 * @param width The width of the bounds.
+	 * @param height The height of the bounds.
+	 */
+	private void markDirty(int x, int y, int width, int height) {
+		if (width <= 0 || height <= 0 || x + width <= 0 || y + height <= 0) {
+			return;
+		}
+		int startColumn = Math.max(x, 0) / tileSize;
+		int endColumn = Math.min((x + width - 1) / tileSize, tileColumnCount - 1);
+		int startRow = Math.max(y, 0) / tileSize;
+		int endRow = Math.min((y + height - 1) / tileSize, tileRowCount - 1);
+		if (startColumn <= endColumn) {
+			for (int row = startRow; row <= endRow; row++) {
+				dirtyTiles.set(row * tileColumnCount + startColumn, row * tileColumnCount + endColumn + 1);
+			}
+		}
+	}
+
+	/**
+	 * Renders the dirty tiles that intersect the area to paint into the off-screen image.
+	 * Consecutive dirty tiles are rendered together to reduce the number of calls to
+	 * the wrapped ILayerPainter.
+	 */
+	private void renderDirtyTiles(ILayer natLayer, GC gc, int xOffset, int yOffset, Rectangle paintArea, IConfigRegistry configRegistry) {
+		int startColumn = (paintArea.x - cachedRegion.x) / tileSize;
+		int endColumn = Math.min((paintArea.x + paintArea.width - 1 - cachedRegion.x) / tileSize, tileColumnCount - 1);
+		int startRow = (paintArea.y - cachedRegion.y) / tileSize;
+		int endRow = Math.min((paintArea.y + paintArea.height - 1 - cachedRegion.y) / tileSize, tileRowCount - 1);
+
+		//a single run of dirty tiles in a tile row is rendered together with the
+		//same runs of the following tile rows, e.g. a strip exposed by scrolling
+		int pendingStartColumn = -1;
+		int pendingEndColumn = -1;
+		int pendingStartRow = -1;
+		for (int row = startRow; row <= endRow; row++) {
+			int rowStart = row * tileColumnCount;
+			int tile = dirtyTiles.nextSetBit(rowStart + startColumn);
+			int runStart = -1;
+			int runEnd = -1;
+			boolean singleRun = false;
+			if (tile >= 0 && tile <= rowStart + endColumn) {
+				runStart = tile - rowStart;
+				runEnd = Math.min(dirtyTiles.nextClearBit(tile) - rowStart, endColumn + 1) - 1;
+				int next = dirtyTiles.nextSetBit(rowStart + runEnd + 1);
+				singleRun = next < 0 || next > rowStart + endColumn;
+			}
+
+			if (singleRun && pendingStartRow >= 0 && runStart == pendingStartColumn && runEnd == pendingEndColumn) {
+				continue;
+			}
+
+			if (pendingStartRow >= 0) {
+				renderTiles(natLayer, gc, xOffset, yOffset, pendingStartColumn, pendingEndColumn, pendingStartRow, row - 1, configRegistry);
+				pendingStartRow = -1;
+			}
+
+			if (singleRun) {
+				pendingStartColumn = runStart;
+				pendingEndColumn = runEnd;
+				pendingStartRow = row;
+			} else {
+				while (runStart >= 0) {
+					renderTiles(natLayer, gc, xOffset, yOffset, runStart, runEnd, row, row, configRegistry);
+					tile = dirtyTiles.nextSetBit(rowStart + runEnd + 1);
+					if (tile >= 0 && tile <= rowStart + endColumn) {
+						runStart = tile - rowStart;
+						runEnd = Math.min(dirtyTiles.nextClearBit(tile) - rowStart, endColumn + 1) - 1;
+					} else {
+						runStart = -1;
+					}
+				}
+			}
+		}
+		if (pendingStartRow >= 0) {
+			renderTiles(natLayer, gc, xOffset, yOffset, pendingStartColumn, pendingEndColumn, pendingStartRow, endRow, configRegistry);
+		}
+	}
+
+	/**
+	 * Renders the given block of tiles into the off-screen image and marks them as clean.
+	 */
+	private void renderTiles(ILayer natLayer, GC gc, int xOffset, int yOffset,
+			int startColumn, int endColumn, int startRow, int endRow, IConfigRegistry configRegistry) {
+
+		Rectangle tileBounds = new Rectangle(
+				cachedRegion.x + startColumn * tileSize,
+				cachedRegion.y + startRow * tileSize,
+				(endColumn - startColumn + 1) * tileSize,
+				(endRow - startRow + 1) * tileSize).intersection(cachedRegion);
+
+		cacheGC.setClipping(tileBounds);
+		cacheGC.setFont(gc.getFont());
+		cacheGC.setBackground(natTable.getBackground());
+		cacheGC.fillRectangle(tileBounds);
+		cacheGC.setForeground(gc.getForeground());
+		cacheGC.setBackground(gc.getBackground());
+		if (gc.getAntialias() != SWT.DEFAULT) {
+			cacheGC.setAntialias(gc.getAntialias());
+		}
+		if (gc.getTextAntialias() != SWT.DEFAULT) {
+			cacheGC.setTextAntialias(gc.getTextAntialias());
+		}
+
+		layerPainter.paintLayer(natLayer, cacheGC, xOffset, yOffset, tileBounds, configRegistry);
+
+		for (int row = startRow; row <= endRow; row++) {
+			dirtyTiles.clear(row * tileColumnCount + startColumn, row * tileColumnCount + endColumn + 1);
+		}
+	}
+
+	/**
+	 * Disposes the off-screen image and its GC.
+	 */
+	private void disposeCache() {
+		if (cacheGC != null) {
+			cacheGC.dispose();
+			cacheGC = null;
+		}
+		if (cache != null) {
+			cache.dispose();
+			cache = null;
+		}
+		synchronized (stateLock) {
+			cachedRegion = null;
+			cacheCleared = true;
+			pendingChanges.clear();
+		}
+	}
+
+}
@@ -11,11 +11,10 @@
 package org.eclipse.nebula.widgets.nattable.reorder;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
 import java.util.StringTokenizer;
 
@@ -53,7 +52,22 @@ public class ColumnReorderLayer extends AbstractLayerTransform implements IUniqu
 	// Position X in the List contains the index of column at position X
 	protected final List<Integer> columnIndexOrder = new ArrayList<Integer>();
 
-	private final Map<Integer, Integer> startXCache = new HashMap<Integer, Integer>();
+	/**
+	 * Primitive copy of the column index order, lazily built from {@link #columnIndexOrder}.
+	 */
+	private int[] cachedColumnIndexOrder;
+
+	/**
+	 * The inverse of the column index order. Index X in the array contains the position of
+	 * the column with index X, or -1 if there is no column with index X.
+	 */
+	private int[] cachedColumnIndexToPosition;
+
+	/**
+	 * The start x coordinates of all column positions, lazily calculated at once.
+	 * Contains one more element than columns, which is the width of this layer.
+	 */
+	private int[] startXCache;
 
 	private int reorderFromColumnPosition;
 
@@ -175,8 +189,9 @@ public List<Integer> getColumnIndexOrder() {
 
 	@Override
 	public int getColumnIndexByPosition(int columnPosition) {
-		if (columnPosition >= 0 && columnPosition < columnIndexOrder.size()) {
-			return columnIndexOrder.get(columnPosition).intValue();
+		int[] columnIndexes = getCachedColumnIndexOrder();
+		if (columnPosition >= 0 && columnPosition < columnIndexes.length) {
+			return columnIndexes[columnPosition];
 		} else {
 			return -1;
 		}
@@ -184,7 +199,11 @@ public int getColumnIndexByPosition(int columnPosition) {
 
 	@Override
 	public int getColumnPositionByIndex(int columnIndex) {
-		return columnIndexOrder.indexOf(Integer.valueOf(columnIndex));
+		int[] columnIndexToPosition = getCachedColumnIndexToPosition();
+		if (columnIndex >= 0 && columnIndex < columnIndexToPosition.length) {
+			return columnIndexToPosition[columnIndex];
+		}
+		return -1;
 	}
 
 	@Override
@@ -222,17 +241,23 @@ public int getColumnPositionByX(int x) {
 
 	@Override
 	public int getStartXOfColumnPosition(int targetColumnPosition) {
-		Integer cachedStartX = startXCache.get(Integer.valueOf(targetColumnPosition));
-		if (cachedStartX != null) {
-			return cachedStartX.intValue();
+		if (startXCache == null) {
+			int columnCount = columnIndexOrder.size();
+			int[] startXs = new int[columnCount + 1];
+			for (int columnPosition = 0; columnPosition < columnCount; columnPosition++) {
+				startXs[columnPosition + 1] = startXs[columnPosition] + underlyingLayer.getColumnWidthByPosition(localToUnderlyingColumnPosition(columnPosition));
+			}
+			startXCache = startXs;
+		}
+
+		if (targetColumnPosition >= 0 && targetColumnPosition < startXCache.length) {
+			return startXCache[targetColumnPosition];
 		}
 
 		int aggregateWidth = 0;
 		for (int columnPosition = 0; columnPosition < targetColumnPosition; columnPosition++) {
 			aggregateWidth += underlyingLayer.getColumnWidthByPosition(localToUnderlyingColumnPosition(columnPosition));
 		}
-
-		startXCache.put(Integer.valueOf(targetColumnPosition), Integer.valueOf(aggregateWidth));
 		return aggregateWidth;
 	}
 	
@@ -323,7 +348,38 @@ public void reorderMultipleColumnPositions(List<Integer> fromColumnPositions, in
 	}
 
 	private void invalidateCache() {
-		startXCache.clear();
+		cachedColumnIndexOrder = null;
+		cachedColumnIndexToPosition = null;
+		startXCache = null;
+	}
+
+	private int[] getCachedColumnIndexOrder() {
+		if (cachedColumnIndexOrder == null) {
+			int[] columnIndexes = new int[columnIndexOrder.size()];
+			int maxIndex = -1;
+			for (int columnPosition = 0; columnPosition < columnIndexes.length; columnPosition++) {
+				columnIndexes[columnPosition] = columnIndexOrder.get(columnPosition).intValue();
+				maxIndex = Math.max(maxIndex, columnIndexes[columnPosition]);
+			}
+
+			int[] columnIndexToPosition = new int[maxIndex + 1];
+			Arrays.fill(columnIndexToPosition, -1);
+			//iterate backwards so the first position wins in case an index is contained twice
+			for (int columnPosition = columnIndexes.length - 1; columnPosition >= 0; columnPosition--) {
+				if (columnIndexes[columnPosition] >= 0) {
+					columnIndexToPosition[columnIndexes[columnPosition]] = columnPosition;
+				}
+			}
+
+			cachedColumnIndexToPosition = columnIndexToPosition;
+			cachedColumnIndexOrder = columnIndexes;
+		}
+		return cachedColumnIndexOrder;
+	}
+
+	private int[] getCachedColumnIndexToPosition() {
+		getCachedColumnIndexOrder();
+		return cachedColumnIndexToPosition;
 	}
 
 	public int getReorderFromColumnPosition() {
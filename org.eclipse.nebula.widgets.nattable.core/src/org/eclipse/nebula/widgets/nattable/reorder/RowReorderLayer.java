@@ -11,11 +11,11 @@
 package org.eclipse.nebula.widgets.nattable.reorder;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
 import java.util.StringTokenizer;
 
@@ -27,9 +27,12 @@
 import org.eclipse.nebula.widgets.nattable.layer.LayerUtil;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.StructuralChangeEventHelper;
 import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff.DiffTypeEnum;
 import org.eclipse.nebula.widgets.nattable.persistence.IPersistable;
 import org.eclipse.nebula.widgets.nattable.reorder.command.MultiRowReorderCommandHandler;
 import org.eclipse.nebula.widgets.nattable.reorder.command.RowReorderCommandHandler;
@@ -58,10 +61,22 @@ public class RowReorderLayer extends AbstractLayerTransform implements IUniqueIn
 	protected final List<Integer> rowIndexOrder = new ArrayList<Integer>();
 
 	/**
-	 * Caching of the starting y positions of the rows.
-	 * Used to reduce calculation time on rendering
+	 * Primitive copy of the row index order, lazily built from {@link #rowIndexOrder}.
 	 */
-	private final Map<Integer, Integer> startYCache = new HashMap<Integer, Integer>();
+	private int[] cachedRowIndexOrder;
+
+	/**
+	 * The inverse of the row index order. Index Y in the array contains the position of
+	 * the row with index Y, or -1 if there is no row with index Y.
+	 */
+	private int[] cachedRowIndexToPosition;
+
+	/**
+	 * Caching of the starting y positions of the rows. Used to reduce calculation time
+	 * on rendering. Lazily calculated for all positions at once and contains one more
+	 * element than rows, which is the height of this layer.
+	 */
+	private int[] startYCache;
 
 	/**
 	 * Local cached position of the row that is currently reordered.
@@ -95,13 +110,19 @@ public void handleLayerEvent(ILayerEvent event) {
 					// Assume everything changed
 					rowIndexOrder.clear();
 					populateIndexOrder();
+					invalidateCache();
 				} 
+				else if ((event instanceof RowInsertEvent && insertRows(structuralDiffs))
+						|| (event instanceof RowDeleteEvent && deleteRows(structuralDiffs))) {
+					// the index order and its primitive copy are already updated
+					startYCache = null;
+				}
 				else {
 					// only react on ADD or DELETE and not on CHANGE
 					StructuralChangeEventHelper.handleRowDelete(structuralDiffs, underlyingLayer, rowIndexOrder, true);
 					StructuralChangeEventHelper.handleRowInsert(structuralDiffs, underlyingLayer, rowIndexOrder, true);
+					invalidateCache();
 				}
-				invalidateCache();
 			}
 		}
 		super.handleLayerEvent(event);
@@ -195,18 +216,24 @@ public int getRowPositionByY(int y) {
 
 	@Override
 	public int getStartYOfRowPosition(int targetRowPosition) {
-		Integer cachedStartY = startYCache.get(targetRowPosition);
-		if (cachedStartY != null) {
-			return cachedStartY;
+		if (startYCache == null) {
+			int rowCount = rowIndexOrder.size();
+			int[] startYs = new int[rowCount + 1];
+			for (int rowPosition = 0; rowPosition < rowCount; rowPosition++) {
+				startYs[rowPosition + 1] = startYs[rowPosition] + underlyingLayer.getRowHeightByPosition(localToUnderlyingRowPosition(rowPosition));
+			}
+			startYCache = startYs;
 		}
 
-		int aggregateWidth = 0;
-		for (int rowPosition = 0; rowPosition < targetRowPosition; rowPosition++) {
-			aggregateWidth += underlyingLayer.getRowHeightByPosition(localToUnderlyingRowPosition(rowPosition));
+		if (targetRowPosition >= 0 && targetRowPosition < startYCache.length) {
+			return startYCache[targetRowPosition];
 		}
 
-		startYCache.put(targetRowPosition, aggregateWidth);
-		return aggregateWidth;
+		int aggregateHeight = 0;
+		for (int rowPosition = 0; rowPosition < targetRowPosition; rowPosition++) {
+			aggregateHeight += underlyingLayer.getRowHeightByPosition(localToUnderlyingRowPosition(rowPosition));
+		}
+		return aggregateHeight;
 	}
 
 	/**
@@ -231,8 +258,9 @@ public List<Integer> getRowIndexOrder() {
 	
 	@Override
 	public int getRowIndexByPosition(int rowPosition) {
-		if (rowPosition >= 0 && rowPosition < rowIndexOrder.size()) {
-			return rowIndexOrder.get(rowPosition).intValue();
+		int[] rowIndexes = getCachedRowIndexOrder();
+		if (rowPosition >= 0 && rowPosition < rowIndexes.length) {
+			return rowIndexes[rowPosition];
 		} else {
 			return -1;
 		}
@@ -240,7 +268,11 @@ public int getRowIndexByPosition(int rowPosition) {
 
 	@Override
 	public int getRowPositionByIndex(int rowIndex) {
-		return rowIndexOrder.indexOf(Integer.valueOf(rowIndex));
+		int[] rowIndexToPosition = getCachedRowIndexToPosition();
+		if (rowIndex >= 0 && rowIndex < rowIndexToPosition.length) {
+			return rowIndexToPosition[rowIndex];
+		}
+		return -1;
 	}
 
 	@Override
@@ -369,10 +401,172 @@ else if (toRowPosition < fromRowPositions.get(fromRowPositionsCount - 1)) {
 	}
 
 	/**
-	 * Clear the caching of the starting Y positions
+	 * Clear the caching of the row index order and the starting Y positions
 	 */
 	private void invalidateCache() {
-		startYCache.clear();
+		cachedRowIndexOrder = null;
+		cachedRowIndexToPosition = null;
+		startYCache = null;
+	}
+
+	private int[] getCachedRowIndexOrder() {
+		if (cachedRowIndexOrder == null) {
+			int[] rowIndexes = new int[rowIndexOrder.size()];
+			for (int rowPosition = 0; rowPosition < rowIndexes.length; rowPosition++) {
+				rowIndexes[rowPosition] = rowIndexOrder.get(rowPosition).intValue();
+			}
+			setCachedRowIndexOrder(rowIndexes);
+		}
+		return cachedRowIndexOrder;
+	}
+
+	/**
+	 * Sets the primitive copy of the row index order and builds its inverse.
+	 * @param rowIndexes The row indexes ordered by position.
+	 */
+	private void setCachedRowIndexOrder(int[] rowIndexes) {
+		int maxIndex = -1;
+		for (int rowPosition = 0; rowPosition < rowIndexes.length; rowPosition++) {
+			maxIndex = Math.max(maxIndex, rowIndexes[rowPosition]);
+		}
+
+		int[] rowIndexToPosition = new int[maxIndex + 1];
+		Arrays.fill(rowIndexToPosition, -1);
+		//iterate backwards so the first position wins in case an index is contained twice
+		for (int rowPosition = rowIndexes.length - 1; rowPosition >= 0; rowPosition--) {
+			if (rowIndexes[rowPosition] >= 0) {
+				rowIndexToPosition[rowIndexes[rowPosition]] = rowPosition;
+			}
+		}
+
+		cachedRowIndexToPosition = rowIndexToPosition;
+		cachedRowIndexOrder = rowIndexes;
+	}
+
+	/**
+	 * Applies the ADD diffs of a {@link RowInsertEvent} to the row index order. The indexes
+	 * that are greater than or equal to the index of an inserted row are increased by the
+	 * number of inserted rows, and the inserted rows are added at the position that
+	 * matches their index. In contrast to
+	 * {@link StructuralChangeEventHelper#handleRowInsert(Collection, ILayer, Collection, boolean)}
+	 * this also supports diffs that contain more than one row, and it works on the primitive
+	 * copy of the index order so only the changed values need to be boxed.
+	 * @param rowDiffs The diffs of the insert event.
+	 * @return <code>true</code> if the diffs were applied, <code>false</code> if they
+	 * 			need to be handled by the {@link StructuralChangeEventHelper}.
+	 */
+	private boolean insertRows(Collection<StructuralDiff> rowDiffs) {
+		int[] rowIndexes = getCachedRowIndexOrder();
+		int[] beforeIndexes = new int[rowDiffs.size()];
+		int rowCount = rowIndexes.length;
+		int diff = 0;
+		for (StructuralDiff rowDiff : rowDiffs) {
+			Range range = rowDiff.getAfterPositionRange();
+			if (rowDiff.getDiffType() != DiffTypeEnum.ADD || range == null || range.start >= range.end) {
+				return false;
+			}
+			int beforeIndex = underlyingLayer.getRowIndexByPosition(range.start);
+			if (beforeIndex < 0 || beforeIndex > rowCount) {
+				return false;
+			}
+			beforeIndexes[diff++] = beforeIndex;
+			rowCount += range.end - range.start;
+		}
+
+		diff = 0;
+		for (StructuralDiff rowDiff : rowDiffs) {
+			Range range = rowDiff.getAfterPositionRange();
+			int insertedCount = range.end - range.start;
+			int beforeIndex = beforeIndexes[diff++];
+
+			int[] newRowIndexes = new int[rowIndexes.length + insertedCount];
+			for (int rowPosition = 0; rowPosition < rowIndexes.length; rowPosition++) {
+				int rowIndex = rowIndexes[rowPosition];
+				if (rowIndex >= beforeIndex) {
+					rowIndex += insertedCount;
+					rowIndexOrder.set(rowPosition, Integer.valueOf(rowIndex));
+				}
+				newRowIndexes[rowPosition < beforeIndex ? rowPosition : rowPosition + insertedCount] = rowIndex;
+			}
+
+			List<Integer> insertedIndexes = new ArrayList<Integer>(insertedCount);
+			for (int i = 0; i < insertedCount; i++) {
+				newRowIndexes[beforeIndex + i] = range.start + i;
+				insertedIndexes.add(Integer.valueOf(range.start + i));
+			}
+			rowIndexOrder.addAll(beforeIndex, insertedIndexes);
+			rowIndexes = newRowIndexes;
+		}
+
+		setCachedRowIndexOrder(rowIndexes);
+		return true;
+	}
+
+	/**
+	 * Applies the DELETE diffs of a {@link RowDeleteEvent} to the row index order. Like
+	 * {@link StructuralChangeEventHelper#handleRowDelete(Collection, ILayer, Collection, boolean)}
+	 * the deleted positions are treated as the deleted indexes, which are removed from the
+	 * index order, while the remaining indexes are decreased by the number of deleted
+	 * indexes that are lower. It works on the primitive copy of the index order so only the
+	 * changed values need to be boxed.
+	 * @param rowDiffs The diffs of the delete event.
+	 * @return <code>true</code> if the diffs were applied, <code>false</code> if they
+	 * 			need to be handled by the {@link StructuralChangeEventHelper}.
+	 */
+	private boolean deleteRows(Collection<StructuralDiff> rowDiffs) {
+		BitSet deletedIndexes = new BitSet();
+		for (StructuralDiff rowDiff : rowDiffs) {
+			Range range = rowDiff.getBeforePositionRange();
+			if (rowDiff.getDiffType() != DiffTypeEnum.DELETE || range == null || range.start < 0 || range.start >= range.end) {
+				return false;
+			}
+			deletedIndexes.set(range.start, range.end);
+		}
+
+		int[] bounds = new int[deletedIndexes.cardinality()];
+		int deleted = 0;
+		for (int index = deletedIndexes.nextSetBit(0); index >= 0; index = deletedIndexes.nextSetBit(index + 1)) {
+			bounds[deleted++] = index;
+		}
+
+		int[] rowIndexes = getCachedRowIndexOrder();
+		int[] newRowIndexes = new int[rowIndexes.length];
+		int newRowPosition = 0;
+		for (int rowPosition = 0; rowPosition < rowIndexes.length; rowPosition++) {
+			int rowIndex = rowIndexes[rowPosition];
+			if (rowIndex >= 0 && deletedIndexes.get(rowIndex)) {
+				continue;
+			}
+
+			int newRowIndex = rowIndex;
+			if (rowIndex > bounds[0]) {
+				//the number of deleted indexes that are lower than the current one
+				int low = 0;
+				int high = bounds.length;
+				while (low < high) {
+					int mid = (low + high) >>> 1;
+					if (bounds[mid] < rowIndex) {
+						low = mid + 1;
+					} else {
+						high = mid;
+					}
+				}
+				newRowIndex -= low;
+			}
+			if (newRowIndex != rowIndex || newRowPosition != rowPosition) {
+				rowIndexOrder.set(newRowPosition, newRowIndex == rowIndex ? rowIndexOrder.get(rowPosition) : Integer.valueOf(newRowIndex));
+			}
+			newRowIndexes[newRowPosition++] = newRowIndex;
+		}
+		rowIndexOrder.subList(newRowPosition, rowIndexOrder.size()).clear();
+
+		setCachedRowIndexOrder(Arrays.copyOf(newRowIndexes, newRowPosition));
+		return true;
+	}
+
+	private int[] getCachedRowIndexToPosition() {
+		getCachedRowIndexOrder();
+		return cachedRowIndexToPosition;
 	}
 
 	/**
@@ -20,6 +20,7 @@
 import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.coordinate.PositionCoordinate;
+import org.eclipse.nebula.widgets.nattable.data.convert.DisplayValueCache;
 import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
@@ -221,8 +222,7 @@ private static boolean compare(ILayer layer, IConfigRegistry configRegistry,
 		if (displayConverter != null) {
 			ILayerCell cell = layer.getCellByPosition(columnPosition, rowPosition);
 			if (cell != null) {
-				dataValue = displayConverter.canonicalToDisplayValue(cell,
-						configRegistry, cell.getDataValue());
+				dataValue = getDisplayValue(configRegistry, displayConverter, cell);
 			}
 		}
 		
@@ -242,4 +242,22 @@ private static boolean compare(ILayer layer, IConfigRegistry configRegistry,
 		}
 		return false;
 	}
+
+	/**
+	 * Converts the data value of the given cell, using the DisplayValueCache that is
+	 * registered in the config registry if the row object of the cell is known to it.
+	 */
+	private static Object getDisplayValue(IConfigRegistry configRegistry,
+			IDisplayConverter displayConverter, ILayerCell cell) {
+		DisplayValueCache displayValueCache = configRegistry.getConfigAttribute(
+				CellConfigAttributes.DISPLAY_VALUE_CACHE, DisplayMode.NORMAL);
+		if (displayValueCache != null) {
+			Object rowObject = displayValueCache.getRowObject(cell.getRowIndex());
+			if (rowObject != null) {
+				return displayValueCache.getColumnDisplayValues(cell.getColumnIndex(), displayConverter)
+						.getDisplayValue(rowObject, cell.getDataValue(), cell, configRegistry);
+			}
+		}
+		return displayConverter.canonicalToDisplayValue(cell, configRegistry, cell.getDataValue());
+	}
 }
@@ -0,0 +1,691 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.selection;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IRowIdAccessor;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff;
+import org.eclipse.nebula.widgets.nattable.layer.event.StructuralDiff.DiffTypeEnum;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * Row selection model like the {@link RowSelectionModel} that identifies the selected
+ * rows by their row id, but is able to handle the selection of many rows in huge tables.
+ * <p>
+ * Selecting all rows only sets a flag, and the rows that are deselected afterwards are
+ * tracked as exceptions. The row indexes of the exceptions are kept in a BitSet, so checking
+ * whether a row is selected doesn't need to retrieve the row id, and the selected row
+ * positions are collected without looking up the index of every selected row object in
+ * the {@link IRowDataProvider}. Instead a map of the row indexes by row id is created
+ * lazily when needed.
+ * <p>
+ * Like with the {@link RowSelectionModel}, rows that are inserted after all rows were
+ * selected are not selected, so they are tracked as exceptions too.
+ * <p>
+ * As the row indexes change with the structure of the data, the BitSet and the map are
+ * updated with the inserted and deleted rows of a structural change, if the row positions
+ * of the SelectionLayer match the row indexes. Otherwise, e.g. on sorting or filtering,
+ * they are created again. Therefore this model registers itself as listener on the
+ * SelectionLayer. Call {@link #dispose()} to remove it if this model is replaced.
+ */
+public class BitSetRowSelectionModel<R> implements IRowSelectionModel<R>, ILayerListener {
+
+	protected final SelectionLayer selectionLayer;
+	protected final IRowDataProvider<R> rowDataProvider;
+	protected final IRowIdAccessor<R> rowIdAccessor;
+	private boolean multipleSelectionAllowed;
+
+	/**
+	 * Whether all rows are selected, except the exceptions.
+	 */
+	private boolean allSelected;
+
+	/**
+	 * The selected rows by row id, or the deselected rows if all rows are selected.
+	 */
+	private Map<Serializable, R> exceptions = new HashMap<Serializable, R>();
+
+	/**
+	 * The row indexes of the exceptions, <code>null</code> if it needs to be created again.
+	 */
+	private volatile BitSet exceptionIndexes = new BitSet();
+
+	/**
+	 * The row indexes by row id, <code>null</code> if it needs to be created again.
+	 */
+	private volatile Map<Serializable, Integer> rowIndexes;
+
+	protected Rectangle lastSelectedRange;  // *live* reference to last range parameter used in addSelection(range)
+	protected Set<Serializable> lastSelectedRowIds;
+	protected final ReadWriteLock selectionsLock = new ReentrantReadWriteLock();
+
+	public BitSetRowSelectionModel(SelectionLayer selectionLayer, IRowDataProvider<R> rowDataProvider, IRowIdAccessor<R> rowIdAccessor) {
+		this(selectionLayer, rowDataProvider, rowIdAccessor, true);
+	}
+
+	public BitSetRowSelectionModel(SelectionLayer selectionLayer, IRowDataProvider<R> rowDataProvider, IRowIdAccessor<R> rowIdAccessor, boolean multipleSelectionAllowed) {
+		this.selectionLayer = selectionLayer;
+		this.rowDataProvider = rowDataProvider;
+		this.rowIdAccessor = rowIdAccessor;
+		this.multipleSelectionAllowed = multipleSelectionAllowed;
+
+		selectionLayer.addLayerListener(this);
+	}
+
+	/**
+	 * Removes this model as listener from the SelectionLayer.
+	 */
+	public void dispose() {
+		selectionLayer.removeLayerListener(this);
+	}
+
+	@Override
+	public void handleLayerEvent(ILayerEvent event) {
+		if (event instanceof IStructuralChangeEvent
+				&& ((IStructuralChangeEvent) event).isVerticalStructureChanged()) {
+			selectionsLock.writeLock().lock();
+			try {
+				if (!applyRowDiffs(((IStructuralChangeEvent) event).getRowDiffs())) {
+					exceptionIndexes = null;
+					rowIndexes = null;
+				}
+			} finally {
+				selectionsLock.writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Applies the inserted and deleted rows of a structural change to the row indexes.
+	 * Rows that are inserted while all rows are selected are added as exceptions.
+	 * @param rowDiffs The row diffs of the structural change.
+	 * @return <code>true</code> if the row indexes were updated, <code>false</code>
+	 * 			if they need to be created again.
+	 */
+	private boolean applyRowDiffs(Collection<StructuralDiff> rowDiffs) {
+		if (rowDiffs == null) {
+			return false;
+		}
+
+		List<Range> deleted = new ArrayList<Range>();
+		List<Range> inserted = new ArrayList<Range>();
+		for (StructuralDiff rowDiff : rowDiffs) {
+			if (rowDiff.getDiffType() == DiffTypeEnum.DELETE) {
+				deleted.add(rowDiff.getBeforePositionRange());
+			} else if (rowDiff.getDiffType() == DiffTypeEnum.ADD) {
+				inserted.add(rowDiff.getAfterPositionRange());
+			} else {
+				return false;
+			}
+		}
+
+		if (allSelected) {
+			for (Range range : inserted) {
+				for (int rowPosition = range.start; rowPosition < range.end; rowPosition++) {
+					R rowObject = getRowObjectByIndex(selectionLayer.getRowIndexByPosition(rowPosition));
+					if (rowObject != null) {
+						exceptions.put(rowIdAccessor.getRowId(rowObject), rowObject);
+					}
+				}
+			}
+		}
+
+		if ((!deleted.isEmpty() && !inserted.isEmpty())
+				|| !rowPositionsMatchIndexes(deleted) || !rowPositionsMatchIndexes(inserted)) {
+			return false;
+		}
+
+		//the ranges of deleted rows are positions before the change, so the last range
+		//is removed first, while the ranges of inserted rows are positions after the change
+		Range.sortByStart(deleted);
+		for (int i = deleted.size() - 1; i >= 0; i--) {
+			deleteRowIndexes(deleted.get(i));
+		}
+		Range.sortByStart(inserted);
+		for (Range range : inserted) {
+			insertRowIndexes(range);
+		}
+		return true;
+	}
+
+	/**
+	 * @return <code>true</code> if the row positions of the SelectionLayer are the row indexes
+	 * 			of the IRowDataProvider, checked for the given ranges of a structural change.
+	 */
+	private boolean rowPositionsMatchIndexes(List<Range> ranges) {
+		int rowCount = rowDataProvider.getRowCount();
+		if (selectionLayer.getRowCount() != rowCount) {
+			return false;
+		}
+		for (Range range : ranges) {
+			if ((range.start < rowCount && selectionLayer.getRowIndexByPosition(range.start) != range.start)
+					|| (range.end > 0 && range.end <= rowCount && selectionLayer.getRowIndexByPosition(range.end - 1) != range.end - 1)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void deleteRowIndexes(Range range) {
+		int count = range.end - range.start;
+
+		BitSet indexes = exceptionIndexes;
+		if (indexes != null) {
+			BitSet updated = indexes.get(0, range.start);
+			for (int rowIndex = indexes.nextSetBit(range.end); rowIndex >= 0; rowIndex = indexes.nextSetBit(rowIndex + 1)) {
+				updated.set(rowIndex - count);
+			}
+			exceptionIndexes = updated;
+		}
+
+		Map<Serializable, Integer> indexesById = rowIndexes;
+		if (indexesById != null) {
+			for (Iterator<Map.Entry<Serializable, Integer>> it = indexesById.entrySet().iterator(); it.hasNext();) {
+				Map.Entry<Serializable, Integer> entry = it.next();
+				int rowIndex = entry.getValue();
+				if (rowIndex >= range.end) {
+					entry.setValue(rowIndex - count);
+				} else if (rowIndex >= range.start) {
+					it.remove();
+				}
+			}
+		}
+	}
+
+	private void insertRowIndexes(Range range) {
+		int count = range.end - range.start;
+
+		BitSet indexes = exceptionIndexes;
+		if (indexes != null) {
+			BitSet updated = indexes.get(0, range.start);
+			for (int rowIndex = indexes.nextSetBit(range.start); rowIndex >= 0; rowIndex = indexes.nextSetBit(rowIndex + 1)) {
+				updated.set(rowIndex + count);
+			}
+			exceptionIndexes = updated;
+		}
+
+		Map<Serializable, Integer> indexesById = rowIndexes;
+		if (indexesById != null) {
+			for (Map.Entry<Serializable, Integer> entry : indexesById.entrySet()) {
+				int rowIndex = entry.getValue();
+				if (rowIndex >= range.start) {
+					entry.setValue(rowIndex + count);
+				}
+			}
+		}
+
+		for (int rowIndex = range.start; rowIndex < range.end; rowIndex++) {
+			R rowObject = getRowObjectByIndex(rowIndex);
+			if (rowObject != null) {
+				Serializable rowId = rowIdAccessor.getRowId(rowObject);
+				if (indexesById != null) {
+					indexesById.put(rowId, rowIndex);
+				}
+				//an inserted row is an exception if it is selected by its row id, or
+				//if it was added as exception because all rows are selected
+				if (exceptions.containsKey(rowId)) {
+					updateExceptionIndex(rowIndex, true);
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean isMultipleSelectionAllowed() {
+		return multipleSelectionAllowed;
+	}
+
+	@Override
+	public void setMultipleSelectionAllowed(boolean multipleSelectionAllowed) {
+		this.multipleSelectionAllowed = multipleSelectionAllowed;
+	}
+
+	@Override
+	public void addSelection(int columnPosition, int rowPosition) {
+		selectionsLock.writeLock().lock();
+
+		try {
+			if (!multipleSelectionAllowed) {
+				clear();
+			}
+
+			int rowIndex = selectionLayer.getRowIndexByPosition(rowPosition);
+			R rowObject = getRowObjectByIndex(rowIndex);
+			if (rowObject != null) {
+				select(rowIdAccessor.getRowId(rowObject), rowObject, rowIndex);
+			}
+		} finally {
+			selectionsLock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void addSelection(Rectangle range) {
+		selectionsLock.writeLock().lock();
+
+		try {
+			if (multipleSelectionAllowed) {
+				if (range.equals(lastSelectedRange)) {
+					// Unselect all previously selected rowIds
+					if (lastSelectedRowIds != null) {
+						for (Serializable rowId : lastSelectedRowIds) {
+							deselect(rowId, null, getRowIndexById(rowId));
+						}
+					}
+				}
+			} else {
+				clear();
+				//as no multiple selection is allowed, ensure that only one row
+				//will be selected
+				range.height = 1;
+			}
+
+			Set<Serializable> selectedRowIds = null;
+			if (multipleSelectionAllowed && coversAllRows(range)) {
+				//select all rows without retrieving their row ids
+				allSelected = true;
+				exceptions = new HashMap<Serializable, R>();
+				exceptionIndexes = new BitSet();
+			} else {
+				selectedRowIds = new HashSet<Serializable>();
+				int maxY = Math.min(range.y + range.height, selectionLayer.getRowCount());
+				for (int rowPosition = range.y; rowPosition < maxY; rowPosition++) {
+					int rowIndex = selectionLayer.getRowIndexByPosition(rowPosition);
+					R rowObject = getRowObjectByIndex(rowIndex);
+					if (rowObject != null) {
+						Serializable rowId = rowIdAccessor.getRowId(rowObject);
+						select(rowId, rowObject, rowIndex);
+						selectedRowIds.add(rowId);
+					}
+				}
+			}
+
+			if (range.equals(lastSelectedRange)) {
+				lastSelectedRowIds = selectedRowIds;
+			} else {
+				lastSelectedRowIds = null;
+			}
+
+			lastSelectedRange = range;
+		} finally {
+			selectionsLock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void clearSelection() {
+		selectionsLock.writeLock().lock();
+		try {
+			clear();
+		} finally {
+			selectionsLock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void clearSelection(int columnPosition, int rowPosition) {
+		selectionsLock.writeLock().lock();
+
+		try {
+			int rowIndex = selectionLayer.getRowIndexByPosition(rowPosition);
+			R rowObject = getRowObjectByIndex(rowIndex);
+			if (rowObject != null) {
+				deselect(rowIdAccessor.getRowId(rowObject), rowObject, rowIndex);
+			}
+		} finally {
+			selectionsLock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void clearSelection(Rectangle removedSelection) {
+		selectionsLock.writeLock().lock();
+
+		try {
+			if (coversAllRows(removedSelection)) {
+				clear();
+				return;
+			}
+			int maxY = Math.min(removedSelection.y + removedSelection.height, selectionLayer.getRowCount());
+			for (int rowPosition = removedSelection.y; rowPosition < maxY; rowPosition++) {
+				clearSelection(0, rowPosition);
+			}
+		} finally {
+			selectionsLock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void clearSelection(R rowObject) {
+		selectionsLock.writeLock().lock();
+
+		try {
+			Serializable rowId = rowIdAccessor.getRowId(rowObject);
+			deselect(rowId, rowObject, getRowIndexById(rowId));
+		} finally {
+			selectionsLock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		selectionsLock.readLock().lock();
+
+		try {
+			if (allSelected) {
+				return getSelectedRowCount() == 0;
+			}
+			return exceptions.isEmpty();
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Rectangle> getSelections() {
+		List<Rectangle> selectionRectangles = new ArrayList<Rectangle>();
+		int width = selectionLayer.getColumnCount();
+		for (Range range : getSelectedRowRanges()) {
+			selectionRectangles.add(new Rectangle(0, range.start, width, range.end - range.start));
+		}
+		return selectionRectangles;
+	}
+
+	// Cell features
+
+	@Override
+	public boolean isCellPositionSelected(int columnPosition, int rowPosition) {
+		ILayerCell cell = selectionLayer.getCellByPosition(columnPosition, rowPosition);
+		if (cell == null) {
+			return false;
+		}
+		int cellOriginRowPosition = cell.getOriginRowPosition();
+		for (int testRowPosition = cellOriginRowPosition; testRowPosition < cellOriginRowPosition + cell.getRowSpan(); testRowPosition++) {
+			if (isRowPositionSelected(testRowPosition)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Column features
+
+	@Override
+	public int[] getSelectedColumnPositions() {
+		if (!isEmpty()) {
+			int columnCount = selectionLayer.getColumnCount();
+			int[] columns = new int[columnCount];
+			for (int i = 0; i < columnCount; i++) {
+				columns[i] = i;
+			}
+			return columns;
+		}
+		return new int[] {};
+	}
+
+	@Override
+	public boolean isColumnPositionSelected(int columnPosition) {
+		return !isEmpty();
+	}
+
+	@Override
+	public int[] getFullySelectedColumnPositions(int fullySelectedColumnRowCount) {
+		if (isColumnPositionFullySelected(0, fullySelectedColumnRowCount)) {
+			return getSelectedColumnPositions();
+		}
+		return new int[] {};
+	}
+
+	@Override
+	public boolean isColumnPositionFullySelected(int columnPosition, int fullySelectedColumnRowCount) {
+		int selectedRowCount = getSelectedRowCount();
+
+		if (selectedRowCount == 0) {
+			return false;
+		}
+
+		return selectedRowCount == fullySelectedColumnRowCount;
+	}
+
+	// Row features
+
+	@Override
+	public List<R> getSelectedRowObjects() {
+		selectionsLock.readLock().lock();
+		try {
+			if (!allSelected) {
+				return new ArrayList<R>(exceptions.values());
+			}
+
+			BitSet deselected = getExceptionIndexes();
+			int rowCount = rowDataProvider.getRowCount();
+			List<R> rowObjects = new ArrayList<R>(rowCount - deselected.cardinality());
+			for (int rowIndex = deselected.nextClearBit(0); rowIndex < rowCount; rowIndex = deselected.nextClearBit(rowIndex + 1)) {
+				rowObjects.add(rowDataProvider.getRowObject(rowIndex));
+			}
+			return rowObjects;
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public int getSelectedRowCount() {
+		selectionsLock.readLock().lock();
+
+		try {
+			if (allSelected) {
+				return rowDataProvider.getRowCount() - getExceptionIndexes().cardinality();
+			}
+			return exceptions.size();
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Set<Range> getSelectedRowPositions() {
+		return new HashSet<Range>(getSelectedRowRanges());
+	}
+
+	@Override
+	public boolean isRowPositionSelected(int rowPosition) {
+		selectionsLock.readLock().lock();
+
+		try {
+			return isRowIndexSelected(selectionLayer.getRowIndexByPosition(rowPosition));
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public int[] getFullySelectedRowPositions(int rowWidth) {
+		BitSet rowPositions = getSelectedRowPositionBits();
+		int[] selectedRowPositions = new int[rowPositions.cardinality()];
+		int i = 0;
+		for (int rowPosition = rowPositions.nextSetBit(0); rowPosition >= 0; rowPosition = rowPositions.nextSetBit(rowPosition + 1)) {
+			selectedRowPositions[i++] = rowPosition;
+		}
+		return selectedRowPositions;
+	}
+
+	@Override
+	public boolean isRowPositionFullySelected(int rowPosition, int rowWidth) {
+		return isRowPositionSelected(rowPosition);
+	}
+
+	private boolean isRowIndexSelected(int rowIndex) {
+		if (rowIndex < 0 || rowIndex >= rowDataProvider.getRowCount()) {
+			return false;
+		}
+		return allSelected != getExceptionIndexes().get(rowIndex);
+	}
+
+	private boolean coversAllRows(Rectangle range) {
+		return range.y <= 0 && (long) range.y + range.height >= selectionLayer.getRowCount();
+	}
+
+	/**
+	 * @return The selected row positions merged to contiguous ranges, sorted by position.
+	 */
+	private List<Range> getSelectedRowRanges() {
+		List<Range> ranges = new ArrayList<Range>();
+		BitSet rowPositions = getSelectedRowPositionBits();
+		for (int start = rowPositions.nextSetBit(0); start >= 0; ) {
+			int end = rowPositions.nextClearBit(start);
+			ranges.add(new Range(start, end));
+			start = rowPositions.nextSetBit(end);
+		}
+		return ranges;
+	}
+
+	private BitSet getSelectedRowPositionBits() {
+		BitSet rowPositions = new BitSet();
+
+		selectionsLock.readLock().lock();
+		try {
+			if (allSelected) {
+				int rowCount = selectionLayer.getRowCount();
+				for (int rowPosition = 0; rowPosition < rowCount; rowPosition++) {
+					if (isRowIndexSelected(selectionLayer.getRowIndexByPosition(rowPosition))) {
+						rowPositions.set(rowPosition);
+					}
+				}
+			} else {
+				BitSet selected = getExceptionIndexes();
+				for (int rowIndex = selected.nextSetBit(0); rowIndex >= 0; rowIndex = selected.nextSetBit(rowIndex + 1)) {
+					int rowPosition = selectionLayer.getRowPositionByIndex(rowIndex);
+					if (rowPosition >= 0) {
+						rowPositions.set(rowPosition);
+					}
+				}
+			}
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+
+		return rowPositions;
+	}
+
+	private void clear() {
+		allSelected = false;
+		exceptions = new HashMap<Serializable, R>();
+		exceptionIndexes = new BitSet();
+		lastSelectedRowIds = null;
+	}
+
+	private void select(Serializable rowId, R rowObject, int rowIndex) {
+		if (allSelected) {
+			exceptions.remove(rowId);
+		} else {
+			exceptions.put(rowId, rowObject);
+		}
+		updateExceptionIndex(rowIndex, !allSelected);
+	}
+
+	private void deselect(Serializable rowId, R rowObject, int rowIndex) {
+		if (allSelected) {
+			if (rowObject == null) {
+				rowObject = rowIndex >= 0 ? rowDataProvider.getRowObject(rowIndex) : null;
+			}
+			exceptions.put(rowId, rowObject);
+		} else {
+			exceptions.remove(rowId);
+		}
+		updateExceptionIndex(rowIndex, allSelected);
+	}
+
+	private void updateExceptionIndex(int rowIndex, boolean exception) {
+		BitSet indexes = exceptionIndexes;
+		if (indexes != null && rowIndex >= 0) {
+			indexes.set(rowIndex, exception);
+		}
+	}
+
+	/**
+	 * @return The row indexes of the exceptions, created again after a structural change.
+	 */
+	private BitSet getExceptionIndexes() {
+		BitSet indexes = exceptionIndexes;
+		if (indexes == null) {
+			synchronized (this) {
+				indexes = exceptionIndexes;
+				if (indexes == null) {
+					indexes = new BitSet();
+					if (!exceptions.isEmpty()) {
+						Map<Serializable, Integer> indexesById = getRowIndexes();
+						for (Serializable rowId : exceptions.keySet()) {
+							Integer rowIndex = indexesById.get(rowId);
+							if (rowIndex != null) {
+								indexes.set(rowIndex);
+							}
+						}
+					}
+					exceptionIndexes = indexes;
+				}
+			}
+		}
+		return indexes;
+	}
+
+	private int getRowIndexById(Serializable rowId) {
+		Integer rowIndex = getRowIndexes().get(rowId);
+		return rowIndex != null ? rowIndex : -1;
+	}
+
+	/**
+	 * @return The row indexes by row id, created again after a structural change.
+	 */
+	private Map<Serializable, Integer> getRowIndexes() {
+		Map<Serializable, Integer> indexes = rowIndexes;
+		if (indexes == null) {
+			synchronized (this) {
+				indexes = rowIndexes;
+				if (indexes == null) {
+					int rowCount = rowDataProvider.getRowCount();
+					indexes = new HashMap<Serializable, Integer>(rowCount * 4 / 3 + 1);
+					for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+						indexes.put(rowIdAccessor.getRowId(rowDataProvider.getRowObject(rowIndex)), rowIndex);
+					}
+					rowIndexes = indexes;
+				}
+			}
+		}
+		return indexes;
+	}
+
+	private R getRowObjectByIndex(int rowIndex) {
+		if (rowIndex >= 0 && rowIndex < rowDataProvider.getRowCount()) {
+			return rowDataProvider.getRowObject(rowIndex);
+		}
+		return null;
+	}
+
+}
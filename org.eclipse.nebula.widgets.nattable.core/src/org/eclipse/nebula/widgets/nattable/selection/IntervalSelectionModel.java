@@ -0,0 +1,607 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.selection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * Tracks the selections made in the table as bands of rows, where all rows of a band
+ * have the same selected columns.
+ * <p>
+ * The bands are stored sorted by their first row, so checking whether a cell is selected
+ * is a lookup of the band of the row and of the column in the selected columns of the band.
+ * Adding or removing a selection only splits and merges the bands at the borders of the
+ * selection, instead of comparing it to all existing selections like the
+ * {@link SelectionModel}. Different selections that cover the same cells are not
+ * distinguished, so {@link #getSelections()} returns the selected areas per band.
+ * <p>
+ * Coordinates are in <i>Selection Layer positions</i>
+ *
+ * @see SelectionLayer
+ */
+public class IntervalSelectionModel implements ISelectionModel {
+
+	private final SelectionLayer selectionLayer;
+	private boolean multipleSelectionAllowed;
+	private boolean spanningSupported = true;
+
+	/**
+	 * The selected columns per band, by the first row of the band. A band ends at the
+	 * first row of the next band. The last band has no selected columns.
+	 */
+	private final TreeMap<Integer, SelectedColumns> bands = new TreeMap<Integer, SelectedColumns>();
+	private final ReadWriteLock selectionsLock = new ReentrantReadWriteLock();
+
+	public IntervalSelectionModel(SelectionLayer selectionLayer) {
+		this(selectionLayer, true);
+	}
+
+	public IntervalSelectionModel(SelectionLayer selectionLayer, boolean multipleSelectionAllowed) {
+		this.selectionLayer = selectionLayer;
+		this.multipleSelectionAllowed = multipleSelectionAllowed;
+		this.bands.put(0, new SelectedColumns());
+	}
+
+	@Override
+	public boolean isMultipleSelectionAllowed() {
+		return multipleSelectionAllowed;
+	}
+
+	@Override
+	public void setMultipleSelectionAllowed(boolean multipleSelectionAllowed) {
+		this.multipleSelectionAllowed = multipleSelectionAllowed;
+	}
+
+	/**
+	 * @return <code>true</code> if cells might span several columns or rows, which is the default.
+	 */
+	public boolean isSpanningSupported() {
+		return spanningSupported;
+	}
+
+	/**
+	 * Configures whether cells might span several columns or rows. A cell that spans
+	 * is selected if any of the positions it spans is selected, which needs a lookup of
+	 * the cell in the SelectionLayer. Without spanning only the position is checked.
+	 * @param spanningSupported <code>false</code> if there are no spanned cells.
+	 */
+	public void setSpanningSupported(boolean spanningSupported) {
+		this.spanningSupported = spanningSupported;
+	}
+
+	@Override
+	public void addSelection(int columnPosition, int rowPosition) {
+		addSelection(new Rectangle(columnPosition, rowPosition, 1, 1));
+	}
+
+	@Override
+	public void addSelection(final Rectangle range) {
+		if (range == null) {
+			return;
+		}
+		selectionsLock.writeLock().lock();
+		try {
+			if (!multipleSelectionAllowed) {
+				clearBands();
+				//as no multiple selection is allowed, ensure that only one column
+				//and one row will be selected
+				range.height = 1;
+				range.width = 1;
+			}
+			update(range, true);
+		} finally {
+			selectionsLock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void clearSelection() {
+		selectionsLock.writeLock().lock();
+		try {
+			clearBands();
+		} finally {
+			selectionsLock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void clearSelection(int columnPosition, int rowPosition) {
+		clearSelection(new Rectangle(columnPosition, rowPosition, 1, 1));
+	}
+
+	@Override
+	public void clearSelection(Rectangle removedSelection) {
+		selectionsLock.writeLock().lock();
+		try {
+			update(removedSelection, false);
+		} finally {
+			selectionsLock.writeLock().unlock();
+		}
+	}
+
+	private void clearBands() {
+		bands.clear();
+		bands.put(0, new SelectedColumns());
+	}
+
+	/**
+	 * Selects or deselects the columns of the given area in all bands it covers. The bands
+	 * are split at the first and after the last row of the area, and merged again with
+	 * the neighbour bands if they have the same selected columns afterwards.
+	 */
+	private void update(Rectangle area, boolean select) {
+		int startRow = Math.max(0, area.y);
+		int endRow = end(area.y, area.height);
+		int startColumn = Math.max(0, area.x);
+		int endColumn = end(area.x, area.width);
+		if (startRow >= endRow || startColumn >= endColumn) {
+			return;
+		}
+
+		split(startRow);
+		split(endRow);
+		for (SelectedColumns columns : bands.subMap(startRow, endRow).values()) {
+			if (select) {
+				columns.set(startColumn, endColumn, endColumn == Integer.MAX_VALUE);
+			} else {
+				columns.clear(startColumn, endColumn, endColumn == Integer.MAX_VALUE);
+			}
+		}
+
+		//merge the bands that have equal selected columns now
+		Integer from = bands.lowerKey(startRow);
+		Iterator<Map.Entry<Integer, SelectedColumns>> it =
+				bands.tailMap(from != null ? from : startRow, true).entrySet().iterator();
+		SelectedColumns previous = null;
+		while (it.hasNext()) {
+			Map.Entry<Integer, SelectedColumns> entry = it.next();
+			if (entry.getKey() > endRow) {
+				break;
+			}
+			if (previous != null && previous.equals(entry.getValue())) {
+				it.remove();
+			} else {
+				previous = entry.getValue();
+			}
+		}
+	}
+
+	/**
+	 * Ensures that a band starts at the given row.
+	 */
+	private void split(int row) {
+		if (row == Integer.MAX_VALUE || bands.containsKey(row)) {
+			return;
+		}
+		bands.put(row, new SelectedColumns(bands.floorEntry(row).getValue()));
+	}
+
+	/**
+	 * @return The exclusive end of the given start and length, limited to Integer.MAX_VALUE.
+	 */
+	private static int end(int start, int length) {
+		return (int) Math.min(Integer.MAX_VALUE, (long) start + length);
+	}
+
+	/**
+	 * @return The exclusive end row of the band that starts at the given row.
+	 */
+	private int getBandEnd(int bandStart) {
+		Integer next = bands.higherKey(bandStart);
+		return next != null ? next : Integer.MAX_VALUE;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		selectionsLock.readLock().lock();
+		try {
+			return bands.size() == 1 && bands.firstEntry().getValue().isEmpty();
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Rectangle> getSelections() {
+		List<Rectangle> selections = new ArrayList<Rectangle>();
+		selectionsLock.readLock().lock();
+		try {
+			for (Map.Entry<Integer, SelectedColumns> band : bands.entrySet()) {
+				int row = band.getKey();
+				int height = getBandEnd(row) - row;
+				band.getValue().addRectangles(selections, row, height);
+			}
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+		return selections;
+	}
+
+	// Cell features
+
+	@Override
+	public boolean isCellPositionSelected(int columnPosition, int rowPosition) {
+		selectionsLock.readLock().lock();
+		try {
+			if (isSelected(columnPosition, rowPosition)) {
+				return true;
+			}
+			if (!spanningSupported) {
+				return false;
+			}
+
+			ILayerCell cell = selectionLayer.getCellByPosition(columnPosition, rowPosition);
+			if (cell != null && (cell.getColumnSpan() > 1 || cell.getRowSpan() > 1)) {
+				int startColumn = cell.getOriginColumnPosition();
+				int endColumn = startColumn + cell.getColumnSpan();
+				int startRow = cell.getOriginRowPosition();
+				int endRow = startRow + cell.getRowSpan();
+
+				Integer bandStart = bands.floorKey(startRow);
+				for (SelectedColumns columns : bands.subMap(bandStart, endRow).values()) {
+					if (columns.intersects(startColumn, endColumn)) {
+						return true;
+					}
+				}
+			}
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+		return false;
+	}
+
+	private boolean isSelected(int columnPosition, int rowPosition) {
+		if (columnPosition < 0 || columnPosition >= selectionLayer.getColumnCount()
+				|| rowPosition < 0 || rowPosition >= selectionLayer.getRowCount()) {
+			return false;
+		}
+		return bands.floorEntry(rowPosition).getValue().get(columnPosition);
+	}
+
+	// Column features
+
+	@Override
+	public int[] getSelectedColumnPositions() {
+		int columnCount = selectionLayer.getColumnCount();
+		BitSet selectedColumns = new BitSet();
+		selectionsLock.readLock().lock();
+		try {
+			for (SelectedColumns columns : bands.values()) {
+				columns.addTo(selectedColumns, columnCount);
+			}
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+		return toArray(selectedColumns, columnCount);
+	}
+
+	@Override
+	public boolean isColumnPositionSelected(int columnPosition) {
+		if (columnPosition < 0 || columnPosition >= selectionLayer.getColumnCount()) {
+			return false;
+		}
+		selectionsLock.readLock().lock();
+		try {
+			for (SelectedColumns columns : bands.values()) {
+				if (columns.get(columnPosition)) {
+					return true;
+				}
+			}
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+		return false;
+	}
+
+	@Override
+	public int[] getFullySelectedColumnPositions(int columnHeight) {
+		int columnCount = selectionLayer.getColumnCount();
+		BitSet fullySelectedColumns = new BitSet();
+		selectionsLock.readLock().lock();
+		try {
+			int[] selectedColumns = getSelectedColumnPositions();
+			for (int columnPosition : selectedColumns) {
+				if (isColumnPositionFullySelected(columnPosition, columnHeight)) {
+					fullySelectedColumns.set(columnPosition);
+				}
+			}
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+		return toArray(fullySelectedColumns, columnCount);
+	}
+
+	/**
+	 * Are all cells in this column selected?
+	 * Like in the {@link SelectionModel}, the rows selected in the column need to be
+	 * contiguous from the first selected row, and cover at least the given number of rows.
+	 */
+	@Override
+	public boolean isColumnPositionFullySelected(int columnPosition, int columnHeight) {
+		selectionsLock.readLock().lock();
+		try {
+			int start = -1;
+			int end = Integer.MAX_VALUE;
+			for (Map.Entry<Integer, SelectedColumns> band : bands.entrySet()) {
+				boolean selected = band.getValue().get(columnPosition);
+				if (start < 0) {
+					if (selected) {
+						start = band.getKey();
+					}
+				} else if (end == Integer.MAX_VALUE) {
+					if (!selected) {
+						end = band.getKey();
+					}
+				} else if (selected) {
+					//the rows selected in the column are not contiguous
+					return false;
+				}
+			}
+			//a selection to the end of the column covers any height
+			return start >= 0 && (end == Integer.MAX_VALUE || end - start >= columnHeight);
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+	}
+
+	// Row features
+
+	@Override
+	public int getSelectedRowCount() {
+		int count = 0;
+		for (Range range : getSelectedRowPositions()) {
+			count += range.end - range.start;
+		}
+		return count;
+	}
+
+	@Override
+	public Set<Range> getSelectedRowPositions() {
+		List<Range> selectedRows = new ArrayList<Range>();
+		int rowCount = selectionLayer.getRowCount();
+		selectionsLock.readLock().lock();
+		try {
+			Range current = null;
+			for (Map.Entry<Integer, SelectedColumns> band : bands.headMap(rowCount).entrySet()) {
+				if (band.getValue().isEmpty()) {
+					current = null;
+				} else {
+					int end = Math.min(getBandEnd(band.getKey()), rowCount);
+					if (current != null && current.end == band.getKey()) {
+						current.end = end;
+					} else {
+						current = new Range(band.getKey(), end);
+						selectedRows.add(current);
+					}
+				}
+			}
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+		return new HashSet<Range>(selectedRows);
+	}
+
+	@Override
+	public boolean isRowPositionSelected(int rowPosition) {
+		if (rowPosition < 0 || rowPosition >= selectionLayer.getRowCount()) {
+			return false;
+		}
+		selectionsLock.readLock().lock();
+		try {
+			return !bands.floorEntry(rowPosition).getValue().isEmpty();
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public int[] getFullySelectedRowPositions(int rowWidth) {
+		int rowCount = selectionLayer.getRowCount();
+		List<Integer> fullySelectedRows = new ArrayList<Integer>();
+		selectionsLock.readLock().lock();
+		try {
+			for (Map.Entry<Integer, SelectedColumns> band : bands.headMap(rowCount).entrySet()) {
+				if (band.getValue().isFullySelected(rowWidth)) {
+					int end = Math.min(getBandEnd(band.getKey()), rowCount);
+					for (int row = band.getKey(); row < end; row++) {
+						fullySelectedRows.add(row);
+					}
+				}
+			}
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+		int[] result = new int[fullySelectedRows.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = fullySelectedRows.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Are all cells in this row selected?
+	 * Like in the {@link SelectionModel}, the columns selected in the row need to be
+	 * contiguous from the first selected column, and cover at least the given number of columns.
+	 */
+	@Override
+	public boolean isRowPositionFullySelected(int rowPosition, int rowWidth) {
+		if (rowPosition < 0) {
+			return false;
+		}
+		selectionsLock.readLock().lock();
+		try {
+			return bands.floorEntry(rowPosition).getValue().isFullySelected(rowWidth);
+		} finally {
+			selectionsLock.readLock().unlock();
+		}
+	}
+
+	private static int[] toArray(BitSet bits, int limit) {
+		int[] result = new int[bits.cardinality()];
+		int index = 0;
+		for (int i = bits.nextSetBit(0); i >= 0 && i < limit; i = bits.nextSetBit(i + 1)) {
+			result[index++] = i;
+		}
+		return index < result.length ? Arrays.copyOf(result, index) : result;
+	}
+
+	/**
+	 * The selected columns of a band. Selections that reach to Integer.MAX_VALUE, like
+	 * the selection of whole rows, are stored as all columns from a start column on.
+	 */
+	private static class SelectedColumns {
+
+		/** The selected columns before {@link #openFrom} */
+		private final BitSet bits;
+		/** All columns from this column on are selected, Integer.MAX_VALUE for none */
+		private int openFrom = Integer.MAX_VALUE;
+
+		SelectedColumns() {
+			this.bits = new BitSet();
+		}
+
+		SelectedColumns(SelectedColumns other) {
+			this.bits = (BitSet) other.bits.clone();
+			this.openFrom = other.openFrom;
+		}
+
+		void set(int from, int to, boolean open) {
+			if (open) {
+				if (from < openFrom) {
+					bits.clear(from, Math.max(from, bits.length()));
+					openFrom = from;
+				}
+			} else if (from < openFrom) {
+				bits.set(from, Math.min(to, openFrom));
+			}
+			normalize();
+		}
+
+		void clear(int from, int to, boolean open) {
+			if (openFrom < Integer.MAX_VALUE && to > openFrom) {
+				if (open) {
+					if (from > openFrom) {
+						bits.set(openFrom, from);
+					}
+					openFrom = Integer.MAX_VALUE;
+				} else {
+					//the cleared columns are no longer part of the open selection
+					if (from > openFrom) {
+						bits.set(openFrom, from);
+					}
+					openFrom = to;
+				}
+			}
+			bits.clear(from, Math.min(to, Math.max(from, bits.length())));
+			normalize();
+		}
+
+		boolean get(int column) {
+			return column >= openFrom || bits.get(column);
+		}
+
+		boolean intersects(int from, int to) {
+			if (to > openFrom) {
+				return true;
+			}
+			int next = bits.nextSetBit(from);
+			return next >= 0 && next < to;
+		}
+
+		boolean isEmpty() {
+			return openFrom == Integer.MAX_VALUE && bits.isEmpty();
+		}
+
+		/**
+		 * @return Whether the selected columns are contiguous from the first selected one
+		 * 			and cover at least the given number of columns.
+		 */
+		boolean isFullySelected(int width) {
+			int first = bits.nextSetBit(0);
+			if (first < 0) {
+				//a selection to the end of the row covers any width
+				return openFrom < Integer.MAX_VALUE;
+			}
+			int end = bits.nextClearBit(first);
+			if (bits.nextSetBit(end) >= 0 || openFrom < Integer.MAX_VALUE) {
+				//the selected columns are not contiguous
+				return false;
+			}
+			return end - first >= width;
+		}
+
+		/**
+		 * Ensures that columns selected directly before {@link #openFrom} are part of it,
+		 * so equal selections are stored equally.
+		 */
+		private void normalize() {
+			if (openFrom < Integer.MAX_VALUE && openFrom > 0 && bits.get(openFrom - 1)) {
+				int start = openFrom - 1;
+				while (start > 0 && bits.get(start - 1)) {
+					start--;
+				}
+				bits.clear(start, openFrom);
+				openFrom = start;
+			}
+		}
+
+		void addTo(BitSet columns, int limit) {
+			columns.or(bits);
+			if (openFrom < limit) {
+				columns.set(openFrom, limit);
+			}
+		}
+
+		void addRectangles(List<Rectangle> rectangles, int row, int height) {
+			for (int start = bits.nextSetBit(0); start >= 0; ) {
+				int end = bits.nextClearBit(start);
+				if (end == openFrom) {
+					rectangles.add(new Rectangle(start, row, Integer.MAX_VALUE - start, height));
+					return;
+				}
+				rectangles.add(new Rectangle(start, row, end - start, height));
+				start = bits.nextSetBit(end);
+			}
+			if (openFrom < Integer.MAX_VALUE) {
+				rectangles.add(new Rectangle(openFrom, row, Integer.MAX_VALUE - openFrom, height));
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return bits.hashCode() * 31 + openFrom;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof SelectedColumns)) {
+				return false;
+			}
+			SelectedColumns other = (SelectedColumns) obj;
+			return openFrom == other.openFrom && bits.equals(other.bits);
+		}
+	}
+
+}
@@ -13,12 +13,14 @@
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -26,8 +28,11 @@
 import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
 import org.eclipse.nebula.widgets.nattable.data.IRowIdAccessor;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
 import org.eclipse.nebula.widgets.nattable.selection.IMarkerSelectionModel;
 import org.eclipse.nebula.widgets.nattable.selection.SelectionLayer;
 import org.eclipse.nebula.widgets.nattable.selection.preserve.Selections.CellPosition;
@@ -36,10 +41,16 @@
 
 /**
  * Individual cell selection model that copes with the reordering of rows.
+ * <p>
+ * The row indexes of the selected rows and the longest contiguous run of selected rows
+ * per column are cached, so painting the selection state of the headers doesn't resolve
+ * every selected row again. The caches are cleared on structural changes of the rows,
+ * which is why this model listens to the selection layer. Call {@link #dispose()} to
+ * remove the listener if this model is replaced.
  *
  * @param <T> the type of object underlying each row
  */
-public class PreserveSelectionModel<T> implements IMarkerSelectionModel {
+public class PreserveSelectionModel<T> implements IMarkerSelectionModel, ILayerListener {
 
 	/**
 	 * Provider of cell information
@@ -71,6 +82,16 @@
 	 */
 	private final ReadWriteLock selectionsLock;
 
+	/**
+	 * Cached row indexes of the selected rows, by row ID
+	 */
+	private final Map<Serializable, Integer> rowIndexes = new ConcurrentHashMap<Serializable, Integer>();
+
+	/**
+	 * Cached length of the longest contiguous run of selected row indexes, by column position
+	 */
+	private final Map<Integer, Integer> longestRowRuns = new ConcurrentHashMap<Integer, Integer>();
+
 	/**
 	 * Position of the selection anchor marker, expressed in row object and column position
 	 */
@@ -108,6 +129,27 @@ public PreserveSelectionModel(IUniqueIndexLayer selectionLayer, IRowDataProvider
 		this.rowIdAccessor = rowIdAccessor;
 		this.allowMultiSelection = true;
 		selectionsLock = new ReentrantReadWriteLock();
+
+		selectionLayer.addLayerListener(this);
+	}
+
+	/**
+	 * Removes this model as listener from the selection layer
+	 */
+	public void dispose() {
+		selectionLayer.removeLayerListener(this);
+	}
+
+	/**
+	 * Clears the cached row indexes on structural changes of the rows
+	 */
+	@Override
+	public void handleLayerEvent(ILayerEvent event) {
+		if (event instanceof IStructuralChangeEvent
+				&& ((IStructuralChangeEvent) event).isVerticalStructureChanged()) {
+			rowIndexes.clear();
+			longestRowRuns.clear();
+		}
 	}
 
 	@Override
@@ -132,6 +174,7 @@ public void addSelection(int columnPosition, int rowPosition) {
 			if (rowObject != null) {
 				Serializable rowId = rowIdAccessor.getRowId(rowObject);
 				selections.select(rowId, rowObject, columnPosition);
+				longestRowRuns.remove(columnPosition);
 			}
 		} finally {
 			selectionsLock.writeLock().unlock();
@@ -160,6 +203,8 @@ public void clearSelection() {
 		selectionsLock.writeLock().lock();
 		try {
 			selections.clear();
+			longestRowRuns.clear();
+			rowIndexes.clear();
 		} finally {
 			selectionsLock.writeLock().unlock();
 		}
@@ -173,6 +218,10 @@ public void clearSelection(int columnPosition, int rowPosition) {
 			if (rowObject != null) {
 				Serializable rowId = rowIdAccessor.getRowId(rowObject);
 				selections.deselect(rowId, columnPosition);
+				longestRowRuns.remove(columnPosition);
+				if (!selections.isRowSelected(rowId)) {
+					rowIndexes.remove(rowId);
+				}
 			}
 		} finally {
 			selectionsLock.writeLock().unlock();
@@ -243,12 +292,14 @@ public List<Rectangle> getSelections() {
 
 		selectionsLock.readLock().lock();
 		try {
-			for (CellPosition<T> cellPosition : selections.getSelections()) {
-				int rowPosition = getRowPositionByRowObject(cellPosition.getRowObject());
+			for (Selections<T>.Row row : selections.getRows()) {
+				int rowPosition = getRowPosition(row);
 				if (isRowVisible(rowPosition)) {
-					Integer columnPosition = cellPosition.getColumnPosition();
-					Rectangle selectedCell = new Rectangle(columnPosition, rowPosition, 1, 1);
-					selectedCells.add(selectedCell);
+					BitSet columns = row.getColumns();
+					for (int columnPosition = columns.nextSetBit(0); columnPosition >= 0; columnPosition = columns.nextSetBit(columnPosition + 1)) {
+						Rectangle selectedCell = new Rectangle(columnPosition, rowPosition, 1, 1);
+						selectedCells.add(selectedCell);
+					}
 				}
 			}
 		} finally {
@@ -306,16 +357,10 @@ public int[] getSelectedColumnPositions() {
 	public boolean isColumnPositionSelected(int columnPosition) {
 		selectionsLock.readLock().lock();
 		try {
-			for (Selections<T>.Row row : selections.getRows()) {
-				if (row.contains(columnPosition)) {
-					return true;
-				}
-			}
-
+			return hasColumnsSelectedRows(selections.getSelectedRows(columnPosition));
 		} finally {
 			selectionsLock.readLock().unlock();
 		}
-		return false;
 	}
 
 	@Override
@@ -336,19 +381,24 @@ public int[] getFullySelectedColumnPositions(int columnHeight) {
 
 	@Override
 	public boolean isColumnPositionFullySelected(int columnPosition, int columnHeight) {
-		TreeSet<Integer> selectedRowIndices = new TreeSet<Integer>();
 		selectionsLock.readLock().lock();
 		try {
-			Selections<T>.Column selectedRowsInColumn = selections.getSelectedRows(columnPosition);
-			if (hasColumnsSelectedRows(selectedRowsInColumn)) {
-				for (Serializable rowId : selectedRowsInColumn.getItems()) {
-					Selections<T>.Row row = selections.getSelectedColumns(rowId);
-					T rowObject = row.getRowObject();
-					int rowIndex = rowDataProvider.indexOfRowObject(rowObject);
-					selectedRowIndices.add(rowIndex);
+			Integer longestRun = longestRowRuns.get(columnPosition);
+			if (longestRun == null) {
+				BitSet selectedRowIndices = new BitSet();
+				Selections<T>.Column selectedRowsInColumn = selections.getSelectedRows(columnPosition);
+				if (hasColumnsSelectedRows(selectedRowsInColumn)) {
+					for (Serializable rowId : selectedRowsInColumn.getItems()) {
+						int rowIndex = getRowIndex(selections.getSelectedColumns(rowId));
+						if (rowIndex >= 0) {
+							selectedRowIndices.set(rowIndex);
+						}
+					}
 				}
+				longestRun = getLongestContinuousSection(selectedRowIndices);
+				longestRowRuns.put(columnPosition, longestRun);
 			}
-			return hasContinuousSection(selectedRowIndices, columnHeight);
+			return hasContinuousSection(longestRun, columnHeight);
 		} finally {
 			selectionsLock.readLock().unlock();
 		}
@@ -364,32 +414,29 @@ private boolean hasColumnsSelectedRows(Selections<T>.Column column) {
 	}
 
 	/**
-	 * Determines if there is a long enough continuous section of integers in the
-	 * sequence. The continuous section must be at least sectionSize long.
+	 * Determines the length of the longest continuous section of set bits.
 	 * @param sequence sequence of integers to inspect
-	 * @param minimumLength minimum length of continuous section
-	 * @return whether there is a long enough continuous section of integers in
-	 *         sequence
+	 * @return length of the longest continuous section of integers in sequence
 	 */
-	private boolean hasContinuousSection(TreeSet<Integer> sequence, int minimumLength) {
-		int counter = 0;
-		Integer previousValue = null;
-		for (Integer index : sequence) {
-			if (previousValue != null) {
-				// Not first measurement.
-				if (index != previousValue + 1) {
-					// Restart measurement:
-					counter = 0;
-				}
-			}
-			// Continuous measurement:
-			previousValue = index;
-			counter += 1;
-			if (counter == minimumLength) {
-				return true;
-			}
+	private int getLongestContinuousSection(BitSet sequence) {
+		int longest = 0;
+		for (int start = sequence.nextSetBit(0); start >= 0; ) {
+			int end = sequence.nextClearBit(start);
+			longest = Math.max(longest, end - start);
+			start = sequence.nextSetBit(end);
 		}
-		return false;
+		return longest;
+	}
+
+	/**
+	 * Determines if the longest continuous section is long enough. The continuous section
+	 * must be at least minimumLength long.
+	 * @param longestSection length of the longest continuous section
+	 * @param minimumLength minimum length of continuous section
+	 * @return whether the continuous section is long enough
+	 */
+	private boolean hasContinuousSection(int longestSection, int minimumLength) {
+		return minimumLength > 0 && longestSection >= minimumLength;
 	}
 
 	@Override
@@ -409,7 +456,7 @@ public Set<Range> getSelectedRowPositions() {
 		selectionsLock.readLock().lock();
 		try {
 			for (Selections<T>.Row row : selections.getRows()) {
-				int rowPosition = getRowPositionByRowObject(row.getRowObject());
+				int rowPosition = getRowPosition(row);
 				if (isRowVisible(rowPosition)) {
 					visiblySelectedRowPositions.add(new Range(rowPosition, rowPosition + 1));
 				}
@@ -437,9 +484,8 @@ public int[] getFullySelectedRowPositions(int rowWidth) {
 		try {
 			List<Integer> fullySelectedRows = new ArrayList<Integer>();
 			for (Selections<T>.Row selectedRow : selections.getRows()) {
-				T rowObject = selectedRow.getRowObject();
-				int rowPosition = getRowPositionByRowObject(rowObject);
-				if (isRowVisible(rowPosition) && isRowPositionFullySelected(rowPosition, rowWidth)) {
+				int rowPosition = getRowPosition(selectedRow);
+				if (isRowVisible(rowPosition) && hasContinuousSection(getLongestContinuousSection(selectedRow.getColumns()), rowWidth)) {
 					fullySelectedRows.add(rowPosition);
 				}
 			}
@@ -452,7 +498,7 @@ public int[] getFullySelectedRowPositions(int rowWidth) {
 
 	@Override
 	public boolean isRowPositionFullySelected(int rowPosition, int rowWidth) {
-		TreeSet<Integer> selectedColumnPositions = new TreeSet<Integer>();
+		int longestSection = 0;
 
 		selectionsLock.readLock().lock();
 		try {
@@ -461,15 +507,13 @@ public boolean isRowPositionFullySelected(int rowPosition, int rowWidth) {
 				Serializable rowId = rowIdAccessor.getRowId(rowObject);
 				Selections<T>.Row selectedColumnsInRow = selections.getSelectedColumns(rowId);
 				if (hasRowSelectedColumns(selectedColumnsInRow)) {
-					for (Integer columnPosition : selectedColumnsInRow.getItems()) {
-						selectedColumnPositions.add(columnPosition);
-					}
+					longestSection = getLongestContinuousSection(selectedColumnsInRow.getColumns());
 				}
 			}
 		} finally {
 			selectionsLock.readLock().unlock();
 		}
-		return hasContinuousSection(selectedColumnPositions, rowWidth);
+		return hasContinuousSection(longestSection, rowWidth);
 	}
 
 	/**
@@ -500,7 +544,15 @@ private Serializable getRowIdByPosition(int rowPosition) {
 	 * @return row object for rowPosition, or null if undefined
 	 */
 	private T getRowObjectByPosition(int rowPosition) {
-		int rowIndex = selectionLayer.getRowIndexByPosition(rowPosition);
+		return getRowObjectByIndex(selectionLayer.getRowIndexByPosition(rowPosition));
+	}
+
+	/**
+	 * Retrieves the row object for a row index
+	 * @param rowIndex row index for retrieving row object
+	 * @return row object for rowIndex, or null if undefined
+	 */
+	private T getRowObjectByIndex(int rowIndex) {
 		if (rowIndex >= 0) {
 			try {
 				return rowDataProvider.getRowObject(rowIndex);
@@ -511,6 +563,35 @@ private T getRowObjectByPosition(int rowPosition) {
 		return null;
 	}
 
+	/**
+	 * Retrieves the row index of a selected row. The row index is cached until the
+	 * structure of the rows changes, and only used if the row object is still found
+	 * at the cached row index.
+	 * @param row selected row for retrieving the row index
+	 * @return row index of row, or -1 if undefined
+	 */
+	private int getRowIndex(Selections<T>.Row row) {
+		Integer rowIndex = rowIndexes.get(row.getId());
+		if (rowIndex == null || (rowIndex >= 0 && getRowObjectByIndex(rowIndex) != row.getRowObject())) {
+			rowIndex = rowDataProvider.indexOfRowObject(row.getRowObject());
+			rowIndexes.put(row.getId(), rowIndex);
+		}
+		return rowIndex;
+	}
+
+	/**
+	 * Retrieves the row position of a selected row
+	 * @param row selected row for retrieving the row position
+	 * @return row position of row, or -1 if undefined
+	 */
+	private int getRowPosition(Selections<T>.Row row) {
+		int rowIndex = getRowIndex(row);
+		if (rowIndex == -1) {
+			return -1;
+		}
+		return selectionLayer.getRowPositionByIndex(rowIndex);
+	}
+
 	/**
 	 * Retrieves the row position for a row object
 	 * @param rowObject row object for retrieving row position
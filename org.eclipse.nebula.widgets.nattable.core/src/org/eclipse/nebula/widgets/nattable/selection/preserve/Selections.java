@@ -13,6 +13,7 @@
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -43,6 +44,9 @@
 	 * @param columnPosition
 	 */
 	void select(Serializable rowId, T rowObject, int columnPosition) {
+		if (columnPosition < 0) {
+			return;
+		}
 		Row row = retrieveRow(rowId, rowObject);
 		row.addItem(columnPosition);
 
@@ -126,7 +130,8 @@ Row getSelectedColumns(Serializable rowId) {
 	Collection<CellPosition<T>> getSelections() {
 		ArrayList<CellPosition<T>> selectedCells = new ArrayList<CellPosition<T>>();
 		for (Row row : selectedRows.values()) {
-			for (Integer columnPosition : row.getItems()) {
+			BitSet columns = row.getColumns();
+			for (int columnPosition = columns.nextSetBit(0); columnPosition >= 0; columnPosition = columns.nextSetBit(columnPosition + 1)) {
 				CellPosition<T> cell = new CellPosition<T>(row.getRowObject(), columnPosition);
 				selectedCells.add(cell);
 			}
@@ -197,23 +202,31 @@ private Column retrieveColumn(int columnPosition) {
 	}
 
 	/**
-	 * A collection of selected columns for a row. Row is a Line<Serializable, Integer> where
-	 * <Serializable> denotes the row ID of the row and <Integer> denotes the type of the
-	 * selected columns (column positions).
+	 * The selected columns of a row, kept as a set of column positions.
 	 */
-	class Row extends Line<Serializable, Integer> {
+	class Row {
+		/**
+		 * Identifying the row
+		 */
+		private final Serializable rowId;
+
 		/**
 		 * The underlying row object
 		 */
 		private final T rowObject;
 
+		/**
+		 * The selected column positions
+		 */
+		private final BitSet columns = new BitSet();
+
 		/**
 		 * Creates a row with the specified row
 		 * @param rowId ID of the row
 		 * @param rowObject underlying row object
 		 */
 		Row(Serializable rowId, T rowObject) {
-			super(rowId);
+			this.rowId = rowId;
 			this.rowObject = rowObject;
 		}
 
@@ -224,6 +237,69 @@ class Row extends Line<Serializable, Integer> {
 		T getRowObject() {
 			return rowObject;
 		}
+
+		/**
+		 * Retrieves the selected column positions of the row, naturally sorted
+		 * @return the selected column positions
+		 */
+		Collection<Integer> getItems() {
+			List<Integer> items = new ArrayList<Integer>(columns.cardinality());
+			for (int columnPosition = columns.nextSetBit(0); columnPosition >= 0; columnPosition = columns.nextSetBit(columnPosition + 1)) {
+				items.add(columnPosition);
+			}
+			return items;
+		}
+
+		/**
+		 * Retrieves the selected column positions of the row. The returned set must not be modified.
+		 * @return the selected column positions
+		 */
+		BitSet getColumns() {
+			return columns;
+		}
+
+		/**
+		 * Adds a column position to the selected columns
+		 * @param columnPosition column position to add
+		 */
+		void addItem(int columnPosition) {
+			columns.set(columnPosition);
+		}
+
+		/**
+		 * Removes a column position from the selected columns
+		 * @param columnPosition column position to remove
+		 */
+		void removeItem(int columnPosition) {
+			if (columnPosition >= 0) {
+				columns.clear(columnPosition);
+			}
+		}
+
+		/**
+		 * Determines whether a certain column is selected in the row
+		 * @param columnPosition column position to look for
+		 * @return whether the column is selected in the row
+		 */
+		boolean contains(int columnPosition) {
+			return columnPosition >= 0 && columns.get(columnPosition);
+		}
+
+		/**
+		 * Determines whether the row has any selections
+		 * @return whether the row has any selections
+		 */
+		boolean hasSelection() {
+			return !columns.isEmpty();
+		}
+
+		/**
+		 * Retrieves the row identifier
+		 * @return the row identifier
+		 */
+		Serializable getId() {
+			return rowId;
+		}
 	}
 
 	/**
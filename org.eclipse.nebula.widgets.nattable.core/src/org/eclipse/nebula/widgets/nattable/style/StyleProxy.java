@@ -13,6 +13,7 @@
 import java.util.List;
 
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.layer.InternedLabels;
 
 
 public abstract class StyleProxy implements IStyle {
@@ -21,6 +22,11 @@ public abstract class StyleProxy implements IStyle {
 	private final IConfigRegistry configRegistry;
 	private final String targetDisplayMode;
 	private final List<String> configLabels;
+	/**
+	 * The interned config labels that are used for resolving via the {@link IConfigRegistry},
+	 * which are determined lazily once per proxy.
+	 */
+	private InternedLabels internedConfigLabels;
 
 	public StyleProxy(ConfigAttribute<IStyle> styleConfigAttribute, IConfigRegistry configRegistry, String targetDisplayMode, List<String> configLabels) {
 		this.styleConfigAttribute = styleConfigAttribute;
@@ -31,30 +37,17 @@ public StyleProxy(ConfigAttribute<IStyle> styleConfigAttribute, IConfigRegistry
 	
 	@Override
 	public <T> T getAttributeValue(ConfigAttribute<T> styleAttribute) {
-		T styleAttributeValue = null;
-		IDisplayModeOrdering displayModeOrdering = configRegistry.getDisplayModeOrdering();
-
-		for (String displayMode : displayModeOrdering.getDisplayModeOrdering(targetDisplayMode)) {
-			for (String configLabel : configLabels) {
-				IStyle cellStyle = configRegistry.getSpecificConfigAttribute(styleConfigAttribute, displayMode, configLabel);
-				if (cellStyle != null) {
-					styleAttributeValue = cellStyle.getAttributeValue(styleAttribute);
-					if (styleAttributeValue != null) {
-						return styleAttributeValue;
-					}
-				}
-			}
-
-			// default
-			IStyle cellStyle = configRegistry.getSpecificConfigAttribute(styleConfigAttribute, displayMode, null);
-			if (cellStyle != null) {
-				styleAttributeValue = cellStyle.getAttributeValue(styleAttribute);
-				if (styleAttributeValue != null) {
-					return styleAttributeValue;
-				}
+		//the styles registered for the display modes and config labels in resolution order
+		if (internedConfigLabels == null) {
+			internedConfigLabels = InternedLabels.intern(configLabels);
+		}
+		List<IStyle> styles = configRegistry.getConfigAttributeValues(styleConfigAttribute, targetDisplayMode, internedConfigLabels);
+		for (int i = 0; i < styles.size(); i++) {
+			T styleAttributeValue = styles.get(i).getAttributeValue(styleAttribute);
+			if (styleAttributeValue != null) {
+				return styleAttributeValue;
 			}
 		}
-		
 		return null;
 	}
 	
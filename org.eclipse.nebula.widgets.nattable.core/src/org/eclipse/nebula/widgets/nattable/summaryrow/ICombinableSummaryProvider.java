@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+/**
+ * Summary provider whose summary can be calculated for parts of a column, and whose
+ * partial summaries can be combined to the summary of the whole column. This allows the
+ * {@link ParallelSummaryCalculator} to summarize chunks of rows in parallel.
+ * <p>
+ * Combining the partial summaries of consecutive row ranges in their order needs to
+ * result in the same value as {@link #summarize(int)}.
+ */
+public interface ICombinableSummaryProvider extends ISummaryProvider {
+
+	/**
+	 * @param columnIndex The column index of the column for which the summary should be calculated.
+	 * @param fromRowIndex The first row index to summarize, inclusive.
+	 * @param toRowIndex The last row index to summarize, exclusive.
+	 * @return The summary of the values in the given rows of the column.
+	 */
+	public Object summarize(int columnIndex, int fromRowIndex, int toRowIndex);
+
+	/**
+	 * @param columnIndex The column index of the column the summaries belong to.
+	 * @param summary The summary of a range of rows.
+	 * @param followingSummary The summary of the range of rows following the first one.
+	 * @return The summary of both row ranges.
+	 */
+	public Object combine(int columnIndex, Object summary, Object followingSummary);
+
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import java.util.Collection;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+
+/**
+ * Summary provider that keeps its summary values up to date by applying the changes
+ * of the underlying data, instead of summarizing all values of a column again on
+ * every change.
+ * <p>
+ * The {@link SummaryRowLayer} informs the provider about the changes it gets notified
+ * about, so {@link #summarize(int)} only needs to return the current aggregate. If a
+ * change can't be applied, or for changes that are not reported in detail, e.g.
+ * structural refreshes, the provider is {@link #reset(int)} and needs to summarize the
+ * column completely on the next call to {@link #summarize(int)}.
+ * <p>
+ * All row indexes are the indexes of the data provider. The methods can be called from
+ * different threads than {@link #summarize(int)}, so implementations need to be thread safe.
+ */
+public interface IIncrementalSummaryProvider extends ISummaryProvider {
+
+	/**
+	 * The values in the given rows of the column have changed.
+	 * @param columnIndex The column index of the column whose values have changed.
+	 * @param rowIndexRanges The row indexes of the changed values.
+	 * @return <code>true</code> if the change was applied, <code>false</code> if the column
+	 * 			needs to be summarized completely.
+	 */
+	public boolean valuesChanged(int columnIndex, Collection<Range> rowIndexRanges);
+
+	/**
+	 * Resolves the row index of a row object whose values might have changed, e.g. because
+	 * one of its properties was updated. The change is then reported via
+	 * {@link #valuesChanged(int, Collection)} for every column, so the row index is only
+	 * resolved once per change.
+	 * @param rowObject The row object that was changed.
+	 * @return The row index of the row object, or -1 if it can't be resolved, in which case
+	 * 			the columns need to be summarized completely.
+	 */
+	public int indexOfRowObject(Object rowObject);
+
+	/**
+	 * Rows were inserted.
+	 * @param columnIndex The column index of the column to update.
+	 * @param rowIndexRanges The row indexes of the inserted rows after the insertion.
+	 * @return <code>true</code> if the change was applied, <code>false</code> if the column
+	 * 			needs to be summarized completely.
+	 */
+	public boolean rowsInserted(int columnIndex, Collection<Range> rowIndexRanges);
+
+	/**
+	 * Rows were deleted.
+	 * @param columnIndex The column index of the column to update.
+	 * @param rowIndexRanges The row indexes of the deleted rows before the deletion.
+	 * @return <code>true</code> if the change was applied, <code>false</code> if the column
+	 * 			needs to be summarized completely.
+	 */
+	public boolean rowsDeleted(int columnIndex, Collection<Range> rowIndexRanges);
+
+	/**
+	 * Discards the aggregate of the given column, so the column is summarized completely
+	 * on the next call to {@link #summarize(int)}.
+	 * @param columnIndex The column index of the column to reset.
+	 */
+	public void reset(int columnIndex);
+
+}
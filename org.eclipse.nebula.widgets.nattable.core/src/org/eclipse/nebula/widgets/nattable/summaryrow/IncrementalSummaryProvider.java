@@ -0,0 +1,451 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
+
+/**
+ * {@link IIncrementalSummaryProvider} that calculates the sum, count, minimum, maximum,
+ * mean or variance of the Number values in a column.
+ * <p>
+ * The first call to {@link #summarize(int)} for a column reads all values of the column.
+ * Afterwards the values are kept together with the aggregates, so changed, inserted and
+ * deleted values update the aggregates without reading the other values of the column
+ * again. Sum, count, mean and variance are updated in constant time, minimum and maximum
+ * in logarithmic time. As updating a floating point sum by adding and subtracting values
+ * accumulates rounding errors, sum, mean and variance are recalculated out of the kept
+ * values once more values were removed than the column contains.
+ * <p>
+ * As with the {@link SummationSummaryProvider}, a column that contains non Number values
+ * is summarized to {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} in strict mode. If the
+ * provider is not strict, the non Number values are ignored.
+ */
+public class IncrementalSummaryProvider implements IIncrementalSummaryProvider {
+
+	/**
+	 * The aggregates an {@link IncrementalSummaryProvider} can calculate.
+	 */
+	public enum Aggregate {
+		/** The sum of the values as Double. */
+		SUM,
+		/** The number of Number values as Integer. */
+		COUNT,
+		/** The minimum value as Double, <code>null</code> if there are no values. */
+		MIN,
+		/** The maximum value as Double, <code>null</code> if there are no values. */
+		MAX,
+		/** The arithmetic mean as Double, <code>null</code> if there are no values. */
+		MEAN,
+		/** The population variance as Double, <code>null</code> if there are no values. */
+		VARIANCE
+	}
+
+	private final IDataProvider dataProvider;
+	private final Aggregate aggregate;
+	private final boolean strict;
+
+	/**
+	 * The aggregates per column index. Guarded by this provider.
+	 */
+	private final Map<Integer, ColumnAggregate> columns = new HashMap<Integer, ColumnAggregate>();
+
+	/**
+	 * Create a new {@link IncrementalSummaryProvider} in strict mode, which means that
+	 * {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} is returned if a column contains non
+	 * Number values.
+	 * @param dataProvider The {@link IDataProvider} that contains the values to summarize.
+	 * @param aggregate The aggregate to calculate.
+	 */
+	public IncrementalSummaryProvider(IDataProvider dataProvider, Aggregate aggregate) {
+		this(dataProvider, aggregate, true);
+	}
+
+	/**
+	 * @param dataProvider The {@link IDataProvider} that contains the values to summarize.
+	 * @param aggregate The aggregate to calculate.
+	 * @param strict If strict is set to <code>true</code> and one or more of the values in
+	 * 			the column is not of type Number, then {@link ISummaryProvider#DEFAULT_SUMMARY_VALUE}
+	 * 			will be returned. If strict is set to <code>false</code>, the non Number values
+	 * 			are ignored.
+	 */
+	public IncrementalSummaryProvider(IDataProvider dataProvider, Aggregate aggregate, boolean strict) {
+		this.dataProvider = dataProvider;
+		this.aggregate = aggregate;
+		this.strict = strict;
+	}
+
+	public Aggregate getAggregate() {
+		return aggregate;
+	}
+
+	@Override
+	public Object summarize(int columnIndex) {
+		Integer key = Integer.valueOf(columnIndex);
+		ColumnAggregate column;
+		synchronized (this) {
+			column = columns.get(key);
+			if (column != null && column.complete) {
+				return column.getResult();
+			}
+			column = new ColumnAggregate();
+			columns.put(key, column);
+		}
+
+		//read the values without holding the lock, changes that occur meanwhile are
+		//collected and applied afterwards
+		int rowCount = dataProvider.getRowCount();
+		column.ensureCapacity(rowCount);
+		for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+			column.insert(rowIndex, dataProvider.getDataValue(columnIndex, rowIndex));
+		}
+
+		synchronized (this) {
+			if (columns.get(key) == column) {
+				column.complete = true;
+				for (Range range : column.pendingChanges) {
+					applyValuesChanged(column, columnIndex, range);
+				}
+				column.pendingChanges = null;
+			}
+			return column.getResult();
+		}
+	}
+
+	@Override
+	public synchronized boolean valuesChanged(int columnIndex, Collection<Range> rowIndexRanges) {
+		ColumnAggregate column = columns.get(Integer.valueOf(columnIndex));
+		if (column == null) {
+			return true;
+		}
+		if (!column.complete) {
+			column.pendingChanges.addAll(rowIndexRanges);
+			return true;
+		}
+		for (Range range : rowIndexRanges) {
+			if (!applyValuesChanged(column, columnIndex, range)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public int indexOfRowObject(Object rowObject) {
+		if (dataProvider instanceof IRowDataProvider) {
+			return ((IRowDataProvider<Object>) dataProvider).indexOfRowObject(rowObject);
+		}
+		return -1;
+	}
+
+	@Override
+	public synchronized boolean rowsInserted(int columnIndex, Collection<Range> rowIndexRanges) {
+		ColumnAggregate column = getCompleteColumn(columnIndex);
+		if (column == null) {
+			return true;
+		}
+		//the ranges refer to the indexes after the insertion, so they are applied in
+		//ascending order
+		List<Range> ranges = new ArrayList<Range>(rowIndexRanges);
+		Range.sortByStart(ranges);
+		for (Range range : ranges) {
+			if (range.start > column.size) {
+				return false;
+			}
+			column.insertRange(range.start, range.size());
+			for (int rowIndex = range.start; rowIndex < range.end; rowIndex++) {
+				column.set(rowIndex, dataProvider.getDataValue(columnIndex, rowIndex));
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized boolean rowsDeleted(int columnIndex, Collection<Range> rowIndexRanges) {
+		ColumnAggregate column = getCompleteColumn(columnIndex);
+		if (column == null) {
+			return true;
+		}
+		//the ranges refer to the indexes before the deletion, so they are applied in
+		//descending order
+		List<Range> ranges = new ArrayList<Range>(rowIndexRanges);
+		Range.sortByStart(ranges);
+		for (int i = ranges.size() - 1; i >= 0; i--) {
+			Range range = ranges.get(i);
+			if (range.end > column.size) {
+				return false;
+			}
+			column.deleteRange(range.start, range.end);
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized void reset(int columnIndex) {
+		columns.remove(Integer.valueOf(columnIndex));
+	}
+
+	/**
+	 * Returns the aggregate of the given column if it is complete. If the column is
+	 * currently summarized, the result of that summarization is discarded, as the
+	 * collected changes can't be applied to it anymore.
+	 */
+	private ColumnAggregate getCompleteColumn(int columnIndex) {
+		ColumnAggregate column = columns.get(Integer.valueOf(columnIndex));
+		if (column != null && !column.complete) {
+			columns.remove(Integer.valueOf(columnIndex));
+			return null;
+		}
+		return column;
+	}
+
+	private boolean applyValuesChanged(ColumnAggregate column, int columnIndex, Range range) {
+		if (range.end > column.size) {
+			return false;
+		}
+		for (int rowIndex = range.start; rowIndex < range.end; rowIndex++) {
+			column.update(rowIndex, dataProvider.getDataValue(columnIndex, rowIndex));
+		}
+		return true;
+	}
+
+	/**
+	 * The values of a column together with their aggregates.
+	 */
+	private class ColumnAggregate {
+
+		/** <code>true</code> if all values of the column were read */
+		boolean complete;
+		/** The changes that occurred while the values were read */
+		List<Range> pendingChanges = new ArrayList<Range>();
+
+		double[] values = new double[0];
+		boolean[] numbers = new boolean[0];
+		int size;
+
+		int nonNumberCount;
+		int count;
+		int nanCount;
+		int positiveInfinityCount;
+		int negativeInfinityCount;
+		/** Sum, mean and sum of squared differences of the finite values */
+		double sum;
+		double mean;
+		double m2;
+		int finiteCount;
+		/** The number of finite values removed since sum, mean and m2 were recalculated */
+		int removedSinceRecalculation;
+		/** The number of occurrences per value, only maintained for minimum and maximum */
+		final TreeMap<Double, int[]> sortedValues = (aggregate == Aggregate.MIN || aggregate == Aggregate.MAX)
+				? new TreeMap<Double, int[]>() : null;
+
+		void ensureCapacity(int capacity) {
+			if (capacity > values.length) {
+				int newLength = Math.max(capacity, values.length + (values.length >> 1));
+				double[] newValues = new double[newLength];
+				boolean[] newNumbers = new boolean[newLength];
+				System.arraycopy(values, 0, newValues, 0, size);
+				System.arraycopy(numbers, 0, newNumbers, 0, size);
+				values = newValues;
+				numbers = newNumbers;
+			}
+		}
+
+		void insert(int index, Object value) {
+			insertRange(index, 1);
+			set(index, value);
+		}
+
+		/**
+		 * Opens a gap for the given number of values at the given index, so the following
+		 * values are moved only once per range. The values of the gap need to be set via
+		 * {@link #set(int, Object)} afterwards.
+		 */
+		void insertRange(int index, int length) {
+			ensureCapacity(size + length);
+			if (index < size) {
+				System.arraycopy(values, index, values, index + length, size - index);
+				System.arraycopy(numbers, index, numbers, index + length, size - index);
+			}
+			size += length;
+		}
+
+		/**
+		 * Removes the values from start (inclusive) to end (exclusive) from the aggregates
+		 * and moves the following values only once.
+		 */
+		void deleteRange(int start, int end) {
+			for (int index = start; index < end; index++) {
+				remove(index);
+			}
+			if (end < size) {
+				System.arraycopy(values, end, values, start, size - end);
+				System.arraycopy(numbers, end, numbers, start, size - end);
+			}
+			size -= end - start;
+		}
+
+		void update(int index, Object value) {
+			remove(index);
+			set(index, value);
+		}
+
+		void set(int index, Object value) {
+			if (value instanceof Number) {
+				double x = ((Number) value).doubleValue();
+				values[index] = x;
+				numbers[index] = true;
+				count++;
+				if (Double.isNaN(x)) {
+					nanCount++;
+				} else if (x == Double.POSITIVE_INFINITY) {
+					positiveInfinityCount++;
+				} else if (x == Double.NEGATIVE_INFINITY) {
+					negativeInfinityCount++;
+				} else {
+					finiteCount++;
+					sum += x;
+					double delta = x - mean;
+					mean += delta / finiteCount;
+					m2 += delta * (x - mean);
+				}
+				if (sortedValues != null) {
+					Double key = Double.valueOf(x);
+					int[] occurrences = sortedValues.get(key);
+					if (occurrences == null) {
+						sortedValues.put(key, new int[] {1});
+					} else {
+						occurrences[0]++;
+					}
+				}
+			} else {
+				values[index] = 0;
+				numbers[index] = false;
+				nonNumberCount++;
+			}
+		}
+
+		private void remove(int index) {
+			if (!numbers[index]) {
+				nonNumberCount--;
+				return;
+			}
+			double x = values[index];
+			count--;
+			if (Double.isNaN(x)) {
+				nanCount--;
+			} else if (x == Double.POSITIVE_INFINITY) {
+				positiveInfinityCount--;
+			} else if (x == Double.NEGATIVE_INFINITY) {
+				negativeInfinityCount--;
+			} else if (finiteCount == 1) {
+				finiteCount = 0;
+				sum = 0;
+				mean = 0;
+				m2 = 0;
+			} else {
+				sum -= x;
+				double delta = x - mean;
+				mean -= delta / (finiteCount - 1);
+				m2 -= delta * (x - mean);
+				finiteCount--;
+				removedSinceRecalculation++;
+			}
+			if (sortedValues != null) {
+				Double key = Double.valueOf(x);
+				int[] occurrences = sortedValues.get(key);
+				if (occurrences != null && --occurrences[0] == 0) {
+					sortedValues.remove(key);
+				}
+			}
+		}
+
+		/**
+		 * Calculates sum, mean and m2 again out of the kept values, to discard the rounding
+		 * errors that were accumulated by removing values. Called once more values were
+		 * removed than the column contains, so the costs are constant per removed value.
+		 */
+		private void recalculateIfNeeded() {
+			if (removedSinceRecalculation <= size) {
+				return;
+			}
+			sum = 0;
+			mean = 0;
+			m2 = 0;
+			finiteCount = 0;
+			for (int index = 0; index < size; index++) {
+				double x = values[index];
+				if (numbers[index] && !Double.isNaN(x) && !Double.isInfinite(x)) {
+					finiteCount++;
+					sum += x;
+					double delta = x - mean;
+					mean += delta / finiteCount;
+					m2 += delta * (x - mean);
+				}
+			}
+			removedSinceRecalculation = 0;
+		}
+
+		Object getResult() {
+			recalculateIfNeeded();
+			if (strict && nonNumberCount > 0) {
+				return DEFAULT_SUMMARY_VALUE;
+			}
+			switch (aggregate) {
+				case COUNT:
+					return Integer.valueOf(count);
+				case MIN:
+					return sortedValues.isEmpty() ? null : sortedValues.firstKey();
+				case MAX:
+					return sortedValues.isEmpty() ? null : sortedValues.lastKey();
+				case SUM:
+					return Double.valueOf(getNonFiniteResult(sum));
+				case MEAN:
+					return (count == 0) ? null : Double.valueOf(getNonFiniteResult(mean));
+				case VARIANCE:
+					if (count == 0) {
+						return null;
+					}
+					if (count > finiteCount) {
+						return Double.valueOf(Double.NaN);
+					}
+					return Double.valueOf(Math.max(0, m2 / finiteCount));
+				default:
+					return null;
+			}
+		}
+
+		/**
+		 * @return The result of a sum or mean taking the non finite values into account,
+		 * 			the given finite result if there are none.
+		 */
+		private double getNonFiniteResult(double finiteResult) {
+			if (nanCount > 0 || (positiveInfinityCount > 0 && negativeInfinityCount > 0)) {
+				return Double.NaN;
+			} else if (positiveInfinityCount > 0) {
+				return Double.POSITIVE_INFINITY;
+			} else if (negativeInfinityCount > 0) {
+				return Double.NEGATIVE_INFINITY;
+			}
+			return finiteResult;
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.summaryrow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.util.ParallelTaskRunner;
+
+/**
+ * Calculates summaries of several columns in parallel, e.g. for the synchronous
+ * calculation that is triggered by a CalculateSummaryRowValuesCommand before exporting
+ * or printing.
+ * <p>
+ * The rows are split into chunks. For every chunk one task summarizes all columns with
+ * an {@link ICombinableSummaryProvider}, so the data is processed in a single pass. The
+ * partial summaries of the chunks are combined in row order afterwards. Columns with other
+ * summary providers are summarized by one task per column.
+ * <p>
+ * The tasks are executed by a {@link ParallelTaskRunner}.
+ */
+public class ParallelSummaryCalculator {
+
+	/**
+	 * The default number of rows per chunk.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = ParallelTaskRunner.DEFAULT_CHUNK_SIZE;
+
+	private final ParallelTaskRunner runner;
+
+	/**
+	 * @param executor The executor to run the tasks with, usually the compute executor
+	 * 			of the NatTableExecutors.
+	 */
+	public ParallelSummaryCalculator(Executor executor) {
+		this(executor, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param executor The executor to run the tasks with, usually the compute executor
+	 * 			of the NatTableExecutors.
+	 * @param chunkSize The number of rows that are summarized by one task.
+	 */
+	public ParallelSummaryCalculator(Executor executor, int chunkSize) {
+		this.runner = new ParallelTaskRunner(executor, chunkSize);
+	}
+
+	public int getChunkSize() {
+		return runner.getChunkSize();
+	}
+
+	/**
+	 * Summarizes the columns with the given summary providers.
+	 * @param providers The summary provider per column index, <code>null</code> for columns
+	 * 			that should not be summarized.
+	 * @param rowCount The number of rows to summarize.
+	 * @return The summary per column index, <code>null</code> for columns without summary provider.
+	 */
+	public Object[] summarize(final ISummaryProvider[] providers, int rowCount) {
+		final Object[] summaries = new Object[providers.length];
+		final List<Integer> combinableColumns = new ArrayList<Integer>();
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+
+		List<Range> chunks = runner.split(rowCount);
+		for (int i = 0; i < providers.length; i++) {
+			if (providers[i] instanceof ICombinableSummaryProvider && chunks.size() > 1) {
+				combinableColumns.add(i);
+			} else if (providers[i] != null) {
+				final int columnIndex = i;
+				tasks.add(new Callable<Object>() {
+					@Override
+					public Object call() {
+						summaries[columnIndex] = providers[columnIndex].summarize(columnIndex);
+						return null;
+					}
+				});
+			}
+		}
+
+		final Object[][] partialSummaries = new Object[chunks.size()][];
+		if (!combinableColumns.isEmpty()) {
+			for (int i = 0; i < chunks.size(); i++) {
+				final int chunk = i;
+				final Range rows = chunks.get(i);
+				tasks.add(new Callable<Object>() {
+					@Override
+					public Object call() {
+						Object[] partial = new Object[combinableColumns.size()];
+						for (int c = 0; c < partial.length; c++) {
+							int columnIndex = combinableColumns.get(c);
+							partial[c] = ((ICombinableSummaryProvider) providers[columnIndex])
+									.summarize(columnIndex, rows.start, rows.end);
+						}
+						partialSummaries[chunk] = partial;
+						return null;
+					}
+				});
+			}
+		}
+
+		runner.invokeAll(tasks);
+
+		for (int c = 0; c < combinableColumns.size(); c++) {
+			int columnIndex = combinableColumns.get(c);
+			ICombinableSummaryProvider provider = (ICombinableSummaryProvider) providers[columnIndex];
+			Object summary = partialSummaries[0][c];
+			for (int chunk = 1; chunk < partialSummaries.length; chunk++) {
+				summary = provider.combine(columnIndex, summary, partialSummaries[chunk][c]);
+			}
+			summaries[columnIndex] = summary;
+		}
+		return summaries;
+	}
+
+}
@@ -10,9 +10,14 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.summaryrow;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.layer.AbstractLayerTransform;
 import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
@@ -20,14 +25,20 @@
 import org.eclipse.nebula.widgets.nattable.layer.LayerUtil;
 import org.eclipse.nebula.widgets.nattable.layer.cell.ILayerCell;
 import org.eclipse.nebula.widgets.nattable.layer.cell.LayerCell;
+import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.IVisualChangeEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowUpdateEvent;
 import org.eclipse.nebula.widgets.nattable.resize.command.RowResizeCommand;
 import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
 import org.eclipse.nebula.widgets.nattable.summaryrow.command.CalculateSummaryRowValuesCommand;
 import org.eclipse.nebula.widgets.nattable.util.ArrayUtil;
 import org.eclipse.nebula.widgets.nattable.util.CalculatedValueCache;
 import org.eclipse.nebula.widgets.nattable.util.ICalculator;
+import org.eclipse.nebula.widgets.nattable.util.NatTableExecutors;
 
 /**
  * Adds a summary row at the end. Uses {@link ISummaryProvider} to calculate the summaries for all columns.
@@ -69,6 +80,16 @@ public class SummaryRowLayer extends AbstractLayerTransform implements IUniqueIn
 	 * background processes if necessary.
 	 */
 	private CalculatedValueCache valueCache;
+	/**
+	 * The executors that are used for the summary calculations.
+	 */
+	private final NatTableExecutors executors;
+	/**
+	 * The calculator that is used to calculate all summary values in parallel on a
+	 * {@link CalculateSummaryRowValuesCommand}, <code>null</code> to calculate them
+	 * one after the other.
+	 */
+	private ParallelSummaryCalculator parallelCalculator;
 	
 	/**
 	 * Creates a SummaryRowLayer on top of the given underlying layer. It uses smooth value updates
@@ -134,7 +155,8 @@ public SummaryRowLayer(IUniqueIndexLayer underlyingDataLayer, IConfigRegistry co
 		super(underlyingDataLayer);
 		this.configRegistry = configRegistry;
 		
-		this.valueCache = new CalculatedValueCache(this, true, false, smoothUpdates);
+		this.executors = NatTableExecutors.getExecutors(configRegistry);
+		this.valueCache = new CalculatedValueCache(this, true, false, smoothUpdates, this.executors);
 		
 		if (autoConfigure){
 			addConfiguration(new DefaultSummaryRowConfiguration());
@@ -178,11 +200,7 @@ private Object calculateNewSummaryValue(final int columnPosition, boolean calcul
 			
 			@Override
 			public Object executeCalculation() {
-				LabelStack labelStack = getConfigLabelsByPosition(columnPosition, getSummaryRowPosition());
-				String[] configLabels = labelStack.getLabels().toArray(ArrayUtil.STRING_TYPE_ARRAY);
-				
-				final ISummaryProvider summaryProvider = configRegistry.getConfigAttribute(
-						SummaryRowConfigAttributes.SUMMARY_PROVIDER, DisplayMode.NORMAL, configLabels);
+				final ISummaryProvider summaryProvider = getSummaryProvider(columnPosition);
 				
 				// If there is no Summary provider - skip processing
 				if(summaryProvider == ISummaryProvider.NONE || summaryProvider == null){
@@ -194,6 +212,54 @@ public Object executeCalculation() {
 		});
 	}
 	
+	/**
+	 * Calculates the summary values of all columns in the current thread, using the
+	 * {@link ParallelSummaryCalculator} to split the work.
+	 */
+	private void calculateSummaryValuesInParallel() {
+		ISummaryProvider[] providers = new ISummaryProvider[getColumnCount()];
+		for (int i = 0; i < providers.length; i++) {
+			ISummaryProvider summaryProvider = getSummaryProvider(i);
+			if (summaryProvider != ISummaryProvider.NONE) {
+				providers[i] = summaryProvider;
+			}
+		}
+		
+		//the rows of the underlying layer are the rows of the data provider
+		Object[] summaries = this.parallelCalculator.summarize(providers, super.getRowCount());
+		
+		for (int i = 0; i < summaries.length; i++) {
+			final Object summary = summaries[i];
+			this.valueCache.getCalculatedValue(i, getSummaryRowPosition(), false, new ICalculator() {
+				@Override
+				public Object executeCalculation() {
+					return summary;
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Configures whether the summary values are calculated in parallel on a 
+	 * {@link CalculateSummaryRowValuesCommand}, e.g. before exporting or printing.
+	 * Columns with an {@link ICombinableSummaryProvider} are split into chunks of rows
+	 * that are summarized in parallel.
+	 * @param parallel <code>true</code> to calculate the summary values in parallel,
+	 * 			<code>false</code> to calculate them one after the other, which is the default.
+	 */
+	public void setParallelCalculation(boolean parallel) {
+		this.parallelCalculator = parallel 
+				? new ParallelSummaryCalculator(this.executors.getComputeExecutor()) : null;
+	}
+	
+	/**
+	 * @return <code>true</code> if the summary values are calculated in parallel on a
+	 * 			{@link CalculateSummaryRowValuesCommand}.
+	 */
+	public boolean isParallelCalculation() {
+		return this.parallelCalculator != null;
+	}
+	
 	/**
 	 * @param rowPosition The row position to check.
 	 * @return <code>true</code> if the given row position is the summary row position.
@@ -220,8 +286,12 @@ public boolean doCommand(ILayerCommand command) {
 			}
 		}
 		else if (command instanceof CalculateSummaryRowValuesCommand) {
-			for (int i = 0; i < getColumnCount(); i++) {
-				calculateNewSummaryValue(i, false);
+			if (this.parallelCalculator != null) {
+				calculateSummaryValuesInParallel();
+			} else {
+				for (int i = 0; i < getColumnCount(); i++) {
+					calculateNewSummaryValue(i, false);
+				}
 			}
 			//we do not return true here, as there might be other layers involved in 
 			//the composition that also need to calculate the summary values immediately
@@ -235,11 +305,91 @@ else if (command instanceof DisposeResourcesCommand) {
 	@Override
 	public void handleLayerEvent(ILayerEvent event) {
 		if (event instanceof IVisualChangeEvent) {
+			updateIncrementalSummaryProviders(event);
 			clearCache();
 		}
 		super.handleLayerEvent(event);
 	}
 	
+	/**
+	 * Informs the {@link IIncrementalSummaryProvider}s about the changes reported by the given
+	 * event, so the following calculation doesn't need to summarize the whole column again.
+	 * Events that don't report the changed values in detail reset the providers.
+	 * <p>
+	 * NOTE: As this layer is sitting close to the {@link DataLayer}, the positions of the 
+	 * 		 underlying layer are treated as indexes.
+	 */
+	private void updateIncrementalSummaryProviders(ILayerEvent event) {
+		if (event instanceof CellVisualChangeEvent) {
+			CellVisualChangeEvent cellEvent = (CellVisualChangeEvent) event;
+			int rowPosition = cellEvent.getRowPosition();
+			IIncrementalSummaryProvider provider = getIncrementalSummaryProvider(cellEvent.getColumnPosition());
+			if (provider != null && !provider.valuesChanged(cellEvent.getColumnPosition(), 
+					Arrays.asList(new Range(rowPosition, rowPosition + 1)))) {
+				provider.reset(cellEvent.getColumnPosition());
+			}
+			return;
+		}
+		
+		//the row index of an updated row object is resolved once per provider, not per column
+		Map<IIncrementalSummaryProvider, Integer> rowObjectIndexes = null;
+		Object sourceBean = (event instanceof PropertyUpdateEvent) ? ((PropertyUpdateEvent<?>) event).getSourceBean() : null;
+		
+		for (int columnPosition = 0; columnPosition < getColumnCount(); columnPosition++) {
+			IIncrementalSummaryProvider provider = getIncrementalSummaryProvider(columnPosition);
+			if (provider == null) {
+				continue;
+			}
+			
+			boolean applied = false;
+			if (event instanceof RowUpdateEvent) {
+				applied = provider.valuesChanged(columnPosition, ((RowUpdateEvent) event).getRowPositionRanges());
+			} else if (event instanceof RowInsertEvent) {
+				applied = provider.rowsInserted(columnPosition, ((RowInsertEvent) event).getRowPositionRanges());
+			} else if (event instanceof RowDeleteEvent) {
+				applied = provider.rowsDeleted(columnPosition, ((RowDeleteEvent) event).getRowPositionRanges());
+			} else if (event instanceof PropertyUpdateEvent) {
+				if (rowObjectIndexes == null) {
+					rowObjectIndexes = new IdentityHashMap<IIncrementalSummaryProvider, Integer>();
+				}
+				Integer rowIndex = rowObjectIndexes.get(provider);
+				if (rowIndex == null) {
+					rowIndex = Integer.valueOf(provider.indexOfRowObject(sourceBean));
+					rowObjectIndexes.put(provider, rowIndex);
+				}
+				int index = rowIndex.intValue();
+				applied = (index >= 0) && provider.valuesChanged(columnPosition, Arrays.asList(new Range(index, index + 1)));
+			}
+			
+			if (!applied) {
+				provider.reset(columnPosition);
+			}
+		}
+	}
+	
+	/**
+	 * @param columnPosition The column position of the summary value.
+	 * @return The {@link ISummaryProvider} that is configured for the given column, 
+	 * 			if it is an {@link IIncrementalSummaryProvider}, <code>null</code> otherwise.
+	 */
+	private IIncrementalSummaryProvider getIncrementalSummaryProvider(int columnPosition) {
+		ISummaryProvider summaryProvider = getSummaryProvider(columnPosition);
+		return (summaryProvider instanceof IIncrementalSummaryProvider) 
+				? (IIncrementalSummaryProvider) summaryProvider : null;
+	}
+	
+	/**
+	 * @param columnPosition The column position of the summary value.
+	 * @return The {@link ISummaryProvider} that is configured for the given column.
+	 */
+	private ISummaryProvider getSummaryProvider(int columnPosition) {
+		LabelStack labelStack = getConfigLabelsByPosition(columnPosition, getSummaryRowPosition());
+		String[] configLabels = labelStack.getLabels().toArray(ArrayUtil.STRING_TYPE_ARRAY);
+		
+		return configRegistry.getConfigAttribute(
+				SummaryRowConfigAttributes.SUMMARY_PROVIDER, DisplayMode.NORMAL, configLabels);
+	}
+	
 	/**
 	 * Clear the internal cache to trigger new calculations.
 	 * <p>
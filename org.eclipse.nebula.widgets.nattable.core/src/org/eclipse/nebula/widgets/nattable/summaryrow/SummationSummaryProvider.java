@@ -11,6 +11,7 @@
 package org.eclipse.nebula.widgets.nattable.summaryrow;
 
 import org.eclipse.nebula.widgets.nattable.data.IDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.columnar.ColumnarDataProvider;
 
 /**
  * Implementation of ISummaryProvider that summarizes all values in a
@@ -23,7 +24,7 @@
  * with the parameter strict set to <code>false</code>. In that case the non Number values
  * will be ignored.
  */
-public class SummationSummaryProvider implements ISummaryProvider {
+public class SummationSummaryProvider implements ICombinableSummaryProvider {
 
 	private final IDataProvider dataProvider;
 	private final boolean strict;
@@ -67,10 +68,38 @@ public SummationSummaryProvider(IDataProvider dataProvider, boolean strict) {
 	 */
 	@Override
 	public Object summarize(int columnIndex) {
-		int rowCount = dataProvider.getRowCount();
+		if (dataProvider instanceof ColumnarDataProvider) {
+			ColumnarDataProvider columnarDataProvider = (ColumnarDataProvider) dataProvider;
+			if (columnarDataProvider.getColumnType(columnIndex).isNumeric()) {
+				//sum up the primitive values without boxing
+				return columnarDataProvider.sum(columnIndex);
+			}
+		}
+		
+		return summarize(columnIndex, 0, dataProvider.getRowCount());
+	}
+
+	/**
+	 * Calculates the sum of the values in the given rows of the column.
+	 * @return The sum of the Number values in the rows as Double or
+	 * 			{@link ISummaryProvider#DEFAULT_SUMMARY_VALUE} if the rows contain non
+	 * 			Number values and this SummationSummaryProvider is configured to be strict.
+	 */
+	@Override
+	public Object summarize(int columnIndex, int fromRowIndex, int toRowIndex) {
 		double summaryValue = 0;
 		
-		for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+		if (dataProvider instanceof ColumnarDataProvider) {
+			ColumnarDataProvider columnarDataProvider = (ColumnarDataProvider) dataProvider;
+			if (columnarDataProvider.getColumnType(columnIndex).isNumeric()) {
+				for (int rowIndex = fromRowIndex; rowIndex < toRowIndex; rowIndex++) {
+					summaryValue += columnarDataProvider.getDouble(columnIndex, rowIndex);
+				}
+				return summaryValue;
+			}
+		}
+		
+		for (int rowIndex = fromRowIndex; rowIndex < toRowIndex; rowIndex++) {
 			Object dataValue = dataProvider.getDataValue(columnIndex, rowIndex);
 
 			if (dataValue instanceof Number) {
@@ -82,5 +111,12 @@ public Object summarize(int columnIndex) {
 		
 		return summaryValue;
 	}
-}
 
+	@Override
+	public Object combine(int columnIndex, Object summary, Object followingSummary) {
+		if (summary instanceof Number && followingSummary instanceof Number) {
+			return ((Number) summary).doubleValue() + ((Number) followingSummary).doubleValue();
+		}
+		return DEFAULT_SUMMARY_VALUE;
+	}
+}
\ No newline at end of file
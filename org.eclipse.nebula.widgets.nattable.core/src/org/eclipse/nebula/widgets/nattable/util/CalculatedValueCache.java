@@ -11,9 +11,14 @@
 package org.eclipse.nebula.widgets.nattable.util;
 
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.nebula.widgets.nattable.layer.ILayer;
 import org.eclipse.nebula.widgets.nattable.layer.event.CellVisualChangeEvent;
@@ -26,6 +31,11 @@
  * The CalculatedValueCache uses implementations of {@link ICalculatedValueCacheKey} as the key for the
  * value cache. Usually the internal default implementations for column or row position, or the column-row
  * coordinates should fit most of the use cases.
+ * <p>
+ * There is at most one background calculation per key at a time, regardless of how often the value is
+ * requested while it is calculated. Calculations that did not start yet are cancelled if the cache is
+ * cleared, running calculations are superseded and trigger a new calculation after they finished.
+ * The update events for calculations that finish close together are fired as a single event.
  * 
  * @author Dirk Fauth
  */
@@ -38,9 +48,40 @@ public class CalculatedValueCache {
 	private ILayer layer;
 	
 	/**
-	 * ExecutorService that is used to create background threads to process calculations.
+	 * The time in milliseconds that update events of finished calculations are collected, 
+	 * while other calculations are still running.
+	 */
+	private static final long UPDATE_EVENT_DELAY = 20;
+	
+	/**
+	 * Placeholder for calculated <code>null</code> values, which can not be stored in the caches.
+	 */
+	private static final Object NULL_VALUE = new Object();
+	
+	/**
+	 * ExecutorService that is used to process calculations in the background.
+	 * It is shared and therefore not shut down on {@link #dispose()}.
+	 */
+	private final ExecutorService executor;
+	
+	/**
+	 * ScheduledExecutorService that is used to fire the collected update events.
+	 */
+	private final ScheduledExecutorService eventScheduler;
+	
+	/**
+	 * The background calculations that are not finished yet, at most one per key.
+	 * Modifications are guarded by the map itself.
 	 */
-	private ExecutorService executor;
+	private final Map<ICalculatedValueCacheKey, Calculation> calculations = new HashMap<ICalculatedValueCacheKey, Calculation>();
+	
+	/**
+	 * The coordinates of the finished calculations for which no update event was fired yet,
+	 * encoded via {@link #toCoordinate(int, int)}. Guarded by itself.
+	 */
+	private final Set<Long> pendingUpdates = new LinkedHashSet<Long>();
+	
+	private Future<?> pendingUpdateFuture;
 	
 	/** 
 	 * Cache that contains the calculated values.
@@ -49,7 +90,7 @@ public class CalculatedValueCache {
 	 * This cache will receive updates, e.g. gets cleared on data structure updates,
 	 * and will be used to determine whether a new calculation is necessary. 
 	 */
-	private Map<ICalculatedValueCacheKey, Object> cache = new HashMap<ICalculatedValueCacheKey, Object>();
+	private final Map<ICalculatedValueCacheKey, Object> cache = new ConcurrentHashMap<ICalculatedValueCacheKey, Object>();
 	
 	/** 
 	 * Cache copy of the calculated values. 
@@ -61,7 +102,7 @@ public class CalculatedValueCache {
 	 * values will be returned and updated after the new calculation has finished instead
 	 * of switching to the default calculation value on updates. 
 	 */
-	private Map<ICalculatedValueCacheKey, Object> cacheCopy = new HashMap<ICalculatedValueCacheKey, Object>();
+	private final Map<ICalculatedValueCacheKey, Object> cacheCopy = new ConcurrentHashMap<ICalculatedValueCacheKey, Object>();
 
 	/**
 	 * Flag to specify if the column position should be used as cache key.
@@ -119,8 +160,24 @@ public CalculatedValueCache(ILayer layer, boolean useColumnAsKey, boolean useRow
 	 * @param smoothUpdates Flag to specify if the update of the calculated values should be performed smoothly.
 	 */
     public CalculatedValueCache(ILayer layer, boolean useColumnAsKey, boolean useRowAsKey, boolean smoothUpdates) {
+    	this(layer, useColumnAsKey, useRowAsKey, smoothUpdates, NatTableExecutors.getDefault());
+    }
+    
+    /**
+     * Creates a new CalculatedValueCache for the specified layer that processes the calculations
+     * with the given {@link NatTableExecutors}, e.g. the ones configured for a NatTable.
+	 * @param layer The layer to which the CalculatedValueCache is connected.
+	 * @param useColumnAsKey Flag to specify if the column position should be used as cache key.
+	 * @param useRowAsKey Flag to specify if the row position should be used as cache key.
+	 * @param smoothUpdates Flag to specify if the update of the calculated values should be performed smoothly.
+     * @param executors The executors to process the calculations in the background. They
+     * 			are not shut down by this CalculatedValueCache.
+     */
+    public CalculatedValueCache(ILayer layer, boolean useColumnAsKey, boolean useRowAsKey, boolean smoothUpdates, 
+    		NatTableExecutors executors) {
     	this.layer = layer;
-    	this.executor = Executors.newCachedThreadPool();
+    	this.executor = executors.getComputeExecutor();
+    	this.eventScheduler = executors.getScheduledExecutor();
     	
     	this.useColumnAsKey = useColumnAsKey;
     	this.useRowAsKey = useRowAsKey;
@@ -195,7 +252,7 @@ public Object getCalculatedValue(final int columnPosition, final int rowPosition
 			final Object cacheValue = this.cache.get(key);
 			final Object cacheCopyValue = this.cacheCopy.get(key);
 			
-			result = cacheCopyValue;
+			result = fromCache(cacheCopyValue);
 			
 			//if the calculated value is not the same as the cache value, we need to
 			//start the calculation process
@@ -207,26 +264,26 @@ public Object getCalculatedValue(final int columnPosition, final int rowPosition
 					result = null;
 				}
 				
-				executor.execute(new Runnable() {
-					@Override
-					public void run() {
-						Object summaryValue = calculator.executeCalculation();
-						addToCache(key, summaryValue);
-						
-						//only fire an update event if the new calculated value is
-						//different to the value in the cache copy
-						if (!cacheValuesEqual(summaryValue, cacheCopyValue) && layer != null) {
-							layer.fireLayerEvent(new CellVisualChangeEvent(layer, columnPosition, rowPosition));
-						}
+				synchronized (this.calculations) {
+					//only one calculation per key, the running one will fire an update
+					if (!this.calculations.containsKey(key)) {
+						Calculation calculation = new Calculation(columnPosition, rowPosition, key, 
+								calculator, fromCache(cacheCopyValue));
+						this.calculations.put(key, calculation);
+						calculation.future = this.executor.submit(calculation);
 					}
-				});
+				}
 			}
 		}
 		else {
 			//Execute the calculation in the same thread to make printing and exporting work
 			//Note: this could cause a performance leak and should be used carefully
 			result = calculator.executeCalculation();
-			addToCache(key, result);
+			synchronized (this.calculations) {
+				//a background calculation for the key would not reflect the latest state
+				supersede(key, true);
+				addToCache(key, result);
+			}
 		}
 		
 		return result;
@@ -236,19 +293,56 @@ public void run() {
 	 * Clear the internal cache. Doing this will result in triggering new calculations.
 	 * If the values where calculated before, using the cache copy still the already 
 	 * calculated values will be returned until the new calculation is done.
+	 * <p>
+	 * Calculations that did not start yet are cancelled. Running calculations finish,
+	 * but only update the cache copy, so a new calculation is triggered.
 	 */
 	public void clearCache() {
-		this.cache.clear();
+		synchronized (this.calculations) {
+			for (ICalculatedValueCacheKey key : this.calculations.keySet().toArray(new ICalculatedValueCacheKey[0])) {
+				supersede(key, false);
+			}
+			this.cache.clear();
+		}
 	}
 	
 	/**
 	 * Kills all cached values. The internal cache aswell as the cache copy to support
 	 * smooth updates of values. This is necessary because on structural changes, e.g.
 	 * deleting/adding rows, the cache copy would return false values.
+	 * <p>
+	 * The results of calculations that are running are discarded.
 	 */
 	public void killCache() {
-		this.cache.clear();
-		this.cacheCopy.clear();
+		synchronized (this.calculations) {
+			for (ICalculatedValueCacheKey key : this.calculations.keySet().toArray(new ICalculatedValueCacheKey[0])) {
+				supersede(key, true);
+			}
+			this.cache.clear();
+			this.cacheCopy.clear();
+		}
+	}
+	
+	/**
+	 * Cancels the calculation for the given key if it did not start yet, or marks it as
+	 * superseded if it is running. Needs to be called while holding the lock of the
+	 * calculations.
+	 * @param key The key of the calculation.
+	 * @param discard <code>true</code> if the result of a running calculation should be
+	 * 			discarded, <code>false</code> if it should still be shown until the new 
+	 * 			calculation is done.
+	 */
+	private void supersede(ICalculatedValueCacheKey key, boolean discard) {
+		Calculation calculation = this.calculations.get(key);
+		if (calculation != null) {
+			if (!calculation.started) {
+				calculation.future.cancel(false);
+				this.calculations.remove(key);
+			} else {
+				calculation.superseded = true;
+				calculation.discarded |= discard;
+			}
+		}
 	}
 	
 	/**
@@ -258,15 +352,90 @@ public void killCache() {
 	 * @param value The value for the given coordinates to be cached.
 	 */
 	protected void addToCache(ICalculatedValueCacheKey key, Object value) {
-		this.cache.put(key, value);
-		this.cacheCopy.put(key, value);
+		this.cache.put(key, toCache(value));
+		this.cacheCopy.put(key, toCache(value));
 	}
 	
 	/**
-	 * Cleaning up internal resources like shutting down the ExecutorService.
+	 * Cleaning up internal resources by cancelling the background calculations that are
+	 * not finished yet. The shared executors are not shut down.
 	 */
 	public void dispose() {
-		this.executor.shutdownNow();
+		synchronized (this.calculations) {
+			for (Calculation calculation : this.calculations.values()) {
+				calculation.future.cancel(true);
+			}
+			this.calculations.clear();
+		}
+		synchronized (this.pendingUpdates) {
+			if (this.pendingUpdateFuture != null) {
+				this.pendingUpdateFuture.cancel(false);
+				this.pendingUpdateFuture = null;
+			}
+			this.pendingUpdates.clear();
+		}
+	}
+	
+	/**
+	 * Collects the update of the given cell. The collected updates need to be fired if no
+	 * other calculation is running, otherwise they are fired after a short delay. Every
+	 * update is fired as {@link CellVisualChangeEvent}, so only the updated cells need
+	 * to be repainted.
+	 * <p>
+	 * Needs to be called while holding the lock of the calculations map, so the check for
+	 * running calculations is consistent with the collected updates.
+	 * @return <code>true</code> if the collected updates need to be fired now via 
+	 * 			{@link #firePendingUpdates()}
+	 */
+	private boolean queueUpdate(int columnPosition, int rowPosition) {
+		synchronized (this.pendingUpdates) {
+			this.pendingUpdates.add(toCoordinate(columnPosition, rowPosition));
+			if (this.calculations.isEmpty()) {
+				return true;
+			}
+			if (this.pendingUpdateFuture == null) {
+				this.pendingUpdateFuture = this.eventScheduler.schedule(new Runnable() {
+					@Override
+					public void run() {
+						firePendingUpdates();
+					}
+				}, UPDATE_EVENT_DELAY, TimeUnit.MILLISECONDS);
+			}
+			return false;
+		}
+	}
+	
+	private void firePendingUpdates() {
+		Long[] updates;
+		synchronized (this.pendingUpdates) {
+			if (this.pendingUpdateFuture != null) {
+				this.pendingUpdateFuture.cancel(false);
+				this.pendingUpdateFuture = null;
+			}
+			updates = this.pendingUpdates.toArray(new Long[this.pendingUpdates.size()]);
+			this.pendingUpdates.clear();
+		}
+		
+		ILayer layer = this.layer;
+		if (layer == null || updates.length == 0) {
+			return;
+		}
+		for (Long update : updates) {
+			long coordinate = update.longValue();
+			layer.fireLayerEvent(new CellVisualChangeEvent(layer, (int) (coordinate >> 32), (int) coordinate));
+		}
+	}
+	
+	private static Long toCoordinate(int columnPosition, int rowPosition) {
+		return Long.valueOf(((long) columnPosition << 32) | (rowPosition & 0xFFFFFFFFL));
+	}
+	
+	private static Object toCache(Object value) {
+		return (value != null) ? value : NULL_VALUE;
+	}
+	
+	private static Object fromCache(Object value) {
+		return (value != NULL_VALUE) ? value : null;
 	}
 	
 	/**
@@ -291,6 +460,86 @@ public void setLayer(ILayer layer) {
 		this.layer = layer;
 	}
 	
+	/**
+	 * A background calculation of the value for a key.
+	 */
+	private class Calculation implements Runnable {
+		
+		private final int columnPosition;
+		private final int rowPosition;
+		private final ICalculatedValueCacheKey key;
+		private final ICalculator calculator;
+		/** The value that is shown while calculating */
+		private final Object shownValue;
+		
+		// guarded by the calculations map
+		Future<?> future;
+		boolean started;
+		boolean superseded;
+		boolean discarded;
+		
+		Calculation(int columnPosition, int rowPosition, ICalculatedValueCacheKey key, 
+				ICalculator calculator, Object shownValue) {
+			this.columnPosition = columnPosition;
+			this.rowPosition = rowPosition;
+			this.key = key;
+			this.calculator = calculator;
+			this.shownValue = shownValue;
+		}
+		
+		@Override
+		public void run() {
+			synchronized (calculations) {
+				if (calculations.get(key) != this) {
+					return;
+				}
+				started = true;
+			}
+			
+			Object value;
+			try {
+				value = calculator.executeCalculation();
+			} catch (RuntimeException e) {
+				synchronized (calculations) {
+					if (calculations.get(key) == this) {
+						calculations.remove(key);
+					}
+				}
+				throw e;
+			}
+			
+			boolean fire = false;
+			synchronized (calculations) {
+				if (calculations.get(key) != this) {
+					//cancelled on dispose
+					return;
+				}
+				calculations.remove(key);
+				boolean update;
+				if (!superseded) {
+					addToCache(key, value);
+					//only fire an update event if the new calculated value is
+					//different to the value in the cache copy
+					update = !cacheValuesEqual(value, shownValue);
+				} else {
+					if (!discarded) {
+						//show the value until the new calculation is done
+						cacheCopy.put(key, toCache(value));
+					}
+					//the repaint triggers the new calculation, as the cache entry is missing
+					update = true;
+				}
+				if (update) {
+					fire = queueUpdate(columnPosition, rowPosition);
+				}
+			}
+			
+			if (fire) {
+				firePendingUpdates();
+			}
+		}
+	}
+	
 	/**
 	 * ICalculatedValueCacheKey that uses either the column or row position as key.
 	 * 
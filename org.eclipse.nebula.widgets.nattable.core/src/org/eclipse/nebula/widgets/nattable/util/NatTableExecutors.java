@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+
+/**
+ * Provides the thread pools that are used for the background work of NatTable, e.g.
+ * calculations of the {@link CalculatedValueCache}, blinking, event conflation and
+ * delayed updates.
+ * <p>
+ * The pools are bounded and their threads are named daemon threads in the NatTable
+ * thread group, which terminate if they are idle. So the number of threads doesn't
+ * grow with the number of NatTable instances, and no threads are kept while there is
+ * no background work.
+ * <p>
+ * By default all NatTable instances of an application share the instance returned by
+ * {@link #getDefault()}, which can be replaced via {@link #setDefault(NatTableExecutors)}.
+ * To use separate pools for a NatTable, an instance can be registered in its
+ * {@link IConfigRegistry} for {@link #EXECUTORS} before the layers are created. Such an
+ * instance is shut down if the NatTable is disposed. Components that use the pools
+ * cancel their own tasks on a DisposeResourcesCommand, but never shut down the pools.
+ */
+public class NatTableExecutors {
+
+	/**
+	 * Attribute for configuring the NatTableExecutors used by the layers of a NatTable.
+	 * If nothing is registered, {@link #getDefault()} is used.
+	 */
+	public static final ConfigAttribute<NatTableExecutors> EXECUTORS = new ConfigAttribute<NatTableExecutors>();
+
+	/**
+	 * The time in seconds after which idle threads terminate.
+	 */
+	private static final long KEEP_ALIVE_SECONDS = 30;
+
+	private static NatTableExecutors defaultExecutors;
+
+	private final String name;
+	private final ThreadPoolExecutor computeExecutor;
+	private final ScheduledThreadPoolExecutor scheduledExecutor;
+
+	/**
+	 * Creates executors with a compute pool of one thread per processor, but at least two,
+	 * and a scheduled pool of two threads.
+	 * @param name The name that is used as prefix for the thread names.
+	 */
+	public NatTableExecutors(String name) {
+		this(name, Math.max(2, Runtime.getRuntime().availableProcessors()), 2);
+	}
+
+	/**
+	 * @param name The name that is used as prefix for the thread names.
+	 * @param computeThreads The maximum number of threads for background calculations.
+	 * @param scheduledThreads The maximum number of threads for scheduled tasks.
+	 */
+	public NatTableExecutors(String name, int computeThreads, int scheduledThreads) {
+		this.name = name;
+
+		computeExecutor = new ThreadPoolExecutor(computeThreads, computeThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory(name + "-compute")); //$NON-NLS-1$
+		computeExecutor.allowCoreThreadTimeOut(true);
+
+		scheduledExecutor = new ScheduledThreadPoolExecutor(scheduledThreads, new NamedThreadFactory(name + "-scheduler")); //$NON-NLS-1$
+		scheduledExecutor.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+		scheduledExecutor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * @return The executors that are shared by all NatTable instances that have no
+	 * 			executors configured.
+	 */
+	public static synchronized NatTableExecutors getDefault() {
+		if (defaultExecutors == null || defaultExecutors.isShutdown()) {
+			defaultExecutors = new NatTableExecutors("NatTable"); //$NON-NLS-1$
+		}
+		return defaultExecutors;
+	}
+
+	/**
+	 * Replaces the executors that are shared by all NatTable instances. Components that
+	 * were already created keep the executors they were created with.
+	 * @param executors The executors to share, <code>null</code> to reset to the default.
+	 */
+	public static synchronized void setDefault(NatTableExecutors executors) {
+		defaultExecutors = executors;
+	}
+
+	/**
+	 * @param configRegistry The config registry of a NatTable, can be <code>null</code>.
+	 * @return The executors registered for {@link #EXECUTORS}, or the default executors
+	 * 			if none are registered.
+	 */
+	public static NatTableExecutors getExecutors(IConfigRegistry configRegistry) {
+		NatTableExecutors executors = null;
+		if (configRegistry != null) {
+			executors = configRegistry.getConfigAttribute(EXECUTORS, DisplayMode.NORMAL);
+		}
+		return (executors != null) ? executors : getDefault();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The bounded pool for background calculations.
+	 */
+	public ExecutorService getComputeExecutor() {
+		return computeExecutor;
+	}
+
+	/**
+	 * @return The bounded pool for delayed and periodic tasks. Tasks should be short
+	 * 			and hand over longer work to the compute executor.
+	 */
+	public ScheduledExecutorService getScheduledExecutor() {
+		return scheduledExecutor;
+	}
+
+	/**
+	 * Shuts down the pools and cancels the running tasks.
+	 */
+	public void shutdown() {
+		computeExecutor.shutdownNow();
+		scheduledExecutor.shutdownNow();
+	}
+
+	public boolean isShutdown() {
+		return computeExecutor.isShutdown();
+	}
+
+	/**
+	 * Creates named daemon threads in the NatTable thread group.
+	 */
+	private static class NamedThreadFactory implements ThreadFactory {
+
+		private final String prefix;
+		private final AtomicInteger counter = new AtomicInteger();
+
+		NamedThreadFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(ObjectUtils.getNatTableThreadGroup(), runnable, prefix + "-" + counter.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+
+/**
+ * Splits work on a number of rows or elements into chunks and executes the tasks for
+ * the chunks in parallel, e.g. using the compute executor of the {@link NatTableExecutors}.
+ * <p>
+ * The tasks are executed by the given executor, while the calling thread processes the
+ * tasks that were not started yet. So the caller doesn't wait for busy pool threads
+ * and it doesn't deadlock if it is started by a pool thread itself.
+ */
+public class ParallelTaskRunner {
+
+	/**
+	 * The default number of rows per chunk.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 50000;
+
+	private final Executor executor;
+	private final int chunkSize;
+
+	/**
+	 * @param executor The executor to run the tasks with, usually the compute executor
+	 * 			of the NatTableExecutors.
+	 */
+	public ParallelTaskRunner(Executor executor) {
+		this(executor, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param executor The executor to run the tasks with, usually the compute executor
+	 * 			of the NatTableExecutors.
+	 * @param chunkSize The number of rows that are processed by one task.
+	 */
+	public ParallelTaskRunner(Executor executor, int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize must be greater than 0"); //$NON-NLS-1$
+		}
+		this.executor = executor;
+		this.chunkSize = chunkSize;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * @param rowCount The number of rows to split.
+	 * @return The row ranges of the chunks, at least one.
+	 */
+	public List<Range> split(int rowCount) {
+		List<Range> chunks = new ArrayList<Range>();
+		int start = 0;
+		do {
+			int end = (int) Math.min(rowCount, (long) start + chunkSize);
+			chunks.add(new Range(start, end));
+			start = end;
+		} while (start < rowCount);
+		return chunks;
+	}
+
+	/**
+	 * Executes the given tasks in parallel and waits for their completion.
+	 * @param tasks The tasks to execute.
+	 * @return The results of the tasks in the order of the tasks.
+	 * @throws RuntimeException if a task failed, with the failure as cause if it was no
+	 * 			RuntimeException itself.
+	 */
+	public <V> List<V> invokeAll(List<? extends Callable<V>> tasks) {
+		List<FutureTask<V>> futures = new ArrayList<FutureTask<V>>(tasks.size());
+		for (Callable<V> task : tasks) {
+			futures.add(new FutureTask<V>(task));
+		}
+
+		//the first task is always executed by the calling thread
+		for (int i = 1; i < futures.size(); i++) {
+			try {
+				executor.execute(futures.get(i));
+			} catch (RejectedExecutionException e) {
+				//the calling thread executes the task below
+				break;
+			}
+		}
+
+		List<V> results = new ArrayList<V>(futures.size());
+		try {
+			//process the tasks that were not started yet, beginning with the last ones
+			//as the pool threads start with the first ones
+			for (int i = futures.size() - 1; i >= 0; i--) {
+				futures.get(i).run();
+			}
+			for (FutureTask<V> future : futures) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			cancel(futures);
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Parallel execution interrupted", e); //$NON-NLS-1$
+		} catch (ExecutionException e) {
+			cancel(futures);
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+		return results;
+	}
+
+	private static void cancel(List<? extends FutureTask<?>> futures) {
+		for (FutureTask<?> future : futures) {
+			future.cancel(false);
+		}
+	}
+
+}
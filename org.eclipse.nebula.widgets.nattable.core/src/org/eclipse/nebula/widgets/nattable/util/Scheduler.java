@@ -10,23 +10,42 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.util;
 
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Schedules the tasks of a component on the scheduled pool of {@link NatTableExecutors}.
+ * The pool is shared, so unscheduling the last task doesn't shut it down, but removes
+ * the cancelled tasks from it.
+ */
 public class Scheduler implements ThreadFactory  {
     
 	private final String threadNamePrefix;
+	private final NatTableExecutors executors;
 	private final AtomicInteger counter = new AtomicInteger();
 	private int scheduledTasks;
-	private ScheduledExecutorService threadPool;
 	
+	/**
+	 * Creates a scheduler that uses the default {@link NatTableExecutors}.
+	 * @param threadNamePrefix The name of the component that schedules tasks.
+	 */
 	public Scheduler(String threadNamePrefix) {
+		this(threadNamePrefix, null);
+	}
+	
+	/**
+	 * @param threadNamePrefix The name of the component that schedules tasks.
+	 * @param executors The executors to schedule the tasks with, <code>null</code> to
+	 * 			use the default executors at the time a task is scheduled.
+	 */
+	public Scheduler(String threadNamePrefix, NatTableExecutors executors) {
 		this.threadNamePrefix = threadNamePrefix;
+		this.executors = executors;
 	}
 	
 	public synchronized ScheduledFuture<?> schedule(Runnable runnable, long initialDelayMillis) {
@@ -43,18 +62,36 @@ public synchronized ScheduledFuture<?> scheduleWithFixedDelay(Runnable runnable,
 		return getThreadPool().scheduleWithFixedDelay(runnable, initialDelayMillis, refreshIntervalMillis, TimeUnit.MILLISECONDS);
 	}
 
-	private synchronized ScheduledExecutorService getThreadPool() {
-		if (threadPool == null)	{
-			threadPool = Executors.newScheduledThreadPool(1,this);
-		}
-		return threadPool;
+	private ScheduledExecutorService getThreadPool() {
+		return (executors != null) ? executors.getScheduledExecutor() : NatTableExecutors.getDefault().getScheduledExecutor();
 	}
 
 	public synchronized void unschedule(ScheduledFuture<?> future) {
 		future.cancel(false);
-		if (threadPool != null && --scheduledTasks <= 0) {
-			threadPool.shutdownNow();
-			threadPool = null;
+		release();
+	}
+
+	/**
+	 * Marks that tasks are scheduled one by one via {@link #schedule(Runnable, long)}, 
+	 * until {@link #release()} is called.
+	 */
+	public synchronized void retain() {
+		scheduledTasks++;
+	}
+
+	/**
+	 * Releases a mark set via {@link #retain()}. If no tasks are scheduled anymore, 
+	 * the cancelled tasks are removed from the shared pool.
+	 */
+	public synchronized void release() {
+		if (scheduledTasks > 0) {
+			scheduledTasks--;
+		}
+		if (scheduledTasks == 0) {
+			ScheduledExecutorService threadPool = getThreadPool();
+			if (threadPool instanceof ThreadPoolExecutor) {
+				((ThreadPoolExecutor) threadPool).purge();
+			}
 		}
 	}
 
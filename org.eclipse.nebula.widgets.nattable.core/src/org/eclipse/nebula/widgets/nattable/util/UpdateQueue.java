@@ -12,6 +12,8 @@
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.commons.logging.Log;
@@ -19,6 +21,12 @@
 
 /**
  * GUI Update Event Queue
+ * <p>
+ * The queued runnables are processed on the compute pool of {@link NatTableExecutors},
+ * as they can run arbitrary work. After a run of runnables was processed, the queue
+ * pauses for the sleep time before the runnables that were added in the meantime are
+ * processed. The scheduled pool is only used to wait for the sleep time. Nothing runs
+ * while the queue is empty.
  */
 public class UpdateQueue {
 
@@ -28,7 +36,9 @@ public class UpdateQueue {
 
 	private Map<String, Runnable> runnableMap = new HashMap<String, Runnable>();
 
-	private Thread thread = null;
+	private final Scheduler scheduler = new Scheduler(getClass().getSimpleName());
+
+	private Future<?> future = null;
 
 	private boolean stop = false;
 
@@ -51,48 +61,40 @@ public static UpdateQueue getInstance() {
 
 		public void run() {
 			try {
-				while (!stop) {
-
-					// Block thread and make sure that we are doing the
-					// latest orders only
+				// Block thread and make sure that we are doing the
+				// latest orders only
 
-					lock.writeLock().lock();
-					Runnable[] runnables = runnableMap.values().toArray(
-							new Runnable[runnableMap.size()]);
+				lock.writeLock().lock();
+				Runnable[] runnables;
+				try {
+					runnables = runnableMap.values().toArray(new Runnable[runnableMap.size()]);
 					runnableMap.clear();
+				} finally {
 					lock.writeLock().unlock();
+				}
 
-					int len = runnables != null ? runnables.length : 0;
-
-					for (int i = 0; i < len; i++) {
-						try {
-							runnables[i].run();
-						} catch (Exception e) {
-							log.error(e);
-						}
+				for (int i = 0; i < runnables.length; i++) {
+					try {
+						runnables[i].run();
+					} catch (Exception e) {
+						log.error(e);
 					}
+				}
 
-					if (len > 0) {
-						// Allow sleep
-						try {
-							Thread.sleep(sleep);
-						} catch (Exception e) {
-							log.error(e);
-						}
-
+				synchronized (UpdateQueue.this) {
+					if (stop) {
+						future = null;
+					} else if (runnables.length > 0) {
+						// Allow sleep before processing the next runnables
+						future = scheduler.schedule(handOver, sleep);
+					} else if (hasRunnables()) {
+						// added while this run was processed
+						future = getComputeExecutor().submit(this);
 					} else {
 						// Sleep when nothing to do
-						synchronized (thread) {
-							try {
-								thread.wait();
-							} catch (Exception e) {
-								log.error(e);
-							}
-						}
+						future = null;
 					}
-
 				}
-
 			} catch (Exception e) {
 				log.error(e);
 			}
@@ -100,6 +102,23 @@ public void run() {
 
 	};
 
+	/**
+	 * Hands the processing over from the scheduled pool to the compute pool after the sleep time.
+	 */
+	private Runnable handOver = new Runnable() {
+
+		public void run() {
+			synchronized (UpdateQueue.this) {
+				future = stop ? null : getComputeExecutor().submit(runnable);
+			}
+		}
+
+	};
+
+	private ExecutorService getComputeExecutor() {
+		return NatTableExecutors.getDefault().getComputeExecutor();
+	}
+
 	/**
 	 * Add a new runnable to a map along with a unique id<br>
 	 * The last update runnable of an id will be executed only.
@@ -130,33 +149,26 @@ public void addRunnable(String id, Runnable runnable) {
 	// runInThread();
 	// }
 
-	private void runInThread() {
+	private boolean hasRunnables() {
+		lock.readLock().lock();
 		try {
-			if (thread == null) {
-				thread = new Thread(runnable, "GUI Display Delay Queue " //$NON-NLS-1$
-						+ System.nanoTime());
-				thread.setDaemon(true);
-				thread.start();
-			} else {
-				synchronized (thread) {
-					thread.notify();
-				}
-			}
-		} catch (Exception e) {
-			log.error(e);
+			return !runnableMap.isEmpty();
+		} finally {
+			lock.readLock().unlock();
 		}
 	}
 
-	public void stopThread() {
-		try {
-			if (thread != null) {
-				stop = true;
-				synchronized (thread) {
-					thread.notify();
-				}
-			}
-		} catch (Exception e) {
-			log.error(e);
+	private synchronized void runInThread() {
+		if (!stop && future == null) {
+			future = getComputeExecutor().submit(runnable);
+		}
+	}
+
+	public synchronized void stopThread() {
+		stop = true;
+		if (future != null) {
+			future.cancel(false);
+			future = null;
 		}
 	}
 }
@@ -21,6 +21,7 @@
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEventHandler;
 import org.eclipse.nebula.widgets.nattable.layer.event.IStructuralChangeEvent;
+import org.eclipse.nebula.widgets.nattable.painter.layer.ILayerPainter;
 import org.eclipse.nebula.widgets.nattable.print.command.PrintEntireGridCommand;
 import org.eclipse.nebula.widgets.nattable.print.command.TurnViewportOffCommand;
 import org.eclipse.nebula.widgets.nattable.print.command.TurnViewportOnCommand;
@@ -485,6 +486,16 @@ protected void registerCommandHandlers() {
 		registerCommandHandler(new ViewportSelectRowCommandHandler(this));
 		registerCommandHandler(new ViewportDragCommandHandler(this));
 	}
+	
+	/**
+	 * @return The {@link ILayerPainter} that was set explicitly for this ViewportLayer,
+	 * 			e.g. a {@link org.eclipse.nebula.widgets.nattable.painter.layer.TiledRenderCacheLayerPainter},
+	 * 			or the {@link ILayerPainter} of the underlying layer if none was set.
+	 */
+	@Override
+	public ILayerPainter getLayerPainter() {
+		return (layerPainter != null) ? layerPainter : super.getLayerPainter();
+	}
 
 	// Horizontal features
 
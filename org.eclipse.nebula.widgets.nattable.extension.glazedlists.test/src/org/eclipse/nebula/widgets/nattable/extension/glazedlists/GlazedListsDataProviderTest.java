@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.Serializable;
+import java.util.Collections;
+
+import org.eclipse.nebula.widgets.nattable.data.IRowIdAccessor;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.StringListFixture;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.SortedList;
+
+public class GlazedListsDataProviderTest {
+
+	private EventList<String> eventList;
+	private SortedList<String> sortedList;
+	private GlazedListsDataProvider<String> dataProvider;
+	private int rowIdReads;
+
+	@Before
+	public void setup() {
+		eventList = GlazedLists.eventList(StringListFixture.getList(10));
+		sortedList = new SortedList<String>(eventList, null);
+		dataProvider = new GlazedListsDataProvider<String>(sortedList, StringListFixture.getColumnAccessor(1));
+		dataProvider.setRowObjectIndexEnabled(true, null);
+	}
+
+	@Test
+	public void indexFollowsListChanges() {
+		assertEquals(3, dataProvider.indexOfRowObject("row3")); //$NON-NLS-1$
+
+		eventList.remove("row0"); //$NON-NLS-1$
+		assertEquals(2, dataProvider.indexOfRowObject("row3")); //$NON-NLS-1$
+		assertEquals(-1, dataProvider.indexOfRowObject("row0")); //$NON-NLS-1$
+
+		eventList.set(2, "row0"); //$NON-NLS-1$
+		assertEquals(2, dataProvider.indexOfRowObject("row0")); //$NON-NLS-1$
+		assertEquals(-1, dataProvider.indexOfRowObject("row3")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void updatesDontRecreateIndex() {
+		dataProvider.setRowObjectIndexEnabled(true, new IRowIdAccessor<String>() {
+			@Override
+			public Serializable getRowId(String rowObject) {
+				rowIdReads++;
+				return rowObject.toUpperCase();
+			}
+		});
+		assertEquals(3, dataProvider.indexOfRowObject("row3")); //$NON-NLS-1$
+		assertEquals(12, rowIdReads);
+
+		rowIdReads = 0;
+		eventList.set(3, "other"); //$NON-NLS-1$
+		assertEquals(3, dataProvider.indexOfRowObject("other")); //$NON-NLS-1$
+		assertEquals(-1, dataProvider.indexOfRowObject("row3")); //$NON-NLS-1$
+		assertEquals(4, dataProvider.indexOfRowObject("row4")); //$NON-NLS-1$
+		//only the updated row and the looked up rows are read
+		assertEquals(6, rowIdReads);
+
+		//an insert recreates the index
+		eventList.add(0, "new"); //$NON-NLS-1$
+		assertEquals(4, dataProvider.indexOfRowObject("other")); //$NON-NLS-1$
+		assertEquals(0, dataProvider.indexOfRowObject("new")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void indexFollowsSorting() {
+		assertEquals(0, dataProvider.indexOfRowObject("row0")); //$NON-NLS-1$
+
+		sortedList.setComparator(Collections.reverseOrder());
+		assertEquals(9, dataProvider.indexOfRowObject("row0")); //$NON-NLS-1$
+		assertEquals(0, dataProvider.indexOfRowObject("row9")); //$NON-NLS-1$
+
+		dataProvider.setRowObjectIndexEnabled(false, null);
+		assertEquals(9, dataProvider.indexOfRowObject("row0")); //$NON-NLS-1$
+	}
+
+}
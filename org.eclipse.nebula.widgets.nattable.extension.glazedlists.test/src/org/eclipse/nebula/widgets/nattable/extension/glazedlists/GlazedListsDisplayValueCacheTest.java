@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+
+import org.eclipse.nebula.widgets.nattable.data.convert.DefaultDisplayConverter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.SortedList;
+
+public class GlazedListsDisplayValueCacheTest {
+
+	private EventList<String> eventList;
+	private GlazedListsDisplayValueCache<String> cache;
+	private int conversions;
+	private DefaultDisplayConverter converter = new DefaultDisplayConverter() {
+		@Override
+		public Object canonicalToDisplayValue(Object canonicalValue) {
+			conversions++;
+			return super.canonicalToDisplayValue(canonicalValue);
+		}
+	};
+
+	@Before
+	public void setup() {
+		eventList = GlazedLists.eventList(new ArrayList<String>());
+		eventList.add(new String("c")); //$NON-NLS-1$
+		eventList.add(new String("a")); //$NON-NLS-1$
+		eventList.add(new String("b")); //$NON-NLS-1$
+		cache = new GlazedListsDisplayValueCache<String>(eventList, null);
+	}
+
+	@After
+	public void tearDown() {
+		cache.dispose();
+	}
+
+	@Test
+	public void testRemovedAndUpdatedElementsAreReleased() {
+		String c = eventList.get(0);
+		String a = eventList.get(1);
+		String b = eventList.get(2);
+		convertAll(c, a, b);
+		assertEquals(3, conversions);
+
+		eventList.remove(0);
+		eventList.set(0, a);
+		convertAll(c, a, b);
+		assertEquals(5, conversions);
+	}
+
+	@Test
+	public void testElementsAreTrackedOnReordering() {
+		SortedList<String> sortedList = new SortedList<String>(eventList);
+		cache.dispose();
+		cache = new GlazedListsDisplayValueCache<String>(sortedList, null);
+		String c = eventList.get(0);
+		String a = eventList.get(1);
+		convertAll(c, a);
+		assertEquals(2, conversions);
+
+		//sorted list order is a, b, c, so removing the last element removes c
+		sortedList.setComparator(null);
+		sortedList.setComparator(GlazedLists.comparableComparator());
+		sortedList.remove(2);
+		convertAll(c, a);
+		assertEquals(3, conversions);
+		sortedList.dispose();
+	}
+
+	private void convertAll(String... elements) {
+		for (String element : elements) {
+			cache.getDisplayValue(element, 0, element, converter);
+		}
+	}
+
+}
@@ -10,13 +10,20 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-
 import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.extension.glazedlists.GlazedListsEventLayer;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.test.fixture.data.BlinkingRowDataFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.data.RowDataFixture;
 import org.eclipse.nebula.widgets.nattable.test.fixture.data.RowDataListFixture;
@@ -80,4 +87,158 @@ public void propertyChangeEventshouldBePropagatedImmediately() throws Exception
 
 		Assert.assertNotNull(listenerFixture.getReceivedEvent(PropertyUpdateEvent.class));
 	}
+
+	@Test
+	public void shouldFireRowEventsForConflatedChanges() throws Exception {
+		//stop the scheduled notifier to run it manually
+		layerUnderTest.doCommand(new DisposeResourcesCommand());
+		layerUnderTest.setRowChangeConflation(true);
+		layerUnderTest.setChangeDensityThreshold(0.5);
+		listenerFixture.clearReceivedEvents();
+
+		listFixture.remove(3);
+		listFixture.set(5, listFixture.get(5));
+		layerUnderTest.getEventNotifier().run();
+
+		Assert.assertEquals(2, listenerFixture.getEventsCount());
+		RowDeleteEvent deleteEvent = (RowDeleteEvent) listenerFixture.getReceivedEvents().get(0);
+		Assert.assertEquals(Arrays.asList(new Range(3, 4)), deleteEvent.getRowPositionRanges());
+		RowUpdateEvent updateEvent = (RowUpdateEvent) listenerFixture.getReceivedEvents().get(1);
+		Assert.assertEquals(Arrays.asList(new Range(5, 6)), updateEvent.getRowPositionRanges());
+
+		listenerFixture.clearReceivedEvents();
+		listFixture.add(0, RowDataFixture.getInstance("T1", "A"));
+		layerUnderTest.getEventNotifier().run();
+
+		Assert.assertEquals(1, listenerFixture.getEventsCount());
+		RowInsertEvent insertEvent = (RowInsertEvent) listenerFixture.getReceivedEvents().get(0);
+		Assert.assertEquals(Arrays.asList(new Range(0, 1)), insertEvent.getRowPositionRanges());
+
+		//nothing is fired if nothing changed since the last interval
+		listenerFixture.clearReceivedEvents();
+		layerUnderTest.getEventNotifier().run();
+		Assert.assertEquals(0, listenerFixture.getEventsCount());
+	}
+
+	@Test
+	public void shouldFireRefreshIfChangeDensityIsExceeded() throws Exception {
+		//stop the scheduled notifier to run it manually
+		layerUnderTest.doCommand(new DisposeResourcesCommand());
+		layerUnderTest.setRowChangeConflation(true);
+		layerUnderTest.setChangeDensityThreshold(0.0);
+		listenerFixture.clearReceivedEvents();
+
+		listFixture.set(1, listFixture.get(1));
+		layerUnderTest.getEventNotifier().run();
+		Assert.assertEquals(1, listenerFixture.getEventsCount());
+		Assert.assertNotNull(listenerFixture.getReceivedEvent(VisualRefreshEvent.class));
+
+		listenerFixture.clearReceivedEvents();
+		listFixture.remove(1);
+		layerUnderTest.getEventNotifier().run();
+		Assert.assertEquals(1, listenerFixture.getEventsCount());
+		Assert.assertNotNull(listenerFixture.getReceivedEvent(RowStructuralRefreshEvent.class));
+	}
+
+	@Test
+	public void shouldFireDeletesBeforeInserts() throws Exception {
+		//stop the scheduled notifier to run it manually
+		layerUnderTest.doCommand(new DisposeResourcesCommand());
+		layerUnderTest.setRowChangeConflation(true);
+		layerUnderTest.setChangeDensityThreshold(0.5);
+		listenerFixture.clearReceivedEvents();
+
+		listFixture.remove(3);
+		listFixture.add(0, RowDataFixture.getInstance("T1", "A"));
+		layerUnderTest.getEventNotifier().run();
+
+		Assert.assertEquals(2, listenerFixture.getEventsCount());
+		RowDeleteEvent deleteEvent = (RowDeleteEvent) listenerFixture.getReceivedEvents().get(0);
+		Assert.assertEquals(Arrays.asList(new Range(3, 4)), deleteEvent.getRowPositionRanges());
+		RowInsertEvent insertEvent = (RowInsertEvent) listenerFixture.getReceivedEvents().get(1);
+		Assert.assertEquals(Arrays.asList(new Range(0, 1)), insertEvent.getRowPositionRanges());
+	}
+
+	@Test
+	public void shouldFireRefreshIfListChangedBeforeFiring() throws Exception {
+		DeferringEventLayer deferringLayer = new DeferringEventLayer(listFixture);
+		deferringLayer.setTestMode(true);
+		deferringLayer.doCommand(new DisposeResourcesCommand());
+		deferringLayer.setRowChangeConflation(true);
+		deferringLayer.setChangeDensityThreshold(0.5);
+		LayerListenerFixture listener = new LayerListenerFixture();
+		deferringLayer.addLayerListener(listener);
+
+		listFixture.remove(3);
+		deferringLayer.getEventNotifier().run();
+		//the list changes again before the events reach the display thread
+		listFixture.remove(0);
+		deferringLayer.fireDeferredEvents();
+
+		Assert.assertEquals(1, listener.getEventsCount());
+		Assert.assertNotNull(listener.getReceivedEvent(RowStructuralRefreshEvent.class));
+
+		//the pending delete is already covered by the refresh
+		listener.clearReceivedEvents();
+		deferringLayer.getEventNotifier().run();
+		deferringLayer.fireDeferredEvents();
+		Assert.assertEquals(0, listener.getEventsCount());
+
+		//events that still match the list are fired as they are
+		listener.clearReceivedEvents();
+		listFixture.remove(0);
+		deferringLayer.getEventNotifier().run();
+		deferringLayer.fireDeferredEvents();
+		Assert.assertEquals(1, listener.getEventsCount());
+		Assert.assertNotNull(listener.getReceivedEvent(RowDeleteEvent.class));
+	}
+
+	@Test
+	public void shouldNotFirePostedEventsCoveredByRefresh() throws Exception {
+		DeferringEventLayer deferringLayer = new DeferringEventLayer(listFixture);
+		deferringLayer.setTestMode(true);
+		deferringLayer.doCommand(new DisposeResourcesCommand());
+		deferringLayer.setRowChangeConflation(true);
+		deferringLayer.setChangeDensityThreshold(0.5);
+		LayerListenerFixture listener = new LayerListenerFixture();
+		deferringLayer.addLayerListener(listener);
+
+		//the events of two intervals are posted before the first reaches the display thread
+		listFixture.remove(3);
+		deferringLayer.getEventNotifier().run();
+		listFixture.remove(0);
+		deferringLayer.getEventNotifier().run();
+		deferringLayer.fireDeferredEvents();
+
+		//the refresh for the first interval already covers the second one
+		Assert.assertEquals(1, listener.getEventsCount());
+		Assert.assertNotNull(listener.getReceivedEvent(RowStructuralRefreshEvent.class));
+	}
+
+	/**
+	 * Holds back the row change events to simulate the asynchronous firing on the display thread.
+	 */
+	private static class DeferringEventLayer extends GlazedListsEventLayer<RowDataFixture> {
+
+		private final List<List<ILayerEvent>> deferredEvents = new ArrayList<List<ILayerEvent>>();
+		private final List<Long> deferredChangeCounts = new ArrayList<Long>();
+
+		DeferringEventLayer(EventList<RowDataFixture> eventList) {
+			super(new DataLayerFixture(), eventList);
+		}
+
+		@Override
+		protected void fireRowChangeEventsFromSWTDisplayThread(List<ILayerEvent> events, long changeCount) {
+			deferredEvents.add(events);
+			deferredChangeCounts.add(Long.valueOf(changeCount));
+		}
+
+		void fireDeferredEvents() {
+			for (int i = 0; i < deferredEvents.size(); i++) {
+				super.fireRowChangeEventsFromSWTDisplayThread(deferredEvents.get(i), deferredChangeCounts.get(i).longValue());
+			}
+			deferredEvents.clear();
+			deferredChangeCounts.clear();
+		}
+	}
 }
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
+
+import java.util.Arrays;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RowChangeConflaterTest {
+
+	private RowChangeConflater conflater;
+
+	@Before
+	public void setup() {
+		conflater = new RowChangeConflater(10);
+		conflater.reset(10);
+	}
+
+	@Test
+	public void noChanges() {
+		Assert.assertFalse(conflater.hasChanges());
+		Assert.assertEquals(0, conflater.getChangedRowCount());
+		Assert.assertTrue(conflater.getUpdatedRanges().isEmpty());
+	}
+
+	@Test
+	public void consecutiveInsertsAreMerged() {
+		conflater.insert(2);
+		conflater.insert(3);
+		conflater.insert(2);
+
+		Assert.assertTrue(conflater.hasStructuralChanges());
+		Assert.assertEquals(13, conflater.getRowCount());
+		Assert.assertEquals(Arrays.asList(new Range(2, 5)), conflater.getInsertedRanges());
+		Assert.assertTrue(conflater.getDeletedRanges().isEmpty());
+	}
+
+	@Test
+	public void deletedRangesArePositionsBeforeTheChange() {
+		conflater.delete(2);
+		conflater.delete(2);
+		conflater.delete(5);
+
+		Assert.assertEquals(7, conflater.getRowCount());
+		Assert.assertEquals(Arrays.asList(new Range(2, 4), new Range(7, 8)), conflater.getDeletedRanges());
+	}
+
+	@Test
+	public void insertAndDeleteCancelOut() {
+		conflater.insert(4);
+		conflater.update(4);
+		conflater.delete(4);
+
+		Assert.assertTrue(conflater.hasStructuralChanges());
+		Assert.assertEquals(0, conflater.getChangedRowCount());
+		Assert.assertTrue(conflater.getInsertedRanges().isEmpty());
+		Assert.assertTrue(conflater.getDeletedRanges().isEmpty());
+		Assert.assertTrue(conflater.getUpdatedRanges().isEmpty());
+	}
+
+	@Test
+	public void updatesAreMergedAndShiftedByInserts() {
+		conflater.update(3);
+		conflater.update(4);
+		conflater.update(3);
+		conflater.insert(0);
+
+		Assert.assertFalse(conflater.isOverflow());
+		Assert.assertEquals(3, conflater.getChangedRowCount());
+		Assert.assertEquals(Arrays.asList(new Range(0, 1)), conflater.getInsertedRanges());
+		Assert.assertEquals(Arrays.asList(new Range(4, 6)), conflater.getUpdatedRanges());
+	}
+
+	@Test
+	public void updatesOfInsertedRowsAreNotReportedSeparately() {
+		conflater.insert(10);
+		conflater.update(10);
+
+		Assert.assertEquals(Arrays.asList(new Range(10, 11)), conflater.getInsertedRanges());
+		Assert.assertTrue(conflater.getUpdatedRanges().isEmpty());
+	}
+
+	@Test
+	public void tooManyRunsOverflow() {
+		for (int i = 0; i < 10; i += 2) {
+			conflater.update(i);
+		}
+		Assert.assertFalse(conflater.isOverflow());
+
+		conflater.delete(9);
+		conflater.insert(5);
+		conflater.insert(1);
+
+		Assert.assertTrue(conflater.isOverflow());
+		Assert.assertTrue(conflater.hasStructuralChanges());
+		Assert.assertEquals(11, conflater.getRowCount());
+	}
+
+	@Test
+	public void resetClearsChanges() {
+		conflater.insert(0);
+		conflater.invalidate();
+		conflater.reset(conflater.getRowCount());
+
+		Assert.assertFalse(conflater.hasChanges());
+		Assert.assertFalse(conflater.isOverflow());
+		Assert.assertEquals(11, conflater.getOriginalRowCount());
+	}
+
+}
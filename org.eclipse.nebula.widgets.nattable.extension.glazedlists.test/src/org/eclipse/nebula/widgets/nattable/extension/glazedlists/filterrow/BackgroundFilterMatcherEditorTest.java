@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.nebula.widgets.nattable.filterrow.event.FilterProgressEvent;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.test.fixture.layer.DataLayerFixture;
+import org.eclipse.nebula.widgets.nattable.util.NatTableExecutors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.matchers.AbstractMatcherEditor;
+import ca.odell.glazedlists.matchers.Matcher;
+
+public class BackgroundFilterMatcherEditorTest {
+
+	private NatTableExecutors executors;
+	private EventList<Integer> sourceList;
+	private FilterList<Integer> filterList;
+	private TestMatcherEditor matcherEditor;
+	private BackgroundFilterMatcherEditor<Integer> backgroundMatcherEditor;
+	private List<FilterProgressEvent> progressEvents;
+	private CountDownLatch applied;
+
+	@Before
+	public void setup() {
+		executors = new NatTableExecutors("Test", 3, 1); //$NON-NLS-1$
+		sourceList = GlazedLists.eventList(new ArrayList<Integer>());
+		for (int i = 0; i < 1000; i++) {
+			sourceList.add(new Integer(i));
+		}
+		filterList = new FilterList<Integer>(sourceList);
+
+		progressEvents = Collections.synchronizedList(new ArrayList<FilterProgressEvent>());
+		applied = new CountDownLatch(1);
+		DataLayerFixture layer = new DataLayerFixture();
+		layer.addLayerListener(new ILayerListener() {
+			@Override
+			public void handleLayerEvent(ILayerEvent event) {
+				if (event instanceof FilterProgressEvent) {
+					progressEvents.add((FilterProgressEvent) event);
+					if (((FilterProgressEvent) event).isApplied()) {
+						applied.countDown();
+					}
+				}
+			}
+		});
+
+		matcherEditor = new TestMatcherEditor();
+		backgroundMatcherEditor = new BackgroundFilterMatcherEditor<Integer>(
+				matcherEditor, sourceList, layer, executors, 10L, 100);
+		filterList.setMatcherEditor(backgroundMatcherEditor);
+	}
+
+	@After
+	public void tearDown() {
+		backgroundMatcherEditor.dispose();
+		executors.shutdown();
+	}
+
+	@Test
+	public void testFilterIsAppliedInBackground() throws Exception {
+		matcherEditor.setMatcher(lessThan(500));
+		assertEquals(1000, filterList.size());
+
+		assertTrue(applied.await(5, TimeUnit.SECONDS));
+		assertEquals(500, filterList.size());
+		//one event per chunk and one for applying the result
+		assertEquals(11, progressEvents.size());
+		FilterProgressEvent last = progressEvents.get(progressEvents.size() - 1);
+		assertEquals(1000, last.getProcessedRowCount());
+		assertEquals(1000, last.getRowCount());
+
+		//later changes are matched immediately
+		sourceList.add(new Integer(1));
+		sourceList.add(new Integer(1000));
+		assertEquals(501, filterList.size());
+
+		matcherEditor.matchAll();
+		assertEquals(1002, filterList.size());
+	}
+
+	@Test
+	public void testOutdatedEvaluationIsCancelled() throws Exception {
+		matcherEditor.setMatcher(lessThan(500));
+		matcherEditor.setMatcher(lessThan(10));
+
+		assertTrue(applied.await(5, TimeUnit.SECONDS));
+		assertEquals(10, filterList.size());
+		Thread.sleep(100);
+		int appliedCount = 0;
+		for (FilterProgressEvent event : progressEvents) {
+			if (event.isApplied()) {
+				appliedCount++;
+			}
+		}
+		assertEquals(1, appliedCount);
+	}
+
+	@Test
+	public void testChangesDuringEvaluationAreMatched() throws Exception {
+		final CountDownLatch evaluationStarted = new CountDownLatch(1);
+		final CountDownLatch listChanged = new CountDownLatch(1);
+		matcherEditor.setMatcher(new Matcher<Integer>() {
+			@Override
+			public boolean matches(Integer item) {
+				if (item.intValue() == 999 && listChanged.getCount() > 0) {
+					evaluationStarted.countDown();
+					try {
+						listChanged.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return item.intValue() < 100;
+			}
+		});
+
+		assertTrue(evaluationStarted.await(5, TimeUnit.SECONDS));
+		Integer updated = sourceList.get(5);
+		sourceList.set(5, new Integer(5000));
+		sourceList.add(new Integer(50));
+		listChanged.countDown();
+
+		assertTrue(applied.await(5, TimeUnit.SECONDS));
+		assertEquals(100, filterList.size());
+		assertFalse(filterList.contains(updated));
+		assertFalse(filterList.contains(new Integer(5000)));
+	}
+
+	private static Matcher<Integer> lessThan(final int value) {
+		return new Matcher<Integer>() {
+			@Override
+			public boolean matches(Integer item) {
+				return item.intValue() < value;
+			}
+		};
+	}
+
+	private static class TestMatcherEditor extends AbstractMatcherEditor<Integer> {
+
+		void setMatcher(Matcher<Integer> matcher) {
+			fireChanged(matcher);
+		}
+
+		void matchAll() {
+			fireMatchAll();
+		}
+	}
+
+}
@@ -0,0 +1,361 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.edit.command.UpdateDataCommand;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.GroupByConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.GroupByDataLayer;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.GroupByModel;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.GroupByObject;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.summary.SummationGroupBySummaryProvider;
+import org.eclipse.nebula.widgets.nattable.layer.ILayerListener;
+import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.summaryrow.command.CalculateSummaryRowValuesCommand;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.FilterList;
+import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.SortedList;
+import ca.odell.glazedlists.TreeList;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+
+public class GroupByDataLayerTest {
+
+	private EventList<int[]> eventList;
+	private GroupByModel groupByModel;
+	private IColumnAccessor<int[]> columnAccessor;
+	private ConfigRegistry configRegistry;
+	private GroupByDataLayer<int[]> dataLayer;
+	private int valueReads;
+
+	@Before
+	public void setup() {
+		eventList = GlazedLists.eventList(new ArrayList<int[]>());
+		for (int i = 0; i < 30; i++) {
+			eventList.add(new int[] { i % 3, i });
+		}
+
+		columnAccessor = new IColumnAccessor<int[]>() {
+			@Override
+			public Object getDataValue(int[] rowObject, int columnIndex) {
+				if (columnIndex == 1) {
+					valueReads++;
+				}
+				return Integer.valueOf(rowObject[columnIndex]);
+			}
+
+			@Override
+			public void setDataValue(int[] rowObject, int columnIndex, Object newValue) {
+				rowObject[columnIndex] = ((Integer) newValue).intValue();
+			}
+
+			@Override
+			public int getColumnCount() {
+				return 2;
+			}
+		};
+
+		groupByModel = new GroupByModel();
+		groupByModel.addGroupByColumnIndex(0);
+
+		configRegistry = new ConfigRegistry();
+		configRegistry.registerConfigAttribute(GroupByConfigAttributes.GROUP_BY_SUMMARY_PROVIDER,
+				new SummationGroupBySummaryProvider<int[]>(columnAccessor), DisplayMode.NORMAL,
+				GroupByDataLayer.GROUP_BY_COLUMN_PREFIX + 1);
+
+		dataLayer = new GroupByDataLayer<int[]>(groupByModel, eventList, columnAccessor, configRegistry, false);
+	}
+
+	@After
+	public void tearDown() {
+		dataLayer.doCommand(new DisposeResourcesCommand());
+	}
+
+	@Test
+	public void testElementsInGroup() {
+		assertEquals(10, dataLayer.getGroupElements(group(1)).size());
+		assertEquals(0, dataLayer.getGroupElements(group(5)).size());
+
+		eventList.add(new int[] { 1, 100 });
+		List<int[]> elements = dataLayer.getGroupElements(group(1));
+		assertEquals(11, elements.size());
+		for (int[] element : elements) {
+			assertEquals(1, element[0]);
+		}
+
+		eventList.set(0, new int[] { 1, 0 });
+		assertEquals(9, dataLayer.getGroupElements(group(0)).size());
+		assertEquals(12, dataLayer.getGroupElements(group(1)).size());
+
+		eventList.removeAll(dataLayer.getGroupElements(group(2)));
+		assertEquals(0, dataLayer.getGroupElements(group(2)).size());
+		assertEquals(21, eventList.size());
+	}
+
+	@Test
+	public void testElementsInGroupAsFilterList() {
+		FilterList<int[]> elements = dataLayer.getElementsInGroup(group(1));
+		assertSame(elements, dataLayer.getElementsInGroup(group(1)));
+		assertEquals(10, elements.size());
+
+		//the FilterList reflects later changes
+		eventList.add(new int[] { 1, 100 });
+		assertEquals(11, elements.size());
+		assertEquals(100, elements.get(10)[1]);
+	}
+
+	@Test
+	public void testElementsInGroupAreInSourceOrder() {
+		eventList.add(5, new int[] { 1, 200 });
+		eventList.set(0, new int[] { 1, 300 });
+		//updated in place
+		int[] element = eventList.get(7);
+		eventList.set(7, element);
+
+		assertGroupValues(dataLayer.getGroupElements(group(1)), 300, 1, 4, 200, 7, 10, 13, 16, 19, 22, 25, 28);
+	}
+
+	@Test
+	public void testElementsInGroupAreInSourceOrderOnRepeatedInserts() {
+		//more inserts at the same index than the gap between two positions allows
+		for (int i = 0; i < 40; i++) {
+			eventList.add(1, new int[] { 0, 100 + i });
+		}
+
+		List<int[]> elements = dataLayer.getGroupElements(group(0));
+		assertEquals(50, elements.size());
+		assertEquals(0, elements.get(0)[1]);
+		for (int i = 0; i < 40; i++) {
+			assertEquals(139 - i, elements.get(i + 1)[1]);
+		}
+		assertEquals(3, elements.get(41)[1]);
+	}
+
+	@Test
+	public void testElementsInGroupAreInSourceOrderAfterReordering() {
+		SortedList<int[]> sortedList = new SortedList<int[]>(eventList, null);
+		GroupByDataLayer<int[]> sortedDataLayer = new GroupByDataLayer<int[]>(
+				groupByModel, sortedList, columnAccessor, configRegistry, false);
+		try {
+			sortedList.setComparator(new Comparator<int[]>() {
+				@Override
+				public int compare(int[] o1, int[] o2) {
+					return o2[1] - o1[1];
+				}
+			});
+			assertGroupValues(sortedDataLayer.getGroupElements(group(1)), 28, 25, 22, 19, 16, 13, 10, 7, 4, 1);
+
+			sortedList.add(new int[] { 1, 20 });
+			assertGroupValues(sortedDataLayer.getGroupElements(group(1)), 28, 25, 22, 20, 19, 16, 13, 10, 7, 4, 1);
+		} finally {
+			sortedDataLayer.doCommand(new DisposeResourcesCommand());
+		}
+	}
+
+	@Test
+	public void testSummaryIsUpdatedIncrementally() {
+		assertEquals(Double.valueOf(145), calculateSummary(1));
+
+		valueReads = 0;
+		eventList.add(new int[] { 1, 100 });
+		eventList.remove(1);
+		assertEquals(Double.valueOf(244), calculateSummary(1));
+		//only the added and the removed element were read
+		assertEquals(2, valueReads);
+	}
+
+	@Test
+	public void testSummaryIsCalculatedAgainOnElementChange() {
+		assertEquals(Double.valueOf(145), calculateSummary(1));
+
+		int[] element = eventList.get(1);
+		element[1] = 11;
+		eventList.set(1, element);
+		assertEquals(Double.valueOf(155), calculateSummary(1));
+	}
+
+	@Test
+	public void testSummaryIsCalculatedAgainOnCellEdit() {
+		assertEquals(Double.valueOf(145), calculateSummary(1));
+
+		int[] element = eventList.get(1);
+		int rowPosition = dataLayer.getTreeList().indexOf(element);
+		assertTrue(dataLayer.doCommand(new UpdateDataCommand(dataLayer, 1, rowPosition, Integer.valueOf(11))));
+		assertEquals(Double.valueOf(155), calculateSummary(1));
+
+		//the edited value is removed from the summary
+		eventList.remove(1);
+		assertEquals(Double.valueOf(144), calculateSummary(1));
+	}
+
+	@Test
+	public void testChangeGroupingDoesNotModifyBaseList() {
+		final int[] baseListEvents = new int[1];
+		eventList.addListEventListener(new ListEventListener<int[]>() {
+			@Override
+			public void listChanged(ListEvent<int[]> listChanges) {
+				baseListEvents[0]++;
+			}
+		});
+		TreeList<Object> previousTreeList = dataLayer.getTreeList();
+		Object dataProvider = dataLayer.getDataProvider();
+		
+		//no Display in the current thread, so the tree is updated immediately
+		runWithoutDisplay(new Runnable() {
+			@Override
+			public void run() {
+				groupByModel.removeGroupByColumnIndex(0);
+			}
+		});
+		
+		assertEquals(0, baseListEvents[0]);
+		assertNotSame(previousTreeList, dataLayer.getTreeList());
+		assertSame(dataProvider, dataLayer.getDataProvider());
+		assertEquals(30, dataLayer.getRowCount());
+		assertEquals(0, dataLayer.getGroupElements(group(1)).size());
+		
+		runWithoutDisplay(new Runnable() {
+			@Override
+			public void run() {
+				groupByModel.addGroupByColumnIndex(0);
+			}
+		});
+		
+		assertEquals(0, baseListEvents[0]);
+		assertEquals(33, dataLayer.getRowCount());
+		assertEquals(10, dataLayer.getGroupElements(group(1)).size());
+		assertEquals(Double.valueOf(145), calculateSummary(1));
+		
+		//the new tree is updated on changes of the base list
+		eventList.add(new int[] { 1, 100 });
+		assertEquals(34, dataLayer.getRowCount());
+		assertEquals(Double.valueOf(245), calculateSummary(1));
+	}
+
+	@Test
+	public void testChangeGroupingInUIThread() throws Exception {
+		final int[] refreshEvents = new int[1];
+		dataLayer.addLayerListener(new ILayerListener() {
+			@Override
+			public void handleLayerEvent(ILayerEvent event) {
+				if (event instanceof RowStructuralRefreshEvent) {
+					refreshEvents[0]++;
+				}
+			}
+		});
+		TreeList<Object> previousTreeList = dataLayer.getTreeList();
+		Display display = Display.getDefault();
+		
+		//the tree is built in the background for a snapshot of the grouping,
+		//and only the tree for the latest grouping is published in the UI thread
+		groupByModel.removeGroupByColumnIndex(0);
+		groupByModel.addGroupByColumnIndex(1);
+		assertSame(previousTreeList, dataLayer.getTreeList());
+		
+		long end = System.currentTimeMillis() + 5000;
+		while (refreshEvents[0] == 0 && System.currentTimeMillis() < end) {
+			if (!display.readAndDispatch()) {
+				Thread.sleep(10);
+			}
+		}
+		
+		assertEquals(1, refreshEvents[0]);
+		assertNotSame(previousTreeList, dataLayer.getTreeList());
+		//one group per element
+		assertEquals(60, dataLayer.getRowCount());
+		assertEquals(1, dataLayer.getGroupElements(group(1, 1)).size());
+		
+		//changes of the grouping after the tree was built don't affect its structure
+		groupByModel.getGroupByColumnIndexes().clear();
+		eventList.add(new int[] { 1, 100 });
+		assertEquals(62, dataLayer.getRowCount());
+		assertEquals(1, dataLayer.getGroupElements(group(1, 100)).size());
+	}
+
+	/**
+	 * Runs the given runnable in a thread without a Display, as the current thread might
+	 * be the UI thread of the default Display.
+	 */
+	private void runWithoutDisplay(Runnable runnable) {
+		final Throwable[] error = new Throwable[1];
+		final Runnable r = runnable;
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					r.run();
+				} catch (Throwable t) {
+					error[0] = t;
+				}
+			}
+		});
+		thread.start();
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (error[0] != null) {
+			throw new RuntimeException(error[0]);
+		}
+	}
+
+	private void assertGroupValues(List<int[]> elements, int... values) {
+		assertEquals(values.length, elements.size());
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(values[i], elements.get(i)[1]);
+		}
+	}
+
+	private GroupByObject group(int value) {
+		return group(0, value);
+	}
+
+	private GroupByObject group(int columnIndex, int value) {
+		List<Entry<Integer, Object>> descriptor = new ArrayList<Entry<Integer, Object>>();
+		descriptor.add(new AbstractMap.SimpleEntry<Integer, Object>(columnIndex, Integer.valueOf(value)));
+		return new GroupByObject(Integer.valueOf(value), descriptor);
+	}
+
+	private Object calculateSummary(int groupValue) {
+		dataLayer.doCommand(new CalculateSummaryRowValuesCommand());
+		GroupByObject group = group(groupValue);
+		for (int i = 0; i < dataLayer.getRowCount(); i++) {
+			if (group.equals(dataLayer.getTreeList().get(i))) {
+				return dataLayer.getDataValueByPosition(1, i);
+			}
+		}
+		assertTrue("group not found", false); //$NON-NLS-1$
+		return null;
+	}
+
+}
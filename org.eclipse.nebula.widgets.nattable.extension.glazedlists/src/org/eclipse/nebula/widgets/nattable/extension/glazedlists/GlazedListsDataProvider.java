@@ -10,8 +10,13 @@
  ******************************************************************************/
 package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.IRowIdAccessor;
 import org.eclipse.nebula.widgets.nattable.data.ListDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.RowObjectIndex;
 
 import ca.odell.glazedlists.EventList;
 import ca.odell.glazedlists.event.ListEvent;
@@ -23,6 +28,11 @@
  * we know what the last row we fetched was, and if it's a re-request of the same row as last time,
  * we simply return the last cached row object (assuming the list didn't change in some important way, as 
  * then we clear out our cache).
+ * <p>
+ * Optionally the indexes of the row objects can be looked up in a {@link RowObjectIndex} instead of
+ * scanning the list, see {@link #setRowObjectIndexEnabled(boolean, IRowIdAccessor)}. The index is
+ * discarded if elements are inserted, deleted or reordered, while updated elements only update
+ * the index for their positions.
  * 
  * @author Emil Crumhorn
  */
@@ -31,6 +41,10 @@
 	private int lastRowIndex = -1;
 	private T lastRowObject = null;
 
+	private volatile RowObjectIndex<T> rowObjectIndex;
+	
+	private final ListEventListener<T> listChangeListener;
+
     public GlazedListsDataProvider(EventList<T> list, IColumnAccessor<T> columnAccessor) {
         super(list, columnAccessor);
 
@@ -41,24 +55,90 @@ public GlazedListsDataProvider(EventList<T> list, IColumnAccessor<T> columnAcces
         // thus, if it's a delete, we update completely. if it's a modification of the current row we have
         // cached, we update as well, inserts we don't need to as they are new items and the index will never
         // be the same anyway.
-		list.addListEventListener(new ListEventListener<T>() {
+		listChangeListener = new ListEventListener<T>() {
 			public void listChanged(ListEvent<T> event) {
+				RowObjectIndex<T> index = rowObjectIndex;
+				boolean structuralChange = event.isReordering();
+				boolean lastRowChanged = false;
+				List<Integer> updatedIndexes = new ArrayList<Integer>();
 				while (event.next()) {
 					int sourceIndex = event.getIndex();
 					int changeType = event.getType();
 
 					if (changeType == ListEvent.DELETE || sourceIndex == lastRowIndex) {
-						inputChanged();
-						break;
+						lastRowChanged = true;
+					}
+					if (changeType == ListEvent.UPDATE) {
+						updatedIndexes.add(sourceIndex);
+					} else {
+						structuralChange = true;
+					}
+				}
+
+				if (lastRowChanged) {
+					lastRowIndex = -1;
+					lastRowObject = null;
+				}
+				if (index != null) {
+					if (structuralChange) {
+						index.invalidate();
+					} else {
+						//the listener is called while holding the write lock of the list
+						for (Integer updatedIndex : updatedIndexes) {
+							index.rowObjectUpdated(updatedIndex, event.getSourceList().get(updatedIndex));
+						}
 					}
 				}
 			}
-		});
+		};
+		list.addListEventListener(listChangeListener);
+    }
+
+    /**
+     * Replaces the list this data provider operates on, e.g. if the list that is shown
+     * was rebuilt.
+     * @param list The new list.
+     */
+    @SuppressWarnings("unchecked")
+    public void setList(EventList<T> list) {
+        ((EventList<T>) this.list).removeListEventListener(listChangeListener);
+        this.list = list;
+        list.addListEventListener(listChangeListener);
+        inputChanged();
     }
 
     public void inputChanged() {
         lastRowIndex = -1;
         lastRowObject = null;
+        RowObjectIndex<T> index = rowObjectIndex;
+        if (index != null) {
+            index.invalidate();
+        }
+    }
+
+    /**
+     * Enables or disables looking up the indexes of row objects in a hash index, instead of
+     * scanning the list on every call of {@link #indexOfRowObject(Object)}.
+     * @param enabled <code>true</code> to use a hash index.
+     * @param rowIdAccessor The accessor for the row ids to index the row objects by,
+     * 			or <code>null</code> to index the row objects themselves.
+     */
+    public void setRowObjectIndexEnabled(boolean enabled, IRowIdAccessor<T> rowIdAccessor) {
+        this.rowObjectIndex = enabled ? new RowObjectIndex<T>(rowIdAccessor) : null;
+    }
+
+    @Override
+    public int indexOfRowObject(T rowObject) {
+        ((EventList)list).getReadWriteLock().readLock().lock();
+        try {
+            RowObjectIndex<T> index = rowObjectIndex;
+            if (index != null) {
+                return index.indexOf(list, rowObject);
+            }
+            return super.indexOfRowObject(rowObject);
+        } finally {
+            ((EventList)list).getReadWriteLock().readLock().unlock();
+        }
     }
 
     @Override
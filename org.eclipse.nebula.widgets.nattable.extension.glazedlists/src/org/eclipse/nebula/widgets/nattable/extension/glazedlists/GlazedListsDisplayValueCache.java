@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.data.IRowDataProvider;
+import org.eclipse.nebula.widgets.nattable.data.convert.DisplayValueCache;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+
+/**
+ * {@link DisplayValueCache} that releases the cached display values of the elements
+ * that are removed from or updated in an EventList.
+ * <p>
+ * The EventList should be the base list that contains all elements, e.g. the source
+ * of the FilterList, so the display values of elements that are filtered are kept.
+ */
+public class GlazedListsDisplayValueCache<T> extends DisplayValueCache implements ListEventListener<T> {
+
+	private final EventList<T> eventList;
+
+	/**
+	 * The elements of the EventList by index, to know the elements that are removed.
+	 */
+	private final List<T> elements;
+
+	/**
+	 * @param eventList The EventList whose elements are cached.
+	 * @param rowDataProvider The IRowDataProvider to retrieve the row objects by row index,
+	 * 			e.g. for searching the cells of a layer. Can be <code>null</code> if the cache
+	 * 			is only accessed by row object.
+	 */
+	public GlazedListsDisplayValueCache(EventList<T> eventList, IRowDataProvider<T> rowDataProvider) {
+		super(rowDataProvider);
+		this.eventList = eventList;
+
+		this.eventList.getReadWriteLock().readLock().lock();
+		try {
+			this.elements = new ArrayList<T>(eventList);
+			this.eventList.addListEventListener(this);
+		} finally {
+			this.eventList.getReadWriteLock().readLock().unlock();
+		}
+	}
+
+	/**
+	 * Stops listening to the EventList and releases all cached display values.
+	 */
+	public void dispose() {
+		this.eventList.removeListEventListener(this);
+		clearCache();
+	}
+
+	@Override
+	public synchronized void listChanged(ListEvent<T> listChanges) {
+		if (listChanges.isReordering()) {
+			int[] reorderMap = listChanges.getReorderMap();
+			List<T> previous = new ArrayList<T>(this.elements);
+			for (int i = 0; i < reorderMap.length; i++) {
+				this.elements.set(i, previous.get(reorderMap[i]));
+			}
+			return;
+		}
+
+		EventList<T> source = listChanges.getSourceList();
+		while (listChanges.next()) {
+			int index = listChanges.getIndex();
+			switch (listChanges.getType()) {
+				case ListEvent.INSERT:
+					this.elements.add(index, source.get(index));
+					break;
+				case ListEvent.DELETE:
+					rowObjectChanged(this.elements.remove(index));
+					break;
+				case ListEvent.UPDATE:
+					rowObjectChanged(this.elements.set(index, source.get(index)));
+					break;
+			}
+		}
+	}
+
+}
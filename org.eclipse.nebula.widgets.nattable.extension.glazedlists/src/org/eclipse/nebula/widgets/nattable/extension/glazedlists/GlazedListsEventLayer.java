@@ -12,15 +12,21 @@
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.util.concurrent.ScheduledFuture;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
+import org.eclipse.nebula.widgets.nattable.conflation.AdaptiveEventCoalescer;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.layer.AbstractLayerTransform;
 import org.eclipse.nebula.widgets.nattable.layer.IUniqueIndexLayer;
 import org.eclipse.nebula.widgets.nattable.layer.event.ILayerEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.PropertyUpdateEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowDeleteEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowInsertEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.RowStructuralRefreshEvent;
+import org.eclipse.nebula.widgets.nattable.layer.event.RowUpdateEvent;
 import org.eclipse.nebula.widgets.nattable.layer.event.VisualRefreshEvent;
 import org.eclipse.nebula.widgets.nattable.util.Scheduler;
 import org.eclipse.swt.widgets.Display;
@@ -35,10 +41,25 @@
  *    <li>GlazedLists events - {@link ListEvent}
  *    <li>Bean updates - PropertyChangeEvent(s)
  * </ol>
- * GlazedLists events are conflated at a 100ms interval i.e a single {@link RowStructuralRefreshEvent}
- * is fired for any number of GlazedLists events received during that interval.
+ * GlazedLists events are conflated i.e a single {@link RowStructuralRefreshEvent}
+ * is fired for any number of GlazedLists events received during an interval. The
+ * interval is adapted by an {@link AdaptiveEventCoalescer}: the first change after an
+ * idle period is propagated immediately, and the interval is stretched if the UI thread
+ * is busy with processing the fired events. Nothing is run while the list doesn't change.
  * <p>
  * PropertyChangeEvent(s) are propagated immediately as a {@link PropertyUpdateEvent}.
+ * <p>
+ * If row change conflation is enabled via {@link #setRowChangeConflation(boolean)}, the
+ * inserts, deletes and updates received during an interval are merged into row ranges
+ * and fired as {@link RowDeleteEvent} or {@link RowInsertEvent}, followed by a
+ * {@link RowUpdateEvent} for the updated rows, so only the changed rows need to be
+ * handled by the layers above. If rows were deleted and inserted during the same interval,
+ * the delete event is fired before the insert event. If the changed rows exceed the change
+ * density threshold, a full refresh event is fired instead. As the events are fired
+ * asynchronously on the SWT Display thread, a {@link RowStructuralRefreshEvent} is fired
+ * instead of the row events if the list was changed again in the meantime, since the row
+ * ranges would not match the list anymore. The events of later intervals that are covered
+ * by such a refresh are not fired anymore.
  *
  * @param <T> Type of the bean in the backing list.
  */
@@ -46,7 +67,7 @@
 
 	private static final Scheduler scheduler = new Scheduler("GlazedListsEventLayer"); //$NON-NLS-1$
 	private final IUniqueIndexLayer underlyingLayer;
-	private final ScheduledFuture<?> future;
+	private final AdaptiveEventCoalescer coalescer;
 	private EventList<T> eventList;
 	private boolean testMode = false;
     private boolean structuralChangeEventsToProcess = false;
@@ -55,6 +76,36 @@
 
 	private boolean active = true;
 	
+	/**
+	 * The default fraction of changed rows above which a full refresh is fired
+	 * instead of detailed row events.
+	 */
+	public static final double DEFAULT_CHANGE_DENSITY_THRESHOLD = 0.1;
+	
+	/**
+	 * The maximum number of separate runs of changed rows that are tracked during
+	 * an interval, before a full refresh is fired.
+	 */
+	private static final int MAX_TRACKED_CHANGE_RUNS = 1000;
+	
+	/**
+	 * Tracks the row changes if row change conflation is enabled, <code>null</code> otherwise.
+	 * Guarded by itself, as list events and the event notifier run on different threads.
+	 */
+	private RowChangeConflater rowChangeConflater;
+	private double changeDensityThreshold = DEFAULT_CHANGE_DENSITY_THRESHOLD;
+	private final Object conflaterLock = new Object();
+	/**
+	 * The number of list changes received so far, used to detect whether row events
+	 * that are fired asynchronously still match the list. Guarded by the conflaterLock.
+	 */
+	private long listChangeCount;
+	/**
+	 * The number of list changes that were covered by the last {@link RowStructuralRefreshEvent}
+	 * that was fired instead of outdated row events. Guarded by the conflaterLock.
+	 */
+	private long refreshedChangeCount;
+	
 	public GlazedListsEventLayer(IUniqueIndexLayer underlyingLayer, EventList<T> eventList) {
 	    super(underlyingLayer);
 	    this.underlyingLayer = underlyingLayer;
@@ -62,8 +113,9 @@ public GlazedListsEventLayer(IUniqueIndexLayer underlyingLayer, EventList<T> eve
 
 		this.eventList.addListEventListener(this);
 
-		// Start the event conflation thread
-		future = scheduler.scheduleAtFixedRate(getEventNotifier(), 0L, 100L);
+		// Start the event conflation, which runs the notifier on list changes
+		coalescer = new AdaptiveEventCoalescer(scheduler, getEventNotifier());
+		coalescer.start(0L);
 	}
 	
 	/**
@@ -73,26 +125,115 @@ protected Runnable getEventNotifier() {
         return new Runnable() {
             @Override
 			public void run() {
-                if (eventsToProcess && active) {
+                List<ILayerEvent> rowChangeEvents = null;
+                long changeCount = 0;
+                synchronized (conflaterLock) {
+                    if (rowChangeConflater != null) {
+                        if (active) {
+                            rowChangeEvents = createRowChangeEvents(rowChangeConflater);
+                            changeCount = listChangeCount;
+                        } else {
+                            rowChangeEvents = new ArrayList<ILayerEvent>();
+                        }
+                        rowChangeConflater.reset(rowChangeConflater.getRowCount());
+                    }
+                }
+                if (rowChangeEvents != null) {
+                    //fire outside of the conflater lock, which must not be held while acquiring the list lock
+                    if (!rowChangeEvents.isEmpty()) {
+                        fireRowChangeEventsFromSWTDisplayThread(rowChangeEvents, changeCount);
+                    }
+                    return;
+                }
+                //reset before firing, so changes during firing trigger the next run
+                boolean events = eventsToProcess;
+                boolean structuralChangeEvents = structuralChangeEventsToProcess;
+                eventsToProcess = false;
+                structuralChangeEventsToProcess = false;
+                if (events && active) {
                     ILayerEvent layerEvent;
-                    if (structuralChangeEventsToProcess) {
+                    if (structuralChangeEvents) {
                         layerEvent = new RowStructuralRefreshEvent(getUnderlyingLayer());
                     } else {
                         layerEvent = new VisualRefreshEvent(getUnderlyingLayer());
                     }
                     fireEventFromSWTDisplayThread(layerEvent);
                 }
-                eventsToProcess = false;
-                structuralChangeEventsToProcess = false;
             }
         };
     }
-    
+
+    /**
+     * Creates the events for the row changes that were tracked during the last interval.
+     * @param conflater The conflater that tracked the row changes.
+     * @return The row delete and insert events followed by the update event for the changed
+     * 			rows, a single refresh event if the change density threshold is exceeded,
+     * 			or an empty list if nothing changed.
+     */
+    private List<ILayerEvent> createRowChangeEvents(RowChangeConflater conflater) {
+    	List<ILayerEvent> layerEvents = new ArrayList<ILayerEvent>();
+    	if (!conflater.hasChanges()) {
+    		return layerEvents;
+    	}
+
+    	int rowCount = Math.max(1, Math.max(conflater.getOriginalRowCount(), conflater.getRowCount()));
+    	if (conflater.isOverflow() || conflater.getChangedRowCount() > changeDensityThreshold * rowCount) {
+    		if (conflater.hasStructuralChanges()) {
+    			layerEvents.add(new RowStructuralRefreshEvent(getUnderlyingLayer()));
+    		} else {
+    			layerEvents.add(new VisualRefreshEvent(getUnderlyingLayer()));
+    		}
+    		return layerEvents;
+    	}
+
+    	//the deleted ranges are positions before the change and the inserted ranges are
+    	//positions after the change, so applying the deletes first and the inserts
+    	//afterwards results in the new state of the list
+    	List<Range> deletedRanges = conflater.getDeletedRanges();
+    	List<Range> insertedRanges = conflater.getInsertedRanges();
+    	if (!deletedRanges.isEmpty()) {
+    		layerEvents.add(new RowDeleteEvent(getUnderlyingLayer(), deletedRanges));
+    	}
+    	if (!insertedRanges.isEmpty()) {
+    		layerEvents.add(new RowInsertEvent(getUnderlyingLayer(), insertedRanges));
+    	}
+    	List<Range> updatedRanges = conflater.getUpdatedRanges();
+    	if (!updatedRanges.isEmpty()) {
+    		layerEvents.add(new RowUpdateEvent(getUnderlyingLayer(), updatedRanges));
+    	}
+    	return layerEvents;
+    }
+
 	/**
 	 * Glazed list event handling.
 	 */
 	@Override
 	public void listChanged(ListEvent<T> event) {
+		synchronized (conflaterLock) {
+			listChangeCount++;
+			if (rowChangeConflater != null) {
+				if (event.isReordering()) {
+					rowChangeConflater.invalidate();
+				} else {
+					while (event.next()) {
+						switch (event.getType()) {
+							case ListEvent.INSERT:
+								rowChangeConflater.insert(event.getIndex());
+								break;
+							case ListEvent.DELETE:
+								rowChangeConflater.delete(event.getIndex());
+								break;
+							default:
+								rowChangeConflater.update(event.getIndex());
+								break;
+						}
+					}
+				}
+				coalescer.trigger();
+				return;
+			}
+		}
+
         while (event.next()) {
             int eventType = event.getType();
             if (eventType == ListEvent.DELETE || eventType == ListEvent.INSERT) {
@@ -100,6 +241,7 @@ public void listChanged(ListEvent<T> event) {
             }
         }
 		eventsToProcess = true;
+		coalescer.trigger();
 	}
 
 	/**
@@ -125,10 +267,13 @@ public void propertyChange(PropertyChangeEvent event) {
 	 */
 	protected void fireEventFromSWTDisplayThread(final ILayerEvent event) {
 		if (!testMode && Display.getCurrent() == null) {
+			coalescer.uiTaskScheduled();
 			Display.getDefault().asyncExec(new Runnable() {
 				@Override
 				public void run() {
+					long start = System.nanoTime();
 					fireLayerEvent(event);
+					coalescer.uiTaskCompleted(System.nanoTime() - start);
 				}
 			});
 		} else {
@@ -136,11 +281,69 @@ public void run() {
 		}
 	}
 
+	/**
+	 * Fires the events that were created for the row changes of an interval on the SWT
+	 * Display thread. If the list was changed again until the events are fired, a
+	 * {@link RowStructuralRefreshEvent} is fired instead. If the changes were already
+	 * covered by such a refresh, nothing is fired.
+	 * @param events The events for the row changes.
+	 * @param changeCount The number of list changes that were received when the events
+	 * 			were created.
+	 */
+	protected void fireRowChangeEventsFromSWTDisplayThread(final List<ILayerEvent> events, final long changeCount) {
+		if (!testMode && Display.getCurrent() == null) {
+			coalescer.uiTaskScheduled();
+			Display.getDefault().asyncExec(new Runnable() {
+				@Override
+				public void run() {
+					long start = System.nanoTime();
+					fireRowChangeEvents(events, changeCount);
+					coalescer.uiTaskCompleted(System.nanoTime() - start);
+				}
+			});
+		} else {
+			fireRowChangeEvents(events, changeCount);
+		}
+	}
+
+	private void fireRowChangeEvents(List<ILayerEvent> events, long changeCount) {
+		boolean refresh;
+		eventList.getReadWriteLock().readLock().lock();
+		try {
+			synchronized (conflaterLock) {
+				if (changeCount <= refreshedChangeCount) {
+					//the changes were already covered by a full refresh
+					return;
+				}
+				refresh = listChangeCount != changeCount;
+				if (refresh) {
+					//the refresh covers all changes received so far, including the ones of
+					//intervals whose events are already posted and the ones tracked for the
+					//next interval, which would otherwise be applied twice
+					refreshedChangeCount = listChangeCount;
+					if (rowChangeConflater != null) {
+						rowChangeConflater.reset(eventList.size());
+					}
+				}
+			}
+		} finally {
+			eventList.getReadWriteLock().readLock().unlock();
+		}
+
+		if (refresh) {
+			fireLayerEvent(new RowStructuralRefreshEvent(getUnderlyingLayer()));
+		} else {
+			for (ILayerEvent event : events) {
+				fireLayerEvent(event);
+			}
+		}
+	}
+
 	@Override
 	public boolean doCommand(ILayerCommand command) {
 		if(!terminated && command instanceof DisposeResourcesCommand){
 			terminated = true;
-			scheduler.unschedule(future);
+			coalescer.stop();
 		}
 		return super.doCommand(command);
 	}
@@ -155,9 +358,88 @@ public boolean isDisposed() {
 	public void setEventList(EventList<T> newEventList){
 		eventList.removeListEventListener(this);
 		eventList = newEventList;
-		eventList.addListEventListener(this);
+		//the list lock is acquired before the conflater lock, like on list changes
+		eventList.getReadWriteLock().readLock().lock();
+		try {
+			synchronized (conflaterLock) {
+				listChangeCount++;
+				if (rowChangeConflater != null) {
+					rowChangeConflater.reset(eventList.size());
+					rowChangeConflater.invalidate();
+				}
+			}
+			eventList.addListEventListener(this);
+		} finally {
+			eventList.getReadWriteLock().readLock().unlock();
+		}
 	}
-
+	
+	/**
+	 * Enables or disables the conflation of row changes. If enabled, the GlazedLists events
+	 * received during an interval are merged into the ranges of inserted, deleted and updated 
+	 * rows, which are fired as {@link RowDeleteEvent}, {@link RowInsertEvent} and
+	 * {@link RowUpdateEvent} instead of a full {@link RowStructuralRefreshEvent} or 
+	 * {@link VisualRefreshEvent}. If disabled, which is the default, every interval with
+	 * changes results in a full refresh.
+	 * @param enabled <code>true</code> to enable the conflation of row changes.
+	 */
+	public void setRowChangeConflation(boolean enabled) {
+		//the list lock is acquired before the conflater lock, like on list changes
+		eventList.getReadWriteLock().readLock().lock();
+		try {
+			synchronized (conflaterLock) {
+				if (enabled && rowChangeConflater == null) {
+					rowChangeConflater = new RowChangeConflater(MAX_TRACKED_CHANGE_RUNS);
+					rowChangeConflater.reset(eventList.size());
+					if (eventsToProcess) {
+						//there are pending changes that were not tracked
+						if (structuralChangeEventsToProcess) {
+							rowChangeConflater.invalidate();
+						} else {
+							rowChangeConflater.update(0);
+						}
+					}
+				} else if (!enabled && rowChangeConflater != null) {
+					if (rowChangeConflater.hasChanges()) {
+						eventsToProcess = true;
+						structuralChangeEventsToProcess = rowChangeConflater.hasStructuralChanges();
+						coalescer.trigger();
+					}
+					rowChangeConflater = null;
+				}
+			}
+		} finally {
+			eventList.getReadWriteLock().readLock().unlock();
+		}
+	}
+	
+	/**
+	 * @return Whether row changes are conflated into row ranges.
+	 * @see #setRowChangeConflation(boolean)
+	 */
+	public boolean isRowChangeConflation() {
+		synchronized (conflaterLock) {
+			return rowChangeConflater != null;
+		}
+	}
+	
+	/**
+	 * Sets the fraction of changed rows above which a full refresh is fired instead of 
+	 * row events if row change conflation is enabled.
+	 * @param changeDensityThreshold The fraction of changed rows, e.g. 0.1 to fire a full 
+	 * 			refresh if more than 10% of the rows were changed during an interval.
+	 */
+	public void setChangeDensityThreshold(double changeDensityThreshold) {
+		this.changeDensityThreshold = changeDensityThreshold;
+	}
+	
+	/**
+	 * @return The fraction of changed rows above which a full refresh is fired.
+	 */
+	public double getChangeDensityThreshold() {
+		return this.changeDensityThreshold;
+	}
+	
 	public void setTestMode(boolean testMode) {
 		this.testMode = testMode;
 	}
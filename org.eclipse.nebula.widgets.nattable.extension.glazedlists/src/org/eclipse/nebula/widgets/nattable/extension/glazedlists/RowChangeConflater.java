@@ -0,0 +1,350 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+
+/**
+ * Merges a sequence of single row inserts, deletes and updates into the minimal sets of
+ * row ranges that describe the overall change. The rows are tracked as runs of rows that
+ * existed before the first change and runs of inserted rows, so inserting and deleting
+ * the same row cancels out and updates of inserted rows are not reported separately.
+ * <p>
+ * The reported ranges follow the conventions of the NatTable structural events:
+ * <ul>
+ *    <li>deleted ranges are positions before any change was applied</li>
+ *    <li>inserted ranges are positions after all changes were applied</li>
+ *    <li>updated ranges are positions after all changes were applied</li>
+ * </ul>
+ * If the number of tracked runs exceeds the configured maximum, the changes are not
+ * tracked in detail anymore and only the kind of the changes is reported.
+ * <p>
+ * This class is not thread safe.
+ */
+class RowChangeConflater {
+
+	/**
+	 * A run of rows that either existed before the first change, starting at the given
+	 * original position, or that were inserted.
+	 */
+	private static class Run {
+		final boolean inserted;
+		final int originalStart;
+		final boolean updated;
+		int length;
+
+		Run(boolean inserted, int originalStart, int length, boolean updated) {
+			this.inserted = inserted;
+			this.originalStart = originalStart;
+			this.length = length;
+			this.updated = updated;
+		}
+	}
+
+	private final int maxRuns;
+
+	private final List<Run> runs = new ArrayList<Run>();
+
+	/**
+	 * The original positions of the deleted rows, in the order they were deleted.
+	 */
+	private int[] deletedPositions = new int[16];
+	private int deletedCount;
+
+	private int originalRowCount;
+	private int rowCount;
+
+	private boolean structuralChange;
+	private boolean visualChange;
+	private boolean overflow;
+
+	/**
+	 * @param maxRuns The maximum number of runs that are tracked before the changes are
+	 * 			only reported as full refresh.
+	 */
+	RowChangeConflater(int maxRuns) {
+		this.maxRuns = maxRuns;
+	}
+
+	/**
+	 * Clears all tracked changes.
+	 * @param rowCount The current number of rows.
+	 */
+	void reset(int rowCount) {
+		runs.clear();
+		if (rowCount > 0) {
+			runs.add(new Run(false, 0, rowCount, false));
+		}
+		deletedCount = 0;
+		originalRowCount = rowCount;
+		this.rowCount = rowCount;
+		structuralChange = false;
+		visualChange = false;
+		overflow = false;
+	}
+
+	/**
+	 * Marks all rows as changed, e.g. because the rows were reordered.
+	 */
+	void invalidate() {
+		structuralChange = true;
+		overflow = true;
+		runs.clear();
+		deletedCount = 0;
+	}
+
+	void insert(int position) {
+		structuralChange = true;
+		rowCount++;
+		if (overflow) {
+			return;
+		}
+
+		int runIndex = 0;
+		int runStart = 0;
+		for (; runIndex < runs.size(); runIndex++) {
+			Run run = runs.get(runIndex);
+			if (position < runStart + run.length || (position == runStart + run.length && run.inserted)) {
+				break;
+			}
+			runStart += run.length;
+		}
+
+		if (runIndex == runs.size()) {
+			//append at the end
+			runs.add(new Run(true, -1, 1, false));
+		} else {
+			Run run = runs.get(runIndex);
+			if (run.inserted) {
+				run.length++;
+			} else if (position == runStart && runIndex > 0 && runs.get(runIndex - 1).inserted) {
+				runs.get(runIndex - 1).length++;
+			} else {
+				int offset = position - runStart;
+				if (offset == 0) {
+					runs.add(runIndex, new Run(true, -1, 1, false));
+				} else {
+					runs.set(runIndex, new Run(false, run.originalStart, offset, run.updated));
+					runs.add(runIndex + 1, new Run(true, -1, 1, false));
+					runs.add(runIndex + 2, new Run(false, run.originalStart + offset, run.length - offset, run.updated));
+				}
+			}
+		}
+		checkOverflow();
+	}
+
+	void delete(int position) {
+		structuralChange = true;
+		rowCount--;
+		if (overflow) {
+			return;
+		}
+
+		int runStart = 0;
+		for (int runIndex = 0; runIndex < runs.size(); runIndex++) {
+			Run run = runs.get(runIndex);
+			if (position < runStart + run.length) {
+				int offset = position - runStart;
+				if (!run.inserted) {
+					addDeletedPosition(run.originalStart + offset);
+				}
+				if (run.inserted || offset == 0 || offset == run.length - 1) {
+					if (run.length == 1) {
+						runs.remove(runIndex);
+						mergeRuns(runIndex - 1);
+					} else if (run.inserted || offset == run.length - 1) {
+						run.length--;
+					} else {
+						runs.set(runIndex, new Run(false, run.originalStart + 1, run.length - 1, run.updated));
+					}
+				} else {
+					runs.set(runIndex, new Run(false, run.originalStart, offset, run.updated));
+					runs.add(runIndex + 1, new Run(false, run.originalStart + offset + 1, run.length - offset - 1, run.updated));
+				}
+				break;
+			}
+			runStart += run.length;
+		}
+		checkOverflow();
+	}
+
+	void update(int position) {
+		visualChange = true;
+		if (overflow) {
+			return;
+		}
+
+		int runStart = 0;
+		for (int runIndex = 0; runIndex < runs.size(); runIndex++) {
+			Run run = runs.get(runIndex);
+			if (position < runStart + run.length) {
+				if (!run.inserted && !run.updated) {
+					//split the updated row off the run
+					int offset = position - runStart;
+					List<Run> split = new ArrayList<Run>(3);
+					if (offset > 0) {
+						split.add(new Run(false, run.originalStart, offset, false));
+					}
+					split.add(new Run(false, run.originalStart + offset, 1, true));
+					if (offset < run.length - 1) {
+						split.add(new Run(false, run.originalStart + offset + 1, run.length - offset - 1, false));
+					}
+					runs.remove(runIndex);
+					runs.addAll(runIndex, split);
+					int updatedIndex = runIndex + (offset > 0 ? 1 : 0);
+					mergeRuns(updatedIndex);
+					mergeRuns(updatedIndex - 1);
+				}
+				break;
+			}
+			runStart += run.length;
+		}
+		checkOverflow();
+	}
+
+	/**
+	 * Merges the run at the given index with its successor if both are runs of updated
+	 * or not updated original rows that are consecutive.
+	 */
+	private void mergeRuns(int runIndex) {
+		if (runIndex < 0 || runIndex + 1 >= runs.size()) {
+			return;
+		}
+		Run run = runs.get(runIndex);
+		Run next = runs.get(runIndex + 1);
+		if (run.inserted && next.inserted) {
+			run.length += next.length;
+			runs.remove(runIndex + 1);
+		} else if (!run.inserted && !next.inserted && run.updated == next.updated
+				&& run.originalStart + run.length == next.originalStart) {
+			runs.set(runIndex, new Run(false, run.originalStart, run.length + next.length, run.updated));
+			runs.remove(runIndex + 1);
+		}
+	}
+
+	private void addDeletedPosition(int originalPosition) {
+		if (deletedCount == deletedPositions.length) {
+			deletedPositions = Arrays.copyOf(deletedPositions, deletedCount * 2);
+		}
+		deletedPositions[deletedCount++] = originalPosition;
+	}
+
+	private void checkOverflow() {
+		if (runs.size() > maxRuns || deletedCount > maxRuns) {
+			boolean structural = structuralChange;
+			invalidate();
+			structuralChange = structural;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if any change was tracked since the last reset.
+	 */
+	boolean hasChanges() {
+		return structuralChange || visualChange;
+	}
+
+	/**
+	 * @return <code>true</code> if rows were inserted or deleted since the last reset.
+	 */
+	boolean hasStructuralChanges() {
+		return structuralChange;
+	}
+
+	/**
+	 * @return <code>true</code> if the changes were too many to be tracked in detail.
+	 */
+	boolean isOverflow() {
+		return overflow;
+	}
+
+	/**
+	 * @return The number of rows before the first change.
+	 */
+	int getOriginalRowCount() {
+		return originalRowCount;
+	}
+
+	/**
+	 * @return The number of rows after all changes.
+	 */
+	int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return The number of rows that were deleted, inserted or updated.
+	 */
+	int getChangedRowCount() {
+		int changed = deletedCount;
+		for (Run run : runs) {
+			if (run.inserted || run.updated) {
+				changed += run.length;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * @return The ranges of the deleted rows in positions before the first change.
+	 */
+	List<Range> getDeletedRanges() {
+		int[] positions = Arrays.copyOf(deletedPositions, deletedCount);
+		Arrays.sort(positions);
+		List<Range> ranges = new ArrayList<Range>();
+		for (int i = 0; i < positions.length; i++) {
+			int start = positions[i];
+			while (i + 1 < positions.length && positions[i + 1] == positions[i] + 1) {
+				i++;
+			}
+			ranges.add(new Range(start, positions[i] + 1));
+		}
+		return ranges;
+	}
+
+	/**
+	 * @return The ranges of the inserted rows in positions after all changes.
+	 */
+	List<Range> getInsertedRanges() {
+		return getRanges(true);
+	}
+
+	/**
+	 * @return The ranges of the updated rows in positions after all changes, not
+	 * 			including inserted rows.
+	 */
+	List<Range> getUpdatedRanges() {
+		return getRanges(false);
+	}
+
+	private List<Range> getRanges(boolean inserted) {
+		List<Range> ranges = new ArrayList<Range>();
+		int position = 0;
+		for (Run run : runs) {
+			if (inserted ? run.inserted : (!run.inserted && run.updated)) {
+				//adjacent runs of the same kind are merged into one range
+				Range last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+				if (last != null && last.end == position) {
+					last.end = position + run.length;
+				} else {
+					ranges.add(new Range(position, position + run.length));
+				}
+			}
+			position += run.length;
+		}
+		return ranges;
+	}
+
+}
@@ -0,0 +1,321 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.filterrow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
+import org.eclipse.nebula.widgets.nattable.filterrow.event.FilterProgressEvent;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.util.NatTableExecutors;
+import org.eclipse.nebula.widgets.nattable.util.ParallelTaskRunner;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+import ca.odell.glazedlists.matchers.AbstractMatcherEditor;
+import ca.odell.glazedlists.matchers.Matcher;
+import ca.odell.glazedlists.matchers.MatcherEditor;
+
+/**
+ * MatcherEditor that evaluates the changes of another MatcherEditor in the background,
+ * so a FilterList that uses it doesn't match all its elements in the UI thread.
+ * <p>
+ * Changes of the wrapped MatcherEditor are delayed, so several changes in a short period,
+ * e.g. typing into the filter row, only result in one evaluation. The source list of the
+ * FilterList is matched in chunks by the compute executor of the {@link NatTableExecutors}.
+ * An evaluation that is outdated by a further change is cancelled. The result is applied
+ * to the FilterList at once, while the matching of every element is only a lookup of the
+ * result then. Elements that were inserted or updated during the evaluation are matched
+ * again on applying the result.
+ * <p>
+ * The progress of an evaluation is fired as {@link FilterProgressEvent} on the given layer.
+ */
+public class BackgroundFilterMatcherEditor<T> extends AbstractMatcherEditor<T> {
+
+	private static final Log log = LogFactory.getLog(BackgroundFilterMatcherEditor.class);
+
+	/**
+	 * The default delay in milliseconds after a change until the evaluation starts.
+	 */
+	public static final long DEFAULT_DELAY = 100L;
+
+	/**
+	 * The default number of elements that are matched by one task.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 50000;
+
+	private final MatcherEditor<T> matcherEditor;
+	private final EventList<T> sourceList;
+	private final ILayer layer;
+	private final NatTableExecutors executors;
+	private final ParallelTaskRunner runner;
+	private final long delay;
+
+	private final MatcherEditor.Listener<T> matcherEditorListener = new MatcherEditor.Listener<T>() {
+		@Override
+		public void changedMatcher(MatcherEditor.Event<T> matcherEvent) {
+			matcherChanged(matcherEvent);
+		}
+	};
+
+	/**
+	 * Incremented on every change of the wrapped MatcherEditor, so outdated evaluations
+	 * can be cancelled.
+	 */
+	private final AtomicInteger generation = new AtomicInteger();
+	private ScheduledFuture<?> scheduledEvaluation;
+
+	/**
+	 * @param matcherEditor The MatcherEditor whose changes should be evaluated in the background.
+	 * @param sourceList The source list of the FilterList this MatcherEditor is set to.
+	 * @param layer The layer to fire the {@link FilterProgressEvent}s on, can be <code>null</code>.
+	 * @param executors The executors to use for the evaluation.
+	 */
+	public BackgroundFilterMatcherEditor(MatcherEditor<T> matcherEditor, EventList<T> sourceList,
+			ILayer layer, NatTableExecutors executors) {
+		this(matcherEditor, sourceList, layer, executors, DEFAULT_DELAY, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param matcherEditor The MatcherEditor whose changes should be evaluated in the background.
+	 * @param sourceList The source list of the FilterList this MatcherEditor is set to.
+	 * @param layer The layer to fire the {@link FilterProgressEvent}s on, can be <code>null</code>.
+	 * @param executors The executors to use for the evaluation.
+	 * @param delay The delay in milliseconds after a change until the evaluation starts.
+	 * @param chunkSize The number of elements that are matched by one task.
+	 */
+	public BackgroundFilterMatcherEditor(MatcherEditor<T> matcherEditor, EventList<T> sourceList,
+			ILayer layer, NatTableExecutors executors, long delay, int chunkSize) {
+		this.matcherEditor = matcherEditor;
+		this.sourceList = sourceList;
+		this.layer = layer;
+		this.executors = executors;
+		this.runner = new ParallelTaskRunner(executors.getComputeExecutor(), chunkSize);
+		this.delay = delay;
+
+		fireChanged(matcherEditor.getMatcher());
+		matcherEditor.addMatcherEditorListener(this.matcherEditorListener);
+	}
+
+	/**
+	 * Stops listening to the wrapped MatcherEditor and cancels a pending evaluation.
+	 */
+	public void dispose() {
+		this.matcherEditor.removeMatcherEditorListener(this.matcherEditorListener);
+		this.generation.incrementAndGet();
+		synchronized (this) {
+			if (this.scheduledEvaluation != null) {
+				this.scheduledEvaluation.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * @return The MatcherEditor whose changes are evaluated in the background.
+	 */
+	public MatcherEditor<T> getMatcherEditor() {
+		return this.matcherEditor;
+	}
+
+	private void matcherChanged(MatcherEditor.Event<T> matcherEvent) {
+		final int evaluation = this.generation.incrementAndGet();
+		synchronized (this) {
+			if (this.scheduledEvaluation != null) {
+				this.scheduledEvaluation.cancel(false);
+				this.scheduledEvaluation = null;
+			}
+		}
+
+		//matching all or nothing doesn't need to evaluate the elements
+		if (matcherEvent.getType() == MatcherEditor.Event.MATCH_ALL) {
+			fireMatchAll();
+			return;
+		} else if (matcherEvent.getType() == MatcherEditor.Event.MATCH_NONE) {
+			fireMatchNone();
+			return;
+		}
+
+		final Matcher<T> matcher = matcherEvent.getMatcher();
+		synchronized (this) {
+			this.scheduledEvaluation = this.executors.getScheduledExecutor().schedule(new Runnable() {
+				@Override
+				public void run() {
+					executors.getComputeExecutor().execute(new Runnable() {
+						@Override
+						public void run() {
+							evaluate(evaluation, matcher);
+						}
+					});
+				}
+			}, this.delay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private boolean isCancelled(int evaluation) {
+		return evaluation != this.generation.get();
+	}
+
+	/**
+	 * Matches the elements of the source list in chunks and applies the result
+	 * if the evaluation wasn't cancelled meanwhile.
+	 */
+	private void evaluate(final int evaluation, final Matcher<T> matcher) {
+		if (isCancelled(evaluation)) {
+			return;
+		}
+
+		final Object[] elements;
+		final ChangeTracker<T> changeTracker = new ChangeTracker<T>();
+		this.sourceList.getReadWriteLock().readLock().lock();
+		try {
+			elements = this.sourceList.toArray();
+			this.sourceList.addListEventListener(changeTracker);
+		} finally {
+			this.sourceList.getReadWriteLock().readLock().unlock();
+		}
+
+		try {
+			final boolean[] matches = new boolean[elements.length];
+			final AtomicInteger processed = new AtomicInteger();
+			List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+			for (final Range chunk : this.runner.split(elements.length)) {
+				tasks.add(new Callable<Object>() {
+					@SuppressWarnings("unchecked")
+					@Override
+					public Object call() {
+						if (isCancelled(evaluation)) {
+							return null;
+						}
+						for (int i = chunk.start; i < chunk.end; i++) {
+							matches[i] = matcher.matches((T) elements[i]);
+						}
+						fireProgress(processed.addAndGet(chunk.end - chunk.start), elements.length, false);
+						return null;
+					}
+				});
+			}
+			this.runner.invokeAll(tasks);
+
+			if (!isCancelled(evaluation)) {
+				Set<Object> matching = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+				for (int i = 0; i < elements.length; i++) {
+					if (matches[i]) {
+						matching.add(elements[i]);
+					}
+				}
+				if (apply(evaluation, new EvaluatedMatcher<T>(matcher, matching, changeTracker))) {
+					fireProgress(elements.length, elements.length, true);
+				}
+			}
+		} catch (RuntimeException e) {
+			log.error("Error on evaluating a filter", e); //$NON-NLS-1$
+		} finally {
+			this.sourceList.getReadWriteLock().writeLock().lock();
+			try {
+				this.sourceList.removeListEventListener(changeTracker);
+			} finally {
+				this.sourceList.getReadWriteLock().writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Applies the evaluated matcher at once. Afterwards the lookup of the evaluation
+	 * result is released, so later changes of the source list are matched by the
+	 * evaluated matcher itself.
+	 * @return <code>true</code> if the result was applied, <code>false</code> if the
+	 * 			evaluation was cancelled meanwhile.
+	 */
+	private boolean apply(int evaluation, EvaluatedMatcher<T> evaluatedMatcher) {
+		this.sourceList.getReadWriteLock().writeLock().lock();
+		try {
+			if (isCancelled(evaluation)) {
+				return false;
+			}
+			fireChanged(evaluatedMatcher);
+			evaluatedMatcher.release();
+			return true;
+		} finally {
+			this.sourceList.getReadWriteLock().writeLock().unlock();
+		}
+	}
+
+	private void fireProgress(int processedRowCount, int rowCount, boolean applied) {
+		if (this.layer != null) {
+			this.layer.fireLayerEvent(new FilterProgressEvent(processedRowCount, rowCount, applied));
+		}
+	}
+
+	/**
+	 * Collects the elements that are inserted or updated in the source list while an
+	 * evaluation is running, as their evaluation result might be outdated.
+	 */
+	private static class ChangeTracker<T> implements ListEventListener<T> {
+
+		final Set<Object> changed = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+		@Override
+		public void listChanged(ListEvent<T> listChanges) {
+			EventList<T> source = listChanges.getSourceList();
+			while (listChanges.next()) {
+				if (listChanges.getType() != ListEvent.DELETE) {
+					this.changed.add(source.get(listChanges.getIndex()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Matcher that looks up the evaluation result until it is released, and delegates
+	 * to the evaluated matcher afterwards.
+	 */
+	private static class EvaluatedMatcher<T> implements Matcher<T> {
+
+		private final Matcher<T> matcher;
+		private Set<Object> matching;
+		private ChangeTracker<T> changeTracker;
+
+		EvaluatedMatcher(Matcher<T> matcher, Set<Object> matching, ChangeTracker<T> changeTracker) {
+			this.matcher = matcher;
+			this.matching = matching;
+			this.changeTracker = changeTracker;
+		}
+
+		/**
+		 * Releases the evaluation result. Needs to be called while holding the write lock
+		 * of the source list, like the matching of the elements on applying the result.
+		 */
+		void release() {
+			this.matching = null;
+			this.changeTracker = null;
+		}
+
+		@Override
+		public boolean matches(T item) {
+			if (this.matching != null && !this.changeTracker.changed.contains(item)) {
+				return this.matching.contains(item);
+			}
+			return this.matcher.matches(item);
+		}
+	}
+
+}
@@ -24,13 +24,19 @@
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
 import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
+import org.eclipse.nebula.widgets.nattable.data.convert.DisplayValueCache;
+import org.eclipse.nebula.widgets.nattable.data.convert.DisplayValueCache.ColumnDisplayValues;
 import org.eclipse.nebula.widgets.nattable.data.convert.IDisplayConverter;
 import org.eclipse.nebula.widgets.nattable.filterrow.IFilterStrategy;
 import org.eclipse.nebula.widgets.nattable.filterrow.ParseResult;
 import org.eclipse.nebula.widgets.nattable.filterrow.ParseResult.MatchType;
 import org.eclipse.nebula.widgets.nattable.filterrow.TextMatchingMode;
+import org.eclipse.nebula.widgets.nattable.filterrow.event.FilterProgressEvent;
+import org.eclipse.nebula.widgets.nattable.layer.ILayer;
+import org.eclipse.nebula.widgets.nattable.util.NatTableExecutors;
 
 import ca.odell.glazedlists.BasicEventList;
 import ca.odell.glazedlists.EventList;
@@ -54,6 +60,11 @@
 	
 	protected FilterList<T> filterList;
 	protected ReadWriteLock filterLock;
+	/**
+	 * The MatcherEditor that evaluates the filter in the background, <code>null</code>
+	 * if the filter is evaluated immediately.
+	 */
+	private BackgroundFilterMatcherEditor<T> backgroundMatcherEditor;
 	
 	/**
 	 * Create a new DefaultGlazedListsFilterStrategy on top of the given FilterList.
@@ -165,6 +176,37 @@ public void applyFilter(Map<Integer, Object> filterIndexToObjectMap) {
 		}
 	}
 
+	/**
+	 * Configures whether the filter is evaluated in the background. If enabled, applying
+	 * a filter only updates the CompositeMatcherEditor, while the FilterList is updated
+	 * after the elements were matched by a {@link BackgroundFilterMatcherEditor}.
+	 * This keeps the UI responsive on filtering huge lists.
+	 * @param sourceList The source list of the FilterList, <code>null</code> to evaluate
+	 * 			the filter immediately again, which is the default.
+	 * @param layer The layer to fire the {@link FilterProgressEvent}s on, can be <code>null</code>.
+	 */
+	public void setBackgroundFiltering(EventList<T> sourceList, ILayer layer) {
+		if (this.backgroundMatcherEditor != null) {
+			this.backgroundMatcherEditor.dispose();
+			this.backgroundMatcherEditor = null;
+		}
+		
+		if (sourceList != null) {
+			this.backgroundMatcherEditor = new BackgroundFilterMatcherEditor<T>(
+					this.matcherEditor, sourceList, layer, NatTableExecutors.getExecutors(this.configRegistry));
+			this.filterList.setMatcherEditor(this.backgroundMatcherEditor);
+		} else {
+			this.filterList.setMatcherEditor(this.matcherEditor);
+		}
+	}
+	
+	/**
+	 * @return <code>true</code> if the filter is evaluated in the background.
+	 */
+	public boolean isBackgroundFiltering() {
+		return this.backgroundMatcherEditor != null;
+	}
+
 	/**
 	 * Converts the object inserted to the filter cell at the given column position to the corresponding String.
 	 * @param columnIndex The column index of the filter cell that should be processed.
@@ -218,14 +260,21 @@ protected TextMatcherEditor<T> getTextMatcherEditor(Integer columnIndex, TextMat
 	}
 
 	/**
-	 * @return {@link TextFilterator} which exposes the contents of the column as a {@link String}
+	 * @return {@link TextFilterator} which exposes the contents of the column as a {@link String}.
+	 * 			If a {@link DisplayValueCache} is registered, the converted values are cached.
 	 */
 	protected TextFilterator<T> getTextFilterator(final Integer columnIndex, final IDisplayConverter converter) {
+		DisplayValueCache displayValueCache = configRegistry.getConfigAttribute(
+				CellConfigAttributes.DISPLAY_VALUE_CACHE, NORMAL);
+		final ColumnDisplayValues displayValues = (displayValueCache != null) 
+				? displayValueCache.getColumnDisplayValues(columnIndex, converter) : null;
 		return new TextFilterator<T>() {
 			@Override
 			public void getFilterStrings(List<String> objectAsListOfStrings, T rowObject) {
 				Object cellData = columnAccessor.getDataValue(rowObject, columnIndex);
-				Object displayValue = converter.canonicalToDisplayValue(cellData);
+				Object displayValue = (displayValues != null) 
+						? displayValues.getDisplayValue(rowObject, cellData) 
+						: converter.canonicalToDisplayValue(cellData);
 				displayValue = (displayValue != null) ? displayValue : ""; //$NON-NLS-1$
 				objectAsListOfStrings.add(displayValue.toString());
 			}
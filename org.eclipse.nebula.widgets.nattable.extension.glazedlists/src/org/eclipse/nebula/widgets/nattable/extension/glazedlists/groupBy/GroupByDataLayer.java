@@ -11,19 +11,28 @@
 package org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import org.eclipse.nebula.widgets.nattable.command.DisposeResourcesCommand;
 import org.eclipse.nebula.widgets.nattable.command.ILayerCommand;
 import org.eclipse.nebula.widgets.nattable.config.IConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.coordinate.Range;
 import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
 import org.eclipse.nebula.widgets.nattable.extension.glazedlists.GlazedListsDataProvider;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.summary.ICombinableGroupBySummaryProvider;
 import org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.summary.IGroupBySummaryProvider;
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.summary.IIncrementalGroupBySummaryProvider;
 import org.eclipse.nebula.widgets.nattable.extension.glazedlists.tree.GlazedListTreeData;
 import org.eclipse.nebula.widgets.nattable.extension.glazedlists.tree.GlazedListTreeRowModel;
 import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
@@ -37,17 +46,19 @@
 import org.eclipse.nebula.widgets.nattable.util.CalculatedValueCache;
 import org.eclipse.nebula.widgets.nattable.util.ICalculatedValueCacheKey;
 import org.eclipse.nebula.widgets.nattable.util.ICalculator;
-import org.eclipse.swt.custom.BusyIndicator;
+import org.eclipse.nebula.widgets.nattable.util.NatTableExecutors;
+import org.eclipse.nebula.widgets.nattable.util.ParallelTaskRunner;
 import org.eclipse.swt.widgets.Display;
 
 import ca.odell.glazedlists.EventList;
 import ca.odell.glazedlists.FilterList;
-import ca.odell.glazedlists.GlazedLists;
 import ca.odell.glazedlists.TreeList;
 import ca.odell.glazedlists.matchers.Matcher;
 
 public class GroupByDataLayer<T> extends DataLayer implements Observer {
 
+	private static final Log log = LogFactory.getLog(GroupByDataLayer.class);
+
 	/**
 	 * Label that indicates the shown tree item object as GroupByObject
 	 */
@@ -78,8 +89,9 @@
 	private final GlazedListTreeRowModel<Object> treeRowModel;
 	/**
 	 * The TreeList that is created internally by this GroupByDataLayer to enable groupBy.
+	 * It is replaced by a new TreeList if the grouping changes.
 	 */
-	private final TreeList<Object> treeList;
+	private volatile TreeList<Object> treeList;
 
 	private final GroupByColumnAccessor<T> groupByColumnAccessor;
 	
@@ -93,9 +105,30 @@
 	 * background processes if necessary.
 	 */
 	private CalculatedValueCache valueCache;
+	/**
+	 * The executors that are used for the summary calculations.
+	 */
+	private final NatTableExecutors executors;
+	/**
+	 * The runner that is used to calculate all summary values in parallel on a
+	 * {@link CalculateSummaryRowValuesCommand}, <code>null</code> to calculate them
+	 * one after the other.
+	 */
+	private ParallelTaskRunner parallelRunner;
 	
 	/** Map the group to a dynamic list of group elements */
 	private final Map<GroupByObject, FilterList<T>> filtersByGroup = new ConcurrentHashMap<GroupByObject, FilterList<T>>();
+	/** The elements and incremental summaries per group */
+	private volatile GroupByIndex<T> groupByIndex;
+	/**
+	 * Incremented on every tree update, so a tree that was built for an outdated
+	 * grouping is not published.
+	 */
+	private final AtomicInteger treeGeneration = new AtomicInteger();
+	/**
+	 * The data provider that operates on the TreeList.
+	 */
+	private final GlazedListsDataProvider<Object> groupByDataProvider;
 
 	public GroupByDataLayer(GroupByModel groupByModel, EventList<T> eventList, IColumnAccessor<T> columnAccessor) {
 		this(groupByModel, eventList, columnAccessor, null, true);
@@ -127,16 +160,20 @@ public GroupByDataLayer(GroupByModel groupByModel, EventList<T> eventList, IColu
 		this.groupByColumnAccessor = new GroupByColumnAccessor(columnAccessor);
 
 		this.treeFormat = new GroupByTreeFormat<T>(groupByModel, (IColumnAccessor<T>) groupByColumnAccessor);
-		this.treeList = new TreeList(eventList, treeFormat, new GroupByExpansionModel());
+		GroupByTreeFormat<T> snapshot = this.treeFormat.snapshot();
+		this.treeList = new TreeList(eventList, snapshot, new GroupByExpansionModel());
+		this.groupByIndex = new GroupByIndex<T>(eventList, snapshot);
 
 		this.treeData = new GlazedListTreeData<Object>(getTreeList());
 		this.treeRowModel = new GlazedListTreeRowModel<Object>(treeData);
 
 		this.configRegistry = configRegistry;
 		
-		this.valueCache = new CalculatedValueCache(this, true, false, smoothUpdates);
+		this.executors = NatTableExecutors.getExecutors(configRegistry);
+		this.valueCache = new CalculatedValueCache(this, true, false, smoothUpdates, this.executors);
 		
-		setDataProvider(new GlazedListsDataProvider<Object>(getTreeList(), groupByColumnAccessor));
+		this.groupByDataProvider = new GlazedListsDataProvider<Object>(getTreeList(), groupByColumnAccessor);
+		setDataProvider(this.groupByDataProvider);
 
 		if (useDefaultConfiguration) {
 			addConfiguration(new GroupByDataLayerConfiguration());
@@ -148,44 +185,102 @@ public void setSortModel(ISortModel model) {
 	}
 
 	/**
-	 * Method to update the tree list after filter or TreeList.Format changed.
-	 * Need this workaround to update the tree list for presentation because of
-	 * <a href="http://java.net/jira/browse/GLAZEDLISTS-521">http://java.net/jira/browse/GLAZEDLISTS-521</a>
+	 * Method to update the tree list after the TreeList.Format changed, e.g. because
+	 * the grouping was modified.
 	 * <p>
-	 * For more information you can also have a look at this discussion:
-	 * <a href="http://glazedlists.1045722.n5.nabble.com/sorting-a-treelist-td4704550.html">
-	 * http://glazedlists.1045722.n5.nabble.com/sorting-a-treelist-td4704550.html</a>
+	 * A TreeList doesn't support changing its format, see
+	 * <a href="http://java.net/jira/browse/GLAZEDLISTS-521">http://java.net/jira/browse/GLAZEDLISTS-521</a>.
+	 * Instead of removing and adding all elements of the base EventList, which would
+	 * notify every other listener of the base EventList, a new TreeList is built for the
+	 * current elements, using a snapshot of the grouping, so it is not affected by later
+	 * changes of the GroupByModel. If called from the UI thread, it is built in the background using
+	 * the compute executor of the {@link NatTableExecutors}, and replaces the current
+	 * TreeList in the UI thread afterwards. The TreeList returned by {@link #getTreeList()}
+	 * therefore changes on calling this method, while the tree row model and the data
+	 * provider of this layer operate on the new TreeList.
 	 * </p>
 	 */
 	protected void updateTree() {
-		//Perform the update showing the busy indicator, as creating the groupby structure
-		//costs time. This is related to dynamically building a tree structure with additional objects
-		BusyIndicator.showWhile(Display.getDefault(), new Runnable() {
-			
+		final int generation = this.treeGeneration.incrementAndGet();
+		final GroupByTreeFormat<T> format = this.treeFormat.snapshot();
+		final Display display = Display.getCurrent();
+		if (display == null) {
+			publishTree(generation, buildTree(format));
+			return;
+		}
+
+		this.executors.getComputeExecutor().execute(new Runnable() {
 			@Override
 			public void run() {
-				eventList.getReadWriteLock().writeLock().lock();
+				if (generation != treeGeneration.get()) {
+					//the grouping changed again meanwhile
+					return;
+				}
 				try {
-					/*
-					 * The workaround for the update issue suggested on the mailing list iterates
-					 * over the whole list. This causes a lot of list change events, which also cost
-					 * processing time. Instead we are performing a clear()-addAll() which is slightly
-					 * faster.
-					 */
-					EventList<T> temp = GlazedLists.eventList(eventList);
-					eventList.clear();
-					eventList.addAll(temp);
-				} finally {
-					eventList.getReadWriteLock().writeLock().unlock();
+					final GroupByTree tree = buildTree(format);
+					if (display.isDisposed()) {
+						tree.dispose();
+						return;
+					}
+					display.asyncExec(new Runnable() {
+						@Override
+						public void run() {
+							publishTree(generation, tree);
+						}
+					});
+				} catch (RuntimeException e) {
+					log.error("Failed to update the tree structure", e); //$NON-NLS-1$
 				}
 			}
 		});
 	}
 
+	/**
+	 * Creates the TreeList and the group index for the given snapshot of the grouping.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private GroupByTree buildTree(GroupByTreeFormat<T> format) {
+		this.eventList.getReadWriteLock().readLock().lock();
+		try {
+			return new GroupByTree(
+					new TreeList(this.eventList, format, new GroupByExpansionModel()),
+					new GroupByIndex<T>(this.eventList, format));
+		} finally {
+			this.eventList.getReadWriteLock().readLock().unlock();
+		}
+	}
+
+	/**
+	 * Replaces the current TreeList and group index with the given ones, if they were
+	 * built for the latest tree update. Needs to be called from the UI thread if there is one.
+	 */
+	private void publishTree(int generation, GroupByTree tree) {
+		if (generation != this.treeGeneration.get()) {
+			tree.dispose();
+			return;
+		}
+
+		GroupByTree previous;
+		this.eventList.getReadWriteLock().writeLock().lock();
+		try {
+			previous = new GroupByTree(this.treeList, this.groupByIndex);
+			this.treeList = tree.treeList;
+			this.groupByIndex = tree.groupByIndex;
+			this.treeData.setTreeList(tree.treeList);
+			this.groupByDataProvider.setList(tree.treeList);
+			previous.dispose();
+		} finally {
+			this.eventList.getReadWriteLock().writeLock().unlock();
+		}
+
+		//the summary values are cached by position
+		clearCache();
+		fireLayerEvent(new RowStructuralRefreshEvent(this));
+	}
+
 	@Override
 	public void update(Observable o, Object arg) {
 		updateTree();
-		fireLayerEvent(new RowStructuralRefreshEvent(this));
 	}
 
 	/**
@@ -220,21 +315,16 @@ public LabelStack getConfigLabelsByPosition(int columnPosition, int rowPosition)
 	public Object getDataValueByPosition(final int columnPosition, final int rowPosition) {
 		LabelStack labelStack = getConfigLabelsByPosition(columnPosition, rowPosition);
 		if (labelStack.hasLabel(GROUP_BY_OBJECT)) {
-			GroupByObject groupByObject = (GroupByObject) this.treeData.getDataAtIndex(rowPosition);
-			
-			//ensure to only load the children if they are needed
-			List<T> children = null;
+			final GroupByObject groupByObject = (GroupByObject) this.treeData.getDataAtIndex(rowPosition);
 			
 			final IGroupBySummaryProvider<T> summaryProvider = getGroupBySummaryProvider(labelStack);
 			if (summaryProvider != null) {
-				children = getElementsInGroup(groupByObject);
-				final List<T> c = children; 
 				return this.valueCache.getCalculatedValue(columnPosition, rowPosition, 
 						new GroupByValueCacheKey(columnPosition, rowPosition, groupByObject), true, 
 						new ICalculator() {
 							@Override
 							public Object executeCalculation() {
-								return summaryProvider.summarize(columnPosition, c);
+								return summarize(groupByObject, columnPosition, summaryProvider);
 							}
 						});
 			}
@@ -246,9 +336,7 @@ public Object executeCalculation() {
 						labelStack.getLabels());
 				
 				if (childCountPattern != null && childCountPattern.length() > 0) {
-					if (children == null) {
-						children = getElementsInGroup(groupByObject);
-					}
+					List<T> children = getGroupElements(groupByObject);
 					
 					int directChildCount = this.treeRowModel.getDirectChildren(rowPosition).size();
 					
@@ -273,6 +361,27 @@ public IGroupBySummaryProvider<T> getGroupBySummaryProvider(LabelStack labelStac
 		return null;
 	}
 
+	/**
+	 * Sets the value and discards the summaries of the groups of the updated element,
+	 * as there is no change event of the base EventList that would update them.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void setDataValue(int columnIndex, int rowIndex, Object newValue) {
+		Object rowObject = this.treeData.getDataAtIndex(rowIndex);
+		GroupByIndex<T> index = this.groupByIndex;
+		//the groups are determined before the update, which might change the grouped value
+		List<GroupByObject> groups = (rowObject instanceof GroupByObject) 
+				? null : index.getGroups((T) rowObject);
+
+		super.setDataValue(columnIndex, rowIndex, newValue);
+
+		if (groups != null) {
+			index.invalidateSummaries(groups);
+			this.valueCache.clearCache();
+		}
+	}
+
 	@Override
 	public void handleLayerEvent(ILayerEvent event) {
 		if (event instanceof IVisualChangeEvent) {
@@ -292,6 +401,7 @@ public void handleLayerEvent(ILayerEvent event) {
 	 */
 	public void clearCache() {
 		this.valueCache.clearCache();
+		this.groupByIndex.invalidateSummaries();
 	}
 	
 	/**
@@ -310,7 +420,12 @@ public void killCache() {
 	
 	@Override
 	public boolean doCommand(ILayerCommand command) {
-		if (command instanceof CalculateSummaryRowValuesCommand) {
+		if (command instanceof CalculateSummaryRowValuesCommand && this.parallelRunner != null) {
+			calculateSummaryValuesInParallel();
+			//we do not return true here, as there might be other layers involved in 
+			//the composition that also need to calculate the summary values immediately
+		}
+		else if (command instanceof CalculateSummaryRowValuesCommand) {
 			//iterate over the whole tree structure and pre-calculate the summary values
 			for (int i = 0; i < getRowCount(); i++) {
 				if (this.treeData.getDataAtIndex(i) instanceof GroupByObject) {
@@ -318,15 +433,14 @@ public boolean doCommand(ILayerCommand command) {
 						LabelStack labelStack = getConfigLabelsByPosition(j, i);
 						final IGroupBySummaryProvider<T> summaryProvider = getGroupBySummaryProvider(labelStack);
 						if (summaryProvider != null) {
-							GroupByObject groupByObject = (GroupByObject) this.treeData.getDataAtIndex(i);
-							final List<T> children = getElementsInGroup(groupByObject);
+							final GroupByObject groupByObject = (GroupByObject) this.treeData.getDataAtIndex(i);
 							final int col = j;
 							this.valueCache.getCalculatedValue(j, i, 
 								new GroupByValueCacheKey(j, i, groupByObject), false, 
 								new ICalculator() {
 									@Override
 									public Object executeCalculation() {
-										return summaryProvider.summarize(col, children);
+										return summarize(groupByObject, col, summaryProvider);
 									}
 								});
 						}
@@ -337,12 +451,175 @@ public Object executeCalculation() {
 			//the composition that also need to calculate the summary values immediately
 		}
 		else if (command instanceof DisposeResourcesCommand) {
+			//discard tree updates that are still in progress
+			this.treeGeneration.incrementAndGet();
 			this.valueCache.dispose();
+			this.groupByIndex.dispose();
+			for (FilterList<T> elementsInGroup : this.filtersByGroup.values()) {
+				elementsInGroup.dispose();
+			}
+			this.filtersByGroup.clear();
 		}
 		
 		return super.doCommand(command);
 	}
 	
+	/**
+	 * Calculates the summary values of all groups in the current thread, using the
+	 * {@link ParallelTaskRunner} to split the work. The groups are summarized in
+	 * parallel, and the children of large groups are split into chunks for columns with
+	 * an {@link ICombinableGroupBySummaryProvider}.
+	 */
+	private void calculateSummaryValuesInParallel() {
+		List<GroupSummaries> groups = new ArrayList<GroupSummaries>();
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		
+		for (int i = 0; i < getRowCount(); i++) {
+			Object rowObject = this.treeData.getDataAtIndex(i);
+			if (rowObject instanceof GroupByObject) {
+				GroupSummaries group = new GroupSummaries(i, (GroupByObject) rowObject);
+				for (int j = 0; j < getColumnCount(); j++) {
+					IGroupBySummaryProvider<T> summaryProvider = getGroupBySummaryProvider(getConfigLabelsByPosition(j, i));
+					if (summaryProvider != null) {
+						group.addColumn(j, summaryProvider);
+					}
+				}
+				if (!group.columns.isEmpty()) {
+					groups.add(group);
+					group.createTasks(tasks);
+				}
+			}
+		}
+		
+		this.parallelRunner.invokeAll(tasks);
+		
+		for (GroupSummaries group : groups) {
+			for (int c = 0; c < group.columns.size(); c++) {
+				final Object summary = group.getSummary(c);
+				int columnPosition = group.columns.get(c);
+				this.valueCache.getCalculatedValue(columnPosition, group.rowPosition, 
+						new GroupByValueCacheKey(columnPosition, group.rowPosition, group.groupByObject), false, 
+						new ICalculator() {
+							@Override
+							public Object executeCalculation() {
+								return summary;
+							}
+						});
+			}
+		}
+	}
+	
+	/**
+	 * Configures whether the summary values are calculated in parallel on a 
+	 * {@link CalculateSummaryRowValuesCommand}, e.g. before exporting or printing.
+	 * @param parallel <code>true</code> to calculate the summary values in parallel,
+	 * 			<code>false</code> to calculate them one after the other, which is the default.
+	 */
+	public void setParallelCalculation(boolean parallel) {
+		this.parallelRunner = parallel 
+				? new ParallelTaskRunner(this.executors.getComputeExecutor()) : null;
+	}
+	
+	/**
+	 * @return <code>true</code> if the summary values are calculated in parallel on a
+	 * 			{@link CalculateSummaryRowValuesCommand}.
+	 */
+	public boolean isParallelCalculation() {
+		return this.parallelRunner != null;
+	}
+	
+	/**
+	 * A TreeList together with the group index that was built for the same grouping.
+	 */
+	private class GroupByTree {
+		
+		final TreeList<Object> treeList;
+		final GroupByIndex<T> groupByIndex;
+		
+		GroupByTree(TreeList<Object> treeList, GroupByIndex<T> groupByIndex) {
+			this.treeList = treeList;
+			this.groupByIndex = groupByIndex;
+		}
+		
+		void dispose() {
+			this.treeList.dispose();
+			this.groupByIndex.dispose();
+		}
+	}
+	
+	/**
+	 * The summaries of a group that are calculated in parallel. 
+	 */
+	private class GroupSummaries {
+		
+		final int rowPosition;
+		final GroupByObject groupByObject;
+		final List<Integer> columns = new ArrayList<Integer>();
+		final List<IGroupBySummaryProvider<T>> providers = new ArrayList<IGroupBySummaryProvider<T>>();
+		/** The summaries per chunk and column */
+		Object[][] summaries;
+		
+		GroupSummaries(int rowPosition, GroupByObject groupByObject) {
+			this.rowPosition = rowPosition;
+			this.groupByObject = groupByObject;
+		}
+		
+		void addColumn(int columnPosition, IGroupBySummaryProvider<T> provider) {
+			this.columns.add(columnPosition);
+			this.providers.add(provider);
+		}
+		
+		/**
+		 * Adds the tasks that calculate the summaries of this group to the given list.
+		 */
+		void createTasks(List<Callable<Object>> tasks) {
+			//the elements don't change, so they can be accessed concurrently and in parts
+			final List<T> children = getGroupElements(this.groupByObject);
+			
+			List<Range> chunks = parallelRunner.split(children.size());
+			this.summaries = new Object[chunks.size()][this.columns.size()];
+			for (int i = 0; i < chunks.size(); i++) {
+				final int chunk = i;
+				final List<T> part = children.subList(chunks.get(i).start, chunks.get(i).end);
+				tasks.add(new Callable<Object>() {
+					@Override
+					public Object call() {
+						//all combinable columns in one pass, the others on all children
+						for (int c = 0; c < columns.size(); c++) {
+							IGroupBySummaryProvider<T> provider = providers.get(c);
+							if (isCombinable(provider)) {
+								summaries[chunk][c] = provider.summarize(columns.get(c), part);
+							} else if (chunk == 0) {
+								summaries[chunk][c] = summarize(groupByObject, columns.get(c), provider);
+							}
+						}
+						return null;
+					}
+				});
+			}
+		}
+		
+		/**
+		 * Incremental summaries are kept by the GroupByIndex, so they are not split.
+		 */
+		boolean isCombinable(IGroupBySummaryProvider<T> provider) {
+			return provider instanceof ICombinableGroupBySummaryProvider
+					&& !(provider instanceof IIncrementalGroupBySummaryProvider);
+		}
+		
+		Object getSummary(int column) {
+			IGroupBySummaryProvider<T> provider = this.providers.get(column);
+			Object summary = this.summaries[0][column];
+			if (isCombinable(provider)) {
+				for (int chunk = 1; chunk < this.summaries.length; chunk++) {
+					summary = ((ICombinableGroupBySummaryProvider<T>) provider).combine(
+							this.columns.get(column), summary, this.summaries[chunk][column]);
+				}
+			}
+			return summary;
+		}
+	}
+	
 	/**
 	 * Simple {@link ExpansionModel} that shows every node expanded initially
 	 * and doesn't react on expand/collapse state changes.
@@ -376,6 +653,10 @@ public void setExpanded(final Object element, final List<Object> path, final boo
 	/**
 	 * Get the list of elements for a group, create it if it doesn't exists.<br/>
 	 * We could also use treeData.getChildren(groupDescriptor, true) but it's less efficient.
+	 * <p>
+	 * Every returned FilterList is an additional listener on the base EventList until this
+	 * layer is disposed. Use {@link #getGroupElements(GroupByObject)} if the elements are
+	 * not needed as an EventList.
 	 * @param groupDescriptor The description of the group (columnIndexes..)
 	 * @return The FilterList of elements
 	 */
@@ -387,6 +668,35 @@ public FilterList<T> getElementsInGroup(GroupByObject groupDescriptor) {
 		}
 		return elementsInGroup;
 	}
+
+	/**
+	 * Get the list of elements for a group.
+	 * <p>
+	 * The elements are retrieved from an index that is maintained by a single listener on
+	 * the base EventList, so the number of groups doesn't affect the processing of list changes.
+	 * @param groupDescriptor The description of the group (columnIndexes..)
+	 * @return The elements of the group in the order of the base EventList. The returned
+	 * 			list doesn't reflect later changes and can be accessed from any thread.
+	 */
+	public List<T> getGroupElements(GroupByObject groupDescriptor) {
+		return this.groupByIndex.getElements(groupDescriptor);
+	}
+	
+	/**
+	 * Summarizes the elements of a group. The summaries of {@link IIncrementalGroupBySummaryProvider}s
+	 * are kept per group and updated with the changes of the base EventList. 
+	 * @param groupByObject The group to summarize.
+	 * @param columnIndex The column to summarize.
+	 * @param summaryProvider The summary provider for the column.
+	 * @return The summary of the group.
+	 */
+	protected Object summarize(GroupByObject groupByObject, int columnIndex, IGroupBySummaryProvider<T> summaryProvider) {
+		if (summaryProvider instanceof IIncrementalGroupBySummaryProvider) {
+			return this.groupByIndex.getSummary(groupByObject, columnIndex, 
+					(IIncrementalGroupBySummaryProvider<T>) summaryProvider);
+		}
+		return summaryProvider.summarize(columnIndex, getGroupElements(groupByObject));
+	}
 	
 	/**
 	 * To find out if an element is part of a group
@@ -0,0 +1,421 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.summary.IIncrementalGroupBySummaryProvider;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+
+/**
+ * Index of the elements per group of a GroupByDataLayer, that is maintained by a single
+ * listener on the source list.
+ * <p>
+ * For every element of the source list the groups it belongs to are stored by index, so
+ * a change of the source list only updates the groups of the changed elements, regardless
+ * of the number of groups. The summaries of {@link IIncrementalGroupBySummaryProvider}s are
+ * kept per group and updated with the added and removed elements.
+ * <p>
+ * The elements of a group are returned in the order of the source list. Therefore every
+ * element has a position that is ascending in the order of the source list, and that is
+ * kept on changes of other elements as long as there is a gap for inserted elements.
+ */
+class GroupByIndex<T> implements ListEventListener<T> {
+
+	private final EventList<T> eventList;
+	private final GroupByTreeFormat<T> treeFormat;
+
+	/**
+	 * The groups of the elements by index in the source list.
+	 */
+	private final List<Member<T>> members = new ArrayList<Member<T>>();
+	private final Map<GroupByObject, Group<T>> groups = new HashMap<GroupByObject, Group<T>>();
+
+	/**
+	 * The gap between the positions of neighbouring elements on building the index.
+	 */
+	private static final long POSITION_GAP = 1L << 16;
+
+	GroupByIndex(EventList<T> eventList, GroupByTreeFormat<T> treeFormat) {
+		this.eventList = eventList;
+		this.treeFormat = treeFormat;
+
+		this.eventList.getReadWriteLock().readLock().lock();
+		try {
+			rebuild();
+			this.eventList.addListEventListener(this);
+		} finally {
+			this.eventList.getReadWriteLock().readLock().unlock();
+		}
+	}
+
+	/**
+	 * Builds the index again, e.g. because the grouping has changed.
+	 * Needs to be called while holding the read lock of the source list.
+	 */
+	synchronized void rebuild() {
+		this.members.clear();
+		this.groups.clear();
+		long position = 0;
+		for (T element : this.eventList) {
+			position += POSITION_GAP;
+			this.members.add(createMember(element, position));
+		}
+	}
+
+	/**
+	 * Stops listening to the source list.
+	 */
+	void dispose() {
+		this.eventList.removeListEventListener(this);
+	}
+
+	@Override
+	public synchronized void listChanged(ListEvent<T> listChanges) {
+		if (listChanges.isReordering()) {
+			//the groups don't change, only the order of their elements
+			int[] reorderMap = listChanges.getReorderMap();
+			List<Member<T>> previous = new ArrayList<Member<T>>(this.members);
+			for (int i = 0; i < reorderMap.length; i++) {
+				this.members.set(i, previous.get(reorderMap[i]));
+			}
+			renumber();
+			for (Group<T> group : this.groups.values()) {
+				group.reorder();
+			}
+			return;
+		}
+
+		EventList<T> source = listChanges.getSourceList();
+		while (listChanges.next()) {
+			int index = listChanges.getIndex();
+			switch (listChanges.getType()) {
+				case ListEvent.INSERT:
+					this.members.add(index, createMember(source.get(index), getInsertPosition(index)));
+					break;
+				case ListEvent.DELETE:
+					removeMember(this.members.remove(index));
+					break;
+				case ListEvent.UPDATE:
+					T element = source.get(index);
+					Member<T> member = this.members.get(index);
+					if (member.element == element) {
+						//the values of the element might have changed
+						for (Group<T> group : member.groups) {
+							group.elementChanged();
+						}
+					}
+					//the updated element keeps the position, so it needs to be removed
+					//from its groups before it is added again
+					for (Group<T> group : member.groups) {
+						group.remove(member);
+					}
+					this.members.set(index, createMember(element, member.position));
+					removeEmptyGroups(member);
+					break;
+			}
+		}
+	}
+
+	/**
+	 * @param groupByObject The group.
+	 * @return The elements of the group, an empty list if there is no such group.
+	 * 			The list doesn't change if the group changes.
+	 */
+	synchronized List<T> getElements(GroupByObject groupByObject) {
+		Group<T> group = this.groups.get(groupByObject);
+		return (group != null) ? group.getElements() : Collections.<T>emptyList();
+	}
+
+	/**
+	 * @param element An element of the source list.
+	 * @return The groups the element belongs to according to its current values.
+	 */
+	List<GroupByObject> getGroups(T element) {
+		List<Object> path = new ArrayList<Object>();
+		this.treeFormat.getPath(path, element);
+
+		//the last path element is the element itself
+		List<GroupByObject> result = new ArrayList<GroupByObject>(path.size() - 1);
+		for (int i = 0; i < path.size() - 1; i++) {
+			result.add((GroupByObject) path.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Discards the summaries of the given groups, so they are calculated again on the next
+	 * request. Needed if the values of their elements were changed without a change event
+	 * of the source list, as the summaries can't be updated incrementally in that case.
+	 * @param groupByObjects The groups whose summaries are discarded.
+	 */
+	synchronized void invalidateSummaries(Collection<GroupByObject> groupByObjects) {
+		for (GroupByObject groupByObject : groupByObjects) {
+			Group<T> group = this.groups.get(groupByObject);
+			if (group != null) {
+				group.elementChanged();
+			}
+		}
+	}
+
+	/**
+	 * Discards the summaries of all groups, so they are calculated again on the next request.
+	 */
+	synchronized void invalidateSummaries() {
+		for (Group<T> group : this.groups.values()) {
+			group.elementChanged();
+		}
+	}
+
+	/**
+	 * Returns the summary of the given group. If the summary was calculated before, the
+	 * summary that was updated with the changes since then is returned, otherwise the
+	 * elements of the group are summarized.
+	 * @param groupByObject The group to summarize.
+	 * @param columnIndex The column to summarize.
+	 * @param provider The summary provider.
+	 * @return The summary of the group.
+	 */
+	Object getSummary(GroupByObject groupByObject, int columnIndex, IIncrementalGroupBySummaryProvider<T> provider) {
+		Group<T> group;
+		List<T> elements;
+		int version;
+		synchronized (this) {
+			group = this.groups.get(groupByObject);
+			if (group == null) {
+				return provider.summarize(columnIndex, Collections.<T>emptyList());
+			}
+			Summary<T> summary = group.summaries.get(columnIndex);
+			if (summary != null && summary.provider == provider) {
+				return summary.value;
+			}
+			elements = group.getElements();
+			version = group.version;
+		}
+
+		//summarize without blocking the changes of the source list
+		Object value = provider.summarize(columnIndex, elements);
+
+		synchronized (this) {
+			//only keep the summary if the group didn't change meanwhile
+			if (group.version == version && this.groups.get(groupByObject) == group && value != null) {
+				group.summaries.put(columnIndex, new Summary<T>(provider, value));
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the position for an element that is inserted at the given index, between
+	 * the elements that are currently at index - 1 and index. If there is no gap between
+	 * the positions of these elements, all elements are numbered again.
+	 */
+	private long getInsertPosition(int index) {
+		long previous = (index > 0) ? this.members.get(index - 1).position : 0;
+		long next = (index < this.members.size()) ? this.members.get(index).position : previous + 2 * POSITION_GAP;
+		if (next - previous < 2) {
+			renumber();
+			previous = (index > 0) ? this.members.get(index - 1).position : 0;
+			next = previous + POSITION_GAP;
+		}
+		return previous + (next - previous) / 2;
+	}
+
+	/**
+	 * Assigns the positions with the initial gap again, according to the current order
+	 * of the elements. The order of the elements within the groups is not affected, as
+	 * long as the order of the elements didn't change.
+	 */
+	private void renumber() {
+		long position = 0;
+		for (Member<T> member : this.members) {
+			position += POSITION_GAP;
+			member.position = position;
+		}
+	}
+
+	private Member<T> createMember(T element, long position) {
+		List<Object> path = new ArrayList<Object>();
+		this.treeFormat.getPath(path, element);
+
+		//the last path element is the element itself
+		Group<T>[] memberGroups = newGroupArray(path.size() - 1);
+		for (int i = 0; i < memberGroups.length; i++) {
+			GroupByObject groupByObject = (GroupByObject) path.get(i);
+			Group<T> group = this.groups.get(groupByObject);
+			if (group == null) {
+				group = new Group<T>(groupByObject);
+				this.groups.put(groupByObject, group);
+			}
+			memberGroups[i] = group;
+		}
+
+		Member<T> member = new Member<T>(element, memberGroups, position);
+		for (Group<T> group : memberGroups) {
+			group.add(member);
+		}
+		return member;
+	}
+
+	private void removeMember(Member<T> member) {
+		for (Group<T> group : member.groups) {
+			group.remove(member);
+		}
+		removeEmptyGroups(member);
+	}
+
+	private void removeEmptyGroups(Member<T> member) {
+		for (Group<T> group : member.groups) {
+			if (group.members.isEmpty() && this.groups.get(group.groupByObject) == group) {
+				this.groups.remove(group.groupByObject);
+			}
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static <T> Group<T>[] newGroupArray(int length) {
+		return new Group[length];
+	}
+
+	/**
+	 * An element of the source list together with the groups it belongs to.
+	 */
+	private static class Member<T> {
+
+		final T element;
+		final Group<T>[] groups;
+		/** Ascending in the order of the source list */
+		long position;
+
+		Member(T element, Group<T>[] groups, long position) {
+			this.element = element;
+			this.groups = groups;
+			this.position = position;
+		}
+	}
+
+	/**
+	 * Orders the elements of a group by their position in the source list.
+	 */
+	private static final Comparator<Member<?>> POSITION_COMPARATOR = new Comparator<Member<?>>() {
+		@Override
+		public int compare(Member<?> member1, Member<?> member2) {
+			return (member1.position < member2.position) ? -1 : ((member1.position == member2.position) ? 0 : 1);
+		}
+	};
+
+	/**
+	 * The elements of a group and its summaries.
+	 */
+	private static class Group<T> {
+
+		final GroupByObject groupByObject;
+		final TreeSet<Member<T>> members = new TreeSet<Member<T>>(POSITION_COMPARATOR);
+		/** The summaries by column index */
+		final Map<Integer, Summary<T>> summaries = new HashMap<Integer, Summary<T>>();
+		/** Incremented on every change */
+		int version;
+		/** The elements of the group, created on request */
+		List<T> elements;
+
+		Group(GroupByObject groupByObject) {
+			this.groupByObject = groupByObject;
+		}
+
+		void add(Member<T> member) {
+			this.members.add(member);
+			changed();
+			for (Iterator<Map.Entry<Integer, Summary<T>>> it = this.summaries.entrySet().iterator(); it.hasNext();) {
+				Map.Entry<Integer, Summary<T>> entry = it.next();
+				Summary<T> summary = entry.getValue();
+				summary.value = summary.provider.add(entry.getKey(), summary.value, member.element);
+				if (summary.value == null) {
+					it.remove();
+				}
+			}
+		}
+
+		void remove(Member<T> member) {
+			this.members.remove(member);
+			changed();
+			if (this.members.isEmpty()) {
+				this.summaries.clear();
+				return;
+			}
+			for (Iterator<Map.Entry<Integer, Summary<T>>> it = this.summaries.entrySet().iterator(); it.hasNext();) {
+				Map.Entry<Integer, Summary<T>> entry = it.next();
+				Summary<T> summary = entry.getValue();
+				summary.value = summary.provider.remove(entry.getKey(), summary.value, member.element);
+				if (summary.value == null) {
+					it.remove();
+				}
+			}
+		}
+
+		/**
+		 * Sorts the elements again after the positions were changed because of a reordering
+		 * of the source list. The summaries don't depend on the order and are kept.
+		 */
+		void reorder() {
+			List<Member<T>> previous = new ArrayList<Member<T>>(this.members);
+			this.members.clear();
+			this.members.addAll(previous);
+			this.elements = null;
+		}
+
+		void elementChanged() {
+			changed();
+			this.summaries.clear();
+		}
+
+		private void changed() {
+			this.version++;
+			this.elements = null;
+		}
+
+		List<T> getElements() {
+			if (this.elements == null) {
+				List<T> result = new ArrayList<T>(this.members.size());
+				for (Member<T> member : this.members) {
+					result.add(member.element);
+				}
+				this.elements = Collections.unmodifiableList(result);
+			}
+			return this.elements;
+		}
+	}
+
+	/**
+	 * The summary of a group for a column.
+	 */
+	private static class Summary<T> {
+
+		final IIncrementalGroupBySummaryProvider<T> provider;
+		Object value;
+
+		Summary(IIncrementalGroupBySummaryProvider<T> provider, Object value) {
+			this.provider = provider;
+			this.value = value;
+		}
+	}
+
+}
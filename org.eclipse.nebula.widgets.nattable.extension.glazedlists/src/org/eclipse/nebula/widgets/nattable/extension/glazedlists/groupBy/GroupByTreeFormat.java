@@ -12,6 +12,7 @@
 
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map.Entry;
@@ -49,6 +50,16 @@
 	 * To provide sorting functionality
 	 */
 	private ISortModel sortModel;
+	/**
+	 * The column indexes that are grouped by if this format is a snapshot,
+	 * <code>null</code> if the GroupByModel is used.
+	 */
+	private final List<Integer> groupByColumnIndexes;
+	/**
+	 * The format this format is a snapshot of, that provides the sort model.
+	 * <code>null</code> if this format is not a snapshot.
+	 */
+	private final GroupByTreeFormat<T> source;
 
 	/**
 	 * 
@@ -60,12 +71,48 @@
 	public GroupByTreeFormat(GroupByModel model, IColumnAccessor<T> columnAccessor) {
 		this.model = model;
 		this.columnAccessor = columnAccessor;
+		this.groupByColumnIndexes = null;
+		this.source = null;
+	}
+
+	private GroupByTreeFormat(GroupByTreeFormat<T> source) {
+		this.model = source.model;
+		this.columnAccessor = source.columnAccessor;
+		this.groupByColumnIndexes = Collections.unmodifiableList(
+				new ArrayList<Integer>(source.getGroupByColumnIndexes()));
+		this.source = source;
+	}
+
+	/**
+	 * Creates a format for the current grouping, that is not affected by later changes of
+	 * the GroupByModel. A TreeList needs to be built with a snapshot if it is built in
+	 * another thread than the one that modifies the GroupByModel, and it keeps a consistent
+	 * structure until it is replaced because of a grouping change. The sort model of this
+	 * format is used by the snapshot.
+	 * @return A snapshot of this format.
+	 */
+	GroupByTreeFormat<T> snapshot() {
+		return new GroupByTreeFormat<T>((this.source != null) ? this.source : this);
+	}
+
+	/**
+	 * @return The column indexes that are grouped by.
+	 */
+	private List<Integer> getGroupByColumnIndexes() {
+		return (this.groupByColumnIndexes != null) ? this.groupByColumnIndexes : this.model.getGroupByColumnIndexes();
+	}
+
+	/**
+	 * @return The sort model, which is the one of the source format for snapshots.
+	 */
+	private ISortModel getSortModel() {
+		return (this.source != null) ? this.source.sortModel : this.sortModel;
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public void getPath(List<Object> path, Object element) {
-		List<Integer> groupByColumns = model.getGroupByColumnIndexes();
+		List<Integer> groupByColumns = getGroupByColumnIndexes();
 		if (!groupByColumns.isEmpty()) {
 			List<Entry<Integer, Object>> descriptor = new ArrayList<Entry<Integer, Object>>();		
 			for (int columnIndex : groupByColumns) {
@@ -87,7 +134,7 @@ public boolean allowsChildren(Object element) {
 	@Override
 	public Comparator<Object> getComparator(int depth) {
 		//if there is no grouping we do not provide a comparator for the tree
-		if (this.model.getGroupByColumnIndexes().isEmpty()) {
+		if (getGroupByColumnIndexes().isEmpty()) {
 			return null;
 		}
 
@@ -109,7 +156,8 @@ class GroupByComparator implements Comparator<Object> {
 		@SuppressWarnings("unchecked")
 		@Override
 		public int compare(Object o1, Object o2) {
-			for (int columnIndex : model.getGroupByColumnIndexes()) {
+			ISortModel sortModel = getSortModel();
+			for (int columnIndex : getGroupByColumnIndexes()) {
 				if (o1 == null) {
 					if (o2 == null) {
 						return 0;
@@ -0,0 +1,17 @@
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.summary;
+
+/**
+ * Group by summary provider whose summaries of consecutive parts of the children can be
+ * combined to the summary of all children. This allows the GroupByDataLayer to summarize
+ * large groups in parallel chunks.
+ */
+public interface ICombinableGroupBySummaryProvider<T> extends IGroupBySummaryProvider<T> {
+
+	/**
+	 * @param columnIndex The column index of the column the summaries belong to.
+	 * @param summary The summary of a part of the children.
+	 * @param followingSummary The summary of the children following that part.
+	 * @return The summary of both parts.
+	 */
+	public Object combine(int columnIndex, Object summary, Object followingSummary);
+}
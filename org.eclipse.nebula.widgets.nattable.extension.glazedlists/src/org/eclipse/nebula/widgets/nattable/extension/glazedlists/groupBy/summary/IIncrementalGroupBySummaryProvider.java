@@ -0,0 +1,31 @@
+package org.eclipse.nebula.widgets.nattable.extension.glazedlists.groupBy.summary;
+
+/**
+ * Group by summary provider whose summary can be updated when elements are added to or
+ * removed from a group, instead of summarizing all children of the group again.
+ * The GroupByDataLayer keeps the summaries per group and applies the changes of the
+ * underlying list.
+ * <p>
+ * If the values of an element change without the element being replaced, the summary is
+ * calculated again via {@link #summarize(int, java.util.List)}.
+ */
+public interface IIncrementalGroupBySummaryProvider<T> extends IGroupBySummaryProvider<T> {
+
+	/**
+	 * @param columnIndex The column index of the summarized column.
+	 * @param summary The current summary of the group.
+	 * @param element The element that was added to the group.
+	 * @return The summary including the added element, or <code>null</code> if the summary
+	 * 			needs to be calculated again.
+	 */
+	public Object add(int columnIndex, Object summary, T element);
+
+	/**
+	 * @param columnIndex The column index of the summarized column.
+	 * @param summary The current summary of the group.
+	 * @param element The element that was removed from the group.
+	 * @return The summary without the removed element, or <code>null</code> if the summary
+	 * 			needs to be calculated again.
+	 */
+	public Object remove(int columnIndex, Object summary, T element);
+}
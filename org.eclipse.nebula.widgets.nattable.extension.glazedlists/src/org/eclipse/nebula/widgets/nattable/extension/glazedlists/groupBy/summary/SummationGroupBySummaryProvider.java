@@ -4,7 +4,8 @@
 
 import org.eclipse.nebula.widgets.nattable.data.IColumnAccessor;
 
-public class SummationGroupBySummaryProvider<T> implements IGroupBySummaryProvider<T> {
+public class SummationGroupBySummaryProvider<T> implements ICombinableGroupBySummaryProvider<T>,
+		IIncrementalGroupBySummaryProvider<T> {
 
 	private final IColumnAccessor<T> columnAccessor;
 
@@ -25,4 +26,27 @@ public Object summarize(int columnIndex, List<T> children) {
 		return summaryValue;
 	}
 
+	@Override
+	public Object combine(int columnIndex, Object summary, Object followingSummary) {
+		return ((Number) summary).doubleValue() + ((Number) followingSummary).doubleValue();
+	}
+
+	@Override
+	public Object add(int columnIndex, Object summary, T element) {
+		Object dataValue = columnAccessor.getDataValue(element, columnIndex);
+		if (dataValue instanceof Number) {
+			return ((Number) summary).doubleValue() + ((Number) dataValue).doubleValue();
+		}
+		return summary;
+	}
+
+	@Override
+	public Object remove(int columnIndex, Object summary, T element) {
+		Object dataValue = columnAccessor.getDataValue(element, columnIndex);
+		if (dataValue instanceof Number) {
+			return ((Number) summary).doubleValue() - ((Number) dataValue).doubleValue();
+		}
+		return summary;
+	}
+
 }
\ No newline at end of file
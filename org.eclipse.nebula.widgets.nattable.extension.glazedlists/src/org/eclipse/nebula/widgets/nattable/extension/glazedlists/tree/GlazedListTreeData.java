@@ -27,12 +27,20 @@
  */
 public class GlazedListTreeData<T> implements ITreeData<T> {
 
-	private final TreeList<T> treeList;
+	private volatile TreeList<T> treeList;
 
 	public GlazedListTreeData(TreeList<T> treeList) {
 		this.treeList = treeList;
 	}
 
+	/**
+	 * Replaces the TreeList this tree data operates on, e.g. if the tree structure was rebuilt.
+	 * @param treeList The new TreeList.
+	 */
+	public void setTreeList(TreeList<T> treeList) {
+		this.treeList = treeList;
+	}
+
 	@Override
 	public String formatDataForDepth(int depth, int index) {
 		return formatDataForDepth(depth, getDataAtIndex(index));
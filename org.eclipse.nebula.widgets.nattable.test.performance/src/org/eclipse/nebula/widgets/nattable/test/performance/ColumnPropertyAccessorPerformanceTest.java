@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import java.util.List;
+
+import org.eclipse.nebula.widgets.nattable.data.CachedReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.ExtendedReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.IColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.data.ReflectiveColumnPropertyAccessor;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.RowDataFixture;
+import org.eclipse.nebula.widgets.nattable.test.fixture.data.RowDataListFixture;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares the time that is needed to read all cell values of a list of beans via
+ * {@link CachedReflectiveColumnPropertyAccessor} with the reflective accessors that
+ * resolve the methods on every access.
+ */
+public class ColumnPropertyAccessorPerformanceTest {
+
+	private static final int ROW_COUNT = 10000;
+	private static final int ITERATIONS = 10;
+
+	/**
+	 * Nested property paths that are accessed in addition to the flat properties.
+	 */
+	private static final String[] NESTED_PROPERTY_NAMES = new String[] {
+		"issue_date.time", "field33.time", "pricing_type.class" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	};
+
+	private List<RowDataFixture> rows;
+
+	@Before
+	public void setup() {
+		rows = RowDataListFixture.getList(ROW_COUNT);
+	}
+
+	@Test
+	public void cachedAccessorIsFasterThanReflectiveAccessor() {
+		String[] propertyNames = RowDataListFixture.getPropertyNames();
+		compare("flat properties", //$NON-NLS-1$
+				new ReflectiveColumnPropertyAccessor<RowDataFixture>(propertyNames),
+				new CachedReflectiveColumnPropertyAccessor<RowDataFixture>(propertyNames));
+	}
+
+	@Test
+	public void cachedAccessorIsFasterThanExtendedReflectiveAccessor() {
+		compare("nested properties", //$NON-NLS-1$
+				new ExtendedReflectiveColumnPropertyAccessor<RowDataFixture>(NESTED_PROPERTY_NAMES),
+				new CachedReflectiveColumnPropertyAccessor<RowDataFixture>(NESTED_PROPERTY_NAMES));
+	}
+
+	private void compare(String description, IColumnPropertyAccessor<RowDataFixture> reflective, IColumnPropertyAccessor<RowDataFixture> cached) {
+		//warm up the JIT and check that both accessors return the same values
+		Assert.assertEquals(readAll(reflective), readAll(cached));
+
+		long reflectiveTime = measure(reflective);
+		long cachedTime = measure(cached);
+
+		System.out.println("Reading " + description + " of " + ROW_COUNT + " rows took " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ reflectiveTime / ITERATIONS / 1000 + " us reflective and " //$NON-NLS-1$
+				+ cachedTime / ITERATIONS / 1000 + " us cached"); //$NON-NLS-1$
+		Assert.assertTrue(cachedTime < reflectiveTime);
+	}
+
+	private long measure(IColumnPropertyAccessor<RowDataFixture> accessor) {
+		long start = System.nanoTime();
+		int checksum = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			checksum += readAll(accessor);
+		}
+		long time = System.nanoTime() - start;
+		Assert.assertTrue(checksum != 0);
+		return time;
+	}
+
+	private int readAll(IColumnPropertyAccessor<RowDataFixture> accessor) {
+		int checksum = 0;
+		int columnCount = accessor.getColumnCount();
+		for (RowDataFixture row : rows) {
+			for (int column = 0; column < columnCount; column++) {
+				Object value = accessor.getDataValue(row, column);
+				checksum += (value != null) ? value.hashCode() : 1;
+			}
+		}
+		return checksum;
+	}
+
+}
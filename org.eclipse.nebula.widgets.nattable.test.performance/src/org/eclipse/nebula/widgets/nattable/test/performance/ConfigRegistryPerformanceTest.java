@@ -0,0 +1,323 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.nebula.widgets.nattable.config.CellConfigAttributes;
+import org.eclipse.nebula.widgets.nattable.config.ConfigRegistry;
+import org.eclipse.nebula.widgets.nattable.layer.LabelStack;
+import org.eclipse.nebula.widgets.nattable.style.CellStyleAttributes;
+import org.eclipse.nebula.widgets.nattable.style.CellStyleProxy;
+import org.eclipse.nebula.widgets.nattable.style.ConfigAttribute;
+import org.eclipse.nebula.widgets.nattable.style.DisplayMode;
+import org.eclipse.nebula.widgets.nattable.style.HorizontalAlignmentEnum;
+import org.eclipse.nebula.widgets.nattable.style.IDisplayModeOrdering;
+import org.eclipse.nebula.widgets.nattable.style.IStyle;
+import org.eclipse.nebula.widgets.nattable.style.Style;
+import org.eclipse.nebula.widgets.nattable.style.TextDecorationEnum;
+import org.eclipse.nebula.widgets.nattable.style.VerticalAlignmentEnum;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Measures the time that is needed to resolve the configuration of a painted cell,
+ * which consists of several config attribute lookups and style attribute lookups
+ * via {@link CellStyleProxy} for the config labels of the cell. The cached resolution
+ * of the {@link ConfigRegistry} is compared with the original resolution, which walks
+ * the display modes and config labels for every config attribute and style attribute.
+ */
+public class ConfigRegistryPerformanceTest {
+
+	private static final int COLUMN_COUNT = 200;
+	private static final int ROW_COUNT = 50;
+	private static final int ITERATIONS = 20;
+
+	/**
+	 * The minimum factor the cached resolution is expected to be faster. The lookups
+	 * themselves get much faster, but the measured time also contains the interning
+	 * of the labels and the attribute lookups in the resolved styles, and the assertion
+	 * is kept low to avoid failures on machines with unstable timings.
+	 */
+	private static final double MIN_SPEEDUP = 1.5;
+
+	private static final ConfigAttribute<String> CONVERTER = new ConfigAttribute<String>();
+	private static final ConfigAttribute<String> PAINTER = new ConfigAttribute<String>();
+	private static final ConfigAttribute<String> EDITABLE = new ConfigAttribute<String>();
+
+	/**
+	 * The display modes of the painted cells, mostly normal.
+	 */
+	private static final String[] DISPLAY_MODES = new String[] {
+		DisplayMode.NORMAL, DisplayMode.NORMAL, DisplayMode.NORMAL, DisplayMode.NORMAL, DisplayMode.SELECT,
+		DisplayMode.NORMAL, DisplayMode.NORMAL, DisplayMode.HOVER, DisplayMode.NORMAL, DisplayMode.SELECT_HOVER
+	};
+
+	private String[] columnLabels;
+	private String[] categoryLabels;
+
+	@Before
+	public void setup() {
+		columnLabels = new String[COLUMN_COUNT];
+		categoryLabels = new String[COLUMN_COUNT];
+		for (int column = 0; column < COLUMN_COUNT; column++) {
+			columnLabels[column] = "COLUMN_" + column; //$NON-NLS-1$
+			categoryLabels[column] = "CATEGORY_" + (column % 7); //$NON-NLS-1$
+		}
+	}
+
+	@Test
+	public void cachedConfigResolutionIsFaster() {
+		ConfigRegistry cached = new ConfigRegistry();
+		UncachedConfigRegistry uncached = new UncachedConfigRegistry();
+		configure(cached);
+		configure(uncached);
+
+		//warm up the JIT
+		Assert.assertEquals(resolve(uncached), resolve(cached));
+		Assert.assertEquals(resolveUncachedStyles(uncached), resolveCachedStyles(cached));
+
+		long uncachedTime = measure(uncached);
+		long cachedTime = measure(cached);
+
+		double speedup = (double) uncachedTime / Math.max(cachedTime, 1);
+		System.out.println("Resolving the configuration of " + COLUMN_COUNT * ROW_COUNT + " cells took " //$NON-NLS-1$ //$NON-NLS-2$
+				+ uncachedTime / ITERATIONS / 1000 + " us without cache and " //$NON-NLS-1$
+				+ cachedTime / ITERATIONS / 1000 + " us with cache (" + speedup + "x)"); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertTrue("Expected a speedup of at least " + MIN_SPEEDUP + " but was " + speedup, speedup >= MIN_SPEEDUP); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private long measure(ConfigRegistry configRegistry) {
+		long start = System.nanoTime();
+		int checksum = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			checksum += resolve(configRegistry);
+			if (configRegistry instanceof UncachedConfigRegistry) {
+				checksum += resolveUncachedStyles((UncachedConfigRegistry) configRegistry);
+			} else {
+				checksum += resolveCachedStyles(configRegistry);
+			}
+		}
+		long time = System.nanoTime() - start;
+		Assert.assertTrue(checksum != 0);
+		return time;
+	}
+
+	/**
+	 * Performs the config attribute lookups that are typically performed for painting a cell.
+	 */
+	private int resolve(ConfigRegistry configRegistry) {
+		int checksum = 0;
+		for (int i = 0; i < COLUMN_COUNT * ROW_COUNT; i++) {
+			List<String> labels = createLabels(i);
+			String displayMode = DISPLAY_MODES[i % DISPLAY_MODES.length];
+
+			checksum += configRegistry.getConfigAttribute(PAINTER, displayMode, labels).length();
+			checksum += configRegistry.getConfigAttribute(CONVERTER, displayMode, labels).length();
+			checksum += configRegistry.getConfigAttribute(EDITABLE, displayMode, labels).length();
+		}
+		return checksum;
+	}
+
+	/**
+	 * Performs the style attribute lookups that are typically performed for painting a cell
+	 * via {@link CellStyleProxy}.
+	 */
+	private int resolveCachedStyles(ConfigRegistry configRegistry) {
+		int checksum = 0;
+		for (int i = 0; i < COLUMN_COUNT * ROW_COUNT; i++) {
+			List<String> labels = createLabels(i);
+			String displayMode = DISPLAY_MODES[i % DISPLAY_MODES.length];
+
+			IStyle cellStyle = new CellStyleProxy(configRegistry, displayMode, labels);
+			checksum += cellStyle.getAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT).ordinal();
+			checksum += cellStyle.getAttributeValue(CellStyleAttributes.VERTICAL_ALIGNMENT).ordinal();
+			checksum += cellStyle.getAttributeValue(CellStyleAttributes.TEXT_DECORATION).ordinal();
+			checksum += cellStyle.getAttributeValue(CellStyleAttributes.BACKGROUND_COLOR) == null ? 1 : 0;
+			checksum += cellStyle.getAttributeValue(CellStyleAttributes.FONT) == null ? 1 : 0;
+		}
+		return checksum;
+	}
+
+	/**
+	 * Performs the same style attribute lookups as {@link #resolveCachedStyles(ConfigRegistry)}
+	 * the way the {@link CellStyleProxy} did before the values were cached.
+	 */
+	private int resolveUncachedStyles(UncachedConfigRegistry configRegistry) {
+		int checksum = 0;
+		for (int i = 0; i < COLUMN_COUNT * ROW_COUNT; i++) {
+			List<String> labels = createLabels(i);
+			String displayMode = DISPLAY_MODES[i % DISPLAY_MODES.length];
+
+			checksum += configRegistry.getStyleAttribute(CellStyleAttributes.HORIZONTAL_ALIGNMENT, displayMode, labels).ordinal();
+			checksum += configRegistry.getStyleAttribute(CellStyleAttributes.VERTICAL_ALIGNMENT, displayMode, labels).ordinal();
+			checksum += configRegistry.getStyleAttribute(CellStyleAttributes.TEXT_DECORATION, displayMode, labels).ordinal();
+			checksum += configRegistry.getStyleAttribute(CellStyleAttributes.BACKGROUND_COLOR, displayMode, labels) == null ? 1 : 0;
+			checksum += configRegistry.getStyleAttribute(CellStyleAttributes.FONT, displayMode, labels) == null ? 1 : 0;
+		}
+		return checksum;
+	}
+
+	/**
+	 * The labels of a cell are collected by the config label accumulators of several layers
+	 * and are recreated for every paint operation.
+	 */
+	private List<String> createLabels(int i) {
+		int column = i / ROW_COUNT;
+		int row = i % ROW_COUNT;
+
+		LabelStack labelStack = new LabelStack(columnLabels[column]);
+		labelStack.addLabel(categoryLabels[column]);
+		if (row % 5 == 0) {
+			labelStack.addLabel("FLAGGED"); //$NON-NLS-1$
+		}
+		labelStack.addLabel(row % 2 == 0 ? "EVEN_BODY" : "ODD_BODY"); //$NON-NLS-1$ //$NON-NLS-2$
+		labelStack.addLabel("BODY"); //$NON-NLS-1$
+		labelStack.addLabel("GRID"); //$NON-NLS-1$
+		return labelStack.getLabels();
+	}
+
+	private void configure(ConfigRegistry configRegistry) {
+		configRegistry.registerConfigAttribute(PAINTER, "defaultPainter"); //$NON-NLS-1$
+		configRegistry.registerConfigAttribute(CONVERTER, "defaultConverter"); //$NON-NLS-1$
+		configRegistry.registerConfigAttribute(EDITABLE, "false"); //$NON-NLS-1$
+
+		Style defaultStyle = new Style();
+		defaultStyle.setAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT, HorizontalAlignmentEnum.CENTER);
+		defaultStyle.setAttributeValue(CellStyleAttributes.VERTICAL_ALIGNMENT, VerticalAlignmentEnum.MIDDLE);
+		defaultStyle.setAttributeValue(CellStyleAttributes.TEXT_DECORATION, TextDecorationEnum.NONE);
+		configRegistry.registerConfigAttribute(CellConfigAttributes.CELL_STYLE, defaultStyle);
+
+		Style selectionStyle = new Style();
+		selectionStyle.setAttributeValue(CellStyleAttributes.TEXT_DECORATION, TextDecorationEnum.UNDERLINE);
+		configRegistry.registerConfigAttribute(CellConfigAttributes.CELL_STYLE, selectionStyle, DisplayMode.SELECT);
+
+		Style oddStyle = new Style();
+		oddStyle.setAttributeValue(CellStyleAttributes.VERTICAL_ALIGNMENT, VerticalAlignmentEnum.TOP);
+		configRegistry.registerConfigAttribute(CellConfigAttributes.CELL_STYLE, oddStyle, DisplayMode.NORMAL, "ODD_BODY"); //$NON-NLS-1$
+
+		for (int column = 0; column < COLUMN_COUNT; column += 10) {
+			String label = "COLUMN_" + column; //$NON-NLS-1$
+			configRegistry.registerConfigAttribute(CONVERTER, "converter" + column, DisplayMode.NORMAL, label); //$NON-NLS-1$
+			configRegistry.registerConfigAttribute(EDITABLE, "true", DisplayMode.EDIT, label); //$NON-NLS-1$
+
+			Style columnStyle = new Style();
+			columnStyle.setAttributeValue(CellStyleAttributes.HORIZONTAL_ALIGNMENT, HorizontalAlignmentEnum.RIGHT);
+			configRegistry.registerConfigAttribute(CellConfigAttributes.CELL_STYLE, columnStyle, DisplayMode.NORMAL, label);
+		}
+	}
+
+	/**
+	 * ConfigRegistry that resolves every lookup the way the {@link ConfigRegistry} did
+	 * before the resolution was cached. It keeps its own copy of the registered values,
+	 * so the lookups don't touch the cache or the resolution of the values lists.
+	 */
+	private static class UncachedConfigRegistry extends ConfigRegistry {
+
+		private final Map<ConfigAttribute<?>, Map<String, Map<String, ?>>> registry = new HashMap<ConfigAttribute<?>, Map<String, Map<String, ?>>>();
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> void registerConfigAttribute(ConfigAttribute<T> configAttribute, T attributeValue, String displayMode, String configLabel) {
+			super.registerConfigAttribute(configAttribute, attributeValue, displayMode, configLabel);
+
+			Map<String, Map<String, ?>> displayModeConfigAttributeMap = registry.get(configAttribute);
+			if (displayModeConfigAttributeMap == null) {
+				displayModeConfigAttributeMap = new HashMap<String, Map<String, ?>>();
+				registry.put(configAttribute, displayModeConfigAttributeMap);
+			}
+			Map<String, T> configAttributeMap = (Map<String, T>) displayModeConfigAttributeMap.get(displayMode);
+			if (configAttributeMap == null) {
+				configAttributeMap = new HashMap<String, T>();
+				displayModeConfigAttributeMap.put(displayMode, configAttributeMap);
+			}
+			configAttributeMap.put(configLabel, attributeValue);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T getConfigAttribute(ConfigAttribute<T> configAttribute, String targetDisplayMode, List<String> configLabels) {
+			T attributeValue = null;
+
+			Map<String, Map<String, ?>> displayModeConfigAttributeMap = registry.get(configAttribute);
+			if (displayModeConfigAttributeMap != null) {
+				for (String displayMode : getDisplayModeOrdering().getDisplayModeOrdering(targetDisplayMode)) {
+					Map<String, T> configAttributeMap = (Map<String, T>) displayModeConfigAttributeMap.get(displayMode);
+					if (configAttributeMap != null) {
+						for (String configLabel : configLabels) {
+							attributeValue = configAttributeMap.get(configLabel);
+							if (attributeValue != null) {
+								return attributeValue;
+							}
+						}
+
+						// default config type
+						attributeValue = configAttributeMap.get(null);
+						if (attributeValue != null) {
+							return attributeValue;
+						}
+					}
+				}
+			}
+
+			return attributeValue;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T getSpecificConfigAttribute(ConfigAttribute<T> configAttribute, String displayMode, String configLabel) {
+			Map<String, Map<String, ?>> displayModeConfigAttributeMap = registry.get(configAttribute);
+			if (displayModeConfigAttributeMap != null) {
+				Map<String, T> configAttributeMap = (Map<String, T>) displayModeConfigAttributeMap.get(displayMode);
+				if (configAttributeMap != null) {
+					return configAttributeMap.get(configLabel);
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Resolves a style attribute by inspecting the registered cell styles for every
+		 * display mode and config label, as done by the {@link CellStyleProxy} before the
+		 * styles were resolved via {@link #getConfigAttributeValues(ConfigAttribute, String, List)}.
+		 */
+		<T> T getStyleAttribute(ConfigAttribute<T> styleAttribute, String targetDisplayMode, List<String> configLabels) {
+			IDisplayModeOrdering displayModeOrdering = getDisplayModeOrdering();
+
+			for (String displayMode : displayModeOrdering.getDisplayModeOrdering(targetDisplayMode)) {
+				for (String configLabel : configLabels) {
+					IStyle cellStyle = getSpecificConfigAttribute(CellConfigAttributes.CELL_STYLE, displayMode, configLabel);
+					if (cellStyle != null) {
+						T styleAttributeValue = cellStyle.getAttributeValue(styleAttribute);
+						if (styleAttributeValue != null) {
+							return styleAttributeValue;
+						}
+					}
+				}
+
+				// default
+				IStyle cellStyle = getSpecificConfigAttribute(CellConfigAttributes.CELL_STYLE, displayMode, null);
+				if (cellStyle != null) {
+					T styleAttributeValue = cellStyle.getAttributeValue(styleAttribute);
+					if (styleAttributeValue != null) {
+						return styleAttributeValue;
+					}
+				}
+			}
+
+			return null;
+		}
+	}
+
+}
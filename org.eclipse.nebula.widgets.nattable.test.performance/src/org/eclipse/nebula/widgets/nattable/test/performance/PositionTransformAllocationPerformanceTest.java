@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2013 Original authors and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Original authors and others - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.nebula.widgets.nattable.test.performance;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import org.eclipse.nebula.widgets.nattable.grid.data.DummyBodyDataProvider;
+import org.eclipse.nebula.widgets.nattable.hideshow.ColumnHideShowLayer;
+import org.eclipse.nebula.widgets.nattable.hideshow.RowHideShowLayer;
+import org.eclipse.nebula.widgets.nattable.layer.DataLayer;
+import org.eclipse.nebula.widgets.nattable.reorder.ColumnReorderLayer;
+import org.eclipse.nebula.widgets.nattable.reorder.RowReorderLayer;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Measures the heap allocations of the coordinate transformations of the hide/show
+ * and reorder layers, which are executed for every cell on painting. As the layers
+ * use primitive arrays for their position/index mappings, looking up positions and
+ * indexes is expected to be free of allocations once the caches are built.
+ */
+public class PositionTransformAllocationPerformanceTest {
+
+	private static final int COLUMN_COUNT = 500;
+	private static final int ROW_COUNT = 1000000;
+	private static final int ITERATIONS = 20;
+
+	/**
+	 * The maximum number of bytes that may be allocated per transformation on average.
+	 * Boxing indexes above the Integer cache already exceeds this limit.
+	 */
+	private static final double MAX_BYTES_PER_TRANSFORMATION = 1.0;
+
+	private DataLayer dataLayer;
+	private ColumnReorderLayer columnReorderLayer;
+	private ColumnHideShowLayer columnHideShowLayer;
+	private RowReorderLayer rowReorderLayer;
+	private RowHideShowLayer rowHideShowLayer;
+
+	@Before
+	public void setup() {
+		dataLayer = new DataLayer(new DummyBodyDataProvider(COLUMN_COUNT, ROW_COUNT));
+		columnReorderLayer = new ColumnReorderLayer(dataLayer);
+		columnHideShowLayer = new ColumnHideShowLayer(columnReorderLayer);
+		rowReorderLayer = new RowReorderLayer(columnHideShowLayer);
+		rowHideShowLayer = new RowHideShowLayer(rowReorderLayer);
+
+		columnReorderLayer.reorderColumnPosition(COLUMN_COUNT - 1, 0);
+		rowReorderLayer.reorderRowPosition(ROW_COUNT - 1, 0);
+		columnHideShowLayer.hideColumnPositions(Arrays.asList(1, 200, 400));
+		rowHideShowLayer.hideRowPositions(Arrays.asList(1, 200000, 800000));
+	}
+
+	@Test
+	public void columnTransformationsDoNotAllocate() {
+		Method allocatedBytes = getAllocatedBytesMethod();
+		Assume.assumeNotNull(allocatedBytes);
+
+		//warm up the caches and the JIT
+		transformColumns();
+
+		long before = getAllocatedBytes(allocatedBytes);
+		long transformations = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			transformations += transformColumns();
+		}
+		long allocated = getAllocatedBytes(allocatedBytes) - before;
+
+		assertAllocations(allocated, transformations);
+	}
+
+	@Test
+	public void rowTransformationsDoNotAllocate() {
+		Method allocatedBytes = getAllocatedBytesMethod();
+		Assume.assumeNotNull(allocatedBytes);
+
+		//warm up the caches and the JIT
+		transformRows();
+
+		long before = getAllocatedBytes(allocatedBytes);
+		long transformations = transformRows();
+		long allocated = getAllocatedBytes(allocatedBytes) - before;
+
+		assertAllocations(allocated, transformations);
+	}
+
+	private long transformColumns() {
+		long transformations = 0;
+		int checksum = 0;
+		for (int position = 0; position < columnHideShowLayer.getColumnCount(); position++) {
+			int index = columnHideShowLayer.getColumnIndexByPosition(position);
+			checksum += columnHideShowLayer.getColumnPositionByIndex(index);
+			checksum += columnReorderLayer.getColumnPositionByIndex(index);
+			int underlyingPosition = columnHideShowLayer.localToUnderlyingColumnPosition(position);
+			checksum += columnHideShowLayer.underlyingToLocalColumnPosition(columnReorderLayer, underlyingPosition);
+			checksum += columnHideShowLayer.getStartXOfColumnPosition(position);
+			checksum += columnReorderLayer.getStartXOfColumnPosition(underlyingPosition);
+			transformations += 7;
+		}
+		Assert.assertTrue(checksum != 0);
+		return transformations;
+	}
+
+	private long transformRows() {
+		long transformations = 0;
+		int checksum = 0;
+		for (int position = 0; position < rowHideShowLayer.getRowCount(); position++) {
+			int index = rowHideShowLayer.getRowIndexByPosition(position);
+			checksum += rowHideShowLayer.getRowPositionByIndex(index);
+			checksum += rowReorderLayer.getRowPositionByIndex(index);
+			int underlyingPosition = rowHideShowLayer.localToUnderlyingRowPosition(position);
+			checksum += rowHideShowLayer.underlyingToLocalRowPosition(rowReorderLayer, underlyingPosition);
+			checksum += rowReorderLayer.getStartYOfRowPosition(underlyingPosition);
+			transformations += 6;
+		}
+		Assert.assertTrue(checksum != 0);
+		return transformations;
+	}
+
+	private void assertAllocations(long allocated, long transformations) {
+		double bytesPerTransformation = (double) allocated / transformations;
+		System.out.println(transformations + " transformations allocated " + allocated + " bytes (" + bytesPerTransformation + " bytes per transformation)"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		Assert.assertTrue("Expected less than " + MAX_BYTES_PER_TRANSFORMATION + " bytes per transformation but allocated " + bytesPerTransformation, //$NON-NLS-1$ //$NON-NLS-2$
+				bytesPerTransformation < MAX_BYTES_PER_TRANSFORMATION);
+	}
+
+	/**
+	 * The allocated bytes per thread are only available on HotSpot based JVMs via
+	 * com.sun.management.ThreadMXBean, which is accessed reflectively to not depend
+	 * on it at compile time.
+	 * @return The method to retrieve the allocated bytes of a thread or <code>null</code>
+	 * 			if the running JVM does not support it.
+	 */
+	private Method getAllocatedBytesMethod() {
+		try {
+			ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+			Class<?> hotSpotBean = Class.forName("com.sun.management.ThreadMXBean"); //$NON-NLS-1$
+			Method method = hotSpotBean.getMethod("getThreadAllocatedBytes", long.class); //$NON-NLS-1$
+			method.invoke(threadBean, Thread.currentThread().getId());
+			return method;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	private long getAllocatedBytes(Method method) {
+		try {
+			return ((Long) method.invoke(ManagementFactory.getThreadMXBean(), Thread.currentThread().getId())).longValue();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}